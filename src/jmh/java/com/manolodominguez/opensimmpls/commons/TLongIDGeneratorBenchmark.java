@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.commons;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the cost of getting a new event ID from several threads
+ * at once, as topology elements do during a simulation, either directly from
+ * the ID generator shared by the whole topology or from a per element block
+ * generator on top of it.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class TLongIDGeneratorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TSharedState {
+
+        @Setup
+        public void setUp() {
+            this.sharedIDGenerator = new TLongIDGenerator();
+        }
+
+        private TLongIDGenerator sharedIDGenerator;
+    }
+
+    @State(Scope.Thread)
+    public static class TElementState {
+
+        @Setup
+        public void setUp(TSharedState sharedState) {
+            this.blockIDGenerator = new TLongIDBlockGenerator(sharedState.sharedIDGenerator);
+        }
+
+        private TLongIDBlockGenerator blockIDGenerator;
+    }
+
+    @Benchmark
+    public long sharedGetNextIdentifier(TSharedState sharedState) throws EIDGeneratorOverflow {
+        return sharedState.sharedIDGenerator.getNextIdentifier();
+    }
+
+    @Benchmark
+    public long blockGetNextIdentifier(TElementState elementState) throws EIDGeneratorOverflow {
+        return elementState.blockIDGenerator.getNextIdentifier();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.dmgp;
+
+import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
+import com.manolodominguez.opensimmpls.protocols.TMPLSLabel;
+import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the cost of storing GoS packets in the DMGP of an active
+ * node and of retrieving them back, as done when a retransmission is
+ * requested.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TDMGPBenchmark {
+
+    @Setup
+    public void setUp() {
+        this.dmgp = new TDMGP();
+        this.dmgp.setDMGPSizeInKB(DMGP_SIZE_IN_KB);
+        this.packets = new TMPLSPDU[NUMBER_OF_PACKETS];
+        for (int i = ZERO; i < NUMBER_OF_PACKETS; i++) {
+            this.packets[i] = createGoSPacket(i);
+            this.dmgp.addPacket(this.packets[i]);
+        }
+        this.nextPacket = ZERO;
+    }
+
+    @Benchmark
+    public void addPacket() {
+        this.dmgp.addPacket(this.packets[this.nextPacket()]);
+    }
+
+    @Benchmark
+    public TMPLSPDU getPacket() {
+        TMPLSPDU packet = this.packets[this.nextPacket()];
+        return this.dmgp.getPacket(ORIGIN_IPV4_ADDRESS.hashCode(), packet.getIPv4Header().getGoSGlobalUniqueIdentifier());
+    }
+
+    private int nextPacket() {
+        int packet = this.nextPacket;
+        this.nextPacket = (packet + ONE) % NUMBER_OF_PACKETS;
+        return packet;
+    }
+
+    private static TMPLSPDU createGoSPacket(int packetID) {
+        TMPLSPDU packet = new TMPLSPDU(packetID, ORIGIN_IPV4_ADDRESS, TARGET_IPV4_ADDRESS, PAYLOAD_SIZE_IN_OCTETS);
+        packet.setSubtype(TAbstractPDU.MPLS_GOS);
+        packet.getIPv4Header().getOptionsField().setRequestedGoSLevel(TAbstractPDU.EXP_LEVEL3_WITH_BACKUP_LSP);
+        packet.getIPv4Header().getOptionsField().setPacketLocalUniqueIdentifier(packetID);
+        TMPLSLabel bottomLabel = new TMPLSLabel();
+        bottomLabel.setBoS(true);
+        bottomLabel.setEXP(ZERO);
+        bottomLabel.setLabel(BOTTOM_LABEL);
+        bottomLabel.setTTL(packet.getIPv4Header().getTTL());
+        TMPLSLabel upperLabel = new TMPLSLabel();
+        upperLabel.setBoS(false);
+        upperLabel.setEXP(TAbstractPDU.EXP_LEVEL3_WITH_BACKUP_LSP);
+        upperLabel.setLabel(ONE);
+        upperLabel.setTTL(packet.getIPv4Header().getTTL());
+        packet.getLabelStack().pushTop(bottomLabel);
+        packet.getLabelStack().pushTop(upperLabel);
+        return packet;
+    }
+
+    private TDMGP dmgp;
+    private TMPLSPDU[] packets;
+    private int nextPacket;
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int BOTTOM_LABEL = 123;
+    private static final int DMGP_SIZE_IN_KB = 1024;
+    private static final int NUMBER_OF_PACKETS = 512;
+    private static final int PAYLOAD_SIZE_IN_OCTETS = 1024;
+    private static final String ORIGIN_IPV4_ADDRESS = "10.0.0.1";
+    private static final String TARGET_IPV4_ADDRESS = "10.0.0.2";
+}
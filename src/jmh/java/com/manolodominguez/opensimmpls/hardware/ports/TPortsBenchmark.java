@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.ports;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
+import com.manolodominguez.opensimmpls.protocols.TMPLSLabel;
+import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
+import com.manolodominguez.opensimmpls.scenario.TActiveLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TTopology;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the cost of putting a packet in the buffer of a port and
+ * reading it back, for both FIFO and active ports. A number of packets are kept
+ * in the buffer so that the measure takes into account the size of the buffer.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TPortsBenchmark {
+
+    @Param({"0", "500"})
+    public int numberOfBufferedPackets;
+
+    @Setup
+    public void setUp() {
+        TTopology topology = new TTopology(new TScenario());
+        TLSRNode lsr = new TLSRNode(ONE, LSR_IPV4_ADDRESS, new TLongIDGenerator(), topology);
+        TActiveLSRNode activeLSR = new TActiveLSRNode(TWO, ACTIVE_LSR_IPV4_ADDRESS, new TLongIDGenerator(), topology);
+        topology.addNode(lsr);
+        topology.addNode(activeLSR);
+        this.fifoPort = lsr.getPorts().getPort(ZERO);
+        this.fifoPort.setUnlimitedBuffer(true);
+        this.activePort = activeLSR.getPorts().getPort(ZERO);
+        this.activePort.setUnlimitedBuffer(true);
+        this.packets = new TMPLSPDU[PRIORITIES.length];
+        for (int i = ZERO; i < PRIORITIES.length; i++) {
+            this.packets[i] = createPacket(i, PRIORITIES[i]);
+        }
+        for (int i = ZERO; i < this.numberOfBufferedPackets; i++) {
+            this.fifoPort.reEnqueuePacket(this.packets[i % this.packets.length]);
+            this.activePort.reEnqueuePacket(this.packets[i % this.packets.length]);
+        }
+        this.nextPacket = ZERO;
+    }
+
+    @Benchmark
+    public TAbstractPDU fifoPortAddAndGetPacket() {
+        this.fifoPort.addPacket(this.nextPacket());
+        return this.fifoPort.getPacket();
+    }
+
+    @Benchmark
+    public TAbstractPDU activePortAddAndGetPacket() {
+        this.activePort.addPacket(this.nextPacket());
+        return this.activePort.getPacket();
+    }
+
+    private TMPLSPDU nextPacket() {
+        TMPLSPDU packet = this.packets[this.nextPacket];
+        this.nextPacket = (this.nextPacket + ONE) % this.packets.length;
+        return packet;
+    }
+
+    private static TMPLSPDU createPacket(int packetID, int exp) {
+        TMPLSPDU packet = new TMPLSPDU(packetID, ORIGIN_IPV4_ADDRESS, LSR_IPV4_ADDRESS, PAYLOAD_SIZE_IN_OCTETS);
+        TMPLSLabel label = new TMPLSLabel();
+        label.setBoS(true);
+        label.setEXP(exp);
+        label.setLabel(ONE);
+        label.setTTL(packet.getIPv4Header().getTTL());
+        packet.getLabelStack().pushTop(label);
+        return packet;
+    }
+
+    private TPort fifoPort;
+    private TPort activePort;
+    private TMPLSPDU[] packets;
+    private int nextPacket;
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int TWO = 2;
+    private static final int PAYLOAD_SIZE_IN_OCTETS = 1024;
+    private static final String ORIGIN_IPV4_ADDRESS = "10.0.0.3";
+    private static final String LSR_IPV4_ADDRESS = "10.0.0.1";
+    private static final String ACTIVE_LSR_IPV4_ADDRESS = "10.0.0.2";
+    private static final int[] PRIORITIES = {
+        TAbstractPDU.EXP_LEVEL0_WITHOUT_BACKUP_LSP,
+        TAbstractPDU.EXP_LEVEL1_WITH_BACKUP_LSP,
+        TAbstractPDU.EXP_LEVEL2_WITHOUT_BACKUP_LSP,
+        TAbstractPDU.EXP_LEVEL3_WITH_BACKUP_LSP
+    };
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.timer;
+
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TSyntheticTopology;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the cost of a complete tick of the timer, that is, the
+ * time needed by every node and link of a synthetic topology with traffic to
+ * do the work of a tick. Each invocation simulates a number of ticks from the
+ * beginning, so the result is the average cost of a tick. Ticks are measured
+ * both sending timer events to every topology element and only to the active
+ * ones, and with the topology split in several partitions.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TTimerBenchmark {
+
+    @Param({"10", "100"})
+    public int numberOfLSRs;
+
+    @Param({"false", "true"})
+    public boolean activeSetDispatch;
+
+    @Param({"1", "4"})
+    public int numberOfPartitions;
+
+    @Setup
+    public void setUp() {
+        this.scenario = TSyntheticTopology.createChain(this.numberOfLSRs);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_TICKS)
+    public void tick() {
+        TTimer timer = this.scenario.getTopology().getTimer();
+        this.scenario.reset();
+        timer.setFinishTimestamp(new TTimestamp(ZERO, NUMBER_OF_TICKS * TICK_DURATION_IN_NS));
+        timer.setTick(TICK_DURATION_IN_NS);
+        timer.setActiveSetDispatch(this.activeSetDispatch);
+        timer.setNumberOfPartitions(this.numberOfPartitions);
+        timer.reset();
+        timer.start();
+        timer.waitForCompletion();
+    }
+
+    private TScenario scenario;
+
+    private static final int ZERO = 0;
+    private static final int NUMBER_OF_TICKS = 100;
+    private static final int TICK_DURATION_IN_NS = 1000;
+}
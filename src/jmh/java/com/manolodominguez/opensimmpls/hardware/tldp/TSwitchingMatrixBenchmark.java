@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.tldp;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the cost of looking up an entry of a switching matrix,
+ * as done by LSRs and LERs for every packet they switch.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TSwitchingMatrixBenchmark {
+
+    @Param({"100", "10000"})
+    public int numberOfEntries;
+
+    @Setup
+    public void setUp() {
+        this.switchingMatrix = new TSwitchingMatrix();
+        for (int i = ZERO; i < this.numberOfEntries; i++) {
+            TSwitchingMatrixEntry switchingMatrixEntry = new TSwitchingMatrixEntry();
+            switchingMatrixEntry.setIncomingPortID(i % NUMBER_OF_PORTS);
+            switchingMatrixEntry.setLabelOrFEC(TSwitchingMatrixEntry.FIRST_UNRESERVED_LABEL + i);
+            switchingMatrixEntry.setEntryType(TSwitchingMatrixEntry.LABEL_ENTRY);
+            switchingMatrixEntry.setLocalTLDPSessionID(i);
+            this.switchingMatrix.addEntry(switchingMatrixEntry);
+        }
+        this.nextEntry = ZERO;
+    }
+
+    @Benchmark
+    public TSwitchingMatrixEntry getEntry() {
+        int i = this.nextEntry;
+        this.nextEntry = (i + ONE) % this.numberOfEntries;
+        return this.switchingMatrix.getEntry(i % NUMBER_OF_PORTS, TSwitchingMatrixEntry.FIRST_UNRESERVED_LABEL + i, TSwitchingMatrixEntry.LABEL_ENTRY);
+    }
+
+    @Benchmark
+    public TSwitchingMatrixEntry getEntryByLocalTLDPSessionID() {
+        int i = this.nextEntry;
+        this.nextEntry = (i + ONE) % this.numberOfEntries;
+        return this.switchingMatrix.getEntry(i);
+    }
+
+    private TSwitchingMatrix switchingMatrix;
+    private int nextEntry;
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int NUMBER_OF_PORTS = 8;
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.protocols;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the cost of cloning an MPLS packet, as done every time
+ * a GoS packet is stored in, or retrieved from, the DMGP of an active node.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TMPLSPDUBenchmark {
+
+    @Setup
+    public void setUp() {
+        this.packet = new TMPLSPDU(ONE, ORIGIN_IPV4_ADDRESS, TARGET_IPV4_ADDRESS, PAYLOAD_SIZE_IN_OCTETS);
+        for (int i = ZERO; i < NUMBER_OF_LABELS; i++) {
+            TMPLSLabel label = new TMPLSLabel();
+            label.setBoS(i == ZERO);
+            label.setLabel(FIRST_LABEL + i);
+            label.setTTL(this.packet.getIPv4Header().getTTL());
+            this.packet.getLabelStack().pushTop(label);
+        }
+    }
+
+    @Benchmark
+    public TMPLSPDU getAClon() {
+        return this.packet.getAClon();
+    }
+
+    private TMPLSPDU packet;
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int NUMBER_OF_LABELS = 2;
+    private static final int FIRST_LABEL = 16;
+    private static final int PAYLOAD_SIZE_IN_OCTETS = 1024;
+    private static final String ORIGIN_IPV4_ADDRESS = "10.0.0.1";
+    private static final String TARGET_IPV4_ADDRESS = "10.0.0.2";
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+
+/**
+ * This class builds synthetic scenarios to be used by benchmarks. The
+ * topology is a chain of MPLS nodes: a traffic generator sends traffic through
+ * an ingress LER, a number of LSRs and an egress LER to a traffic sink.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public final class TSyntheticTopology {
+
+    private TSyntheticTopology() {
+    }
+
+    /**
+     * This method creates a new scenario whose topology is a chain of MPLS
+     * nodes with traffic from one end to the other.
+     *
+     * @param numberOfLSRs the number of LSRs between the ingress and the egress
+     * LER.
+     * @return the new scenario.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public static TScenario createChain(int numberOfLSRs) {
+        TScenario scenario = new TScenario();
+        TTopology topology = new TTopology(scenario);
+        scenario.setTopology(topology);
+        TLongIDGenerator eventIdentifierGenerator = new TLongIDGenerator();
+        int nodeID = ONE;
+        TTrafficSinkNode sink = new TTrafficSinkNode(nodeID, getIPv4Address(nodeID), eventIdentifierGenerator, topology);
+        addNode(topology, sink);
+        nodeID++;
+        TNode previousNode = new TLERNode(nodeID, getIPv4Address(nodeID), eventIdentifierGenerator, topology);
+        addNode(topology, previousNode);
+        int linkID = LINK_IDS_OFFSET;
+        link(topology, linkID++, TLink.EXTERNAL_LINK, previousNode, sink);
+        for (int i = ZERO; i < numberOfLSRs; i++) {
+            nodeID++;
+            TNode lsr = new TLSRNode(nodeID, getIPv4Address(nodeID), eventIdentifierGenerator, topology);
+            addNode(topology, lsr);
+            link(topology, linkID++, TLink.INTERNAL_LINK, lsr, previousNode);
+            previousNode = lsr;
+        }
+        nodeID++;
+        TNode ingressLER = new TLERNode(nodeID, getIPv4Address(nodeID), eventIdentifierGenerator, topology);
+        addNode(topology, ingressLER);
+        link(topology, linkID++, TLink.INTERNAL_LINK, ingressLER, previousNode);
+        nodeID++;
+        TTrafficGeneratorNode generator = new TTrafficGeneratorNode(nodeID, getIPv4Address(nodeID), eventIdentifierGenerator, topology);
+        addNode(topology, generator);
+        link(topology, linkID, TLink.EXTERNAL_LINK, generator, ingressLER);
+        generator.setTargetNode(sink.getName());
+        generator.setTrafficGenerationRate(TRAFFIC_GENERATION_RATE_IN_MBPS);
+        generator.setConstantPayloadSizeInBytes(PAYLOAD_SIZE_IN_OCTETS);
+        return scenario;
+    }
+
+    private static String getIPv4Address(int nodeID) {
+        return IPV4_PREFIX + (nodeID / OCTET_VALUES) + IPV4_SEPARATOR + (nodeID % OCTET_VALUES);
+    }
+
+    private static void addNode(TTopology topology, TNode node) {
+        node.setName(NODE_NAME_PREFIX + node.getNodeID());
+        topology.addNode(node);
+    }
+
+    // Nodes are chained backwards, so the head end node of each link uses its
+    // port 1 and the tail end node uses its port 0.
+    private static void link(TTopology topology, int linkID, int linkType, TNode headEndNode, TNode tailEndNode) {
+        TLink link;
+        if (linkType == TLink.EXTERNAL_LINK) {
+            link = new TExternalLink(linkID, new TLongIDGenerator(), topology);
+        } else {
+            link = new TInternalLink(linkID, new TLongIDGenerator(), topology);
+        }
+        topology.addLink(link);
+        TLinkConfig linkConfig = new TLinkConfig();
+        linkConfig.setName(LINK_NAME_PREFIX + linkID);
+        linkConfig.setLinkDelay(LINK_DELAY_IN_NS);
+        linkConfig.setHeadEndNodeName(headEndNode.getName());
+        linkConfig.setTailEndNodeName(tailEndNode.getName());
+        linkConfig.setLinkType(linkType);
+        linkConfig.setHeadEndNodePortID(headEndNode.getPorts().getNumberOfPorts() > ONE ? ONE : ZERO);
+        linkConfig.setTailEndNodePortID(ZERO);
+        if (linkConfig.validateConfig(topology, false) != TLinkConfig.OK) {
+            throw new IllegalStateException(LINK_NAME_PREFIX + linkID);
+        }
+        linkConfig.setWellConfigured(true);
+        link.configure(linkConfig, topology, false);
+    }
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int OCTET_VALUES = 256;
+    private static final int LINK_IDS_OFFSET = 100000;
+    private static final int LINK_DELAY_IN_NS = 1000;
+    private static final int TRAFFIC_GENERATION_RATE_IN_MBPS = 1000;
+    private static final int PAYLOAD_SIZE_IN_OCTETS = 1024;
+    private static final String IPV4_PREFIX = "10.0.";
+    private static final String IPV4_SEPARATOR = ".";
+    private static final String NODE_NAME_PREFIX = "Node ";
+    private static final String LINK_NAME_PREFIX = "Link ";
+}
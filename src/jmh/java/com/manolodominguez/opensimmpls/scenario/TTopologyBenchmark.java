@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the cost of computing the next hop towards a node, both
+ * by means of Floyd-Warshall and RABAN routing, on synthetic topologies.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TTopologyBenchmark {
+
+    @Param({"10", "100"})
+    public int numberOfLSRs;
+
+    @Setup
+    public void setUp() {
+        this.topology = TSyntheticTopology.createChain(this.numberOfLSRs).getTopology();
+        List<Integer> nodeIDsAux = new ArrayList<>();
+        Iterator<TNode> nodesIterator = this.topology.getNodesIterator();
+        while (nodesIterator.hasNext()) {
+            nodeIDsAux.add(nodesIterator.next().getNodeID());
+        }
+        this.nodeIDs = new int[nodeIDsAux.size()];
+        for (int i = ZERO; i < this.nodeIDs.length; i++) {
+            this.nodeIDs[i] = nodeIDsAux.get(i);
+        }
+        this.nextPair = ZERO;
+    }
+
+    @Benchmark
+    public int getFloydWarshallNextHopID() {
+        int pair = this.nextPair();
+        return this.topology.getFloydWarshallNextHopID(this.nodeIDs[pair / this.nodeIDs.length], this.nodeIDs[pair % this.nodeIDs.length]);
+    }
+
+    @Benchmark
+    public int getRABANNextHopID() {
+        int pair = this.nextPair();
+        return this.topology.getRABANNextHopID(this.nodeIDs[pair / this.nodeIDs.length], this.nodeIDs[pair % this.nodeIDs.length]);
+    }
+
+    private int nextPair() {
+        int pair = this.nextPair;
+        this.nextPair = (pair + ONE) % (this.nodeIDs.length * this.nodeIDs.length);
+        return pair;
+    }
+
+    private TTopology topology;
+    private int[] nodeIDs;
+    private int nextPair;
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.hardware.timer.ITelemetryEventListener;
+import com.manolodominguez.opensimmpls.hardware.timer.TTimer;
+import com.manolodominguez.opensimmpls.hardware.timer.TTimestamp;
+import com.manolodominguez.opensimmpls.io.checkpoint.TCheckpointLoader;
+import com.manolodominguez.opensimmpls.io.checkpoint.TCheckpointSaver;
+import com.manolodominguez.opensimmpls.io.osm.TOSMLoader;
+import com.manolodominguez.opensimmpls.io.stats.TStatsSaver;
+import com.manolodominguez.opensimmpls.io.trace.TTraceRecorder;
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TTrafficGeneratorNode;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TBackpressurePolicy;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventSubscription;
+import java.io.File;
+import java.util.Iterator;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a headless simulator. It runs a scenario to the end at
+ * full speed, without a GUI attached, and stores the collected statistics to
+ * disk.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TBatchSimulator {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TBatchSimulator that will simulate the specified scenario.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenario The scenario to be simulated.
+     * @since 2.0
+     */
+    public TBatchSimulator(TScenario scenario) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_BATCH_SIMULATOR.getPath());
+        if (scenario == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.scenario = scenario;
+        this.simulationOptions = new TSimulationOptions();
+        this.seeded = false;
+        this.randomSeed = ZERO;
+        this.traceRecorder = null;
+        this.traceSubscription = null;
+    }
+
+    /**
+     * This method loads a scenario from an OSM file and creates a new instance
+     * of TBatchSimulator that will simulate it.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenarioFile The OSM file where the scenario is stored.
+     * @return a new TBatchSimulator for the loaded scenario, or null if the
+     * scenario cannot be loaded.
+     * @since 2.0
+     */
+    public static TBatchSimulator fromOSMFile(File scenarioFile) {
+        if ((scenarioFile == null) || (!scenarioFile.isFile())) {
+            return null;
+        }
+        TOSMLoader osmLoader = new TOSMLoader();
+        if (!osmLoader.load(scenarioFile)) {
+            return null;
+        }
+        return new TBatchSimulator(osmLoader.getScenario());
+    }
+
+    /**
+     * This method loads a checkpoint stored by saveCheckpoint and creates a
+     * new instance of TBatchSimulator that will go on with its simulation.
+     * Each call creates a new, independent, scenario, so several experiments
+     * can be forked from the same checkpoint.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param checkpointFile The file where the checkpoint is stored.
+     * @return a new TBatchSimulator for the restored scenario, or null if the
+     * checkpoint cannot be loaded.
+     * @since 2.0
+     */
+    public static TBatchSimulator fromCheckpointFile(File checkpointFile) {
+        if ((checkpointFile == null) || (!checkpointFile.isFile())) {
+            return null;
+        }
+        TCheckpointLoader checkpointLoader = new TCheckpointLoader();
+        if (!checkpointLoader.load(checkpointFile)) {
+            return null;
+        }
+        TBatchSimulator batchSimulator = new TBatchSimulator(checkpointLoader.getScenario());
+        batchSimulator.simulationOptions = TSimulationOptions.fromTimer(batchSimulator.scenario.getTopology().getTimer());
+        return batchSimulator;
+    }
+
+    /**
+     * This method gets the scenario simulated by this TBatchSimulator.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the scenario simulated by this TBatchSimulator.
+     * @since 2.0
+     */
+    public TScenario getScenario() {
+        return this.scenario;
+    }
+
+    /**
+     * This method sets the options the timer of the scenario has to run the
+     * next simulations with. A copy of them is kept, so they can be changed
+     * later without affecting this TBatchSimulator.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationOptions the options of the simulation.
+     * @since 2.0
+     */
+    public void setSimulationOptions(TSimulationOptions simulationOptions) {
+        if (simulationOptions == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.simulationOptions = new TSimulationOptions(simulationOptions);
+    }
+
+    /**
+     * This method gets a copy of the options the timer of the scenario runs
+     * the simulations with.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the options of the simulation.
+     * @since 2.0
+     */
+    public TSimulationOptions getSimulationOptions() {
+        return new TSimulationOptions(this.simulationOptions);
+    }
+
+    /**
+     * This method checks whether the last simulation stopped before its end
+     * because its wall-clock budget was exhausted.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if the statistics of the scenario are partial because the
+     * wall-clock budget was exhausted. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isWallClockBudgetExhausted() {
+        return this.scenario.getTopology().getTimer().isWallClockBudgetExhausted();
+    }
+
+    /**
+     * This method subscribes a telemetry event listener to the timer of the
+     * scenario, so that it receives telemetry events while the scenario is
+     * being simulated.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param telemetryEventListener the telemetry event listener.
+     * @param telemetryIntervalInMs the milliseconds between a telemetry event
+     * and the next one. It has to be one or greater.
+     * @since 2.0
+     */
+    public void addTelemetryEventListener(ITelemetryEventListener telemetryEventListener, long telemetryIntervalInMs) {
+        TTimer timer = this.scenario.getTopology().getTimer();
+        timer.setTelemetryInterval(telemetryIntervalInMs);
+        timer.addTelemetryEventListener(telemetryEventListener);
+    }
+
+    /**
+     * This method starts recording every simulation event of the scenario to
+     * a binary trace file, that can be replayed later in the GUI. Recording
+     * goes on through the next simulations until stopTrace is called. A trace
+     * already being recorded is stopped first.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param traceFile The file where the trace will be stored.
+     * @return True, if the trace file can be created successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean startTrace(File traceFile) {
+        stopTrace();
+        TTraceRecorder recorder = new TTraceRecorder();
+        if (!recorder.open(traceFile)) {
+            return false;
+        }
+        this.traceRecorder = recorder;
+        // The simulation waits for the recorder, so the trace is complete.
+        this.traceSubscription = this.scenario.getSimulation().getSimulationEventBus().subscribe(recorder, TBackpressurePolicy.BLOCK);
+        return true;
+    }
+
+    /**
+     * This method stops recording simulation events and closes the trace file
+     * after every pending simulation event has been stored.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return True, if the trace has been stored successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean stopTrace() {
+        if (this.traceRecorder == null) {
+            return false;
+        }
+        this.scenario.getSimulation().getSimulationEventBus().flush();
+        this.scenario.getSimulation().getSimulationEventBus().unsubscribe(this.traceSubscription);
+        boolean stored = this.traceRecorder.close();
+        this.traceRecorder = null;
+        this.traceSubscription = null;
+        return stored;
+    }
+
+    /**
+     * This method sets the seed the random number generators of the scenario
+     * are derived from, so that the simulation is repeatable. Each traffic
+     * generator gets its own seed, derived from this one and its node ID, so
+     * they generate independent streams of traffic. If no seed is set, traffic
+     * generators are not seeded. Once a seed is set, topology elements do the
+     * work of each tick one after another instead of concurrently, so that
+     * the simulation is repeatable also on multi-core hosts; independent
+     * simulations can still run in parallel, as replications or points of a
+     * parameter sweep do. This also applies to simulations resumed from a
+     * checkpoint of a seeded simulation.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param randomSeed the seed of the simulation.
+     * @since 2.0
+     */
+    public void setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+        this.seeded = true;
+    }
+
+    /**
+     * This method simulates the scenario from the beginning to the end, using
+     * the simulation length and tick duration stored in the scenario, and
+     * blocks until the simulation finishes. As done by the GUI, the tick
+     * duration is never longer than the minimum delay of the topology.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void simulate() {
+        simulateUntil(this.scenario.getSimulation().getSimulationLengthInNs());
+    }
+
+    /**
+     * This method simulates the scenario from the beginning until the
+     * specified instant, and blocks until then. It is used to warm up the
+     * scenario before storing a checkpoint; the simulation can go on later by
+     * means of resume. Ticks are not split, so the simulation actually stops
+     * at the end of the tick that contains the specified instant; this way,
+     * resuming the simulation uses the same ticks as an uninterrupted one.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param instantInNs the instant, in nanoseconds, where the simulation has
+     * to stop. It cannot be later than the end of the simulation.
+     * @since 2.0
+     */
+    public void simulateUntil(long instantInNs) {
+        if ((instantInNs < ONE) || (instantInNs > this.scenario.getSimulation().getSimulationLengthInNs())) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(this.translations.getString("argumentOutOfRange"));
+        }
+        long tickDurationInNs = getTickDurationInNs();
+        long stopInstantInNs = ((instantInNs + tickDurationInNs - ONE) / tickDurationInNs) * tickDurationInNs;
+        stopInstantInNs = Math.min(stopInstantInNs, this.scenario.getSimulation().getSimulationLengthInNs());
+        TTimer timer = this.scenario.getTopology().getTimer();
+        this.scenario.reset();
+        if (this.seeded) {
+            Iterator<TNode> nodesIterator = this.scenario.getTopology().getNodesIterator();
+            while (nodesIterator.hasNext()) {
+                TNode node = nodesIterator.next();
+                if (node.getNodeType() == TNode.TRAFFIC_GENERATOR) {
+                    ((TTrafficGeneratorNode) node).setRandomSeed(deriveSeed(this.randomSeed, node.getNodeID()));
+                }
+            }
+        }
+        configureTimer(timer, stopInstantInNs);
+        timer.reset();
+        this.scenario.simulate();
+        timer.waitForCompletion();
+    }
+
+    /**
+     * This method goes on with the simulation from the instant where it
+     * stopped until the end of the simulation, and blocks until it finishes.
+     * The scenario is not reset, so this method can be used after simulateUntil
+     * or with a scenario restored from a checkpoint. If the simulation had
+     * already reached its end, nothing is simulated.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void resume() {
+        long simulationLengthInNs = this.scenario.getSimulation().getSimulationLengthInNs();
+        TTimer timer = this.scenario.getTopology().getTimer();
+        if (timer.getSimulatedTimestamp().getTotalAsNanoseconds() >= simulationLengthInNs) {
+            return;
+        }
+        configureTimer(timer, simulationLengthInNs);
+        timer.resume();
+        timer.waitForCompletion();
+    }
+
+    /**
+     * This method stores a checkpoint with the complete state of the scenario
+     * to a disk file. It must not be called while the scenario is being
+     * simulated.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param checkpointFile The file where the checkpoint will be stored.
+     * @return True, if the checkpoint can be saved successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean saveCheckpoint(File checkpointFile) {
+        TCheckpointSaver checkpointSaver = new TCheckpointSaver(this.scenario);
+        return checkpointSaver.save(checkpointFile);
+    }
+
+    private long getTickDurationInNs() {
+        long tickDurationInNs = this.scenario.getSimulation().getSimulationTickDurationInNs();
+        int minimumDelay = this.scenario.getTopology().getMinimumDelay();
+        if (tickDurationInNs > minimumDelay) {
+            tickDurationInNs = minimumDelay;
+        }
+        if (tickDurationInNs < ONE) {
+            tickDurationInNs = ONE;
+        }
+        return tickDurationInNs;
+    }
+
+    private void configureTimer(TTimer timer, long finishInNs) {
+        long tickDurationInNs = getTickDurationInNs();
+        int minimumDelay = this.scenario.getTopology().getMinimumDelay();
+        timer.setFinishTimestamp(new TTimestamp(finishInNs / ONE_MILLION, (int) (finishInNs % ONE_MILLION)));
+        timer.setTick((int) tickDurationInNs);
+        this.simulationOptions.applyTo(timer);
+        // The order in which concurrent topology elements deliver packets in
+        // a tick depends on thread scheduling, so seeded simulations would
+        // only be repeatable on a single processor.
+        if (this.seeded) {
+            timer.setSequentialDispatch(true);
+        }
+        // A packet cannot be sent and delivered in the same tick, even when
+        // the timer keeps a widened tick on lightly loaded ports. So adaptive
+        // ticks only help when the scenario tick is shorter than this delay.
+        timer.setMaximumTick(minimumDelay);
+    }
+
+    /**
+     * This method stores the statistics collected during the simulation to a
+     * disk file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param statsFile The file where the statistics will be stored.
+     * @return True, if the statistics can be saved successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean saveStats(File statsFile) {
+        TStatsSaver statsSaver = new TStatsSaver(this.scenario);
+        return statsSaver.save(statsFile);
+    }
+
+    /**
+     * This method derives a new seed from a seed and the number of a stream,
+     * so that different streams get unrelated seeds. It uses the SplitMix64
+     * mixing function.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param seed the original seed.
+     * @param stream the number of the stream.
+     * @return the seed of the stream.
+     * @since 2.0
+     */
+    static long deriveSeed(long seed, long stream) {
+        long mixedSeed = seed + ((stream + ONE) * GOLDEN_GAMMA);
+        mixedSeed = (mixedSeed ^ (mixedSeed >>> THIRTY)) * FIRST_MIX_MULTIPLIER;
+        mixedSeed = (mixedSeed ^ (mixedSeed >>> TWENTY_SEVEN)) * SECOND_MIX_MULTIPLIER;
+        return mixedSeed ^ (mixedSeed >>> THIRTY_ONE);
+    }
+
+    private static final long ONE_MILLION = 1000000L;
+    private static final long ONE = 1L;
+    private static final long ZERO = 0L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long FIRST_MIX_MULTIPLIER = 0xbf58476d1ce4e5b9L;
+    private static final long SECOND_MIX_MULTIPLIER = 0x94d049bb133111ebL;
+    private static final int TWENTY_SEVEN = 27;
+    private static final int THIRTY = 30;
+    private static final int THIRTY_ONE = 31;
+
+    private TScenario scenario;
+    private TSimulationOptions simulationOptions;
+    private boolean seeded;
+    private long randomSeed;
+    private TTraceRecorder traceRecorder;
+    private TSimulationEventSubscription traceSubscription;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TBatchSimulator.class);
+}
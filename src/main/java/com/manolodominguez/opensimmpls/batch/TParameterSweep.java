@@ -0,0 +1,418 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.io.checkpoint.TCheckpointLoader;
+import com.manolodominguez.opensimmpls.io.checkpoint.TCheckpointSaver;
+import com.manolodominguez.opensimmpls.io.osm.TOSMLoader;
+import com.manolodominguez.opensimmpls.io.stats.TStatsSaver;
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a parameter sweep. It simulates a scenario stored in
+ * an OSM file once for each point of a grid of parameter values, on a bounded
+ * pool of workers, and writes the statistics of all points to a single CSV
+ * table. The OSM file is parsed only once; each point gets its own copy of
+ * the scenario, restored from a checkpoint of the base scenario kept in
+ * memory, and then its parameters are set as specified by the point.
+ *
+ * A sweep specification is a text file with a line for each swept parameter,
+ * with its name, an equals sign and the comma separated list of its values,
+ * as "linkDelay=1000,2000,4000". Blank lines and lines starting with "#" are
+ * ignored. Parameter names are those of TSweepParameter. Each parameter is
+ * set to the same value in every topology element it applies to; single
+ * links or nodes cannot be swept on their own.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TParameterSweep {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TParameterSweep, without swept parameters, for the scenario stored in the
+     * specified OSM file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenarioFile The OSM file where the base scenario is stored.
+     * @since 2.0
+     */
+    public TParameterSweep(File scenarioFile) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_PARAMETER_SWEEP.getPath());
+        if (scenarioFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.scenarioFile = scenarioFile;
+        this.sweptParameters = new ArrayList<>();
+        this.sweptValues = new ArrayList<>();
+        this.numberOfWorkers = Runtime.getRuntime().availableProcessors();
+        this.seeded = false;
+        this.randomSeed = ZERO;
+        this.simulationOptions = new TSimulationOptions();
+        this.numberOfTruncatedPoints = ZERO;
+    }
+
+    /**
+     * This method adds a parameter to be swept over the specified values. The
+     * grid of the sweep is the cartesian product of the values of all swept
+     * parameters.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param sweepParameter the parameter to be swept.
+     * @param values the values of the parameter. There has to be at least one.
+     * @since 2.0
+     */
+    public void addSweptParameter(TSweepParameter sweepParameter, int[] values) {
+        if ((sweepParameter == null) || (values == null) || (values.length == ZERO)) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.sweptParameters.add(sweepParameter);
+        this.sweptValues.add(values.clone());
+    }
+
+    /**
+     * This method adds the parameters defined in a sweep specification file
+     * to be swept.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param sweepFile The sweep specification file.
+     * @return TRUE, if the sweep specification has been loaded. FALSE if it
+     * cannot be read or it is not well formed; in that case no parameter is
+     * added.
+     * @since 2.0
+     */
+    public boolean loadSweepSpecification(File sweepFile) {
+        if (sweepFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(sweepFile.toPath(), Charset.defaultCharset());
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + sweepFile.getPath());
+            return false;
+        }
+        List<TSweepParameter> loadedParameters = new ArrayList<>();
+        List<int[]> loadedValues = new ArrayList<>();
+        for (String line : lines) {
+            String trimmedLine = line.trim();
+            if ((trimmedLine.isEmpty()) || (trimmedLine.startsWith(COMMENT_PREFIX))) {
+                continue;
+            }
+            int equalsSignPosition = trimmedLine.indexOf(EQUALS_SIGN);
+            if (equalsSignPosition < ZERO) {
+                this.logger.error(this.translations.getString("badSweepSpecification") + trimmedLine);
+                return false;
+            }
+            TSweepParameter sweepParameter = TSweepParameter.fromParameterName(trimmedLine.substring(ZERO, equalsSignPosition).trim());
+            String[] valueStrings = trimmedLine.substring(equalsSignPosition + ONE).split(SEPARATOR);
+            int[] values = new int[valueStrings.length];
+            try {
+                for (int i = ZERO; i < valueStrings.length; i++) {
+                    values[i] = Integer.parseInt(valueStrings[i].trim());
+                }
+            } catch (NumberFormatException e) {
+                sweepParameter = null;
+            }
+            if (sweepParameter == null) {
+                this.logger.error(this.translations.getString("badSweepSpecification") + trimmedLine);
+                return false;
+            }
+            loadedParameters.add(sweepParameter);
+            loadedValues.add(values);
+        }
+        this.sweptParameters.addAll(loadedParameters);
+        this.sweptValues.addAll(loadedValues);
+        return true;
+    }
+
+    /**
+     * This method gets the number of points of the grid of the sweep.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of points. If there is no swept parameter, the
+     * scenario is simulated once, as is.
+     * @since 2.0
+     */
+    public int getNumberOfPoints() {
+        int numberOfPoints = ONE;
+        for (int[] values : this.sweptValues) {
+            numberOfPoints *= values.length;
+        }
+        return numberOfPoints;
+    }
+
+    /**
+     * This method sets the number of points that can be simulated at the same
+     * time. By default, the number of available processors.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param numberOfWorkers the number of points simulated at the same time.
+     * It has to be one or greater.
+     * @since 2.0
+     */
+    public void setNumberOfWorkers(int numberOfWorkers) {
+        if (numberOfWorkers < ONE) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(this.translations.getString("argumentOutOfRange"));
+        }
+        this.numberOfWorkers = numberOfWorkers;
+    }
+
+    /**
+     * This method sets the seed used to simulate every point of the sweep.
+     * Seeded simulations are repeatable on any host, as topology elements
+     * then work one after another in each tick, so every point starts from
+     * the same random numbers. Points are not guaranteed to draw the same
+     * random numbers afterwards, as the swept parameters can change how many
+     * of them each topology element draws.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param randomSeed the seed of the simulations.
+     * @since 2.0
+     */
+    public void setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+        this.seeded = true;
+    }
+
+    /**
+     * This method sets the options the timer has to run every point of the
+     * sweep with. A copy of them is kept, so they can be changed later without
+     * affecting this TParameterSweep.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationOptions the options of the simulations.
+     * @since 2.0
+     */
+    public void setSimulationOptions(TSimulationOptions simulationOptions) {
+        if (simulationOptions == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.simulationOptions = new TSimulationOptions(simulationOptions);
+    }
+
+    /**
+     * This method simulates every point of the sweep and writes their
+     * statistics to a CSV file, in grid order. Each row of the table has the
+     * number of the point, the values of the swept parameters and a value of
+     * the statistics of the point. It blocks until all points are simulated.
+     * Points truncated by the wall-clock budget of the simulation options get
+     * no rows in the table; they are counted instead, see
+     * getNumberOfTruncatedPoints().
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param resultsFile The file where the results will be stored.
+     * @return TRUE, if all points have been simulated and their results
+     * stored. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean run(File resultsFile) {
+        if (resultsFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        TOSMLoader osmLoader = new TOSMLoader();
+        if ((!this.scenarioFile.isFile()) || (!osmLoader.load(this.scenarioFile))) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + this.scenarioFile.getPath());
+            return false;
+        }
+        // The base scenario is parsed once and kept as a checkpoint in
+        // memory; each point restores its own copy from it.
+        ByteArrayOutputStream baseScenario = new ByteArrayOutputStream();
+        if (!new TCheckpointSaver(osmLoader.getScenario()).save(baseScenario)) {
+            return false;
+        }
+        final byte[] baseScenarioBytes = baseScenario.toByteArray();
+        this.numberOfTruncatedPoints = ZERO;
+        int numberOfPoints = getNumberOfPoints();
+        ExecutorService pointsExecutor = Executors.newFixedThreadPool(Math.min(this.numberOfWorkers, numberOfPoints));
+        List<Future<TBatchSimulator>> points = new ArrayList<>();
+        for (int point = ZERO; point < numberOfPoints; point++) {
+            final int[] pointValues = getPointValues(point);
+            points.add(pointsExecutor.submit(() -> simulatePoint(baseScenarioBytes, pointValues)));
+        }
+        boolean allPointsSimulated = true;
+        try (PrintStream output = new PrintStream(new FileOutputStream(resultsFile), false, UTF_8)) {
+            StringBuilder header = new StringBuilder(POINT_COLUMN);
+            for (TSweepParameter sweepParameter : this.sweptParameters) {
+                header.append(SEPARATOR).append(sweepParameter.getParameterName());
+            }
+            output.println(header.append(SEPARATOR).append(STATS_COLUMNS));
+            for (int point = ZERO; point < numberOfPoints; point++) {
+                TBatchSimulator batchSimulator = getSimulatedPoint(points.get(point));
+                // The scenario of the point is not needed any longer.
+                points.set(point, null);
+                if (batchSimulator == null) {
+                    allPointsSimulated = false;
+                    continue;
+                }
+                if (batchSimulator.isWallClockBudgetExhausted()) {
+                    // Partial statistics are not comparable to the ones of
+                    // the other points.
+                    this.logger.warn(this.translations.getString("pointTruncated") + point);
+                    this.numberOfTruncatedPoints++;
+                    continue;
+                }
+                StringBuilder rowPrefix = new StringBuilder().append(point);
+                for (int value : getPointValues(point)) {
+                    rowPrefix.append(SEPARATOR).append(value);
+                }
+                final String pointPrefix = rowPrefix.append(SEPARATOR).toString();
+                new TStatsSaver(batchSimulator.getScenario()).forEachValue((row, value) -> output.println(pointPrefix + row + SEPARATOR + value));
+            }
+            if (output.checkError()) {
+                this.logger.error(this.translations.getString("ioexceptionDescription") + resultsFile.getPath());
+                allPointsSimulated = false;
+            }
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + resultsFile.getPath());
+            allPointsSimulated = false;
+        }
+        pointsExecutor.shutdownNow();
+        return allPointsSimulated;
+    }
+
+    /**
+     * This method submits a job to the specified spool directory for each
+     * point of the sweep, instead of simulating them, so that they can be
+     * simulated by workers in other processes or hosts. Each job stores its
+     * statistics in the spool directory.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param spoolDirectory the spool directory.
+     * @return TRUE, if all jobs have been submitted. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean submit(TSpoolDirectory spoolDirectory) {
+        if (spoolDirectory == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        String scenarioName = spoolDirectory.addScenario(this.scenarioFile);
+        if (scenarioName == null) {
+            return false;
+        }
+        for (int point = ZERO; point < getNumberOfPoints(); point++) {
+            TSpoolJob spoolJob = spoolDirectory.createJob(scenarioName);
+            int[] pointValues = getPointValues(point);
+            for (int i = ZERO; i < pointValues.length; i++) {
+                spoolJob.setParameter(this.sweptParameters.get(i), pointValues[i]);
+            }
+            if (this.seeded) {
+                spoolJob.setRandomSeed(this.randomSeed);
+            }
+            if (!spoolDirectory.submit(spoolJob)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method gets the number of points of the last run that were
+     * truncated by the wall-clock budget of the simulation options, and whose
+     * statistics have therefore not been written.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of truncated points.
+     * @since 2.0
+     */
+    public int getNumberOfTruncatedPoints() {
+        return this.numberOfTruncatedPoints;
+    }
+
+    // Points are numbered so that the last swept parameter changes first.
+    private int[] getPointValues(int point) {
+        int[] pointValues = new int[this.sweptParameters.size()];
+        int remainingPoint = point;
+        for (int i = pointValues.length - ONE; i >= ZERO; i--) {
+            int[] values = this.sweptValues.get(i);
+            pointValues[i] = values[remainingPoint % values.length];
+            remainingPoint /= values.length;
+        }
+        return pointValues;
+    }
+
+    private TBatchSimulator simulatePoint(byte[] baseScenario, int[] pointValues) {
+        TCheckpointLoader checkpointLoader = new TCheckpointLoader();
+        if (!checkpointLoader.load(new ByteArrayInputStream(baseScenario))) {
+            return null;
+        }
+        TScenario scenario = checkpointLoader.getScenario();
+        for (int i = ZERO; i < pointValues.length; i++) {
+            this.sweptParameters.get(i).apply(scenario, pointValues[i]);
+        }
+        TBatchSimulator batchSimulator = new TBatchSimulator(scenario);
+        batchSimulator.setSimulationOptions(this.simulationOptions);
+        if (this.seeded) {
+            batchSimulator.setRandomSeed(this.randomSeed);
+        }
+        batchSimulator.simulate();
+        return batchSimulator;
+    }
+
+    private TBatchSimulator getSimulatedPoint(Future<TBatchSimulator> point) {
+        try {
+            return point.get();
+        } catch (InterruptedException | ExecutionException e) {
+            this.logger.error(this.translations.getString("pointFailed") + e.toString());
+            return null;
+        }
+    }
+
+    private static final String COMMENT_PREFIX = "#";
+    private static final String EQUALS_SIGN = "=";
+    private static final String SEPARATOR = ",";
+    private static final String POINT_COLUMN = "point";
+    private static final String STATS_COLUMNS = "nodeID,nodeName,dataset,series,x,y";
+    private static final String UTF_8 = "UTF-8";
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+
+    private final File scenarioFile;
+    private final List<TSweepParameter> sweptParameters;
+    private final List<int[]> sweptValues;
+    private int numberOfWorkers;
+    private boolean seeded;
+    private long randomSeed;
+    private TSimulationOptions simulationOptions;
+    private int numberOfTruncatedPoints;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TParameterSweep.class);
+}
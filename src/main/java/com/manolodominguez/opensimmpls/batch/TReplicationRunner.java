@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.io.stats.TStatsAggregator;
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a Monte Carlo replication runner. It simulates a
+ * number of independent replications of the same scenario in parallel, each
+ * one loaded from the same OSM file and seeded with its own seed, derived from
+ * the seed of the runner, and aggregates their statistics into means and
+ * confidence intervals. Using the same seed, the same replications are
+ * simulated again, on any host: the topology elements of a seeded replication
+ * work one after another in each tick, so parallelism comes from simulating
+ * several replications at the same time.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TReplicationRunner {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TReplicationRunner for the scenario stored in the specified OSM file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenarioFile The OSM file where the scenario is stored.
+     * @since 2.0
+     */
+    public TReplicationRunner(File scenarioFile) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_REPLICATION_RUNNER.getPath());
+        if (scenarioFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.scenarioFile = scenarioFile;
+        this.numberOfReplications = ONE;
+        this.numberOfWorkers = Runtime.getRuntime().availableProcessors();
+        this.randomSeed = ZERO;
+        this.simulationOptions = new TSimulationOptions();
+        this.statsAggregator = new TStatsAggregator();
+        this.numberOfTruncatedReplications = ZERO;
+    }
+
+    /**
+     * This method sets the number of replications to be simulated.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param numberOfReplications the number of replications. It has to be
+     * one or greater.
+     * @since 2.0
+     */
+    public void setNumberOfReplications(int numberOfReplications) {
+        if (numberOfReplications < ONE) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(this.translations.getString("argumentOutOfRange"));
+        }
+        this.numberOfReplications = numberOfReplications;
+    }
+
+    /**
+     * This method gets the number of replications to be simulated.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of replications.
+     * @since 2.0
+     */
+    public int getNumberOfReplications() {
+        return this.numberOfReplications;
+    }
+
+    /**
+     * This method sets the number of replications that can be simulated at
+     * the same time. By default, the number of available processors.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param numberOfWorkers the number of replications simulated at the same
+     * time. It has to be one or greater.
+     * @since 2.0
+     */
+    public void setNumberOfWorkers(int numberOfWorkers) {
+        if (numberOfWorkers < ONE) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(this.translations.getString("argumentOutOfRange"));
+        }
+        this.numberOfWorkers = numberOfWorkers;
+    }
+
+    /**
+     * This method sets the seed the seeds of all replications are derived
+     * from.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param randomSeed the seed of the runner.
+     * @since 2.0
+     */
+    public void setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+    }
+
+    /**
+     * This method sets the options the timer has to run every replication with.
+     * A copy of them is kept, so they can be changed later without affecting
+     * this TReplicationRunner.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationOptions the options of the simulations.
+     * @since 2.0
+     */
+    public void setSimulationOptions(TSimulationOptions simulationOptions) {
+        if (simulationOptions == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.simulationOptions = new TSimulationOptions(simulationOptions);
+    }
+
+    /**
+     * This method simulates all replications and aggregates their statistics.
+     * It blocks until all of them finish. Statistics are aggregated in the
+     * order of the replications, so the result does not depend on which
+     * replication finishes first. Replications truncated by the wall-clock
+     * budget of the simulation options are not aggregated; they are counted
+     * instead, see getNumberOfTruncatedReplications().
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if all replications have been simulated. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean run() {
+        this.statsAggregator = new TStatsAggregator();
+        this.numberOfTruncatedReplications = ZERO;
+        ExecutorService replicationsExecutor = Executors.newFixedThreadPool(Math.min(this.numberOfWorkers, this.numberOfReplications));
+        List<Future<TBatchSimulator>> replications = new ArrayList<>();
+        for (int replication = ZERO; replication < this.numberOfReplications; replication++) {
+            final long replicationSeed = TBatchSimulator.deriveSeed(this.randomSeed, replication);
+            replications.add(replicationsExecutor.submit(() -> simulateReplication(replicationSeed)));
+        }
+        boolean allReplicationsSimulated = true;
+        for (int replication = ZERO; replication < this.numberOfReplications; replication++) {
+            try {
+                TBatchSimulator batchSimulator = replications.get(replication).get();
+                if (batchSimulator == null) {
+                    allReplicationsSimulated = false;
+                } else if (batchSimulator.isWallClockBudgetExhausted()) {
+                    // Partial statistics would bias the aggregated ones.
+                    this.logger.warn(this.translations.getString("replicationTruncated") + replication);
+                    this.numberOfTruncatedReplications++;
+                } else {
+                    this.statsAggregator.add(batchSimulator.getScenario());
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                this.logger.error(this.translations.getString("replicationFailed") + e.toString());
+                allReplicationsSimulated = false;
+            }
+        }
+        replicationsExecutor.shutdown();
+        return allReplicationsSimulated;
+    }
+
+    /**
+     * This method submits a job to the specified spool directory for each
+     * replication, instead of simulating them, so that they can be simulated
+     * by workers in other processes or hosts. Each job stores its statistics
+     * in the spool directory, where they are not aggregated.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param spoolDirectory the spool directory.
+     * @return TRUE, if all jobs have been submitted. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean submit(TSpoolDirectory spoolDirectory) {
+        if (spoolDirectory == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        String scenarioName = spoolDirectory.addScenario(this.scenarioFile);
+        if (scenarioName == null) {
+            return false;
+        }
+        for (int replication = ZERO; replication < this.numberOfReplications; replication++) {
+            TSpoolJob spoolJob = spoolDirectory.createJob(scenarioName);
+            spoolJob.setRandomSeed(TBatchSimulator.deriveSeed(this.randomSeed, replication));
+            if (!spoolDirectory.submit(spoolJob)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private TBatchSimulator simulateReplication(long replicationSeed) {
+        TBatchSimulator batchSimulator = TBatchSimulator.fromOSMFile(this.scenarioFile);
+        if (batchSimulator == null) {
+            this.logger.error(this.translations.getString("replicationFailed") + this.scenarioFile.getPath());
+            return null;
+        }
+        batchSimulator.setSimulationOptions(this.simulationOptions);
+        batchSimulator.setRandomSeed(replicationSeed);
+        batchSimulator.simulate();
+        return batchSimulator;
+    }
+
+    /**
+     * This method gets the number of replications of the last run that were
+     * truncated by the wall-clock budget of the simulation options, and whose
+     * statistics have therefore not been aggregated.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of truncated replications.
+     * @since 2.0
+     */
+    public int getNumberOfTruncatedReplications() {
+        return this.numberOfTruncatedReplications;
+    }
+
+    /**
+     * This method gets the statistics aggregated over all replications.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the aggregated statistics.
+     * @since 2.0
+     */
+    public TStatsAggregator getStatsAggregator() {
+        return this.statsAggregator;
+    }
+
+    /**
+     * This method stores the statistics aggregated over all replications to a
+     * disk file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param statsFile The file where the statistics will be stored.
+     * @return True, if the statistics can be saved successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean saveStats(File statsFile) {
+        return this.statsAggregator.save(statsFile);
+    }
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+
+    private final File scenarioFile;
+    private int numberOfReplications;
+    private int numberOfWorkers;
+    private long randomSeed;
+    private TSimulationOptions simulationOptions;
+    private TStatsAggregator statsAggregator;
+    private int numberOfTruncatedReplications;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TReplicationRunner.class);
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.hardware.timer.TTimer;
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements the options that set how the timer of a scenario
+ * runs a headless simulation. TBatchSimulator applies them to the timer
+ * before each simulation; the other batch tools just pass them through to
+ * the batch simulators they create. By default, every tick is simulated,
+ * with the same length, for every topology element, in a single partition
+ * and without wall-clock budget, as the GUI does.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TSimulationOptions {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TSimulationOptions with the default options.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TSimulationOptions() {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_SIMULATION_OPTIONS.getPath());
+        this.eventDriven = false;
+        this.activeSetDispatch = false;
+        this.adaptiveTick = false;
+        this.wallClockBudgetInMs = TTimer.NO_WALL_CLOCK_BUDGET;
+        this.numberOfPartitions = ONE_PARTITION;
+    }
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TSimulationOptions with the same options as the specified one.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationOptions the options to be copied.
+     * @since 2.0
+     */
+    public TSimulationOptions(TSimulationOptions simulationOptions) {
+        this();
+        if (simulationOptions == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.eventDriven = simulationOptions.eventDriven;
+        this.activeSetDispatch = simulationOptions.activeSetDispatch;
+        this.adaptiveTick = simulationOptions.adaptiveTick;
+        this.wallClockBudgetInMs = simulationOptions.wallClockBudgetInMs;
+        this.numberOfPartitions = simulationOptions.numberOfPartitions;
+    }
+
+    /**
+     * This method sets whether the scenario has to be simulated in event
+     * driven mode, skipping the ticks where nothing happens, or tick by tick.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param eventDriven TRUE, if idle ticks have to be skipped. FALSE, if
+     * every tick has to be simulated.
+     * @since 2.0
+     */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+    }
+
+    /**
+     * This method checks whether the scenario is simulated in event driven
+     * mode or not.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if idle ticks are skipped. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isEventDriven() {
+        return this.eventDriven;
+    }
+
+    /**
+     * This method sets whether, in each tick, only the topology elements that
+     * have work to do have to be simulated or all of them.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param activeSetDispatch TRUE, if only active topology elements have to
+     * be simulated in each tick. FALSE, if all of them have to be simulated.
+     * @since 2.0
+     */
+    public void setActiveSetDispatch(boolean activeSetDispatch) {
+        this.activeSetDispatch = activeSetDispatch;
+    }
+
+    /**
+     * This method checks whether, in each tick, only the topology elements
+     * that have work to do are simulated or not.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if only active topology elements are simulated in each
+     * tick. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isActiveSetDispatch() {
+        return this.activeSetDispatch;
+    }
+
+    /**
+     * This method sets whether the length of ticks has to be adapted to the
+     * network activity or every tick has to have the same length.
+     * Ticks are never widened beyond the minimum delay of the topology links,
+     * so this option only has effect when the tick of the scenario is shorter
+     * than that delay.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param adaptiveTick TRUE, if ticks have to be widened while the network
+     * is idle or lightly loaded. FALSE, if every tick has the same length.
+     * @since 2.0
+     */
+    public void setAdaptiveTick(boolean adaptiveTick) {
+        this.adaptiveTick = adaptiveTick;
+    }
+
+    /**
+     * This method checks whether the length of ticks is adapted to the
+     * network activity or not.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if ticks are widened while the network is idle or lightly
+     * loaded. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isAdaptiveTick() {
+        return this.adaptiveTick;
+    }
+
+    /**
+     * This method sets the wall-clock time each simulation can last. When it
+     * is exhausted, the simulation stops cleanly and the statistics collected
+     * until then can be saved as usual.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param wallClockBudgetInMs the milliseconds a simulation can last, or
+     * TTimer.NO_WALL_CLOCK_BUDGET if it can last as long as needed.
+     * @since 2.0
+     */
+    public void setWallClockBudget(long wallClockBudgetInMs) {
+        if (wallClockBudgetInMs < TTimer.NO_WALL_CLOCK_BUDGET) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(this.translations.getString("argumentOutOfRange"));
+        }
+        this.wallClockBudgetInMs = wallClockBudgetInMs;
+    }
+
+    /**
+     * This method gets the wall-clock time each simulation can last.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the milliseconds a simulation can last, or
+     * TTimer.NO_WALL_CLOCK_BUDGET if it can last as long as needed.
+     * @since 2.0
+     */
+    public long getWallClockBudget() {
+        return this.wallClockBudgetInMs;
+    }
+
+    /**
+     * This method sets the number of partitions the topology has to be split
+     * in, so that each one is simulated by its own thread.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param numberOfPartitions the maximum number of partitions. It has to be
+     * one or greater. With a single partition the topology is not split.
+     * @since 2.0
+     */
+    public void setNumberOfPartitions(int numberOfPartitions) {
+        if (numberOfPartitions < ONE_PARTITION) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(this.translations.getString("argumentOutOfRange"));
+        }
+        this.numberOfPartitions = numberOfPartitions;
+    }
+
+    /**
+     * This method gets the number of partitions the topology has to be split
+     * in.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the maximum number of partitions.
+     * @since 2.0
+     */
+    public int getNumberOfPartitions() {
+        return this.numberOfPartitions;
+    }
+
+    /**
+     * This method sets the options of this instance to the timer of a
+     * scenario.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param timer the timer the options have to be set to.
+     * @since 2.0
+     */
+    void applyTo(TTimer timer) {
+        timer.setEventDriven(this.eventDriven);
+        timer.setActiveSetDispatch(this.activeSetDispatch);
+        timer.setAdaptiveTick(this.adaptiveTick);
+        timer.setNumberOfPartitions(this.numberOfPartitions);
+        timer.setWallClockBudget(this.wallClockBudgetInMs);
+    }
+
+    /**
+     * This method creates a new instance of TSimulationOptions with the
+     * options the specified timer was running with. The wall-clock budget is
+     * not taken from the timer, because it is not a property of the scenario
+     * but of each simulation.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param timer the timer whose options have to be copied.
+     * @return a new TSimulationOptions with the options of the timer.
+     * @since 2.0
+     */
+    static TSimulationOptions fromTimer(TTimer timer) {
+        TSimulationOptions simulationOptions = new TSimulationOptions();
+        simulationOptions.eventDriven = timer.isEventDriven();
+        simulationOptions.activeSetDispatch = timer.isActiveSetDispatch();
+        simulationOptions.adaptiveTick = timer.isAdaptiveTick();
+        simulationOptions.numberOfPartitions = timer.getNumberOfPartitions();
+        return simulationOptions;
+    }
+
+    private static final int ONE_PARTITION = 1;
+
+    private boolean eventDriven;
+    private boolean activeSetDispatch;
+    private boolean adaptiveTick;
+    private long wallClockBudgetInMs;
+    private int numberOfPartitions;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TSimulationOptions.class);
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.io.stats.TStatsSaver;
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a spool directory, a work queue of simulation jobs
+ * stored in a local or shared directory that needs no other service. A
+ * coordinator submits jobs to the spool directory and any number of workers,
+ * in any process or host where the directory is mounted, claim and simulate
+ * them. Jobs are moved from a subdirectory to another one as they are
+ * submitted, claimed and finished, always by renaming them atomically, so a
+ * job is claimed by a single worker and no one sees a job or a result that is
+ * half written.
+ *
+ * A spool directory has the following subdirectories: "scenarios", with the
+ * OSM scenarios of the jobs; "pending", with the jobs waiting to be claimed;
+ * "running", with the jobs being simulated; "done", with the finished jobs;
+ * "failed", with the jobs that could not be simulated; "results", with the
+ * statistics of the finished jobs, in the same CSV format as batch
+ * simulations; and "tmp", where files are written before being moved to their
+ * final subdirectory. Jobs claimed by a worker that dies stay in "running"
+ * and have to be moved back to "pending" by hand.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TSpoolDirectory {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TSpoolDirectory in the specified directory.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param directory the root directory of the spool directory.
+     * @since 2.0
+     */
+    public TSpoolDirectory(File directory) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_SPOOL_DIRECTORY.getPath());
+        if (directory == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.scenariosDirectory = new File(directory, SCENARIOS).toPath();
+        this.pendingDirectory = new File(directory, PENDING).toPath();
+        this.runningDirectory = new File(directory, RUNNING).toPath();
+        this.doneDirectory = new File(directory, DONE).toPath();
+        this.failedDirectory = new File(directory, FAILED).toPath();
+        this.resultsDirectory = new File(directory, RESULTS).toPath();
+        this.temporaryDirectory = new File(directory, TMP).toPath();
+        this.jobCounter = new AtomicInteger(ZERO);
+    }
+
+    /**
+     * This method creates the subdirectories of the spool directory that do
+     * not exist yet.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if all subdirectories exist. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean initialize() {
+        try {
+            Files.createDirectories(this.scenariosDirectory);
+            Files.createDirectories(this.pendingDirectory);
+            Files.createDirectories(this.runningDirectory);
+            Files.createDirectories(this.doneDirectory);
+            Files.createDirectories(this.failedDirectory);
+            Files.createDirectories(this.resultsDirectory);
+            Files.createDirectories(this.temporaryDirectory);
+            return true;
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * This method copies an OSM scenario to the spool directory so that it
+     * can be simulated by workers that cannot access the original file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenarioFile the OSM file where the scenario is stored.
+     * @return the name of the scenario in the spool directory, to be used by
+     * jobs, or null if it cannot be copied.
+     * @since 2.0
+     */
+    public String addScenario(File scenarioFile) {
+        if (scenarioFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        String scenarioName = SCENARIO_PREFIX + UUID.randomUUID().toString() + OSM_EXTENSION;
+        Path temporaryFile = this.temporaryDirectory.resolve(scenarioName);
+        try {
+            Files.copy(scenarioFile.toPath(), temporaryFile);
+            Files.move(temporaryFile, this.scenariosDirectory.resolve(scenarioName), StandardCopyOption.ATOMIC_MOVE);
+            return scenarioName;
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * This method creates a new job, with a unique name, for a scenario of the
+     * spool directory. The job is not submitted.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenarioName the name of the scenario in the spool directory.
+     * @return the new job.
+     * @since 2.0
+     */
+    public TSpoolJob createJob(String scenarioName) {
+        if (scenarioName == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        // Names are sorted in submission order and are unique across hosts.
+        String jobName = String.format(JOB_NAME_FORMAT, System.currentTimeMillis(), this.jobCounter.getAndIncrement(), UUID.randomUUID().toString());
+        return new TSpoolJob(jobName, scenarioName);
+    }
+
+    /**
+     * This method submits a job, so that it can be claimed by a worker.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param spoolJob the job.
+     * @return TRUE, if the job has been submitted. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean submit(TSpoolJob spoolJob) {
+        if (spoolJob == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        Path temporaryFile = this.temporaryDirectory.resolve(spoolJob.getJobName());
+        try {
+            try (OutputStream output = Files.newOutputStream(temporaryFile)) {
+                spoolJob.store(output);
+            }
+            Files.move(temporaryFile, this.pendingDirectory.resolve(spoolJob.getJobName()), StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * This method claims the oldest pending job, if any. A job is claimed by a
+     * single worker, even if several of them try to claim it at the same time.
+     * Jobs that are not well formed are moved to the failed jobs.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the claimed job, or null if there is no pending job.
+     * @since 2.0
+     */
+    public TSpoolJob claim() {
+        for (Path pendingJob : listJobs(this.pendingDirectory)) {
+            Path runningJob = this.runningDirectory.resolve(pendingJob.getFileName());
+            try {
+                Files.move(pendingJob, runningJob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                // Another worker has claimed it first.
+                continue;
+            } catch (AtomicMoveNotSupportedException e) {
+                this.logger.error(this.translations.getString("atomicMoveNotSupported") + e.getMessage());
+                return null;
+            } catch (IOException e) {
+                this.logger.error(this.translations.getString("ioexceptionDescription") + e.getMessage());
+                continue;
+            }
+            String jobName = runningJob.getFileName().toString();
+            TSpoolJob spoolJob = null;
+            try (InputStream input = Files.newInputStream(runningJob)) {
+                spoolJob = TSpoolJob.load(jobName, input);
+            } catch (IOException e) {
+                this.logger.error(this.translations.getString("ioexceptionDescription") + e.getMessage());
+            }
+            if (spoolJob != null) {
+                return spoolJob;
+            }
+            this.logger.error(this.translations.getString("badJob") + jobName);
+            moveJob(jobName, this.runningDirectory, this.failedDirectory);
+        }
+        return null;
+    }
+
+    /**
+     * This method gets the OSM file of the scenario of a job.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param spoolJob the job.
+     * @return the OSM file of the scenario of the job.
+     * @since 2.0
+     */
+    public File getScenarioFile(TSpoolJob spoolJob) {
+        return this.scenariosDirectory.resolve(spoolJob.getScenarioName()).toFile();
+    }
+
+    /**
+     * This method gets the CSV file where the statistics of a finished job are
+     * stored.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param spoolJob the job.
+     * @return the CSV file of the statistics of the job.
+     * @since 2.0
+     */
+    public File getResultsFile(TSpoolJob spoolJob) {
+        return this.resultsDirectory.resolve(spoolJob.getJobName() + CSV_EXTENSION).toFile();
+    }
+
+    /**
+     * This method stores the statistics of a simulated job and moves it to
+     * the finished jobs. A job whose simulation was truncated by the
+     * wall-clock budget is not complete: it is moved to the failed jobs, with
+     * no statistics.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param spoolJob the claimed job.
+     * @param scenario the simulated scenario of the job.
+     * @return TRUE, if the statistics have been stored. Otherwise, FALSE, and
+     * the job is moved to the failed jobs.
+     * @since 2.0
+     */
+    public boolean complete(TSpoolJob spoolJob, TScenario scenario) {
+        if (scenario.getTopology().getTimer().isWallClockBudgetExhausted()) {
+            this.logger.error(this.translations.getString("jobTruncated") + spoolJob.getJobName());
+            fail(spoolJob);
+            return false;
+        }
+        Path temporaryFile = this.temporaryDirectory.resolve(spoolJob.getJobName() + CSV_EXTENSION);
+        boolean saved = new TStatsSaver(scenario).save(temporaryFile.toFile());
+        if (saved) {
+            try {
+                Files.move(temporaryFile, getResultsFile(spoolJob).toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                this.logger.error(this.translations.getString("ioexceptionDescription") + e.getMessage());
+                saved = false;
+            }
+        }
+        if (!saved) {
+            fail(spoolJob);
+            return false;
+        }
+        return moveJob(spoolJob.getJobName(), this.runningDirectory, this.doneDirectory);
+    }
+
+    /**
+     * This method moves a claimed job that could not be simulated to the
+     * failed jobs.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param spoolJob the claimed job.
+     * @since 2.0
+     */
+    public void fail(TSpoolJob spoolJob) {
+        moveJob(spoolJob.getJobName(), this.runningDirectory, this.failedDirectory);
+    }
+
+    /**
+     * This method gets the number of pending jobs.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of pending jobs.
+     * @since 2.0
+     */
+    public int getNumberOfPendingJobs() {
+        return listJobs(this.pendingDirectory).size();
+    }
+
+    private List<Path> listJobs(Path directory) {
+        List<Path> jobs = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+            for (Path job : directoryStream) {
+                jobs.add(job);
+            }
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.getMessage());
+        }
+        Collections.sort(jobs);
+        return jobs;
+    }
+
+    private boolean moveJob(String jobName, Path sourceDirectory, Path targetDirectory) {
+        try {
+            Files.move(sourceDirectory.resolve(jobName), targetDirectory.resolve(jobName), StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.getMessage());
+            return false;
+        }
+    }
+
+    private static final String SCENARIOS = "scenarios";
+    private static final String PENDING = "pending";
+    private static final String RUNNING = "running";
+    private static final String DONE = "done";
+    private static final String FAILED = "failed";
+    private static final String RESULTS = "results";
+    private static final String TMP = "tmp";
+    private static final String SCENARIO_PREFIX = "scenario-";
+    private static final String OSM_EXTENSION = ".osm";
+    private static final String CSV_EXTENSION = ".csv";
+    private static final String JOB_NAME_FORMAT = "job-%013d-%06d-%s";
+    private static final int ZERO = 0;
+
+    private final Path scenariosDirectory;
+    private final Path pendingDirectory;
+    private final Path runningDirectory;
+    private final Path doneDirectory;
+    private final Path failedDirectory;
+    private final Path resultsDirectory;
+    private final Path temporaryDirectory;
+    private final AtomicInteger jobCounter;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TSpoolDirectory.class);
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a job of a spool directory: the simulation of a
+ * scenario stored in the spool directory, with some of its parameters
+ * overridden and, optionally, a seed. Jobs are stored in the spool directory
+ * as properties files.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TSpoolJob {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TSpoolJob without overridden parameters nor seed.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param jobName the name of the job in the spool directory.
+     * @param scenarioName the name of the scenario in the spool directory.
+     * @since 2.0
+     */
+    TSpoolJob(String jobName, String scenarioName) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_SPOOL_JOB.getPath());
+        this.jobName = jobName;
+        this.scenarioName = scenarioName;
+        this.parameters = new EnumMap<>(TSweepParameter.class);
+        this.seeded = false;
+        this.randomSeed = ZERO;
+    }
+
+    /**
+     * This method gets the name of this job in the spool directory.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the name of the job.
+     * @since 2.0
+     */
+    public String getJobName() {
+        return this.jobName;
+    }
+
+    /**
+     * This method gets the name of the scenario of this job in the spool
+     * directory.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the name of the scenario.
+     * @since 2.0
+     */
+    public String getScenarioName() {
+        return this.scenarioName;
+    }
+
+    /**
+     * This method overrides a parameter of the scenario of this job.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param sweepParameter the parameter to be overridden.
+     * @param value the value of the parameter.
+     * @since 2.0
+     */
+    public void setParameter(TSweepParameter sweepParameter, int value) {
+        if (sweepParameter == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.parameters.put(sweepParameter, value);
+    }
+
+    /**
+     * This method gets the parameters of the scenario overridden by this job.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the overridden parameters and their values.
+     * @since 2.0
+     */
+    public Map<TSweepParameter, Integer> getParameters() {
+        return Collections.unmodifiableMap(this.parameters);
+    }
+
+    /**
+     * This method sets the seed this job has to be simulated with.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param randomSeed the seed of the simulation.
+     * @since 2.0
+     */
+    public void setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+        this.seeded = true;
+    }
+
+    /**
+     * This method sets the overridden parameters of this job in the scenario
+     * of the specified batch simulator and, if this job has a seed, seeds the
+     * batch simulator.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param batchSimulator the batch simulator of the scenario of this job,
+     * as loaded from the spool directory.
+     * @since 2.0
+     */
+    public void apply(TBatchSimulator batchSimulator) {
+        for (Map.Entry<TSweepParameter, Integer> parameter : this.parameters.entrySet()) {
+            parameter.getKey().apply(batchSimulator.getScenario(), parameter.getValue());
+        }
+        if (this.seeded) {
+            batchSimulator.setRandomSeed(this.randomSeed);
+        }
+    }
+
+    /**
+     * This method writes this job to the specified output stream.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param output the output stream.
+     * @throws IOException if the job cannot be written.
+     * @since 2.0
+     */
+    public void store(OutputStream output) throws IOException {
+        Properties jobProperties = new Properties();
+        jobProperties.setProperty(SCENARIO_KEY, this.scenarioName);
+        if (this.seeded) {
+            jobProperties.setProperty(SEED_KEY, Long.toString(this.randomSeed));
+        }
+        for (Map.Entry<TSweepParameter, Integer> parameter : this.parameters.entrySet()) {
+            jobProperties.setProperty(parameter.getKey().getParameterName(), Integer.toString(parameter.getValue()));
+        }
+        jobProperties.store(output, this.jobName);
+    }
+
+    /**
+     * This method reads a job from the specified input stream.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param jobName the name of the job in the spool directory.
+     * @param input the input stream.
+     * @return the job, or null if it is not well formed.
+     * @throws IOException if the job cannot be read.
+     * @since 2.0
+     */
+    public static TSpoolJob load(String jobName, InputStream input) throws IOException {
+        Properties jobProperties = new Properties();
+        jobProperties.load(input);
+        String scenarioName = jobProperties.getProperty(SCENARIO_KEY);
+        if (scenarioName == null) {
+            return null;
+        }
+        TSpoolJob spoolJob = new TSpoolJob(jobName, scenarioName);
+        try {
+            for (String key : jobProperties.stringPropertyNames()) {
+                if (key.equals(SEED_KEY)) {
+                    spoolJob.setRandomSeed(Long.parseLong(jobProperties.getProperty(key)));
+                } else if (!key.equals(SCENARIO_KEY)) {
+                    TSweepParameter sweepParameter = TSweepParameter.fromParameterName(key);
+                    if (sweepParameter == null) {
+                        return null;
+                    }
+                    spoolJob.setParameter(sweepParameter, Integer.parseInt(jobProperties.getProperty(key)));
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return spoolJob;
+    }
+
+    private static final String SCENARIO_KEY = "scenario";
+    private static final String SEED_KEY = "seed";
+    private static final long ZERO = 0L;
+
+    private final String jobName;
+    private final String scenarioName;
+    private final Map<TSweepParameter, Integer> parameters;
+    private boolean seeded;
+    private long randomSeed;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TSpoolJob.class);
+}
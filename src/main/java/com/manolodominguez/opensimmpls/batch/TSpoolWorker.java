@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a worker of a spool directory. It claims pending jobs
+ * of the spool directory, one after another, simulates them headlessly and
+ * stores their statistics in the spool directory, until there is no pending
+ * job. Any number of workers can work on the same spool directory at the same
+ * time.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TSpoolWorker {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TSpoolWorker for the specified spool directory.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param spoolDirectory the spool directory.
+     * @since 2.0
+     */
+    public TSpoolWorker(TSpoolDirectory spoolDirectory) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_SPOOL_WORKER.getPath());
+        if (spoolDirectory == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.spoolDirectory = spoolDirectory;
+        this.simulationOptions = new TSimulationOptions();
+        this.numberOfTruncatedJobs = ZERO;
+    }
+
+    /**
+     * This method sets the options the timer has to run every job with. A copy
+     * of them is kept, so they can be changed later without affecting this
+     * TSpoolWorker.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationOptions the options of the simulations.
+     * @since 2.0
+     */
+    public void setSimulationOptions(TSimulationOptions simulationOptions) {
+        if (simulationOptions == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.simulationOptions = new TSimulationOptions(simulationOptions);
+    }
+
+    /**
+     * This method claims and simulates pending jobs until there is no pending
+     * job in the spool directory. Jobs truncated by the wall-clock budget of
+     * the simulation options are moved to the failed jobs, with no
+     * statistics, and counted, see getNumberOfTruncatedJobs().
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of jobs this worker has finished successfully.
+     * @since 2.0
+     */
+    public int run() {
+        int finishedJobs = ZERO;
+        this.numberOfTruncatedJobs = ZERO;
+        TSpoolJob spoolJob = this.spoolDirectory.claim();
+        while (spoolJob != null) {
+            TBatchSimulator batchSimulator = simulateJob(spoolJob);
+            if (batchSimulator == null) {
+                this.logger.error(this.translations.getString("jobFailed") + spoolJob.getJobName());
+                this.spoolDirectory.fail(spoolJob);
+            } else if (batchSimulator.isWallClockBudgetExhausted()) {
+                this.logger.warn(this.translations.getString("jobTruncated") + spoolJob.getJobName());
+                this.spoolDirectory.fail(spoolJob);
+                this.numberOfTruncatedJobs++;
+            } else if (this.spoolDirectory.complete(spoolJob, batchSimulator.getScenario())) {
+                finishedJobs++;
+            }
+            spoolJob = this.spoolDirectory.claim();
+        }
+        return finishedJobs;
+    }
+
+    /**
+     * This method gets the number of jobs of the last run that were truncated
+     * by the wall-clock budget of the simulation options, and have therefore
+     * been moved to the failed jobs.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of truncated jobs.
+     * @since 2.0
+     */
+    public int getNumberOfTruncatedJobs() {
+        return this.numberOfTruncatedJobs;
+    }
+
+    private TBatchSimulator simulateJob(TSpoolJob spoolJob) {
+        TBatchSimulator batchSimulator = TBatchSimulator.fromOSMFile(this.spoolDirectory.getScenarioFile(spoolJob));
+        if (batchSimulator == null) {
+            return null;
+        }
+        batchSimulator.setSimulationOptions(this.simulationOptions);
+        spoolJob.apply(batchSimulator);
+        batchSimulator.simulate();
+        return batchSimulator;
+    }
+
+    private static final int ZERO = 0;
+    private final TSpoolDirectory spoolDirectory;
+    private TSimulationOptions simulationOptions;
+    private int numberOfTruncatedJobs;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TSpoolWorker.class);
+}
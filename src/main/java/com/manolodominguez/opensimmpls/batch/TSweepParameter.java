@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.scenario.TActiveLERNode;
+import com.manolodominguez.opensimmpls.scenario.TActiveLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TLERNode;
+import com.manolodominguez.opensimmpls.scenario.TLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TLink;
+import com.manolodominguez.opensimmpls.scenario.TNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TTrafficGeneratorNode;
+import java.util.Iterator;
+
+/**
+ * This enum implements the parameters of a scenario that can be swept by a
+ * parameter sweep. Each parameter is set to the same value in every topology
+ * element it applies to; there is no way to set it in a single link or node.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public enum TSweepParameter {
+    LINK_DELAY("linkDelay"),
+    BUFFER_SIZE("bufferSize"),
+    SWITCHING_POWER("switchingPower"),
+    DMGP_SIZE("dmgpSize"),
+    TRAFFIC_GENERATION_RATE("trafficGenerationRate");
+
+    private final String parameterName;
+
+    /**
+     * This is the constructor of the enum. It will set the name of each enum
+     * item.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param parameterName the name of the parameter in sweep specifications.
+     * @since 2.0
+     */
+    private TSweepParameter(String parameterName) {
+        this.parameterName = parameterName;
+    }
+
+    /**
+     * This method gets the name of the parameter, as used in sweep
+     * specifications and result tables.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the name of the parameter.
+     * @since 2.0
+     */
+    public String getParameterName() {
+        return this.parameterName;
+    }
+
+    /**
+     * This method gets the parameter with the specified name.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param parameterName the name of the parameter.
+     * @return the parameter, or null if there is no parameter with that name.
+     * @since 2.0
+     */
+    public static TSweepParameter fromParameterName(String parameterName) {
+        for (TSweepParameter sweepParameter : TSweepParameter.values()) {
+            if (sweepParameter.parameterName.equals(parameterName)) {
+                return sweepParameter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method sets this parameter to the specified value in every
+     * topology element of the scenario it applies to: the delay of every link,
+     * in ns; the buffer size of every LER and LSR, in MB; the switching power
+     * of every LSR and the routing power of every LER, in Mbps; the DMGP size
+     * of every active LER and LSR, in KB; and the traffic generation rate of
+     * every traffic generator, in Mbps.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenario the scenario.
+     * @param value the value of the parameter.
+     * @since 2.0
+     */
+    public void apply(TScenario scenario, int value) {
+        if (this == LINK_DELAY) {
+            Iterator<TLink> linksIterator = scenario.getTopology().getLinksIterator();
+            while (linksIterator.hasNext()) {
+                linksIterator.next().setDelay(value);
+            }
+            return;
+        }
+        Iterator<TNode> nodesIterator = scenario.getTopology().getNodesIterator();
+        while (nodesIterator.hasNext()) {
+            TNode node = nodesIterator.next();
+            switch (this) {
+                case BUFFER_SIZE:
+                    if (node instanceof TLSRNode) {
+                        ((TLSRNode) node).setBufferSizeInMBytes(value);
+                    } else if (node instanceof TActiveLSRNode) {
+                        ((TActiveLSRNode) node).setBufferSizeInMBytes(value);
+                    } else if (node instanceof TLERNode) {
+                        ((TLERNode) node).setBufferSizeInMBytes(value);
+                    } else if (node instanceof TActiveLERNode) {
+                        ((TActiveLERNode) node).setBufferSizeInMBytes(value);
+                    }
+                    break;
+                case SWITCHING_POWER:
+                    if (node instanceof TLSRNode) {
+                        ((TLSRNode) node).setSwitchingPowerInMbps(value);
+                    } else if (node instanceof TActiveLSRNode) {
+                        ((TActiveLSRNode) node).setSwitchingPowerInMbps(value);
+                    } else if (node instanceof TLERNode) {
+                        ((TLERNode) node).setRoutingPowerInMbps(value);
+                    } else if (node instanceof TActiveLERNode) {
+                        ((TActiveLERNode) node).setRoutingPowerInMbps(value);
+                    }
+                    break;
+                case DMGP_SIZE:
+                    if (node instanceof TActiveLSRNode) {
+                        ((TActiveLSRNode) node).setDMGPSizeInKB(value);
+                    } else if (node instanceof TActiveLERNode) {
+                        ((TActiveLERNode) node).setDMGPSizeInKB(value);
+                    }
+                    break;
+                case TRAFFIC_GENERATION_RATE:
+                    if (node instanceof TTrafficGeneratorNode) {
+                        ((TTrafficGeneratorNode) node).setTrafficGenerationRate(value);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.hardware.timer.ITelemetryEventListener;
+import com.manolodominguez.opensimmpls.hardware.timer.TTelemetryEvent;
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a telemetry event listener that prints every
+ * telemetry event it receives as a row of a CSV table, so that the progress of
+ * a headless simulation can be followed or stored.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TTelemetryPrinter implements ITelemetryEventListener {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TTelemetryPrinter.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param output The stream where telemetry will be printed.
+     * @since 2.0
+     */
+    public TTelemetryPrinter(PrintStream output) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TELEMETRY_PRINTER.getPath());
+        if (output == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.output = output;
+        this.headerPrinted = false;
+    }
+
+    /**
+     * This method receives a telemetry event and prints it as a CSV row. The
+     * header of the table is printed before the first row.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param telemetryEvent The telemetry event.
+     * @since 2.0
+     */
+    @Override
+    public synchronized void receiveTelemetryEvent(TTelemetryEvent telemetryEvent) {
+        if (!this.headerPrinted) {
+            this.output.println(HEADER);
+            this.headerPrinted = true;
+        }
+        this.output.println(String.format(Locale.ROOT, ROW_FORMAT,
+                telemetryEvent.getWallClockNanoseconds() / ONE_MILLION,
+                telemetryEvent.getInstant(),
+                telemetryEvent.getSimulatedNanosecondsPerSecond(),
+                telemetryEvent.getTicksPerSecond(),
+                telemetryEvent.getPacketsSwitchedPerSecond(),
+                telemetryEvent.getEventsPerSecond(),
+                telemetryEvent.getUsedHeapInBytes()));
+        this.output.flush();
+    }
+
+    private static final String HEADER = "wallClockMs,simulatedNs,simulatedNsPerSecond,ticksPerSecond,packetsSwitchedPerSecond,eventsPerSecond,usedHeapBytes";
+    private static final String ROW_FORMAT = "%d,%d,%.1f,%.1f,%.1f,%.1f,%d";
+    private static final long ONE_MILLION = 1000000L;
+
+    private final PrintStream output;
+    private boolean headerPrinted;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TTelemetryPrinter.class);
+}
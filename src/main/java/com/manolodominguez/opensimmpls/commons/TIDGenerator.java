@@ -16,18 +16,24 @@
 package com.manolodominguez.opensimmpls.commons;
 
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class implements a ID generator that generates consecutive numeric IDs.
+ * IDs can be requested one by one or in blocks of consecutive IDs and none of
+ * both ways takes a lock, so the generator can be shared by many threads.
  *
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
 @SuppressWarnings("serial")
-public class TIDGenerator {
+public class TIDGenerator implements Serializable {
 
     /**
      * This method is the constructor of the class. It is create a new instance
@@ -36,7 +42,8 @@ public class TIDGenerator {
      * @since 2.0
      */
     public TIDGenerator() {
-        identifier = DEFAULT_ID;
+        identifier = new AtomicInteger(DEFAULT_ID);
+        generation = new AtomicInteger(DEFAULT_GENERATION);
         translations = ResourceBundle.getBundle(AvailableBundles.T_ID_GENERATOR.getPath());
     }
 
@@ -45,8 +52,9 @@ public class TIDGenerator {
      *
      * @since 2.0
      */
-    public synchronized void reset() {
-        identifier = DEFAULT_ID;
+    public void reset() {
+        identifier.set(DEFAULT_ID);
+        generation.incrementAndGet();
     }
 
     /**
@@ -57,13 +65,49 @@ public class TIDGenerator {
      * value.
      * @since 2.0
      */
-    public synchronized int getNextIdentifier() throws EIDGeneratorOverflow {
-        if (identifier >= Integer.MAX_VALUE) {
-            throw new EIDGeneratorOverflow();
-        } else {
-            identifier++;
+    public int getNextIdentifier() throws EIDGeneratorOverflow {
+        return getNextIdentifierBlock(ONE);
+    }
+
+    /**
+     * This method reserves a block of consecutive IDs at once. No other call
+     * to this generator will return any of them, so the caller can hand them
+     * out on its own without coming back to this generator for each one.
+     *
+     * @param blockSize the number of consecutive IDs to be reserved.
+     * @return the first ID of the block. The last one is this value plus
+     * blockSize minus one.
+     * @throws EIDGeneratorOverflow when the ID generator has not enough IDs
+     * left for the whole block.
+     * @since 2.0
+     */
+    public int getNextIdentifierBlock(int blockSize) throws EIDGeneratorOverflow {
+        if (blockSize < ONE) {
+            logger.error(translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         }
-        return (identifier);
+        int currentIdentifier;
+        do {
+            currentIdentifier = identifier.get();
+            if (currentIdentifier > (Integer.MAX_VALUE - blockSize)) {
+                throw new EIDGeneratorOverflow();
+            }
+        } while (!identifier.compareAndSet(currentIdentifier, currentIdentifier + blockSize));
+        return (currentIdentifier + ONE);
+    }
+
+    /**
+     * This method gets the number of times the internal value of this ID
+     * generator has been set from outside. IDs reserved before the last change
+     * may be handed out again by this ID generator, so blocks of IDs reserved
+     * before must be discarded.
+     *
+     * @return the number of times the internal value of this ID generator has
+     * been reset or set.
+     * @since 2.0
+     */
+    public int getGeneration() {
+        return generation.get();
     }
 
     /**
@@ -75,10 +119,8 @@ public class TIDGenerator {
      * generator.
      * @since 2.0
      */
-    synchronized public void setIdentifierIfGreater(int newInternalIDValue) {
-        if (newInternalIDValue > identifier) {
-            identifier = newInternalIDValue;
-        }
+    public void setIdentifierIfGreater(int newInternalIDValue) {
+        identifier.accumulateAndGet(newInternalIDValue, Math::max);
     }
 
     /**
@@ -87,18 +129,27 @@ public class TIDGenerator {
      * @param newInternalIDValue the ID generator new internal value.
      * @since 2.0
      */
-    synchronized public void setIdentifier(int newInternalIDValue) {
+    public void setIdentifier(int newInternalIDValue) {
         if (newInternalIDValue < TIDGenerator.DEFAULT_ID) {
             logger.error(translations.getString("argumentOutOfRange"));
             throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         } else {
-            identifier = newInternalIDValue;
+            identifier.set(newInternalIDValue);
+            generation.incrementAndGet();
         }
     }
 
-    private int identifier;
-    private final ResourceBundle translations;
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_ID_GENERATOR.getPath());
+    }
+
+    private final AtomicInteger identifier;
+    private final AtomicInteger generation;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TIDGenerator.class);
 
     private static final int DEFAULT_ID = 0;
+    private static final int DEFAULT_GENERATION = 0;
+    private static final int ONE = 1;
 }
@@ -16,6 +16,9 @@
 package com.manolodominguez.opensimmpls.commons;
 
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +31,7 @@ import org.slf4j.LoggerFactory;
  * @version 2.0
  */
 @SuppressWarnings("serial")
-public class TIPv4AddressGenerator {
+public class TIPv4AddressGenerator implements Serializable {
 
     /**
      * This method is the constructor of the class. It is create a new instance
@@ -219,12 +222,17 @@ public class TIPv4AddressGenerator {
         return (this.octet1 + IPV4_SEPARATOR + this.octet2 + IPV4_SEPARATOR + this.octet3 + IPV4_SEPARATOR + this.octet4);
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_IPV4_ADDRESS_GENERATOR.getPath());
+    }
+
     private final int octet1;
     private int octet2;
     private int octet3;
     private int octet4;
 
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TIPv4AddressGenerator.class);
 
     private static final int DEFAULT_OCTECT1 = 10;
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.commons;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a ID generator that hands out IDs from blocks of
+ * consecutive IDs reserved in a shared ID generator. Each topology element has
+ * its own instance, so the shared ID generator is only touched once every
+ * block instead of once every ID. IDs are still unique among all the instances
+ * that share the same ID generator and the IDs handed out by a given instance
+ * always grow in the same order they are requested.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+@SuppressWarnings("serial")
+public class TLongIDBlockGenerator extends TLongIDGenerator {
+
+    /**
+     * This method is the constructor of the class. It is create a new instance
+     * of TLongIDBlockGenerator that reserves blocks of the default size.
+     *
+     * @param sharedIDGenerator the ID generator where blocks of IDs are
+     * reserved.
+     * @since 2.0
+     */
+    public TLongIDBlockGenerator(TLongIDGenerator sharedIDGenerator) {
+        this(sharedIDGenerator, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * This method is the constructor of the class. It is create a new instance
+     * of TLongIDBlockGenerator.
+     *
+     * @param sharedIDGenerator the ID generator where blocks of IDs are
+     * reserved.
+     * @param blockSize the number of IDs reserved each time the current block
+     * runs out.
+     * @since 2.0
+     */
+    public TLongIDBlockGenerator(TLongIDGenerator sharedIDGenerator, int blockSize) {
+        super();
+        translations = ResourceBundle.getBundle(AvailableBundles.T_LONG_ID_GENERATOR.getPath());
+        if (sharedIDGenerator == null) {
+            logger.error(translations.getString("badArgument"));
+            throw new IllegalArgumentException(translations.getString("badArgument"));
+        }
+        if (blockSize < ONE) {
+            logger.error(translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
+        }
+        this.sharedIDGenerator = sharedIDGenerator;
+        this.blockSize = blockSize;
+        this.currentBlock = null;
+    }
+
+    /**
+     * This method discards the IDs left in the current block. The shared ID
+     * generator is not reset.
+     *
+     * @since 2.0
+     */
+    @Override
+    public void reset() {
+        currentBlock = null;
+    }
+
+    /**
+     * This method sets the shared ID generator new internal value. The IDs
+     * left in the current block are discarded.
+     *
+     * @param newInternalIDValue the shared ID generator new internal value.
+     * @since 2.0
+     */
+    @Override
+    public void setIdentifier(long newInternalIDValue) {
+        sharedIDGenerator.setIdentifier(newInternalIDValue);
+    }
+
+    /**
+     * This method generates a new ID. A new block is reserved in the shared
+     * ID generator only when the current one runs out or when the shared ID
+     * generator has been reset since it was reserved. No lock is taken but
+     * when reserving a new block and that lock belongs to this instance, not
+     * to the shared ID generator.
+     *
+     * @return a long value that is unique.
+     * @throws EIDGeneratorOverflow when the shared ID generator reaches its
+     * maximum value.
+     * @since 2.0
+     */
+    @Override
+    public long getNextIdentifier() throws EIDGeneratorOverflow {
+        while (true) {
+            TIDBlock block = currentBlock;
+            if ((block != null) && (block.generation == sharedIDGenerator.getGeneration())) {
+                long identifier = block.nextIdentifier.getAndIncrement();
+                if (identifier <= block.lastIdentifier) {
+                    return identifier;
+                }
+            }
+            reserveBlock(block);
+        }
+    }
+
+    private synchronized void reserveBlock(TIDBlock exhaustedBlock) throws EIDGeneratorOverflow {
+        // Another thread may have reserved a new block in the meantime.
+        if (currentBlock == exhaustedBlock) {
+            int generation = sharedIDGenerator.getGeneration();
+            long firstIdentifier = sharedIDGenerator.getNextIdentifierBlock(blockSize);
+            currentBlock = new TIDBlock(firstIdentifier, firstIdentifier + blockSize - ONE, generation);
+        }
+    }
+
+    /**
+     * This method reserves a block of consecutive IDs in the shared ID
+     * generator.
+     *
+     * @param blockSize the number of consecutive IDs to be reserved.
+     * @return the first ID of the block. The last one is this value plus
+     * blockSize minus one.
+     * @throws EIDGeneratorOverflow when the shared ID generator has not enough
+     * IDs left for the whole block.
+     * @since 2.0
+     */
+    @Override
+    public long getNextIdentifierBlock(int blockSize) throws EIDGeneratorOverflow {
+        return sharedIDGenerator.getNextIdentifierBlock(blockSize);
+    }
+
+    /**
+     * This method gets the number of times the internal value of the shared ID
+     * generator has been set from outside.
+     *
+     * @return the number of times the internal value of the shared ID
+     * generator has been reset or set.
+     * @since 2.0
+     */
+    @Override
+    public int getGeneration() {
+        return sharedIDGenerator.getGeneration();
+    }
+
+    /**
+     * This method gets the ID generator where blocks of IDs are reserved.
+     *
+     * @return the shared ID generator.
+     * @since 2.0
+     */
+    public TLongIDGenerator getSharedIDGenerator() {
+        return sharedIDGenerator;
+    }
+
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_LONG_ID_GENERATOR.getPath());
+    }
+
+    /**
+     * This class implements a block of consecutive IDs reserved in the shared
+     * ID generator.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @version 2.0
+     */
+    private static class TIDBlock implements Serializable {
+
+        TIDBlock(long firstIdentifier, long lastIdentifier, int generation) {
+            this.nextIdentifier = new AtomicLong(firstIdentifier);
+            this.lastIdentifier = lastIdentifier;
+            this.generation = generation;
+        }
+
+        private final AtomicLong nextIdentifier;
+        private final long lastIdentifier;
+        private final int generation;
+    }
+
+    private final TLongIDGenerator sharedIDGenerator;
+    private final int blockSize;
+    private volatile TIDBlock currentBlock;
+    private transient ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TLongIDBlockGenerator.class);
+
+    private static final int DEFAULT_BLOCK_SIZE = 1024;
+    private static final int ONE = 1;
+}
@@ -16,18 +16,25 @@
 package com.manolodominguez.opensimmpls.commons;
 
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class implements a ID generator that generates consecutive numeric IDs.
+ * IDs can be requested one by one or in blocks of consecutive IDs and none of
+ * both ways takes a lock, so the generator can be shared by many threads.
  *
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
 @SuppressWarnings("serial")
-public class TLongIDGenerator {
+public class TLongIDGenerator implements Serializable {
 
     /**
      * This method is the constructor of the class. It is create a new instance
@@ -36,7 +43,8 @@ public class TLongIDGenerator {
      * @since 2.0
      */
     public TLongIDGenerator() {
-        identifier = DEFAULT_ID;
+        identifier = new AtomicLong(DEFAULT_ID);
+        generation = new AtomicInteger(DEFAULT_GENERATION);
         translations = ResourceBundle.getBundle(AvailableBundles.T_LONG_ID_GENERATOR.getPath());
     }
 
@@ -45,8 +53,9 @@ public class TLongIDGenerator {
      *
      * @since 2.0
      */
-    public synchronized void reset() {
-        identifier = DEFAULT_ID;
+    public void reset() {
+        identifier.set(DEFAULT_ID);
+        generation.incrementAndGet();
     }
 
     /**
@@ -55,12 +64,13 @@ public class TLongIDGenerator {
      * @param newInternalIDValue the ID generator new internal value.
      * @since 2.0
      */
-    synchronized public void setIdentifier(long newInternalIDValue) {
+    public void setIdentifier(long newInternalIDValue) {
         if (newInternalIDValue < TLongIDGenerator.DEFAULT_ID) {
             logger.error(translations.getString("argumentOutOfRange"));
             throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         } else {
-            identifier = newInternalIDValue;
+            identifier.set(newInternalIDValue);
+            generation.incrementAndGet();
         }
     }    
     
@@ -72,18 +82,62 @@ public class TLongIDGenerator {
      * value.
      * @since 2.0
      */
-    synchronized public long getNextIdentifier() throws EIDGeneratorOverflow {
-        if (identifier >= Long.MAX_VALUE) {
-            throw new EIDGeneratorOverflow();
-        } else {
-            identifier++;
+    public long getNextIdentifier() throws EIDGeneratorOverflow {
+        return getNextIdentifierBlock(ONE);
+    }
+
+    /**
+     * This method reserves a block of consecutive IDs at once. No other call
+     * to this generator will return any of them, so the caller can hand them
+     * out on its own without coming back to this generator for each one.
+     *
+     * @param blockSize the number of consecutive IDs to be reserved.
+     * @return the first ID of the block. The last one is this value plus
+     * blockSize minus one.
+     * @throws EIDGeneratorOverflow when the ID generator has not enough IDs
+     * left for the whole block.
+     * @since 2.0
+     */
+    public long getNextIdentifierBlock(int blockSize) throws EIDGeneratorOverflow {
+        if (blockSize < ONE) {
+            logger.error(translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         }
-        return (identifier);
+        long currentIdentifier;
+        do {
+            currentIdentifier = identifier.get();
+            if (currentIdentifier > (Long.MAX_VALUE - blockSize)) {
+                throw new EIDGeneratorOverflow();
+            }
+        } while (!identifier.compareAndSet(currentIdentifier, currentIdentifier + blockSize));
+        return (currentIdentifier + ONE);
+    }
+
+    /**
+     * This method gets the number of times the internal value of this ID
+     * generator has been set from outside. IDs reserved before the last change
+     * may be handed out again by this ID generator, so blocks of IDs reserved
+     * before must be discarded.
+     *
+     * @return the number of times the internal value of this ID generator has
+     * been reset or set.
+     * @since 2.0
+     */
+    public int getGeneration() {
+        return generation.get();
+    }
+
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_LONG_ID_GENERATOR.getPath());
     }
 
-    private long identifier;
-    private final ResourceBundle translations;
+    private final AtomicLong identifier;
+    private final AtomicInteger generation;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TLongIDGenerator.class);
     
     private static final long DEFAULT_ID = 0;
+    private static final int DEFAULT_GENERATION = 0;
+    private static final int ONE = 1;
 }
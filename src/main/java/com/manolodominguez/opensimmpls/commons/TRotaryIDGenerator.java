@@ -16,19 +16,25 @@
 package com.manolodominguez.opensimmpls.commons;
 
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class implements a ID generator that generates consecutive numeric IDs,
- * in a cycle that never ends.
+ * in a cycle that never ends. IDs can be requested one by one or in blocks of
+ * consecutive IDs and none of both ways takes a lock, so the generator can be
+ * shared by many threads.
  *
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
 @SuppressWarnings("serial")
-public class TRotaryIDGenerator {
+public class TRotaryIDGenerator implements Serializable {
 
     /**
      * This method is the constructor of the class. It is create a new instance
@@ -37,7 +43,8 @@ public class TRotaryIDGenerator {
      * @since 2.0
      */
     public TRotaryIDGenerator() {
-        identifier = DEFAULT_ID;
+        identifier = new AtomicInteger(DEFAULT_ID);
+        generation = new AtomicInteger(DEFAULT_GENERATION);
         translations = ResourceBundle.getBundle(AvailableBundles.T_ROTARY_ID_GENERATOR.getPath());
     }
 
@@ -46,8 +53,9 @@ public class TRotaryIDGenerator {
      *
      * @since 2.0
      */
-    public synchronized void reset() {
-        identifier = DEFAULT_ID;
+    public void reset() {
+        identifier.set(DEFAULT_ID);
+        generation.incrementAndGet();
     }
 
     /**
@@ -56,13 +64,52 @@ public class TRotaryIDGenerator {
      * @return an integer value that is unique.
      * @since 2.0
      */
-    synchronized public int getNextIdentifier() {
-        if (identifier >= Integer.MAX_VALUE) {
-            identifier = DEFAULT_ID;
-        } else {
-            identifier++;
+    public int getNextIdentifier() {
+        return getNextIdentifierBlock(ONE);
+    }
+
+    /**
+     * This method reserves a block of consecutive IDs at once. No other call
+     * to this generator will return any of them until the cycle starts again,
+     * so the caller can hand them out on its own without coming back to this
+     * generator for each one. A block never spans the end of the cycle; if the
+     * IDs left are not enough, the block starts a new cycle.
+     *
+     * @param blockSize the number of consecutive IDs to be reserved.
+     * @return the first ID of the block. The last one is this value plus
+     * blockSize minus one.
+     * @since 2.0
+     */
+    public int getNextIdentifierBlock(int blockSize) {
+        if (blockSize < ONE) {
+            logger.error(translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         }
-        return (identifier);
+        int currentIdentifier;
+        int firstIdentifier;
+        do {
+            currentIdentifier = identifier.get();
+            if (currentIdentifier > (Integer.MAX_VALUE - blockSize)) {
+                firstIdentifier = DEFAULT_ID;
+            } else {
+                firstIdentifier = currentIdentifier + ONE;
+            }
+        } while (!identifier.compareAndSet(currentIdentifier, firstIdentifier + blockSize - ONE));
+        return firstIdentifier;
+    }
+
+    /**
+     * This method gets the number of times the internal value of this ID
+     * generator has been set from outside. IDs reserved before the last change
+     * may be handed out again by this ID generator, so blocks of IDs reserved
+     * before must be discarded.
+     *
+     * @return the number of times the internal value of this ID generator has
+     * been reset or set.
+     * @since 2.0
+     */
+    public int getGeneration() {
+        return generation.get();
     }
 
     /**
@@ -71,19 +118,28 @@ public class TRotaryIDGenerator {
      * @param newInternalIDValue the ID generator new internal value.
      * @since 2.0
      */
-    synchronized public void setIdentifier(int newInternalIDValue) {
+    public void setIdentifier(int newInternalIDValue) {
         if (newInternalIDValue < TRotaryIDGenerator.DEFAULT_ID) {
             logger.error(translations.getString("argumentOutOfRange"));
             throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         } else {
-            identifier = newInternalIDValue;
+            identifier.set(newInternalIDValue);
+            generation.incrementAndGet();
         }
     }
 
-    private int identifier;
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_ROTARY_ID_GENERATOR.getPath());
+    }
+
+    private final AtomicInteger identifier;
+    private final AtomicInteger generation;
 
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TRotaryIDGenerator.class);
 
     private static final int DEFAULT_ID = 0;
+    private static final int DEFAULT_GENERATION = 0;
+    private static final int ONE = 1;
 }
@@ -15,6 +15,7 @@
  */
 package com.manolodominguez.opensimmpls.commons;
 
+import java.io.Serializable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,7 +28,7 @@ import org.slf4j.LoggerFactory;
  * @version 2.0
  */
 @SuppressWarnings("serial")
-public class TSemaphore {
+public class TSemaphore implements Serializable {
 
     /**
      * This method is the constructor of the class. It is create a new instance
@@ -18,6 +18,7 @@ package com.manolodominguez.opensimmpls.gui.simulator;
 import com.manolodominguez.opensimmpls.hardware.timer.EProgressEventGeneratorOnlyAllowASingleListener;
 import com.manolodominguez.opensimmpls.hardware.timer.TTimestamp;
 import com.manolodominguez.opensimmpls.io.osm.TOSMSaver;
+import com.manolodominguez.opensimmpls.io.trace.TTraceReader;
 import com.manolodominguez.opensimmpls.resources.images.AvailableImages;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
 import com.manolodominguez.opensimmpls.scenario.TExternalLink;
@@ -47,6 +48,8 @@ import com.manolodominguez.opensimmpls.gui.dialogs.JActiveLSRWindow;
 import com.manolodominguez.opensimmpls.gui.dialogs.JTrafficSinkWindow;
 import com.manolodominguez.opensimmpls.gui.utils.TImageBroker;
 import com.manolodominguez.opensimmpls.gui.utils.JOSMFilter;
+import com.manolodominguez.opensimmpls.gui.utils.JTraceFilter;
+import com.manolodominguez.opensimmpls.gui.utils.TTraceReplayer;
 import com.manolodominguez.opensimmpls.gui.utils.TProgressEventListener;
 import com.manolodominguez.opensimmpls.gui.utils.JScrollablePanel;
 import java.awt.BorderLayout;
@@ -164,8 +167,10 @@ public class JScenarioWindow extends JInternalFrame {
         this.iconContainerStopSimulation = new JLabel();
         this.iconContainerResumeSimulation = new JLabel();
         this.iconContainerPauseSimulation = new JLabel();
+        this.iconContainerReplayTrace = new JLabel();
         this.progressBarSimulation = new JProgressBar();
         this.sliderSimulationSpeedInMsPerTick = new JSlider();
+        this.sliderReplayPosition = new JSlider();
         this.labelSimulationSpeedFaster = new JLabel();
         this.labelSimulationSpeedSlower = new JLabel();
         this.scrollPaneSimulation = new JScrollPane();
@@ -872,6 +877,25 @@ public class JScenarioWindow extends JInternalFrame {
             }
         });
         this.simulationToolbarPanel.add(this.iconContainerPauseSimulation);
+        this.iconContainerReplayTrace.setIcon(this.imageBroker.getImageIcon(AvailableImages.OPEN_MENU_COLOR));
+        this.iconContainerReplayTrace.setToolTipText(this.translations.getString("VentanaHija.Topic.ReplayTrace"));
+        this.iconContainerReplayTrace.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseEntered(MouseEvent evt) {
+                setCursor(new Cursor(Cursor.HAND_CURSOR));
+            }
+
+            @Override
+            public void mouseExited(MouseEvent evt) {
+                setCursor(new Cursor(Cursor.DEFAULT_CURSOR));
+            }
+
+            @Override
+            public void mousePressed(MouseEvent evt) {
+                handleClickOnReplayTraceIcon(evt);
+            }
+        });
+        this.simulationToolbarPanel.add(this.iconContainerReplayTrace);
         // FIX: Do not use harcoded values. Use class constants instead
         this.progressBarSimulation.setFont(new Font("Dialog", 0, 12));
         this.progressBarSimulation.setToolTipText(this.translations.getString("VentanaHija.BarraProgreso.tooltip"));
@@ -908,6 +932,20 @@ public class JScenarioWindow extends JInternalFrame {
         this.labelSimulationSpeedSlower.setForeground(new Color(102, 102, 102));
         this.labelSimulationSpeedSlower.setText(this.translations.getString("VentanaHija.Simulacion.slower"));
         this.simulationToolbarPanel.add(this.labelSimulationSpeedSlower);
+        this.sliderReplayPosition.setMinimum(0);
+        this.sliderReplayPosition.setMaximum(REPLAY_POSITION_STEPS);
+        this.sliderReplayPosition.setValue(0);
+        this.sliderReplayPosition.setEnabled(false);
+        this.sliderReplayPosition.setToolTipText(this.translations.getString("VentanaHija.Simulacion.ReplayPosition.tooltip"));
+        // FIX: Do not use harcoded values. Use class constants instead
+        this.sliderReplayPosition.setPreferredSize(new Dimension(100, 20));
+        this.sliderReplayPosition.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent evt) {
+                handleChangeInReplayPosition(evt);
+            }
+        });
+        this.simulationToolbarPanel.add(this.sliderReplayPosition);
         this.simulationMainContainerPanel.add(this.simulationToolbarPanel, BorderLayout.NORTH);
         this.scrollPaneSimulation.setBorder(new BevelBorder(BevelBorder.LOWERED));
         this.simulationPanel.setBorder(new EtchedBorder());
@@ -2356,6 +2394,90 @@ public class JScenarioWindow extends JInternalFrame {
         }
     }
 
+    /**
+     * This method is called when the user does click on the "Replay trace"
+     * icon in the simulation panel. It replays in the simulation panel an
+     * event trace recorded from this scenario, or stops the trace being
+     * replayed.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return evt The event that triggers this method
+     * @since 2.0
+     */
+    private void handleClickOnReplayTraceIcon(MouseEvent evt) {
+        if (this.traceReplayer != null) {
+            stopTraceReplay();
+            return;
+        }
+        if (this.scenario.getTopology().getTimer().isRunning()) {
+            JWarningWindow warningWindow = new JWarningWindow(this.parent, true, this.imageBroker);
+            warningWindow.setWarningMessage(this.translations.getString("VentanaHija.ReplayWhileSimulating"));
+            warningWindow.setVisible(true);
+            return;
+        }
+        JFileChooser openDialog = new JFileChooser();
+        openDialog.setFileFilter(new JTraceFilter());
+        openDialog.setAcceptAllFileFilterUsed(false);
+        openDialog.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        if (openDialog.showOpenDialog(this.parent) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        TTraceReader reader = new TTraceReader();
+        if ((!reader.open(openDialog.getSelectedFile())) || (reader.getNumberOfEvents() == 0)) {
+            JWarningWindow warningWindow = new JWarningWindow(this.parent, true, this.imageBroker);
+            warningWindow.setWarningMessage(this.translations.getString("VentanaHija.TraceNotOpened"));
+            warningWindow.setVisible(true);
+            return;
+        }
+        this.traceReader = reader;
+        this.traceReplayer = new TTraceReplayer(reader, this.scenario.getTopology(), this.simulationPanel);
+        this.traceReplayer.setProgressEventListener(this.progressEventListener);
+        // A live simulation must not paint on the panel during the replay.
+        this.scenario.getSimulation().setSimulationPanel(null);
+        this.iconContainterStartSimulation.setEnabled(false);
+        this.sliderReplayPosition.setValue(0);
+        this.sliderReplayPosition.setEnabled(true);
+        this.traceReplayer.start();
+    }
+
+    /**
+     * This method is called when the user moves the replay position slider in
+     * the simulation panel. Once the slider is released, the replay goes on
+     * from the selected position of the trace.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return evt The event that triggers this method
+     * @since 2.0
+     */
+    private void handleChangeInReplayPosition(ChangeEvent evt) {
+        if ((this.traceReplayer != null) && (!this.sliderReplayPosition.getValueIsAdjusting())) {
+            long lastInstant = this.traceReader.getLastInstant();
+            this.traceReplayer.seek((lastInstant * this.sliderReplayPosition.getValue()) / REPLAY_POSITION_STEPS);
+        }
+    }
+
+    /**
+     * This method stops the event trace being replayed, if any, and gives the
+     * simulation panel back to the simulation of the scenario.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private void stopTraceReplay() {
+        if (this.traceReplayer == null) {
+            return;
+        }
+        this.traceReplayer.stop();
+        this.traceReader.close();
+        this.traceReplayer = null;
+        this.traceReader = null;
+        this.sliderReplayPosition.setEnabled(false);
+        this.simulationPanel.reset();
+        this.simulationPanel.repaint();
+        this.scenario.getSimulation().setSimulationPanel(this.simulationPanel);
+        activeOptionsAfterStop();
+    }
+
     /**
      * This method is called when the user does click on the "Start" icon in the
      * simulation panel. It starts the simulation.
@@ -2366,6 +2488,7 @@ public class JScenarioWindow extends JInternalFrame {
      */
     private void handleClickOnStartIcon(MouseEvent evt) {
         if (this.iconContainterStartSimulation.isEnabled()) {
+            stopTraceReplay();
             this.scenario.reset();
             if (!this.scenario.getTopology().getTimer().isRunning()) {
                 this.scenario.getTopology().getTimer().setFinishTimestamp(new TTimestamp(this.sliderOptionsSimulationLengthMs.getValue(), this.sliderOptionsSimulationLengthNs.getValue()));
@@ -2472,6 +2595,7 @@ public class JScenarioWindow extends JInternalFrame {
      * @since 2.0
      */
     public void close() {
+        stopTraceReplay();
         this.setVisible(false);
         this.dispose();
     }
@@ -2755,6 +2879,10 @@ public class JScenarioWindow extends JInternalFrame {
     }
 
     private TProgressEventListener progressEventListener;
+    private TTraceReplayer traceReplayer;
+    private TTraceReader traceReader;
+    private JLabel iconContainerReplayTrace;
+    private JSlider sliderReplayPosition;
     private TScenario scenario;
     private TNode selectedNode;
     private TImageBroker imageBroker;
@@ -2831,4 +2959,6 @@ public class JScenarioWindow extends JInternalFrame {
     private JSlider sliderOptionsTickDurationInNs;
     private JComboBox comboBoxNodeToAnalize;
     private ResourceBundle translations;
+
+    private static final int REPLAY_POSITION_STEPS = 1000;
 }
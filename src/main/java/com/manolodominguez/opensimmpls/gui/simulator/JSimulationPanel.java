@@ -32,25 +32,34 @@ import com.manolodominguez.opensimmpls.scenario.TTopology;
 import com.manolodominguez.opensimmpls.scenario.TLink;
 import com.manolodominguez.opensimmpls.scenario.TNode;
 import com.manolodominguez.opensimmpls.gui.utils.TImageBroker;
-import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Point;
 import java.awt.Polygon;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.util.Iterator;
 import java.util.ResourceBundle;
-import java.util.TreeSet;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 
 /**
  * This class implements a panel that shows the simulation of a given scenario.
+ * The simulation publishes a frame with the events of each tick as soon as the
+ * tick finishes and the panel paints the latest one at a fixed frame rate.
+ * Frames published while the panel is still painting are skipped, so painting
+ * never holds the simulation back. The topology itself (domain, links, nodes
+ * and their names) is painted once into a cached image that is only painted
+ * again when the version of the screen appearance of the topology changes;
+ * each frame only repaints the regions where the events of the previous frame
+ * and the new one are drawn.
  *
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
@@ -92,21 +101,21 @@ public class JSimulationPanel extends JPanel {
     private void initComponents() {
         this.translations = ResourceBundle.getBundle(AvailableBundles.SIMULATION_PANEL.getPath());
         this.screenSize = Toolkit.getDefaultToolkit().getScreenSize();
-        this.bufferedImage = null;
-        this.bufferedG2D = null;
+        this.topologyLayer = null;
+        this.topologyLayerVersion = ZERO;
+        this.paintedOverlayBounds = null;
         this.topology = null;
         // FIX: Do not use harcoded values. Use class constants instead.
         this.maxX = 10;
         // FIX: Do not use harcoded values. Use class constants instead.
         this.maxY = 10;
-        this.eventsBuffer = new TreeSet();
-        this.simulationBuffer = new TreeSet();
-        // FIX: Do not use harcoded values. Use class constants instead.
-        this.currentTick = 0;
+        this.framePublisher = new TSimulationFramePublisher();
+        this.paintedFrame = null;
+        this.frameTimer = new Timer(FRAME_PERIOD_IN_MS, actionEvent -> repaintIfNewFrame());
+        this.frameTimer.setCoalesce(true);
         // FIX: Do not use harcoded values. Use class constants instead.
         this.simulationSpeedInMsPerTick = 0;
         this.showLegend = false;
-        this.eventsBuffersSemaphore = new TSemaphore();
     }
 
     /**
@@ -116,22 +125,8 @@ public class JSimulationPanel extends JPanel {
      * @since 2.0
      */
     public void reset() {
-        this.eventsBuffersSemaphore.setRed();
-        Iterator eventsIterator = null;
-        eventsIterator = this.eventsBuffer.iterator();
-        while (eventsIterator.hasNext()) {
-            eventsIterator.next();
-            eventsIterator.remove();
-        }
-        eventsIterator = this.simulationBuffer.iterator();
-        while (eventsIterator.hasNext()) {
-            eventsIterator.next();
-            eventsIterator.remove();
-        }
+        this.framePublisher.reset();
         this.showLegend = false;
-        this.eventsBuffersSemaphore.setGreen();
-        // FIX: Do not use harcoded values. Use class constants instead.
-        this.currentTick = 0;
     }
 
     /**
@@ -143,6 +138,7 @@ public class JSimulationPanel extends JPanel {
      */
     public void setTopology(TTopology topology) {
         this.topology = topology;
+        this.topologyLayer = null;
     }
 
     /**
@@ -178,13 +174,17 @@ public class JSimulationPanel extends JPanel {
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @param graphics2D the place where the topology is going to be painted.
+     * @param width the width of the place where the topology is going to be
+     * painted.
+     * @param height the height of the place where the topology is going to be
+     * painted.
      * @since 2.0
      */
-    private void prepareImage(Graphics2D graphics2D) {
+    private void prepareImage(Graphics2D graphics2D, int width, int height) {
         graphics2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         graphics2D.setColor(Color.WHITE);
         // FIX: Do not use harcoded values. Use class constants instead.
-        graphics2D.fillRect(0, 0, this.screenSize.width, this.screenSize.height);
+        graphics2D.fillRect(0, 0, width, height);
     }
 
     /**
@@ -259,25 +259,19 @@ public class JSimulationPanel extends JPanel {
                 graphics2D.setColor(INTERNAL_LINK_COLOR);
             }
             if (link.isBroken()) {
-                float dash1[] = {5.0f};
-                // FIX: Do not use harcoded values. Use class constants instead.
-                BasicStroke dashed = new BasicStroke(2.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, dash1, 0.0f);
                 graphics2D.setColor(BROKEN_LINK_COLOR);
-                graphics2D.setStroke(dashed);
+                graphics2D.setStroke(BROKEN_LINK_STROKE);
             }
             // FIX: Do not use harcoded values. Use class constants instead.
             graphics2D.drawLine(headEnd.x + 24, headEnd.y + 24, tailEnd.x + 24, tailEnd.y + 24);
-            graphics2D.setStroke(new BasicStroke((float) 1));
+            graphics2D.setStroke(DEFAULT_STROKE);
 
             if (!link.isBroken()) {
                 if (link.getLinkType() == TLink.INTERNAL_LINK) {
                     TInternalLink internalLink = (TInternalLink) link;
                     if (internalLink.isBeingUsedByAnyLSP()) {
-                        float dash1[] = {5.0f};
-                        // FIX: Do not use harcoded values. Use class constants instead.
-                        BasicStroke dashed = new BasicStroke(0.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, dash1, 0.0f);
                         graphics2D.setColor(this.LSP_COLOR);
-                        graphics2D.setStroke(dashed);
+                        graphics2D.setStroke(LSP_STROKE);
                         if (headEnd.x == tailEnd.x) {
                             // FIX: Do not use harcoded values. Use class constants instead.
                             graphics2D.drawLine(headEnd.x + 20, headEnd.y + 24, tailEnd.x + 20, tailEnd.y + 24);
@@ -291,7 +285,7 @@ public class JSimulationPanel extends JPanel {
                             // FIX: Do not use harcoded values. Use class constants instead.
                             graphics2D.drawLine(headEnd.x + 28, headEnd.y + 20, tailEnd.x + 28, tailEnd.y + 20);
                         }
-                        graphics2D.setStroke(new BasicStroke(1));
+                        graphics2D.setStroke(DEFAULT_STROKE);
                     }
                 }
             }
@@ -299,12 +293,8 @@ public class JSimulationPanel extends JPanel {
                 if (link.getLinkType() == TLink.INTERNAL_LINK) {
                     TInternalLink internalLink = (TInternalLink) link;
                     if (internalLink.isBeingUsedByAnyBackupLSP()) {
-                        // FIX: Do not use harcoded values. Use class constants instead.
-                        float dash1[] = {10.0f, 5.0f, 0.2f, 5.0f};
-                        // FIX: Do not use harcoded values. Use class constants instead.
-                        BasicStroke dashed = new BasicStroke(1.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, dash1, 0.0f);
                         graphics2D.setColor(LSP_COLOR);
-                        graphics2D.setStroke(dashed);
+                        graphics2D.setStroke(BACKUP_LSP_STROKE);
                         if (headEnd.x == tailEnd.x) {
                             // FIX: Do not use harcoded values. Use class constants instead.
                             graphics2D.drawLine(headEnd.x + 28, headEnd.y + 24, tailEnd.x + 28, tailEnd.y + 24);
@@ -318,7 +308,7 @@ public class JSimulationPanel extends JPanel {
                             // FIX: Do not use harcoded values. Use class constants instead.
                             graphics2D.drawLine(headEnd.x + 20, headEnd.y + 28, tailEnd.x + 20, tailEnd.y + 28);
                         }
-                        graphics2D.setStroke(new BasicStroke(1));
+                        graphics2D.setStroke(DEFAULT_STROKE);
                     }
                 }
             }
@@ -375,9 +365,6 @@ public class JSimulationPanel extends JPanel {
                 // FIX: Do not use harcoded values. Use class constants instead.
                 this.maxY = nodePosition.y + 48;
             }
-            this.setPreferredSize(new Dimension(this.maxX, this.maxY));
-            this.revalidate();
-
             int nodeType = node.getNodeType();
             switch (nodeType) {
                 case TNode.TRAFFIC_GENERATOR: {
@@ -445,6 +432,8 @@ public class JSimulationPanel extends JPanel {
                 graphics2D.drawRoundRect(posX - 3, posY - 13, textWidth + 5, 17, 10, 10);
             }
         }
+        this.setPreferredSize(new Dimension(this.maxX, this.maxY));
+        this.revalidate();
     }
 
     /**
@@ -464,7 +453,10 @@ public class JSimulationPanel extends JPanel {
 
     /**
      * This method queues a new simulation event to be painted in the simulation
-     * panel when needed.
+     * panel when needed. When the event belongs to a new tick, the events of
+     * the previous one are published as a new frame and the calling thread
+     * waits as long as the simulation speed says. It never waits for the panel
+     * to be painted.
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @param simulationEvent a new simulation event to be painted in the
@@ -472,28 +464,7 @@ public class JSimulationPanel extends JPanel {
      * @since 2.0
      */
     public void addEvent(TSimulationEvent simulationEvent) {
-        this.eventsBuffersSemaphore.setRed();
-        if (simulationEvent.getInstant() <= this.currentTick) {
-            this.eventsBuffer.add(simulationEvent);
-            this.eventsBuffersSemaphore.setGreen();
-        } else {
-            this.currentTick = simulationEvent.getInstant();
-            Iterator simulationEventsBufferIterator = this.simulationBuffer.iterator();
-            TSimulationEvent evento = null;
-            while (simulationEventsBufferIterator.hasNext()) {
-                simulationEventsBufferIterator.next();
-                simulationEventsBufferIterator.remove();
-            }
-            simulationEventsBufferIterator = this.eventsBuffer.iterator();
-            evento = null;
-            while (simulationEventsBufferIterator.hasNext()) {
-                evento = (TSimulationEvent) simulationEventsBufferIterator.next();
-                this.simulationBuffer.add(evento);
-                simulationEventsBufferIterator.remove();
-            }
-            this.eventsBuffersSemaphore.setGreen();
-            repaint();
-            this.eventsBuffer.add(simulationEvent);
+        if (this.framePublisher.addEvent(simulationEvent)) {
             try {
                 // FIX: Do not use static access to sleep() method
                 Thread.currentThread().sleep(this.simulationSpeedInMsPerTick);
@@ -510,15 +481,12 @@ public class JSimulationPanel extends JPanel {
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @param graphics2D the place where the topology is going to be painted.
+     * @param frame the frame whose events are going to be painted.
      * @since 2.0
      */
-    private void paintPacketsEvents(Graphics2D graphics2D) {
-        this.eventsBuffersSemaphore.setRed();
+    private void paintPacketsEvents(Graphics2D graphics2D, TSimulationFrame frame) {
         try {
-            Iterator simulationEventsIterator = this.simulationBuffer.iterator();
-            TSimulationEvent event = null;
-            while (simulationEventsIterator.hasNext()) {
-                event = (TSimulationEvent) simulationEventsIterator.next();
+            for (TSimulationEvent event : frame.getSimulationEvents()) {
                 if (event != null) {
                     if (event.getSubtype() == TSimulationEvent.PACKET_ON_FLY) {
                         TSimulationEventPacketOnFly simulationEventPacketOnFly = (TSimulationEventPacketOnFly) event;
@@ -605,7 +573,6 @@ public class JSimulationPanel extends JPanel {
             // FIX: This is ugly.
             e.printStackTrace();
         }
-        this.eventsBuffersSemaphore.setGreen();
     }
 
     /**
@@ -613,15 +580,12 @@ public class JSimulationPanel extends JPanel {
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @param graphics2D the place where the topology is going to be painted.
+     * @param frame the frame whose events are going to be painted.
      * @since 2.0
      */
-    private void paintNodesEvents(Graphics2D graphics2D) {
-        this.eventsBuffersSemaphore.setRed();
+    private void paintNodesEvents(Graphics2D graphics2D, TSimulationFrame frame) {
         try {
-            TSimulationEvent event = null;
-            Iterator simulationEventsIterator = this.simulationBuffer.iterator();
-            while (simulationEventsIterator.hasNext()) {
-                event = (TSimulationEvent) simulationEventsIterator.next();
+            for (TSimulationEvent event : frame.getSimulationEvents()) {
                 if (event != null) {
                     if (event.getSubtype() == TSimulationEvent.NODE_CONGESTED) {
                         TSimulationEventNodeCongested simulationEventNodeCongested = (TSimulationEventNodeCongested) event;
@@ -685,7 +649,6 @@ public class JSimulationPanel extends JPanel {
             // FIX: This is ugly.
             e.printStackTrace();
         }
-        this.eventsBuffersSemaphore.setGreen();
     }
 
     /**
@@ -693,15 +656,12 @@ public class JSimulationPanel extends JPanel {
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @param graphics2D the place where the topology is going to be painted.
+     * @param frame the frame whose events are going to be painted.
      * @since 2.0
      */
-    private void paintLinksEvents(Graphics2D graphics2D) {
-        this.eventsBuffersSemaphore.setRed();
+    private void paintLinksEvents(Graphics2D graphics2D, TSimulationFrame frame) {
         try {
-            TSimulationEvent event = null;
-            Iterator simulationEventsIterator = this.simulationBuffer.iterator();
-            while (simulationEventsIterator.hasNext()) {
-                event = (TSimulationEvent) simulationEventsIterator.next();
+            for (TSimulationEvent event : frame.getSimulationEvents()) {
                 if (event != null) {
                     if (event.getSubtype() == TSimulationEvent.LINK_BROKEN) {
                         TLink link = (TLink) event.getSource();
@@ -720,7 +680,6 @@ public class JSimulationPanel extends JPanel {
             // FIX: This is ugly.
             e.printStackTrace();
         }
-        this.eventsBuffersSemaphore.setGreen();
     }
 
     /**
@@ -728,27 +687,42 @@ public class JSimulationPanel extends JPanel {
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @param graphics2D the place where the topology is going to be painted.
+     * @param frame the frame whose tick number is going to be painted.
      * @since 2.0
      */
-    private void paintCurrentTick(Graphics2D graphics2D) {
-        // FIX: Do not use harcoded values. Use class constants instead.
-        int xPosition = 8;
-        // FIX: Do not use harcoded values. Use class constants instead.
-        int yPosition = 18;
-        String tickText = this.currentTick + " " + translations.getString("JPanelSimulacion.Ns");
+    private void paintCurrentTick(Graphics2D graphics2D, TSimulationFrame frame) {
+        int xPosition = TICK_X_POSITION;
+        int yPosition = TICK_Y_POSITION;
+        String tickText = frame.getInstant() + " " + translations.getString("JPanelSimulacion.Ns");
         FontMetrics fontMetrics = this.getFontMetrics(this.getFont());
         int textWidth = fontMetrics.charsWidth(tickText.toCharArray(), 0, tickText.length());
-        this.bufferedG2D.setColor(Color.LIGHT_GRAY);
+        graphics2D.setColor(Color.LIGHT_GRAY);
         // FIX: Do not use harcoded values. Use class constants instead.
-        this.bufferedG2D.fillRect(xPosition - 2, yPosition - 12, textWidth + 6, 18);
-        this.bufferedG2D.setColor(Color.WHITE);
+        graphics2D.fillRect(xPosition - 2, yPosition - 12, textWidth + 6, 18);
+        graphics2D.setColor(Color.WHITE);
         // FIX: Do not use harcoded values. Use class constants instead.
-        this.bufferedG2D.fillRect(xPosition - 3, yPosition - 13, textWidth + 5, 17);
-        this.bufferedG2D.setColor(Color.BLACK);
+        graphics2D.fillRect(xPosition - 3, yPosition - 13, textWidth + 5, 17);
+        graphics2D.setColor(Color.BLACK);
         // FIX: Do not use harcoded values. Use class constants instead.
-        this.bufferedG2D.drawString(tickText, xPosition, yPosition);
+        graphics2D.drawString(tickText, xPosition, yPosition);
         // FIX: Do not use harcoded values. Use class constants instead.
-        this.bufferedG2D.drawRect(xPosition - 3, yPosition - 13, textWidth + 5, 17);
+        graphics2D.drawRect(xPosition - 3, yPosition - 13, textWidth + 5, 17);
+    }
+
+    /**
+     * This method gets the region where the tick number of the specified frame
+     * is painted.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param frame the frame whose tick number is painted.
+     * @return the region where the tick number is painted.
+     * @since 2.0
+     */
+    private Rectangle getCurrentTickBounds(TSimulationFrame frame) {
+        String tickText = frame.getInstant() + " " + translations.getString("JPanelSimulacion.Ns");
+        FontMetrics fontMetrics = this.getFontMetrics(this.getFont());
+        int textWidth = fontMetrics.charsWidth(tickText.toCharArray(), 0, tickText.length());
+        return new Rectangle(TICK_X_POSITION - TICK_MARGIN, TICK_Y_POSITION - TICK_HEIGHT, textWidth + TICK_MARGIN + TICK_MARGIN, TICK_HEIGHT + TICK_MARGIN + TICK_MARGIN);
     }
 
     /**
@@ -874,56 +848,158 @@ public class JSimulationPanel extends JPanel {
             // FIX: Do not use harcoded values. Use class constants instead.
             graphics2D.drawString(this.translations.getString("JPanelSimulacion.Paquete_conmutado"), upperLeftX + 23, upperLeftY + 72);
             // FIX: Do not use harcoded values. Use class constants instead.
-            float dash1[] = {5.0f};
-            // FIX: Do not use harcoded values. Use class constants instead.
-            BasicStroke dashed = new BasicStroke(1.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, dash1, 0.0f);
-            this.bufferedG2D.setColor(this.LSP_COLOR);
-            this.bufferedG2D.setStroke(dashed);
+            graphics2D.setColor(this.LSP_COLOR);
+            graphics2D.setStroke(LEGEND_LSP_STROKE);
             // FIX: Do not use harcoded values. Use class constants instead.
             graphics2D.drawLine(upperLeftX - 5, upperLeftY + 84, upperLeftX - 5 + 30, upperLeftY + 84);
-            this.bufferedG2D.setColor(Color.BLACK);
+            graphics2D.setColor(Color.BLACK);
             // FIX: Do not use harcoded values. Use class constants instead.
             graphics2D.drawString(this.translations.getString("JPanelSimulacion.LSP"), upperLeftX + 35, upperLeftY + 90);
-            // FIX: Do not use harcoded values. Use class constants instead.
-            float dash2[] = {10.0f, 5.0f, 0.2f, 5.0f};
-            // FIX: Do not use harcoded values. Use class constants instead.
-            BasicStroke dashed2 = new BasicStroke(0.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, dash2, 0.0f);
-            this.bufferedG2D.setColor(Color.BLACK);
-            this.bufferedG2D.setStroke(dashed2);
+            graphics2D.setColor(Color.BLACK);
+            graphics2D.setStroke(LEGEND_BACKUP_LSP_STROKE);
             // FIX: Do not use harcoded values. Use class constants instead.
             graphics2D.drawLine(upperLeftX - 5, upperLeftY + 102, upperLeftX - 5 + 30, upperLeftY + 102);
-            this.bufferedG2D.setColor(Color.BLACK);
+            graphics2D.setColor(Color.BLACK);
             // FIX: Do not use harcoded values. Use class constants instead.
             graphics2D.drawString(this.translations.getString("JPanelSimulacion.LSP_de_respaldo"), upperLeftX + 35, upperLeftY + 108);
-            this.bufferedG2D.setStroke(new BasicStroke(1.0f));
+            graphics2D.setStroke(DEFAULT_STROKE);
+        }
+    }
+
+    /**
+     * This method paints the domain, links and nodes of the topology into the
+     * topology layer, creating it if needed. Events are never painted here.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private void paintTopologyLayer() {
+        int width = Math.max(this.screenSize.width, this.getWidth());
+        int height = Math.max(this.screenSize.height, this.getHeight());
+        if ((this.topologyLayer == null) || (this.topologyLayer.getWidth() != width) || (this.topologyLayer.getHeight() != height)) {
+            GraphicsConfiguration graphicsConfiguration = this.getGraphicsConfiguration();
+            if (graphicsConfiguration != null) {
+                this.topologyLayer = graphicsConfiguration.createCompatibleImage(width, height);
+            } else {
+                this.topologyLayer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+        }
+        Graphics2D layerG2D = this.topologyLayer.createGraphics();
+        try {
+            prepareImage(layerG2D, width, height);
+            paintDomain(layerG2D);
+            paintLinks(layerG2D);
+            paintNodes(layerG2D);
+        } finally {
+            layerG2D.dispose();
+        }
+    }
+
+    /**
+     * This method gets the region where the events of the specified frame are
+     * painted.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param frame the frame whose events are painted.
+     * @return the region where the events of the frame are painted, or null if
+     * no event of the frame is painted.
+     * @since 2.0
+     */
+    private Rectangle getOverlayBounds(TSimulationFrame frame) {
+        Rectangle overlayBounds = null;
+        for (TSimulationEvent event : frame.getSimulationEvents()) {
+            Rectangle eventBounds = null;
+            switch (event.getSubtype()) {
+                case TSimulationEvent.PACKET_ON_FLY: {
+                    TSimulationEventPacketOnFly simulationEventPacketOnFly = (TSimulationEventPacketOnFly) event;
+                    Point packetPosition = ((TLink) event.getSource()).getScreenPacketPosition(simulationEventPacketOnFly.getTransitPercentage());
+                    eventBounds = new Rectangle(packetPosition.x - PACKET_OVERLAY_HALF_SIZE, packetPosition.y - PACKET_OVERLAY_HALF_SIZE, PACKET_OVERLAY_HALF_SIZE + PACKET_OVERLAY_HALF_SIZE, PACKET_OVERLAY_HALF_SIZE + PACKET_OVERLAY_HALF_SIZE);
+                    break;
+                }
+                case TSimulationEvent.PACKET_DISCARDED:
+                case TSimulationEvent.PACKET_GENERATED:
+                case TSimulationEvent.PACKET_SENT:
+                case TSimulationEvent.PACKET_RECEIVED:
+                case TSimulationEvent.PACKET_SWITCHED:
+                case TSimulationEvent.PACKET_ROUTED:
+                case TSimulationEvent.NODE_CONGESTED: {
+                    Point nodePosition = ((TNode) event.getSource()).getScreenPosition();
+                    eventBounds = new Rectangle(nodePosition.x + NODE_OVERLAY_X_OFFSET, nodePosition.y + NODE_OVERLAY_Y_OFFSET, NODE_OVERLAY_WIDTH, NODE_OVERLAY_HEIGHT);
+                    break;
+                }
+                case TSimulationEvent.LINK_BROKEN:
+                case TSimulationEvent.LINK_RECOVERED: {
+                    Point linkCenter = ((TLink) event.getSource()).getScreenPacketPosition(LINK_CENTER_PERCENTAGE);
+                    eventBounds = new Rectangle(linkCenter.x - LINK_OVERLAY_HALF_SIZE, linkCenter.y - LINK_OVERLAY_HALF_SIZE, LINK_OVERLAY_HALF_SIZE + LINK_OVERLAY_HALF_SIZE, LINK_OVERLAY_HALF_SIZE + LINK_OVERLAY_HALF_SIZE);
+                    break;
+                }
+            }
+            if (eventBounds != null) {
+                if (overlayBounds == null) {
+                    overlayBounds = eventBounds;
+                } else {
+                    overlayBounds.add(eventBounds);
+                }
+            }
         }
+        return overlayBounds;
     }
 
     /**
-     * This method gets a screeenshot corresponding to the current topology
-     * simulation.
+     * This method repaints the panel if a frame has been published since the
+     * last time the panel was painted. It is called by the frame timer, in the
+     * event dispatch thread.
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
-     * @return a screeenshot corresponding to the current topology simulation.
      * @since 2.0
      */
-    private BufferedImage getSimulationScreenshot() {
-        if (this.bufferedImage == null) {
-            this.bufferedImage = new BufferedImage(this.screenSize.width, this.screenSize.height, BufferedImage.TYPE_4BYTE_ABGR);
-            this.bufferedG2D = this.bufferedImage.createGraphics();
+    private void repaintIfNewFrame() {
+        if ((this.topology != null) && (this.topologyLayer != null) && (this.topology.getScreenAppearanceVersion() != this.topologyLayerVersion)) {
+            repaint();
+            return;
         }
-        prepareImage(this.bufferedG2D);
-        if (this.topology != null) {
-            paintDomain(this.bufferedG2D);
-            paintLinks(this.bufferedG2D);
-            paintPacketsEvents(this.bufferedG2D);
-            paintNodes(this.bufferedG2D);
-            paintNodesEvents(this.bufferedG2D);
-            paintLinksEvents(this.bufferedG2D);
-            paintCurrentTick(this.bufferedG2D);
-            paintLegend(this.bufferedG2D);
+        TSimulationFrame frame = this.framePublisher.getLatestFrame();
+        if ((frame != this.paintedFrame) && (this.paintedFrame != null)) {
+            // Only the regions where the previous frame was painted and where
+            // the new one will be painted need to be painted again.
+            Rectangle dirtyRegion = getCurrentTickBounds(frame);
+            dirtyRegion.add(getCurrentTickBounds(this.paintedFrame));
+            if (this.paintedOverlayBounds != null) {
+                dirtyRegion.add(this.paintedOverlayBounds);
+            }
+            Rectangle overlayBounds = getOverlayBounds(frame);
+            if (overlayBounds != null) {
+                dirtyRegion.add(overlayBounds);
+            }
+            repaint(dirtyRegion);
+        } else if (frame != this.paintedFrame) {
+            repaint();
         }
-        return this.bufferedImage;
+    }
+
+    /**
+     * This method starts the frame timer when the panel is shown.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        this.frameTimer.start();
+    }
+
+    /**
+     * This method stops the frame timer when the panel is removed, so that it
+     * does not keep the panel alive.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    public void removeNotify() {
+        this.frameTimer.stop();
+        super.removeNotify();
     }
 
     /**
@@ -937,9 +1013,36 @@ public class JSimulationPanel extends JPanel {
      */
     @Override
     public void paint(Graphics graphics) {
-        BufferedImage bufferedImageAux = this.getSimulationScreenshot();
-        // FIX: Do not use harcoded values. Use class constants instead.
-        graphics.drawImage(bufferedImageAux, 0, 0, null);
+        Graphics2D graphics2D = (Graphics2D) graphics;
+        TSimulationFrame frame = this.framePublisher.getLatestFrame();
+        if (this.topology == null) {
+            prepareImage(graphics2D, this.getWidth(), this.getHeight());
+            this.paintedFrame = frame;
+            this.paintedOverlayBounds = null;
+            return;
+        }
+        // The version is read before painting, so changes made meanwhile are
+        // painted next time.
+        long version = this.topology.getScreenAppearanceVersion();
+        if ((this.topologyLayer == null) || (version != this.topologyLayerVersion) || (this.topologyLayer.getWidth() < this.getWidth()) || (this.topologyLayer.getHeight() < this.getHeight())) {
+            paintTopologyLayer();
+            this.topologyLayerVersion = version;
+            Rectangle clipBounds = graphics2D.getClipBounds();
+            if ((clipBounds != null) && (!clipBounds.contains(this.getVisibleRect()))) {
+                // Only part of the panel is being painted now, but the whole
+                // topology has changed.
+                repaint();
+            }
+        }
+        graphics2D.drawImage(this.topologyLayer, 0, 0, null);
+        graphics2D.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        paintPacketsEvents(graphics2D, frame);
+        paintNodesEvents(graphics2D, frame);
+        paintLinksEvents(graphics2D, frame);
+        paintCurrentTick(graphics2D, frame);
+        paintLegend(graphics2D);
+        this.paintedFrame = frame;
+        this.paintedOverlayBounds = getOverlayBounds(frame);
     }
 
     /**
@@ -968,20 +1071,43 @@ public class JSimulationPanel extends JPanel {
     }
 
     private TImageBroker imageBroker;
-    private BufferedImage bufferedImage;
-    private Graphics2D bufferedG2D;
+    private BufferedImage topologyLayer;
+    private long topologyLayerVersion;
+    private Rectangle paintedOverlayBounds;
     private TTopology topology;
     private Dimension screenSize;
     private int maxX;
     private int maxY;
-    private TreeSet eventsBuffer;
-    private TreeSet simulationBuffer;
-    private long currentTick;
-    private TSemaphore eventsBuffersSemaphore;
+    private TSimulationFramePublisher framePublisher;
+    private TSimulationFrame paintedFrame;
+    private Timer frameTimer;
     private int simulationSpeedInMsPerTick;
     private boolean showLegend;
     private ResourceBundle translations;
 
+    private static final long ZERO = 0L;
+    private static final int FRAMES_PER_SECOND = 30;
+    private static final int FRAME_PERIOD_IN_MS = 1000 / FRAMES_PER_SECOND;
+    private static final int TICK_X_POSITION = 8;
+    private static final int TICK_Y_POSITION = 18;
+    private static final int TICK_HEIGHT = 13;
+    private static final int TICK_MARGIN = 4;
+    // Regions where the images of the events are painted, as in
+    // paintPacketsEvents(), paintNodesEvents() and paintLinksEvents().
+    private static final int PACKET_OVERLAY_HALF_SIZE = 15;
+    private static final int NODE_OVERLAY_X_OFFSET = -9;
+    private static final int NODE_OVERLAY_Y_OFFSET = -17;
+    private static final int NODE_OVERLAY_WIDTH = 66;
+    private static final int NODE_OVERLAY_HEIGHT = 95;
+    private static final int LINK_OVERLAY_HALF_SIZE = 43;
+    private static final long LINK_CENTER_PERCENTAGE = 50L;
+    private static final BasicStroke DEFAULT_STROKE = new BasicStroke(1.0f);
+    private static final BasicStroke BROKEN_LINK_STROKE = new BasicStroke(2.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, new float[]{5.0f}, 0.0f);
+    private static final BasicStroke LSP_STROKE = new BasicStroke(0.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, new float[]{5.0f}, 0.0f);
+    private static final BasicStroke BACKUP_LSP_STROKE = new BasicStroke(1.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, new float[]{10.0f, 5.0f, 0.2f, 5.0f}, 0.0f);
+    private static final BasicStroke LEGEND_LSP_STROKE = new BasicStroke(1.0f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, new float[]{5.0f}, 0.0f);
+    private static final BasicStroke LEGEND_BACKUP_LSP_STROKE = new BasicStroke(0.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 5.0f, new float[]{10.0f, 5.0f, 0.2f, 5.0f}, 0.0f);
+
     private static Color LEGEND_BACKGROUND_COLOR = new Color(255, 255, 255);
     private static Color LINK_NAME_COLOR = new Color(255, 255, 230);
     private static Color DOMAIN_BORDER_COLOR = new Color(128, 193, 255);
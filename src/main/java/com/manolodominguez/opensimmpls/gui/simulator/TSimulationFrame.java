@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.gui.simulator;
+
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * This class implements a frame of the simulation: every simulation event that
+ * happened in a given tick. Frames are built by the simulation and painted
+ * later by the simulation panel, so they are never modified once built.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TSimulationFrame {
+
+    /**
+     * This is the constructor of the class and creates a new instance of
+     * TSimulationFrame.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param instant the time instant, in nanoseconds, of the tick this frame
+     * belongs to.
+     * @param simulationEvents the simulation events of the tick, in the order
+     * they have to be painted. The frame takes them over, so the collection
+     * must not be modified afterwards.
+     * @since 2.0
+     */
+    public TSimulationFrame(long instant, Collection<TSimulationEvent> simulationEvents) {
+        this.instant = instant;
+        this.simulationEvents = Collections.unmodifiableCollection(simulationEvents);
+    }
+
+    /**
+     * This method gets the time instant of the tick this frame belongs to.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the time instant, in nanoseconds, of the tick.
+     * @since 2.0
+     */
+    public long getInstant() {
+        return this.instant;
+    }
+
+    /**
+     * This method gets the simulation events of the tick this frame belongs
+     * to.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the simulation events of the tick, in the order they have to be
+     * painted. The collection cannot be modified.
+     * @since 2.0
+     */
+    public Collection<TSimulationEvent> getSimulationEvents() {
+        return this.simulationEvents;
+    }
+
+    private final long instant;
+    private final Collection<TSimulationEvent> simulationEvents;
+}
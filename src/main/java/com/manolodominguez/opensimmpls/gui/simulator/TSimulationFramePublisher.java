@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.gui.simulator;
+
+import com.manolodominguez.opensimmpls.commons.TSemaphore;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
+import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class implements the hand over of simulation events from the
+ * simulation threads to the simulation panel. Events are grouped by tick;
+ * when the first event of a new tick arrives, the events of the previous one
+ * are published as a frame. Only the latest frame is kept: if it has not been
+ * painted yet when the next one is published, it is just replaced, so the
+ * simulation never waits for the panel.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TSimulationFramePublisher {
+
+    /**
+     * This is the constructor of the class and creates a new instance of
+     * TSimulationFramePublisher, with an empty frame.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TSimulationFramePublisher() {
+        this.eventsBuffer = new TreeSet<>();
+        this.latestFrame = new AtomicReference<>(new TSimulationFrame(ZERO, Collections.emptyList()));
+        this.currentTick = ZERO;
+        this.eventsBufferSemaphore = new TSemaphore();
+    }
+
+    /**
+     * This method discards the pending events and the latest frame, as in the
+     * moment of the instantiation.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void reset() {
+        this.eventsBufferSemaphore.setRed();
+        this.eventsBuffer = new TreeSet<>();
+        this.latestFrame.set(new TSimulationFrame(ZERO, Collections.emptyList()));
+        this.currentTick = ZERO;
+        this.eventsBufferSemaphore.setGreen();
+    }
+
+    /**
+     * This method adds a new simulation event. If it belongs to a later tick
+     * than the pending events, these are published as a new frame first.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationEvent a new simulation event.
+     * @return TRUE, if a new frame has been published. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean addEvent(TSimulationEvent simulationEvent) {
+        this.eventsBufferSemaphore.setRed();
+        if (simulationEvent.getInstant() <= this.currentTick) {
+            this.eventsBuffer.add(simulationEvent);
+            this.eventsBufferSemaphore.setGreen();
+            return false;
+        }
+        // The frame takes the events over. If the previous frame has not
+        // been painted yet, it is just replaced by this one.
+        this.latestFrame.set(new TSimulationFrame(this.currentTick, this.eventsBuffer));
+        this.eventsBuffer = new TreeSet<>();
+        this.eventsBuffer.add(simulationEvent);
+        this.currentTick = simulationEvent.getInstant();
+        this.eventsBufferSemaphore.setGreen();
+        return true;
+    }
+
+    /**
+     * This method gets the latest published frame. It never blocks, so it can
+     * be called from the event dispatch thread.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the latest published frame.
+     * @since 2.0
+     */
+    public TSimulationFrame getLatestFrame() {
+        return this.latestFrame.get();
+    }
+
+    private static final long ZERO = 0L;
+
+    private TreeSet<TSimulationEvent> eventsBuffer;
+    private final AtomicReference<TSimulationFrame> latestFrame;
+    private long currentTick;
+    private final TSemaphore eventsBufferSemaphore;
+}
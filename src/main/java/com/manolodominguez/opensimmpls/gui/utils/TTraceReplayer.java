@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.gui.utils;
+
+import com.manolodominguez.opensimmpls.gui.simulator.JSimulationPanel;
+import com.manolodominguez.opensimmpls.hardware.timer.IProgressEventListener;
+import com.manolodominguez.opensimmpls.hardware.timer.TProgressEvent;
+import com.manolodominguez.opensimmpls.io.trace.TTraceReader;
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TTopology;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a replayer that feeds a simulation panel with the
+ * simulation events of a trace recorded by TTraceRecorder, instead of with the
+ * events of a running simulation. The replay goes as fast as the simulation
+ * speed of the panel allows and can be moved to any instant of the trace at
+ * any moment, forwards or backwards.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TTraceReplayer implements Runnable {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TTraceReplayer.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param traceReader the reader of the trace to be replayed. It has to be
+     * open.
+     * @param topology the topology of the scenario the trace was recorded
+     * from.
+     * @param simulationPanel the simulation panel where the trace will be
+     * replayed.
+     * @since 2.0
+     */
+    public TTraceReplayer(TTraceReader traceReader, TTopology topology, JSimulationPanel simulationPanel) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TRACE_REPLAYER.getPath());
+        if ((traceReader == null) || (topology == null) || (simulationPanel == null)) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("traceReader, topology or simulationPanel is null");
+        }
+        this.traceReader = traceReader;
+        this.topology = topology;
+        this.simulationPanel = simulationPanel;
+        this.progressEventListener = null;
+        this.requestedInstant = new AtomicLong(NO_REQUESTED_INSTANT);
+        this.currentInstant = ZERO;
+        this.running = false;
+        this.thread = null;
+    }
+
+    /**
+     * This method sets the listener that will receive the progress of the
+     * replay, as a percentage of the length of the trace.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param progressEventListener the progress event listener, or null if the
+     * progress of the replay is not needed.
+     * @since 2.0
+     */
+    public void setProgressEventListener(IProgressEventListener progressEventListener) {
+        this.progressEventListener = progressEventListener;
+    }
+
+    /**
+     * This method starts replaying the trace from its beginning in its own
+     * thread.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public synchronized void start() {
+        if (this.running) {
+            return;
+        }
+        this.requestedInstant.set(ZERO);
+        this.running = true;
+        this.thread = new Thread(this, THREAD_NAME);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * This method stops the replay and waits until no more simulation events
+     * are read from the trace, so that the trace can be closed afterwards.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void stop() {
+        Thread replayThread;
+        synchronized (this) {
+            this.running = false;
+            replayThread = this.thread;
+            this.thread = null;
+        }
+        if (replayThread != null) {
+            LockSupport.unpark(replayThread);
+            try {
+                replayThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * This method checks whether the trace is being replayed.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if the trace is being replayed. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * This method moves the replay to the first simulation event of the trace
+     * at the specified instant or later. The simulation panel is cleared and
+     * the replay goes on from there.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param instant the instant, in nanoseconds, the replay has to move to.
+     * @since 2.0
+     */
+    public void seek(long instant) {
+        if (instant < ZERO) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException("instant is negative");
+        }
+        this.requestedInstant.set(instant);
+        Thread replayThread = this.thread;
+        if (replayThread != null) {
+            LockSupport.unpark(replayThread);
+        }
+    }
+
+    /**
+     * This method moves the replay back to the beginning of the trace.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void rewind() {
+        seek(ZERO);
+    }
+
+    /**
+     * This method gets the instant of the last simulation event replayed.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the instant, in nanoseconds, of the last simulation event
+     * replayed.
+     * @since 2.0
+     */
+    public long getCurrentInstant() {
+        return this.currentInstant;
+    }
+
+    /**
+     * This method replays the trace until the replay is stopped. When the end
+     * of the trace is reached, it waits for the replay to be moved to another
+     * instant.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    public void run() {
+        long numberOfEvents = this.traceReader.getNumberOfEvents();
+        long lastInstant = Math.max(ONE, this.traceReader.getLastInstant());
+        long index = numberOfEvents;
+        int lastProgressPercentage = NO_PROGRESS;
+        while (this.running) {
+            long instant = this.requestedInstant.getAndSet(NO_REQUESTED_INSTANT);
+            if (instant != NO_REQUESTED_INSTANT) {
+                this.simulationPanel.reset();
+                this.simulationPanel.repaint();
+                index = this.traceReader.findFirstEventAt(instant);
+            }
+            if (index >= numberOfEvents) {
+                LockSupport.parkNanos(PARKING_IN_NS);
+                continue;
+            }
+            TSimulationEvent simulationEvent = this.traceReader.getEvent(index, this.topology);
+            index++;
+            if (simulationEvent != null) {
+                this.currentInstant = simulationEvent.getInstant();
+                // The panel waits here for as long as the simulation speed
+                // says, every time a new tick begins.
+                this.simulationPanel.addEvent(simulationEvent);
+            }
+            int progressPercentage = (int) ((this.currentInstant * ONE_HUNDRED) / lastInstant);
+            if ((this.progressEventListener != null) && (progressPercentage != lastProgressPercentage)) {
+                this.progressEventListener.receiveProgressEvent(new TProgressEvent(this, index, progressPercentage));
+                lastProgressPercentage = progressPercentage;
+            }
+        }
+    }
+
+    private static final long ZERO = 0L;
+    private static final long ONE = 1L;
+    private static final long ONE_HUNDRED = 100L;
+    private static final long NO_REQUESTED_INSTANT = -1L;
+    private static final int NO_PROGRESS = -1;
+    private static final long PARKING_IN_NS = 10000000L;
+    private static final String THREAD_NAME = "TTraceReplayer";
+
+    private final TTraceReader traceReader;
+    private final TTopology topology;
+    private final JSimulationPanel simulationPanel;
+    private volatile IProgressEventListener progressEventListener;
+    private final AtomicLong requestedInstant;
+    private volatile long currentInstant;
+    private volatile boolean running;
+    private volatile Thread thread;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TTraceReplayer.class);
+}
@@ -22,6 +22,9 @@ import com.manolodominguez.opensimmpls.commons.TRotaryIDGenerator;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import com.manolodominguez.opensimmpls.commons.UnitsTranslations;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,7 +35,7 @@ import org.slf4j.LoggerFactory;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TDMGP {
+public class TDMGP implements Serializable {
 
     /**
      * This method is the class constructor. It creates a new instance of TDMGP
@@ -274,6 +277,13 @@ public class TDMGP {
         }
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_DMGP.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private TSemaphore semaphore;
     private TRotaryIDGenerator idGenerator;
     private TreeSet<TDMGPFlowEntry> flows;
@@ -281,7 +291,7 @@ public class TDMGP {
     private int totalDMGPSizeInKB;
     private int totalAssignedOctects;
 
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TDMGP.class);
 
     private static final int DEFAULT_TOTAL_AVAILABLE_PERCENTAGE = 100;
@@ -17,6 +17,9 @@ package com.manolodominguez.opensimmpls.hardware.dmgp;
 
 import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +31,7 @@ import org.slf4j.LoggerFactory;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TDMGPEntry implements Comparable<TDMGPEntry> {
+public class TDMGPEntry implements Comparable<TDMGPEntry>, Serializable {
 
     /**
      * This method is the constructor of the class. It creates a new instance of
@@ -127,6 +130,13 @@ public class TDMGPEntry implements Comparable<TDMGPEntry> {
         return TDMGPEntry.THIS_EQUAL;
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_DMGP_ENTRY.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private static final int THIS_LOWER = -1;
     private static final int THIS_EQUAL = 0;
     private static final int THIS_GREATER = 1;
@@ -136,6 +146,6 @@ public class TDMGPEntry implements Comparable<TDMGPEntry> {
     private int packetGoSGlobalUniqueIdentifier;
     private final int arrivalOrder;
     private TMPLSPDU packet;
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TDMGPEntry.class);
 }
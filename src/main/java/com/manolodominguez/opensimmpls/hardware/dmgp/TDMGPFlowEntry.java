@@ -21,6 +21,9 @@ import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
 import com.manolodominguez.opensimmpls.commons.TRotaryIDGenerator;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,7 +35,7 @@ import org.slf4j.LoggerFactory;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TDMGPFlowEntry implements Comparable<TDMGPFlowEntry> {
+public class TDMGPFlowEntry implements Comparable<TDMGPFlowEntry>, Serializable {
 
     /**
      * This method is the constructor. It creates a new TDMGPFlowEntry instance.
@@ -274,6 +277,13 @@ public class TDMGPFlowEntry implements Comparable<TDMGPFlowEntry> {
         return TDMGPFlowEntry.THIS_EQUAL;
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_DMGP_FLOW_ENTRY.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private static final int THIS_LOWER = -1;
     private static final int THIS_EQUAL = 0;
     private static final int THIS_GREATER = 1;
@@ -293,6 +303,6 @@ public class TDMGPFlowEntry implements Comparable<TDMGPFlowEntry> {
     private final TreeSet<TDMGPEntry> entries;
     private final TSemaphore semaphore;
     private final TRotaryIDGenerator idGenerator;
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TDMGPFlowEntry.class);
 }
@@ -17,6 +17,9 @@ package com.manolodominguez.opensimmpls.hardware.dmgp;
 
 import com.manolodominguez.opensimmpls.commons.TIPv4AddressGenerator;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.ResourceBundle;
 import org.slf4j.Logger;
@@ -29,7 +32,7 @@ import org.slf4j.LoggerFactory;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TGPSRPRequestEntry implements Comparable<TGPSRPRequestEntry> {
+public class TGPSRPRequestEntry implements Comparable<TGPSRPRequestEntry>, Serializable {
 
     /**
      * This is the class constructor. Implements a new instance of
@@ -295,6 +298,13 @@ public class TGPSRPRequestEntry implements Comparable<TGPSRPRequestEntry> {
         return TGPSRPRequestEntry.THIS_EQUAL;
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_GPSRP_REQUEST_ENTRY.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private static final int THIS_LOWER = -1;
     private static final int THIS_EQUAL = 0;
     private static final int THIS_GREATER = 1;
@@ -315,6 +325,6 @@ public class TGPSRPRequestEntry implements Comparable<TGPSRPRequestEntry> {
     private final LinkedList<String> crossedNodes;
     private final int arrivalOrder;
     private int attempts;
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TGPSRPRequestEntry.class);
 }
@@ -21,6 +21,9 @@ import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
 import com.manolodominguez.opensimmpls.commons.TRotaryIDGenerator;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,7 +35,7 @@ import org.slf4j.LoggerFactory;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TGPSRPRequestsMatrix {
+public class TGPSRPRequestsMatrix implements Serializable {
 
     /**
      * This is the class constructor. It creates a new instance of
@@ -297,6 +300,17 @@ public class TGPSRPRequestsMatrix {
         return null;
     }
 
+    /**
+     * This method checks whether there is any pending GPSRP request in the
+     * table.
+     *
+     * @return TRUE, if there is not any entry in the table. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
     /**
      * This method obtains the iterator of all entries of the table.
      *
@@ -318,6 +332,13 @@ public class TGPSRPRequestsMatrix {
         return semaphore;
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_GPSRP_REQUESTS_MATRIX.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private static final int ZERO = 0;
     private static final String EMPTY_STRING = "";
     private static final int INVALID_PORT = -1;
@@ -325,6 +346,6 @@ public class TGPSRPRequestsMatrix {
     private TreeSet<TGPSRPRequestEntry> entries;
     private TRotaryIDGenerator idGenerator;
     private TSemaphore semaphore;
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TGPSRPRequestsMatrix.class);
 }
@@ -16,17 +16,18 @@
 package com.manolodominguez.opensimmpls.hardware.ports;
 
 import com.manolodominguez.opensimmpls.commons.EIDGeneratorOverflow;
-import java.util.Iterator;
-import java.util.TreeSet;
+import java.util.Arrays;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketReceived;
 import com.manolodominguez.opensimmpls.scenario.TStats;
 import com.manolodominguez.opensimmpls.scenario.TNode;
 import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
 import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
 import com.manolodominguez.opensimmpls.commons.TRotaryIDGenerator;
-import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import static com.manolodominguez.opensimmpls.commons.UnitsTranslations.OCTETS_PER_MEGABYTE;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.NoSuchElementException;
 import java.util.ResourceBundle;
 import org.slf4j.Logger;
@@ -71,28 +72,7 @@ public class TActivePort extends TPort {
         packetRead = DEFAULT_PACKET_READ;
         isUnlimitedBuffer = DEFAULT_IS_UNLIMITED_BUFFER;
         rotaryIdentifierGenerator = new TRotaryIDGenerator();
-        priority0BufferSemaphore = new TSemaphore();
-        priority1BufferSemaphore = new TSemaphore();
-        priority2BufferSemaphore = new TSemaphore();
-        priority3BufferSemaphore = new TSemaphore();
-        priority4BufferSemaphore = new TSemaphore();
-        priority5BufferSemaphore = new TSemaphore();
-        priority6BufferSemaphore = new TSemaphore();
-        priority7BufferSemaphore = new TSemaphore();
-        priority8BufferSemaphore = new TSemaphore();
-        priority9BufferSemaphore = new TSemaphore();
-        priority10BufferSemaphore = new TSemaphore();
-        priority0Buffer = new TreeSet<>();
-        priority1Buffer = new TreeSet<>();
-        priority2Buffer = new TreeSet<>();
-        priority3Buffer = new TreeSet<>();
-        priority4Buffer = new TreeSet<>();
-        priority5Buffer = new TreeSet<>();
-        priority6Buffer = new TreeSet<>();
-        priority7Buffer = new TreeSet<>();
-        priority8Buffer = new TreeSet<>();
-        priority9Buffer = new TreeSet<>();
-        priority10Buffer = new TreeSet<>();
+        prioritizedBuffers = new TActivePortPrioritizedBuffers(MAX_PRIORITIZED_BUFFERS);
         selectedBuffer = DEFAULT_SELECTED_BUFFER;
         nextPacketToBeRead = null;
         maxReadsOfBuffer = new int[(HIGHEST_PRIORITY + ONE)];
@@ -139,265 +119,34 @@ public class TActivePort extends TPort {
      * @since 2.0
      */
     private void doPrioritizedRoundRobinPacketSelection() {
-        boolean end = false;
-        int numberOfEmptyBuffers = ZERO;
-        int numberOfBuffersAlreadyRead = ZERO;
-        Iterator<TActivePortBufferEntry> iterator = null;
-        TActivePortBufferEntry activePortBufferEntry = null;
         if (nextPacketToBeRead == null) {
+            if (prioritizedBuffers.isEmpty()) {
+                // Same result as visiting every empty buffer one by one: a
+                // new round starts and the next buffer is selected.
+                Arrays.fill(currentReadsOfBuffer, ZERO);
+                selectedBuffer = ((selectedBuffer + ONE) % MAX_PRIORITIZED_BUFFERS);
+                return;
+            }
+            boolean end = false;
+            int numberOfEmptyBuffers = ZERO;
+            int numberOfBuffersAlreadyRead = ZERO;
             while ((!end) && (numberOfEmptyBuffers <= MAX_PRIORITIZED_BUFFERS)) {
-                switch (selectedBuffer) {
-                    case TEN:
-                        if (priority10Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[TEN] < maxReadsOfBuffer[TEN]) {
-                                priority10BufferSemaphore.setRed();
-                                iterator = priority10Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority10BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[TEN]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[TEN] = maxReadsOfBuffer[TEN];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case NINE:
-                        if (priority9Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[NINE] < maxReadsOfBuffer[NINE]) {
-                                priority9BufferSemaphore.setRed();
-                                iterator = priority9Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority9BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[NINE]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[NINE] = maxReadsOfBuffer[NINE];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case EIGHT:
-                        if (priority8Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[EIGHT] < maxReadsOfBuffer[EIGHT]) {
-                                priority8BufferSemaphore.setRed();
-                                iterator = priority8Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority8BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[EIGHT]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[EIGHT] = maxReadsOfBuffer[EIGHT];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case SEVEN:
-                        if (priority7Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[SEVEN] < maxReadsOfBuffer[SEVEN]) {
-                                priority7BufferSemaphore.setRed();
-                                iterator = priority7Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority7BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[SEVEN]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[SEVEN] = maxReadsOfBuffer[SEVEN];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case SIX:
-                        if (priority6Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[SIX] < maxReadsOfBuffer[SIX]) {
-                                priority6BufferSemaphore.setRed();
-                                iterator = priority6Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority6BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[SIX]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[SIX] = maxReadsOfBuffer[SIX];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case FIVE:
-                        if (priority5Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[FIVE] < maxReadsOfBuffer[FIVE]) {
-                                priority5BufferSemaphore.setRed();
-                                iterator = priority5Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority5BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[FIVE]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[FIVE] = maxReadsOfBuffer[FIVE];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case FOUR:
-                        if (priority4Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[FOUR] < maxReadsOfBuffer[FOUR]) {
-                                priority4BufferSemaphore.setRed();
-                                iterator = priority4Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority4BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[FOUR]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[FOUR] = maxReadsOfBuffer[FOUR];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case THREE:
-                        if (priority3Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[THREE] < maxReadsOfBuffer[THREE]) {
-                                priority3BufferSemaphore.setRed();
-                                iterator = priority3Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority3BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[THREE]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[THREE] = maxReadsOfBuffer[THREE];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case TWO:
-                        if (priority2Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[TWO] < maxReadsOfBuffer[TWO]) {
-                                priority2BufferSemaphore.setRed();
-                                iterator = priority2Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority2BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[TWO]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[TWO] = maxReadsOfBuffer[TWO];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case ONE:
-                        if (priority1Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[ONE] < maxReadsOfBuffer[ONE]) {
-                                priority1BufferSemaphore.setRed();
-                                iterator = priority1Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority1BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[ONE]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[ONE] = maxReadsOfBuffer[ONE];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    case ZERO:
-                        if (priority0Buffer.size() > ZERO) {
-                            if (currentReadsOfBuffer[ZERO] < maxReadsOfBuffer[ZERO]) {
-                                priority0BufferSemaphore.setRed();
-                                iterator = priority0Buffer.iterator();
-                                if (iterator.hasNext()) {
-                                    activePortBufferEntry = iterator.next();
-                                    nextPacketToBeRead = activePortBufferEntry.getPacket();
-                                    iterator.remove();
-                                }
-                                priority0BufferSemaphore.setGreen();
-                                currentReadsOfBuffer[ZERO]++;
-                                end = true;
-                            } else {
-                                numberOfBuffersAlreadyRead++;
-                            }
-                        } else {
-                            currentReadsOfBuffer[ZERO] = maxReadsOfBuffer[ZERO];
-                            numberOfBuffersAlreadyRead++;
-                            numberOfEmptyBuffers++;
-                        }
-                        break;
-                    default:
-                        break;
+                if (!prioritizedBuffers.isEmpty(selectedBuffer)) {
+                    if (currentReadsOfBuffer[selectedBuffer] < maxReadsOfBuffer[selectedBuffer]) {
+                        nextPacketToBeRead = prioritizedBuffers.poll(selectedBuffer).getPacket();
+                        currentReadsOfBuffer[selectedBuffer]++;
+                        end = true;
+                    } else {
+                        numberOfBuffersAlreadyRead++;
+                    }
+                } else {
+                    currentReadsOfBuffer[selectedBuffer] = maxReadsOfBuffer[selectedBuffer];
+                    numberOfBuffersAlreadyRead++;
+                    numberOfEmptyBuffers++;
                 }
                 selectedBuffer = ((selectedBuffer + ONE) % MAX_PRIORITIZED_BUFFERS);
                 if (numberOfBuffersAlreadyRead >= MAX_PRIORITIZED_BUFFERS) {
-                    int i;
-                    for (i = ZERO; i < MAX_PRIORITIZED_BUFFERS; i++) {
-                        currentReadsOfBuffer[i] = ZERO;
-                    }
+                    Arrays.fill(currentReadsOfBuffer, ZERO);
                 }
             }
         }
@@ -429,6 +178,50 @@ public class TActivePort extends TPort {
         return -1;
     }
 
+    /**
+     * This method sets the weight of the specified priority in the
+     * prioritized Round Robin algorithm, that is, the maximum number of
+     * packets that will be read from the buffer of that priority in a complete
+     * cycle. By default, the weight of each priority is its value plus one.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param priority the priority, between 0 and 10 (inclusive).
+     * @param weight the maximum number of packets to be read from the buffer
+     * of the specified priority in a cycle. It must be greater than zero.
+     * @since 2.0
+     */
+    public void setPriorityWeight(int priority, int weight) {
+        if ((priority < WITHOUT_PRIORITY) || (priority > HIGHEST_PRIORITY)) {
+            logger.error(translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
+        }
+        if (weight < ONE) {
+            logger.error(translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
+        }
+        semaphore.setRed();
+        maxReadsOfBuffer[priority] = weight;
+        semaphore.setGreen();
+    }
+
+    /**
+     * This method gets the weight of the specified priority in the
+     * prioritized Round Robin algorithm.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param priority the priority, between 0 and 10 (inclusive).
+     * @return the maximum number of packets to be read from the buffer of the
+     * specified priority in a cycle.
+     * @since 2.0
+     */
+    public int getPriorityWeight(int priority) {
+        if ((priority < WITHOUT_PRIORITY) || (priority > HIGHEST_PRIORITY)) {
+            logger.error(translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
+        }
+        return maxReadsOfBuffer[priority];
+    }
+
     /**
      * This method allow to skip size limitation of the buffer and, hence,
      * configure the port as an ideal port, with unlimited space.
@@ -488,22 +281,14 @@ public class TActivePort extends TPort {
         parentPortSetAux.portSetSemaphore.setRed();
         semaphore.setRed();
         TNode parentNode = parentPortSet.getParentNode();
-        long eventID = ZERO;
-        int packetOrder = ZERO;
         int priority = loadPacketPriority(packet);
-        try {
-            eventID = parentNode.eventIdentifierGenerator.getNextIdentifier();
-            packetOrder = rotaryIdentifierGenerator.getNextIdentifier();
-        } catch (EIDGeneratorOverflow ex) {
-            logger.error(ex.getMessage(), ex);
-        }
+        int packetOrder = rotaryIdentifierGenerator.getNextIdentifier();
         int packetSubtype = packet.getSubtype();
         if (isUnlimitedBuffer) {
             TActivePortBufferEntry activePortBufferEntry = new TActivePortBufferEntry(priority, packetOrder, packet);
             addPrioritizedBufferEntry(activePortBufferEntry);
             parentPortSetAux.increasePortSetOccupancy(packet.getSize());
-            TSimulationEventPacketReceived packetReceivedEvent = new TSimulationEventPacketReceived(parentNode, eventID, getPortSet().getParentNode().getCurrentTimeInstant(), packetSubtype, packet.getSize());
-            parentNode.simulationEventsListener.captureSimulationEvents(packetReceivedEvent);
+            generatePacketReceivedEvent(parentNode, packetSubtype, packet.getSize());
             if (getPortSet().getParentNode().getStats() != null) {
                 getPortSet().getParentNode().getStats().addStatEntry(packet, TStats.INCOMING);
             }
@@ -545,23 +330,15 @@ public class TActivePort extends TPort {
             throw new IllegalArgumentException(translations.getString("badArgument"));
         }
         TActivePortSet parentPortSetAux = (TActivePortSet) parentPortSet;
-        long eventID = 0;
-        int packetOrder = 0;
         int packetPriority = loadPacketPriority(packet);
         TNode parentNode = parentPortSet.getParentNode();
-        try {
-            eventID = parentNode.eventIdentifierGenerator.getNextIdentifier();
-            packetOrder = rotaryIdentifierGenerator.getNextIdentifier();
-        } catch (EIDGeneratorOverflow ex) {
-            logger.error(ex.getMessage(), ex);
-        }
+        int packetOrder = rotaryIdentifierGenerator.getNextIdentifier();
         int packetSubtype = packet.getSubtype();
         if ((parentPortSetAux.getPortSetOccupancy() + packet.getSize()) <= ((parentPortSetAux.getBufferSizeInMBytes() * OCTETS_PER_MEGABYTE.getUnits()) - EPCD_THRESHOLD)) {
             TActivePortBufferEntry activePortBufferEntry = new TActivePortBufferEntry(packetPriority, packetOrder, packet);
             addPrioritizedBufferEntry(activePortBufferEntry);
             parentPortSetAux.increasePortSetOccupancy(packet.getSize());
-            TSimulationEventPacketReceived packetReceivedEvent = new TSimulationEventPacketReceived(parentNode, eventID, getPortSet().getParentNode().getCurrentTimeInstant(), packetSubtype, packet.getSize());
-            parentNode.simulationEventsListener.captureSimulationEvents(packetReceivedEvent);
+            generatePacketReceivedEvent(parentNode, packetSubtype, packet.getSize());
             if (getPortSet().getParentNode().getStats() != null) {
                 getPortSet().getParentNode().getStats().addStatEntry(packet, TStats.INCOMING);
             }
@@ -574,66 +351,21 @@ public class TActivePort extends TPort {
         return false;
     }
 
+    private void generatePacketReceivedEvent(TNode parentNode, int packetSubtype, int packetSize) {
+        if (parentNode.announceSimulationEvent(TSimulationEvent.PACKET_RECEIVED)) {
+            try {
+                TSimulationEventPacketReceived packetReceivedEvent = new TSimulationEventPacketReceived(parentNode, parentNode.eventIdentifierGenerator.getNextIdentifier(), parentNode.getCurrentTimeInstant(), packetSubtype, packetSize);
+                parentNode.generateSimulationEvent(packetReceivedEvent);
+            } catch (EIDGeneratorOverflow ex) {
+                logger.error(ex.getMessage(), ex);
+            }
+        }
+    }
+
     private void addPrioritizedBufferEntry(TActivePortBufferEntry activePortBufferEntry) {
         int priorityAux = activePortBufferEntry.getPriority();
-        switch (priorityAux) {
-            case TActivePort.PRIORITY_10:
-                priority10BufferSemaphore.setRed();
-                priority10Buffer.add(activePortBufferEntry);
-                priority10BufferSemaphore.setGreen();
-                break;
-            case TActivePort.PRIORITY_9:
-                priority9BufferSemaphore.setRed();
-                priority9Buffer.add(activePortBufferEntry);
-                priority9BufferSemaphore.setGreen();
-                break;
-            case TActivePort.PRIORITY_8:
-                priority8BufferSemaphore.setRed();
-                priority8Buffer.add(activePortBufferEntry);
-                priority8BufferSemaphore.setGreen();
-                break;
-            case TActivePort.PRIORITY_7:
-                priority7BufferSemaphore.setRed();
-                priority7Buffer.add(activePortBufferEntry);
-                priority7BufferSemaphore.setGreen();
-                break;
-            case TActivePort.PRIORITY_6:
-                priority6BufferSemaphore.setRed();
-                priority6Buffer.add(activePortBufferEntry);
-                priority6BufferSemaphore.setGreen();
-                break;
-            case TActivePort.PRIORITY_5:
-                priority5BufferSemaphore.setRed();
-                priority5Buffer.add(activePortBufferEntry);
-                priority5BufferSemaphore.setGreen();
-                break;
-            case TActivePort.PRIORITY_4:
-                priority4BufferSemaphore.setRed();
-                priority4Buffer.add(activePortBufferEntry);
-                priority4BufferSemaphore.setGreen();
-                break;
-            case TActivePort.PRIORITY_3:
-                priority3BufferSemaphore.setRed();
-                priority3Buffer.add(activePortBufferEntry);
-                priority3BufferSemaphore.setGreen();
-                break;
-            case TActivePort.PRIORITY_2:
-                priority2BufferSemaphore.setRed();
-                priority2Buffer.add(activePortBufferEntry);
-                priority2BufferSemaphore.setGreen();
-                break;
-            case TActivePort.PRIORITY_1:
-                priority1BufferSemaphore.setRed();
-                priority1Buffer.add(activePortBufferEntry);
-                priority1BufferSemaphore.setGreen();
-                break;
-            case TActivePort.WITHOUT_PRIORITY:
-                priority0BufferSemaphore.setRed();
-                priority0Buffer.add(activePortBufferEntry);
-                priority0BufferSemaphore.setGreen();
-                break;
-            default:
-                break;
+        if ((priorityAux >= WITHOUT_PRIORITY) && (priorityAux <= HIGHEST_PRIORITY)) {
+            prioritizedBuffers.add(activePortBufferEntry);
         }
     }
 
@@ -838,37 +570,7 @@ public class TActivePort extends TPort {
      */
     @Override
     public boolean thereIsAPacketWaiting() {
-        if (priority10Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority9Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority8Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority7Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority6Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority5Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority4Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority3Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority2Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority1Buffer.size() > ZERO) {
-            return true;
-        }
-        if (priority0Buffer.size() > ZERO) {
+        if (!prioritizedBuffers.isEmpty()) {
             return true;
         }
         return nextPacketToBeRead != null;
@@ -887,119 +589,7 @@ public class TActivePort extends TPort {
     public long getOccupancy() {
         if (isUnlimitedBuffer) {
             semaphore.setRed();
-            int occupancyAux = ZERO;
-            TAbstractPDU packet = null;
-            TActivePortBufferEntry activePortBufferEntry = null;
-            priority10BufferSemaphore.setRed();
-            Iterator<TActivePortBufferEntry> iterator = priority10Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority10BufferSemaphore.setGreen();
-            priority9BufferSemaphore.setRed();
-            iterator = priority9Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority9BufferSemaphore.setGreen();
-            priority8BufferSemaphore.setRed();
-            iterator = priority8Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority8BufferSemaphore.setGreen();
-            priority7BufferSemaphore.setRed();
-            iterator = priority7Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority7BufferSemaphore.setGreen();
-            priority6BufferSemaphore.setRed();
-            iterator = priority6Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority6BufferSemaphore.setGreen();
-            priority5BufferSemaphore.setRed();
-            iterator = priority5Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority5BufferSemaphore.setGreen();
-            priority4BufferSemaphore.setRed();
-            iterator = priority4Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority4BufferSemaphore.setGreen();
-            priority3BufferSemaphore.setRed();
-            iterator = priority3Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority3BufferSemaphore.setGreen();
-            priority2BufferSemaphore.setRed();
-            iterator = priority2Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority2BufferSemaphore.setGreen();
-            priority1BufferSemaphore.setRed();
-            iterator = priority1Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority1BufferSemaphore.setGreen();
-            priority0BufferSemaphore.setRed();
-            iterator = priority0Buffer.iterator();
-            while (iterator.hasNext()) {
-                activePortBufferEntry = iterator.next();
-                packet = activePortBufferEntry.getPacket();
-                if (packet != null) {
-                    occupancyAux += packet.getSize();
-                }
-            }
-            priority0BufferSemaphore.setGreen();
+            long occupancyAux = prioritizedBuffers.getOccupancy();
             if (nextPacketToBeRead != null) {
                 occupancyAux += nextPacketToBeRead.getSize();
             }
@@ -1021,18 +611,7 @@ public class TActivePort extends TPort {
      */
     @Override
     public int getNumberOfPackets() {
-        int numPackets = ZERO;
-        numPackets += priority10Buffer.size();
-        numPackets += priority9Buffer.size();
-        numPackets += priority8Buffer.size();
-        numPackets += priority7Buffer.size();
-        numPackets += priority6Buffer.size();
-        numPackets += priority5Buffer.size();
-        numPackets += priority4Buffer.size();
-        numPackets += priority3Buffer.size();
-        numPackets += priority2Buffer.size();
-        numPackets += priority1Buffer.size();
-        numPackets += priority0Buffer.size();
+        int numPackets = prioritizedBuffers.size();
         if (nextPacketToBeRead != null) {
             numPackets++;
         }
@@ -1049,115 +628,22 @@ public class TActivePort extends TPort {
     @Override
     public void reset() {
         semaphore.setRed();
-        priority10BufferSemaphore.setRed();
-        Iterator<TActivePortBufferEntry> iterator = priority10Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority10BufferSemaphore.setGreen();
-        priority9BufferSemaphore.setRed();
-        iterator = priority9Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority9BufferSemaphore.setGreen();
-        priority8BufferSemaphore.setRed();
-        iterator = priority8Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority8BufferSemaphore.setGreen();
-        priority7BufferSemaphore.setRed();
-        iterator = priority7Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority7BufferSemaphore.setGreen();
-        priority6BufferSemaphore.setRed();
-        iterator = priority6Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority6BufferSemaphore.setGreen();
-        priority5BufferSemaphore.setRed();
-        iterator = priority5Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority5BufferSemaphore.setGreen();
-        priority4BufferSemaphore.setRed();
-        iterator = priority4Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority4BufferSemaphore.setGreen();
-        priority3BufferSemaphore.setRed();
-        iterator = priority3Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority3BufferSemaphore.setGreen();
-        priority2BufferSemaphore.setRed();
-        iterator = priority2Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority2BufferSemaphore.setGreen();
-        priority1BufferSemaphore.setRed();
-        iterator = priority1Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority1BufferSemaphore.setGreen();
-        priority0BufferSemaphore.setRed();
-        iterator = priority0Buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        priority0BufferSemaphore.setGreen();
+        prioritizedBuffers.clear();
         semaphore.setGreen();
         packetRead = null;
         selectedBuffer = ZERO;
         nextPacketToBeRead = null;
-        int i;
-        for (i = ZERO; i < MAX_PRIORITIZED_BUFFERS; i++) {
-            currentReadsOfBuffer[i] = ZERO;
-        }
+        Arrays.fill(currentReadsOfBuffer, ZERO);
     }
 
-    private final TSemaphore priority0BufferSemaphore;
-    private final TSemaphore priority1BufferSemaphore;
-    private final TSemaphore priority2BufferSemaphore;
-    private final TSemaphore priority3BufferSemaphore;
-    private final TSemaphore priority4BufferSemaphore;
-    private final TSemaphore priority5BufferSemaphore;
-    private final TSemaphore priority6BufferSemaphore;
-    private final TSemaphore priority7BufferSemaphore;
-    private final TSemaphore priority8BufferSemaphore;
-    private final TSemaphore priority9BufferSemaphore;
-    private final TSemaphore priority10BufferSemaphore;
-    private final TreeSet<TActivePortBufferEntry> priority0Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority1Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority2Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority3Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority4Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority5Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority6Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority7Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority8Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority9Buffer;
-    private final TreeSet<TActivePortBufferEntry> priority10Buffer;
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_ACTIVE_PORT.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final TActivePortPrioritizedBuffers prioritizedBuffers;
 
     private int selectedBuffer;
     private TAbstractPDU packetRead;
@@ -1166,7 +652,7 @@ public class TActivePort extends TPort {
     private final int[] maxReadsOfBuffer;
     private final int[] currentReadsOfBuffer;
     private TAbstractPDU nextPacketToBeRead;
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TActivePort.class);
 
     private static final int HIGHEST_PRIORITY = 10;
@@ -1183,15 +669,6 @@ public class TActivePort extends TPort {
     private static final int WITHOUT_PRIORITY = 0;
     private static final int ZERO = 0;
     private static final int ONE = 1;
-    private static final int TWO = 2;
-    private static final int THREE = 3;
-    private static final int FOUR = 4;
-    private static final int FIVE = 5;
-    private static final int SIX = 6;
-    private static final int SEVEN = 7;
-    private static final int EIGHT = 8;
-    private static final int NINE = 9;
-    private static final int TEN = 10;
     private static final int ELEVEN = 11;
     private static final int MAX_PRIORITIZED_BUFFERS = ELEVEN;
     private static final int EPCD_THRESHOLD = 100;
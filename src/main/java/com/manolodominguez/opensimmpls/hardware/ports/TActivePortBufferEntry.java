@@ -16,6 +16,7 @@
 package com.manolodominguez.opensimmpls.hardware.ports;
 
 import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
+import java.io.Serializable;
 
 /**
  * This class implement an active port buffer entry. It is needed to prioritize
@@ -24,7 +25,7 @@ import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TActivePortBufferEntry implements Comparable<TActivePortBufferEntry> {
+public class TActivePortBufferEntry implements Comparable<TActivePortBufferEntry>, Serializable {
 
     /**
      * This method is the constructor of the class. It creates a new instance of
@@ -107,6 +108,8 @@ public class TActivePortBufferEntry implements Comparable<TActivePortBufferEntry
         return this.packet;
     }
 
+    private static final long serialVersionUID = 1L;
+
     private static final int THIS_LOWER = -1;
     private static final int THIS_GREATER = 1;
     private static final int THIS_EQUAL = 0;
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.ports;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class implements the set of prioritized buffers of an active port.
+ * Each priority has its own FIFO buffer, backed by a circular array, and the
+ * class keeps a bitmask with a bit set for each non empty buffer and counters
+ * with the number of packets and octets stored in each buffer. So, checking
+ * whether a buffer is empty and computing the occupancy of the port are
+ * constant time operations, whatever the number of packets stored. This class
+ * is not thread safe; the active port is in charge of synchronizing accesses.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+class TActivePortPrioritizedBuffers implements Serializable {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance
+     * of TActivePortPrioritizedBuffers with the specified number of empty
+     * buffers.
+     *
+     * @param numberOfPriorities the number of priorities, and so of buffers.
+     * Buffers are identified by priorities from 0 to numberOfPriorities - 1.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    TActivePortPrioritizedBuffers(int numberOfPriorities) {
+        if ((numberOfPriorities <= ZERO) || (numberOfPriorities > Integer.SIZE)) {
+            throw new IllegalArgumentException();
+        }
+        this.buffers = new ArrayList<>(numberOfPriorities);
+        for (int priority = ZERO; priority < numberOfPriorities; priority++) {
+            this.buffers.add(new ArrayDeque<>());
+        }
+        this.octetsPerPriority = new long[numberOfPriorities];
+        this.nonEmptyBuffers = ZERO;
+        this.octets = ZERO;
+        this.numberOfPackets = ZERO;
+    }
+
+    /**
+     * This method puts the specified entry at the end of the buffer of its
+     * priority.
+     *
+     * @param activePortBufferEntry the entry to be inserted.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void add(TActivePortBufferEntry activePortBufferEntry) {
+        int priority = activePortBufferEntry.getPriority();
+        int packetSize = activePortBufferEntry.getPacket().getSize();
+        this.buffers.get(priority).addLast(activePortBufferEntry);
+        this.nonEmptyBuffers |= ONE << priority;
+        this.octetsPerPriority[priority] += packetSize;
+        this.octets += packetSize;
+        this.numberOfPackets++;
+    }
+
+    /**
+     * This method removes and returns the first entry of the buffer of the
+     * specified priority.
+     *
+     * @param priority the priority of the buffer.
+     * @return the first entry of the buffer, or null if the buffer is empty.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    TActivePortBufferEntry poll(int priority) {
+        TActivePortBufferEntry activePortBufferEntry = this.buffers.get(priority).pollFirst();
+        if (activePortBufferEntry != null) {
+            int packetSize = activePortBufferEntry.getPacket().getSize();
+            if (this.buffers.get(priority).isEmpty()) {
+                this.nonEmptyBuffers &= ~(ONE << priority);
+            }
+            this.octetsPerPriority[priority] -= packetSize;
+            this.octets -= packetSize;
+            this.numberOfPackets--;
+        }
+        return activePortBufferEntry;
+    }
+
+    /**
+     * This method checks whether the buffer of the specified priority is
+     * empty.
+     *
+     * @param priority the priority of the buffer.
+     * @return TRUE, if the buffer is empty. Otherwise, FALSE.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    boolean isEmpty(int priority) {
+        return (this.nonEmptyBuffers & (ONE << priority)) == ZERO;
+    }
+
+    /**
+     * This method checks whether every buffer is empty.
+     *
+     * @return TRUE, if every buffer is empty. Otherwise, FALSE.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    boolean isEmpty() {
+        return this.nonEmptyBuffers == ZERO;
+    }
+
+    /**
+     * This method gets the number of octets stored in the buffer of the
+     * specified priority.
+     *
+     * @param priority the priority of the buffer.
+     * @return the number of octets stored in the buffer.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    long getOccupancy(int priority) {
+        return this.octetsPerPriority[priority];
+    }
+
+    /**
+     * This method gets the number of octets stored in all buffers.
+     *
+     * @return the number of octets stored in all buffers.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    long getOccupancy() {
+        return this.octets;
+    }
+
+    /**
+     * This method gets the number of packets stored in the buffer of the
+     * specified priority.
+     *
+     * @param priority the priority of the buffer.
+     * @return the number of packets stored in the buffer.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    int size(int priority) {
+        return this.buffers.get(priority).size();
+    }
+
+    /**
+     * This method gets the number of packets stored in all buffers.
+     *
+     * @return the number of packets stored in all buffers.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    int size() {
+        return this.numberOfPackets;
+    }
+
+    /**
+     * This method removes every entry from all buffers.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void clear() {
+        for (int priority = ZERO; priority < this.buffers.size(); priority++) {
+            this.buffers.get(priority).clear();
+            this.octetsPerPriority[priority] = ZERO;
+        }
+        this.nonEmptyBuffers = ZERO;
+        this.octets = ZERO;
+        this.numberOfPackets = ZERO;
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<ArrayDeque<TActivePortBufferEntry>> buffers;
+    private final long[] octetsPerPriority;
+    private int nonEmptyBuffers;
+    private long octets;
+    private int numberOfPackets;
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+}
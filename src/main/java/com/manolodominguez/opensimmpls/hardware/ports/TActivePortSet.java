@@ -316,6 +316,21 @@ public class TActivePortSet extends TPortSet {
         return this.isThereAnyPacketToSwitch();
     }
 
+    /**
+     * This method checks whether there are packets that have still to be
+     * switched. Besides the packets waiting in the incoming buffers, the packet
+     * already selected to be switched next, if any, is taken into account.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if there is at least one packet waiting to be
+     * switched/routed. Otherwise, returns FALSE.
+     * @since 2.0
+     */
+    @Override
+    public boolean isThereAnyPacketPending() {
+        return (this.nextPacketToBeRead != null) || this.isThereAnyPacketToSwitch();
+    }
+
     /**
      * This method check if the next packet can be switched, taking as a
      * reference the number of octects that the parent parentNode can switch at
@@ -502,6 +517,8 @@ public class TActivePortSet extends TPortSet {
         }
     }
 
+    private static final long serialVersionUID = 1L;
+
     private TPort[] ports;
     private int readPort;
 
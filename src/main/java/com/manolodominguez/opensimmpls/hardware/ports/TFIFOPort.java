@@ -17,21 +17,29 @@ package com.manolodominguez.opensimmpls.hardware.ports;
 
 import com.manolodominguez.opensimmpls.commons.EIDGeneratorOverflow;
 import java.util.Iterator;
-import java.util.LinkedList;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketReceived;
 import com.manolodominguez.opensimmpls.scenario.TStats;
 import com.manolodominguez.opensimmpls.scenario.TNode;
 import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
 import static com.manolodominguez.opensimmpls.commons.UnitsTranslations.OCTETS_PER_MEGABYTE;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.NoSuchElementException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class implements a I/O port that follow a FIFO scheme to dispatch
- * packets.
+ * packets. Packets are stored in a lock-free queue, so several links can put
+ * packets in the port at the same time the parent node is reading them. The
+ * limit of the buffer is shared by all ports of the port set and it is
+ * enforced by reserving space atomically in the parent port set before a
+ * packet is enqueued.
  *
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
@@ -65,8 +73,8 @@ public class TFIFOPort extends TPort {
                 throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
             }
         }
-        buffer = new LinkedList<>();
-        packetRead = null;
+        buffer = new ConcurrentLinkedQueue<>();
+        numberOfPackets = new AtomicInteger(ZERO);
         isUnlimitedBuffer = false;
     }
 
@@ -125,40 +133,25 @@ public class TFIFOPort extends TPort {
             logger.error(translations.getString("badArgument"));
             throw new IllegalArgumentException(translations.getString("badArgument"));
         }
-        TFIFOPortSet parentPortSetAux = (TFIFOPortSet) parentPortSet;
-        parentPortSetAux.portSetSemaphore.setRed();
-        semaphore.setRed();
         TNode parentNode = parentPortSet.getParentNode();
-        long eventID = ZERO;
-        try {
-            eventID = parentNode.eventIdentifierGenerator.getNextIdentifier();
-        } catch (EIDGeneratorOverflow ex) {
-            logger.error(ex.getMessage(), ex);
-        }
         int packetSubtype = packet.getSubtype();
-        if (isUnlimitedBuffer) {
-            buffer.addLast(packet);
-            parentPortSetAux.increasePortSetOccupancy(packet.getSize());
-            TSimulationEventPacketReceived packetReceivedEvent = new TSimulationEventPacketReceived(parentNode, eventID, getPortSet().getParentNode().getCurrentTimeInstant(), packetSubtype, packet.getSize());
-            parentNode.simulationEventsListener.captureSimulationEvents(packetReceivedEvent);
+        if (enqueuePacket(packet)) {
+            if (parentNode.announceSimulationEvent(TSimulationEvent.PACKET_RECEIVED)) {
+                long eventID = ZERO;
+                try {
+                    eventID = parentNode.eventIdentifierGenerator.getNextIdentifier();
+                } catch (EIDGeneratorOverflow ex) {
+                    logger.error(ex.getMessage(), ex);
+                }
+                TSimulationEventPacketReceived packetReceivedEvent = new TSimulationEventPacketReceived(parentNode, eventID, getPortSet().getParentNode().getCurrentTimeInstant(), packetSubtype, packet.getSize());
+                parentNode.generateSimulationEvent(packetReceivedEvent);
+            }
             if (getPortSet().getParentNode().getStats() != null) {
                 getPortSet().getParentNode().getStats().addStatEntry(packet, TStats.INCOMING);
             }
         } else {
-            if ((parentPortSetAux.getPortSetOccupancy() + packet.getSize()) <= (parentPortSetAux.getBufferSizeInMBytes() * OCTETS_PER_MEGABYTE.getUnits())) {
-                buffer.addLast(packet);
-                parentPortSetAux.increasePortSetOccupancy(packet.getSize());
-                TSimulationEventPacketReceived packetReceivedEvent = new TSimulationEventPacketReceived(parentNode, eventID, getPortSet().getParentNode().getCurrentTimeInstant(), packetSubtype, packet.getSize());
-                parentNode.simulationEventsListener.captureSimulationEvents(packetReceivedEvent);
-                if (getPortSet().getParentNode().getStats() != null) {
-                    getPortSet().getParentNode().getStats().addStatEntry(packet, TStats.INCOMING);
-                }
-            } else {
-                discardPacket(packet);
-            }
+            discardPacket(packet);
         }
-        semaphore.setGreen();
-        parentPortSetAux.portSetSemaphore.setGreen();
     }
 
     /**
@@ -176,22 +169,33 @@ public class TFIFOPort extends TPort {
             logger.error(translations.getString("badArgument"));
             throw new IllegalArgumentException(translations.getString("badArgument"));
         }
+        if (!enqueuePacket(packet)) {
+            discardPacket(packet);
+        }
+    }
+
+    /**
+     * This method reserves space for the specified packet in the buffer of the
+     * parent port set and, if there is enough space, puts the packet at the end
+     * of the buffer of the port. If the port is defined as an ideal one, the
+     * packet is always enqueued.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param packet The packet to be inserted in the buffer of the port.
+     * @return TRUE, if the packet has been enqueued. FALSE, if there is not
+     * enough space in the buffer and the packet has to be discarded.
+     * @since 2.0
+     */
+    private boolean enqueuePacket(TAbstractPDU packet) {
         TFIFOPortSet parentPortSetAux = (TFIFOPortSet) parentPortSet;
-        parentPortSetAux.portSetSemaphore.setRed();
-        semaphore.setRed();
         if (isUnlimitedBuffer) {
-            buffer.addLast(packet);
             parentPortSetAux.increasePortSetOccupancy(packet.getSize());
-        } else {
-            if ((parentPortSetAux.getPortSetOccupancy() + packet.getSize()) <= (parentPortSetAux.getBufferSizeInMBytes() * OCTETS_PER_MEGABYTE.getUnits())) {
-                buffer.addLast(packet);
-                parentPortSetAux.increasePortSetOccupancy(packet.getSize());
-            } else {
-                discardPacket(packet);
-            }
+        } else if (!parentPortSetAux.tryIncreasePortSetOccupancy(packet.getSize(), parentPortSetAux.getBufferSizeInMBytes() * OCTETS_PER_MEGABYTE.getUnits())) {
+            return false;
         }
-        semaphore.setGreen();
-        parentPortSetAux.portSetSemaphore.setGreen();
+        numberOfPackets.incrementAndGet();
+        buffer.offer(packet);
+        return true;
     }
 
     /**
@@ -206,19 +210,15 @@ public class TFIFOPort extends TPort {
     @Override
     public TAbstractPDU getPacket() {
         TFIFOPortSet parentPortSetAux = (TFIFOPortSet) parentPortSet;
-        parentPortSetAux.portSetSemaphore.setRed();
-        semaphore.setRed();
-        try {
-            packetRead = buffer.removeFirst();
-            if (!isUnlimitedBuffer) {
-                parentPortSetAux.decreasePortSetOccupancySize(packetRead.getSize());
-            }
-        } catch (NoSuchElementException e) {
+        TAbstractPDU packetRead = buffer.poll();
+        if (packetRead == null) {
             logger.error(translations.getString("elementDoesNotExist"));
-            throw e;
+            throw new NoSuchElementException(translations.getString("elementDoesNotExist"));
+        }
+        numberOfPackets.decrementAndGet();
+        if (!isUnlimitedBuffer) {
+            parentPortSetAux.decreasePortSetOccupancySize(packetRead.getSize());
         }
-        semaphore.setGreen();
-        parentPortSetAux.portSetSemaphore.setGreen();
         return packetRead;
     }
 
@@ -240,9 +240,11 @@ public class TFIFOPort extends TPort {
             logger.error(translations.getString("argumentOutOfRange"));
             throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         }
-        semaphore.setRed();
-        packetRead = buffer.getFirst();
-        semaphore.setGreen();
+        TAbstractPDU packetRead = buffer.peek();
+        if (packetRead == null) {
+            logger.error(translations.getString("elementDoesNotExist"));
+            throw new NoSuchElementException(translations.getString("elementDoesNotExist"));
+        }
         return packetRead.getSize() <= switchableOctets;
     }
 
@@ -275,7 +277,7 @@ public class TFIFOPort extends TPort {
      */
     @Override
     public boolean thereIsAPacketWaiting() {
-        return buffer.size() > ZERO;
+        return !buffer.isEmpty();
     }
 
     /**
@@ -289,7 +291,6 @@ public class TFIFOPort extends TPort {
     @Override
     public long getOccupancy() {
         if (isUnlimitedBuffer) {
-            semaphore.setRed();
             int occupancy = ZERO;
             TAbstractPDU packet = null;
             Iterator<TAbstractPDU> iterator = buffer.iterator();
@@ -299,7 +300,6 @@ public class TFIFOPort extends TPort {
                     occupancy += packet.getSize();
                 }
             }
-            semaphore.setGreen();
             return occupancy;
         }
         TFIFOPortSet parentPortSetAux = (TFIFOPortSet) parentPortSet;
@@ -316,7 +316,7 @@ public class TFIFOPort extends TPort {
      */
     @Override
     public int getNumberOfPackets() {
-        return buffer.size();
+        return numberOfPackets.get();
     }
 
     /**
@@ -328,19 +328,21 @@ public class TFIFOPort extends TPort {
      */
     @Override
     public void reset() {
-        semaphore.setRed();
-        Iterator<TAbstractPDU> iterator = buffer.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
-        }
-        semaphore.setGreen();
+        buffer.clear();
+        numberOfPackets.set(ZERO);
     }
 
-    private LinkedList<TAbstractPDU> buffer;
-    private TAbstractPDU packetRead;
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_FIFO_PORT.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final ConcurrentLinkedQueue<TAbstractPDU> buffer;
+    private final AtomicInteger numberOfPackets;
     private boolean isUnlimitedBuffer;
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TFIFOPort.class);
 
     private static final int ZERO = 0;
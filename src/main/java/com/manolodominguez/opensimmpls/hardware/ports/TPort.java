@@ -20,6 +20,9 @@ import com.manolodominguez.opensimmpls.scenario.TStats;
 import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +33,7 @@ import org.slf4j.LoggerFactory;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public abstract class TPort {
+public abstract class TPort implements Serializable {
 
     /**
      * This method is the constructor of the class. It creates a new instance of
@@ -352,11 +355,18 @@ public abstract class TPort {
      */
     public abstract boolean isUnlimitedBuffer();
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_PORT.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     protected TLink link;
     protected TPortSet parentPortSet;
     protected TSemaphore semaphore;
     protected int portID;
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TPort.class);
 
     private static final int ZERO = 0;
@@ -20,7 +20,11 @@ import com.manolodominguez.opensimmpls.scenario.TNode;
 import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,7 +34,7 @@ import org.slf4j.LoggerFactory;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public abstract class TPortSet {
+public abstract class TPortSet implements Serializable {
 
     /**
      * This is the constructor of the class. It creates a new instance of
@@ -55,7 +59,7 @@ public abstract class TPortSet {
         this.numberOfPorts = numberOfPorts;
         this.parentNode = parentNode;
         portSetBufferSize = ONE;
-        portSetBufferOccupancySizeInOctets = ZERO;
+        portSetBufferOccupancySizeInOctets = new AtomicLong(ZERO);
         portSetSemaphore = new TSemaphore();
         artificiallyCongested = false;
         // FIX: occupancy seems not to be used
@@ -69,12 +73,40 @@ public abstract class TPortSet {
      * current occupancy.
      * @since 2.0
      */
-    public synchronized void increasePortSetOccupancy(long occupancyIncrement) {
+    public void increasePortSetOccupancy(long occupancyIncrement) {
         if (occupancyIncrement < ZERO) {
             logger.error(translations.getString("argumentOutOfRange"));
             throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         }
-        portSetBufferOccupancySizeInOctets += occupancyIncrement;
+        portSetBufferOccupancySizeInOctets.addAndGet(occupancyIncrement);
+    }
+
+    /**
+     * This method increases the amount of buffer memory that is occuped only
+     * if the resulting occupancy does not exceed the specified maximum. Both
+     * the check and the increase are done atomically, so several ports of the
+     * port set can reserve buffer memory at the same time without locking.
+     *
+     * @param occupancyIncrement Size (in octets) that should be added to the
+     * current occupancy.
+     * @param maximumOccupancy The maximum occupancy (in octets) allowed after
+     * the increase.
+     * @return TRUE, if the occupancy has been increased. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean tryIncreasePortSetOccupancy(long occupancyIncrement, long maximumOccupancy) {
+        if (occupancyIncrement < ZERO) {
+            logger.error(translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
+        }
+        long currentOccupancy = portSetBufferOccupancySizeInOctets.get();
+        while ((currentOccupancy + occupancyIncrement) <= maximumOccupancy) {
+            if (portSetBufferOccupancySizeInOctets.compareAndSet(currentOccupancy, currentOccupancy + occupancyIncrement)) {
+                return true;
+            }
+            currentOccupancy = portSetBufferOccupancySizeInOctets.get();
+        }
+        return false;
     }
 
     /**
@@ -84,12 +116,12 @@ public abstract class TPortSet {
      * from the current occupancy.
      * @since 2.0
      */
-    public synchronized void decreasePortSetOccupancySize(long occupancyDecrement) {
+    public void decreasePortSetOccupancySize(long occupancyDecrement) {
         if (occupancyDecrement < ZERO) {
             logger.error(translations.getString("argumentOutOfRange"));
             throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         }
-        portSetBufferOccupancySizeInOctets -= occupancyDecrement;
+        portSetBufferOccupancySizeInOctets.addAndGet(-occupancyDecrement);
     }
 
     /**
@@ -99,12 +131,12 @@ public abstract class TPortSet {
      * that is occuped (in octects). that is occuped.
      * @since 2.0
      */
-    public synchronized void setPortSetOccupancySize(long portSetBufferOccupancySizeInOctets) {
+    public void setPortSetOccupancySize(long portSetBufferOccupancySizeInOctets) {
         if (portSetBufferOccupancySizeInOctets < ZERO) {
             logger.error(translations.getString("argumentOutOfRange"));
             throw new IllegalArgumentException(translations.getString("argumentOutOfRange"));
         }
-        this.portSetBufferOccupancySizeInOctets = portSetBufferOccupancySizeInOctets;
+        this.portSetBufferOccupancySizeInOctets.set(portSetBufferOccupancySizeInOctets);
     }
 
     /**
@@ -113,8 +145,8 @@ public abstract class TPortSet {
      * @return The amount of buffer memory that is occuped(in octects).
      * @since 2.0
      */
-    public synchronized long getPortSetOccupancy() {
-        return portSetBufferOccupancySizeInOctets;
+    public long getPortSetOccupancy() {
+        return portSetBufferOccupancySizeInOctets.get();
     }
 
     /**
@@ -189,6 +221,21 @@ public abstract class TPortSet {
      */
     public abstract boolean isThereAnyPacketToSwitch();
 
+    /**
+     * This method checks whether there are packets that have still to be
+     * switched, even if they have already been taken out of the incoming
+     * buffers to be switched next. Port sets that select the next packet in
+     * advance have to override it.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if there is at least one packet waiting to be
+     * switched/routed. Otherwise, returns FALSE.
+     * @since 2.0
+     */
+    public boolean isThereAnyPacketPending() {
+        return this.isThereAnyPacketToSwitch();
+    }
+
     /**
      * This method, when implemented, will check whether there are packets
      * waiting in the incoming buffer to be routed or not.
@@ -376,15 +423,22 @@ public abstract class TPortSet {
      */
     public abstract boolean hasAvailablePorts();
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_PORT_SET.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     protected int numberOfPorts;
     protected TNode parentNode;
     protected int portSetBufferSize;
-    private long portSetBufferOccupancySizeInOctets;
+    private final AtomicLong portSetBufferOccupancySizeInOctets;
     public TSemaphore portSetSemaphore;
     protected boolean artificiallyCongested;
     // FIX: occupancy seems not to be used
     protected long occupancy;
-    private final ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TPortSet.class);
 
     private static final int ZERO = 0;
@@ -0,0 +1,39 @@
+/* 
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.timer;
+
+import java.util.EventListener;
+
+/**
+ * This interface has to be implemented by classess that wants to receive
+ * telemetry events. Several telemetry event listeners can be subscribed to the
+ * same timer.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public interface ITelemetryEventListener extends EventListener {
+
+    /**
+     * This method, when implemented, will capture telemetry events. It is
+     * called by the timer thread between ticks, so it should return quickly.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     * @param telemetryEvent The telemetry event received.
+     */
+    public void receiveTelemetryEvent(TTelemetryEvent telemetryEvent);
+}
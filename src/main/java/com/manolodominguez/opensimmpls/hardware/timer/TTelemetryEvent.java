@@ -0,0 +1,145 @@
+/* 
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.timer;
+
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TOpenSimMPLSEvent;
+
+/**
+ * This class implements a telemetry event that will allow knowing how fast the
+ * simulation is running. Rates are computed over the wall-clock time elapsed
+ * since the previous telemetry event.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TTelemetryEvent extends TOpenSimMPLSEvent {
+
+    /**
+     * This method is the constrctor of the class. It creates a new instance of
+     * TTelemetryEvent.
+     *
+     * @param eventGenerator The object that generates the event.
+     * @param eventID The unique event identifier.
+     * @param instant The simulated instant, in nanoseconds, the simulation has
+     * reached.
+     * @param wallClockNanoseconds The wall-clock time, in nanoseconds, elapsed
+     * since the simulation started.
+     * @param simulatedNanosecondsPerSecond The simulated nanoseconds per
+     * wall-clock second.
+     * @param ticksPerSecond The ticks simulated per wall-clock second.
+     * @param packetsSwitchedPerSecond The packets switched or routed by nodes
+     * per wall-clock second.
+     * @param eventsPerSecond The simulation events generated by topology
+     * elements per wall-clock second.
+     * @param usedHeapInBytes The heap in use, in bytes.
+     * @since 2.0
+     */
+    public TTelemetryEvent(Object eventGenerator, long eventID, long instant, long wallClockNanoseconds, double simulatedNanosecondsPerSecond, double ticksPerSecond, double packetsSwitchedPerSecond, double eventsPerSecond, long usedHeapInBytes) {
+        super(eventGenerator, eventID, instant);
+        this.wallClockNanoseconds = wallClockNanoseconds;
+        this.simulatedNanosecondsPerSecond = simulatedNanosecondsPerSecond;
+        this.ticksPerSecond = ticksPerSecond;
+        this.packetsSwitchedPerSecond = packetsSwitchedPerSecond;
+        this.eventsPerSecond = eventsPerSecond;
+        this.usedHeapInBytes = usedHeapInBytes;
+    }
+
+    /**
+     * This method returns the wall-clock time elapsed since the simulation
+     * started.
+     *
+     * @return The wall-clock time, in nanoseconds, elapsed since the
+     * simulation started.
+     * @since 2.0
+     */
+    public long getWallClockNanoseconds() {
+        return this.wallClockNanoseconds;
+    }
+
+    /**
+     * This method returns the simulated nanoseconds per wall-clock second.
+     *
+     * @return The simulated nanoseconds per wall-clock second.
+     * @since 2.0
+     */
+    public double getSimulatedNanosecondsPerSecond() {
+        return this.simulatedNanosecondsPerSecond;
+    }
+
+    /**
+     * This method returns the ticks simulated per wall-clock second.
+     *
+     * @return The ticks simulated per wall-clock second.
+     * @since 2.0
+     */
+    public double getTicksPerSecond() {
+        return this.ticksPerSecond;
+    }
+
+    /**
+     * This method returns the packets switched or routed by nodes per
+     * wall-clock second.
+     *
+     * @return The packets switched or routed per wall-clock second.
+     * @since 2.0
+     */
+    public double getPacketsSwitchedPerSecond() {
+        return this.packetsSwitchedPerSecond;
+    }
+
+    /**
+     * This method returns the simulation events generated by topology
+     * elements per wall-clock second.
+     *
+     * @return The simulation events generated per wall-clock second.
+     * @since 2.0
+     */
+    public double getEventsPerSecond() {
+        return this.eventsPerSecond;
+    }
+
+    /**
+     * This method returns the heap in use when the event was generated.
+     *
+     * @return The heap in use, in bytes.
+     * @since 2.0
+     */
+    public long getUsedHeapInBytes() {
+        return this.usedHeapInBytes;
+    }
+
+    /**
+     * This method return the type of this event. It is one of the constants
+     * defined in TOpenSimMPLSEvent.
+     *
+     * @return The type of this event. It is one of the constants defined in
+     * TOpenSimMPLSEvent.
+     * @since 2.0
+     */
+    @Override
+    public int getType() {
+        return TOpenSimMPLSEvent.TELEMETRY;
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final long wallClockNanoseconds;
+    private final double simulatedNanosecondsPerSecond;
+    private final double ticksPerSecond;
+    private final double packetsSwitchedPerSecond;
+    private final double eventsPerSecond;
+    private final long usedHeapInBytes;
+}
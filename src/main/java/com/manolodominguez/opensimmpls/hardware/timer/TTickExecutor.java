@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.timer;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.util.ResourceBundle;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a fixed pool of worker threads that executes the work
+ * that topology elements have to do during a timer tick. It replaces the
+ * creation of a new thread per element and per tick. Workers are created
+ * lazily, are daemon threads and die after a period of inactivity, so an idle
+ * simulator does not keep any thread alive.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TTickExecutor {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance
+     * of TTickExecutor with as many workers as available processors.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TTickExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * This method is the constructor of the class. It creates a new instance
+     * of TTickExecutor with the specified number of workers.
+     *
+     * @param numberOfWorkers the maximum number of topology elements that will
+     * be working concurrently. It must be greater than zero.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TTickExecutor(int numberOfWorkers) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TICK_EXECUTOR.getPath());
+        if (numberOfWorkers < ONE) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(this.translations.getString("argumentOutOfRange"));
+        }
+        this.numberOfWorkers = numberOfWorkers;
+        this.executor = new ThreadPoolExecutor(numberOfWorkers, numberOfWorkers, KEEP_ALIVE_IN_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new TWorkerThreadFactory());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * This method is the constructor of the class. It creates a new instance
+     * of TTickExecutor that uses the specified thread pool.
+     *
+     * @param numberOfWorkers the number of workers of the thread pool.
+     * @param executor the thread pool, or null if the work has to be done in
+     * the calling thread.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private TTickExecutor(int numberOfWorkers, ThreadPoolExecutor executor) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TICK_EXECUTOR.getPath());
+        this.numberOfWorkers = numberOfWorkers;
+        this.executor = executor;
+    }
+
+    /**
+     * This method creates a new tick executor that does the submitted work in
+     * the calling thread, before returning from submit(). It is used when a
+     * thread simulates a set of topology elements one after another.
+     *
+     * @return a new tick executor without workers.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public static TTickExecutor newCallingThreadTickExecutor() {
+        return new TTickExecutor(ZERO, null);
+    }
+
+    /**
+     * This method queues the work a topology element has to do during the
+     * current tick. It will be executed by the first free worker.
+     *
+     * @param tickWork the work to be done during the current tick.
+     * @return a future that will be done when the work has been done.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public Future<?> submit(Runnable tickWork) {
+        if (this.executor == null) {
+            FutureTask<?> doneTickWork = new FutureTask<>(tickWork, null);
+            doneTickWork.run();
+            return doneTickWork;
+        }
+        return this.executor.submit(tickWork);
+    }
+
+    /**
+     * This method gets the number of workers of this tick executor.
+     *
+     * @return the number of workers of this tick executor. Zero if the work
+     * is done in the calling thread.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public int getNumberOfWorkers() {
+        return this.numberOfWorkers;
+    }
+
+    /**
+     * This method stops the workers of this tick executor after they have
+     * finished the work already queued. No more work can be submitted after
+     * calling it.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void shutdown() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * This class creates the daemon threads used as workers by the tick
+     * executor.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @version 2.0
+     */
+    private static class TWorkerThreadFactory implements ThreadFactory {
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread worker = new Thread(runnable, WORKER_NAME_PREFIX + WORKER_COUNTER.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        }
+    }
+
+    private final int numberOfWorkers;
+    private final ThreadPoolExecutor executor;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TTickExecutor.class);
+
+    private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
+    private static final String WORKER_NAME_PREFIX = "TTickExecutor-worker-";
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final long KEEP_ALIVE_IN_SECONDS = 30;
+}
@@ -15,8 +15,17 @@
  */
 package com.manolodominguez.opensimmpls.hardware.timer;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 import com.manolodominguez.opensimmpls.scenario.TExternalLink;
 import com.manolodominguez.opensimmpls.scenario.TInternalLink;
 import com.manolodominguez.opensimmpls.scenario.TActiveLERNode;
@@ -24,14 +33,19 @@ import com.manolodominguez.opensimmpls.scenario.TLERNode;
 import com.manolodominguez.opensimmpls.scenario.TActiveLSRNode;
 import com.manolodominguez.opensimmpls.scenario.TLSRNode;
 import com.manolodominguez.opensimmpls.scenario.TLink;
+import com.manolodominguez.opensimmpls.scenario.TLinkBufferEntry;
 import com.manolodominguez.opensimmpls.scenario.TNode;
 import com.manolodominguez.opensimmpls.scenario.TTrafficSinkNode;
 import com.manolodominguez.opensimmpls.scenario.TTrafficGeneratorNode;
 import com.manolodominguez.opensimmpls.scenario.TTopologyElement;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
 import com.manolodominguez.opensimmpls.commons.EIDGeneratorOverflow;
 import com.manolodominguez.opensimmpls.gui.utils.TProgressEventListener;
 import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,7 +58,7 @@ import org.slf4j.LoggerFactory;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TTimer implements Runnable {
+public class TTimer implements Runnable, Serializable {
 
     /**
      * This method is the constuctor of the class. It will create a new instance
@@ -56,9 +70,21 @@ public class TTimer implements Runnable {
      */
     public TTimer() {
         this.thread = null;
+        this.tickExecutor = new TTickExecutor();
+        this.callingThreadTickExecutor = TTickExecutor.newCallingThreadTickExecutor();
         this.timerEventListenerNodes = new TreeSet<>();
         this.timerEventListenerLinks = new TreeSet<>();
+        this.activeNodes = new ConcurrentSkipListSet<>();
+        this.activeLinks = new ConcurrentSkipListSet<>();
+        this.scheduledWakeUps = new PriorityQueue<>();
+        this.dispatchedElements = new ArrayList<>();
         this.progressEventListener = null;
+        this.telemetryEventListeners = new CopyOnWriteArrayList<>();
+        this.numberOfSimulationEvents = new LongAdder();
+        this.numberOfSwitchedPackets = new LongAdder();
+        this.telemetryIntervalInMs = DEFAULT_TELEMETRY_INTERVAL_IN_MS;
+        this.wallClockBudgetInMs = NO_WALL_CLOCK_BUDGET;
+        this.wallClockBudgetExhausted = false;
         this.longIdentifierGenerator = new TLongIDGenerator();
         this.currentTimestamp = new TTimestamp(ZERO, ZERO);
         this.previousTimestamp = new TTimestamp(ZERO, ZERO);
@@ -67,6 +93,15 @@ public class TTimer implements Runnable {
         this.previousTimestampAux = new TTimestamp(ZERO, ZERO);
         this.finishTimestampAux = new TTimestamp(ZERO, ONE_HUNDRED_THOUSAND);
         this.tickInNs = DEFAULT_TICK_LENGTH_IN_NS;
+        this.eventDriven = false;
+        this.adaptiveTick = false;
+        this.maximumTickInNs = DEFAULT_TICK_LENGTH_IN_NS;
+        this.adaptiveTickInNs = DEFAULT_TICK_LENGTH_IN_NS;
+        this.activeSetDispatch = false;
+        this.sequentialDispatch = false;
+        this.numberOfPartitions = ONE;
+        this.lastTickDurationInNs = ZERO;
+        this.endOfLastNodesTick = ZERO;
         this.running = false;
         this.isFinished = true;
         this.paused = false;
@@ -87,6 +122,9 @@ public class TTimer implements Runnable {
         this.longIdentifierGenerator.reset();
         this.isFinished = true;
         this.paused = false;
+        for (TTopologyElement node : this.timerEventListenerNodes) {
+            ((TNode) node).resetIdleTimeInstantsGrouped();
+        }
         generateProgressEvent();
     }
 
@@ -118,6 +156,232 @@ public class TTimer implements Runnable {
         this.tickInNs = tickInNs;
     }
 
+    /**
+     * This method sets whether the timer has to work in event driven mode or
+     * not. In the default mode, every tick has the same length. In event driven
+     * mode, after each tick the timer asks every topology element when its next
+     * event is going to happen and, if nothing is going to happen during
+     * several ticks, it generates a single longer tick covering all of them.
+     * So, simulated time jumps to the tick where the next event happens and
+     * long simulations of sparse scenarios need much less work.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param eventDriven TRUE, if idle ticks have to be skipped. FALSE, if
+     * every tick has to be generated.
+     * @since 2.0
+     */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+    }
+
+    /**
+     * This method checks whether the timer works in event driven mode or not.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if idle ticks are skipped. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isEventDriven() {
+        return this.eventDriven;
+    }
+
+    /**
+     * This method sets whether the timer has to adapt the length of ticks to
+     * the network activity or not. In the default mode, every tick has the
+     * same length. In adaptive tick mode, after each tick the timer checks
+     * the activity of the topology: while nothing is going to happen during
+     * the next tick, the length of ticks is doubled, up to the maximum tick
+     * length; while ports are lightly loaded it is kept; and as soon as any
+     * port is loaded above LIGHT_LOAD_CONGESTION_LEVEL it goes back to the
+     * configured tick length. Adapted ticks are always a multiple of the
+     * configured tick length and start where the previous tick ended, so every
+     * tick ends at an instant the default mode would also use and statistics
+     * are grouped by the same time instants, each one covering the packets of
+     * the whole tick. Adaptive tick mode is not used when the topology is
+     * split in several partitions.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param adaptiveTick TRUE, if the length of ticks has to be adapted to
+     * the network activity. FALSE, if every tick has the same length.
+     * @since 2.0
+     */
+    public void setAdaptiveTick(boolean adaptiveTick) {
+        this.adaptiveTick = adaptiveTick;
+    }
+
+    /**
+     * This method checks whether the timer adapts the length of ticks to the
+     * network activity or not.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if the length of ticks is adapted to the network activity.
+     * Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isAdaptiveTick() {
+        return this.adaptiveTick;
+    }
+
+    /**
+     * This method sets the maximum length of ticks in adaptive tick mode. It
+     * should not be longer than the minimum delay of the topology links, so
+     * that no packet can be sent and delivered during the same tick. If it is
+     * shorter than the configured tick length, ticks are never widened.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param maximumTickInNs the maximum length of ticks, in nanoseconds.
+     * @since 2.0
+     */
+    public void setMaximumTick(int maximumTickInNs) {
+        this.maximumTickInNs = maximumTickInNs;
+    }
+
+    /**
+     * This method gets the length of the last tick in adaptive tick mode.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the length of the last tick, in nanoseconds.
+     * @since 2.0
+     */
+    public int getAdaptiveTick() {
+        return this.adaptiveTickInNs;
+    }
+
+    /**
+     * This method sets whether the timer has to send timer events only to the
+     * active topology elements or not. In the default mode, every topology
+     * element receives a timer event in every tick. In active set mode, a
+     * topology element only receives it when it has work to do: when packets
+     * have arrived to it, when packets are in transit through it or when one
+     * of its timers expires. Elements that have been idle catch up with the
+     * ticks they have missed when they receive the next timer event. So, the
+     * work done in each tick depends on the network activity instead of on
+     * the size of the topology. Events that topology elements generate while
+     * idle, as those used to animate the GUI, are not generated in this mode.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param activeSetDispatch TRUE, if timer events have to be sent only to
+     * active topology elements. FALSE, if they have to be sent to all of them.
+     * @since 2.0
+     */
+    public void setActiveSetDispatch(boolean activeSetDispatch) {
+        this.activeSetDispatch = activeSetDispatch;
+    }
+
+    /**
+     * This method checks whether the timer sends timer events only to the
+     * active topology elements or not.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if timer events are sent only to active topology elements.
+     * Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isActiveSetDispatch() {
+        return this.activeSetDispatch;
+    }
+
+    /**
+     * This method sets whether topology elements have to do the work of each
+     * tick one after another, in the timer thread, or concurrently, in the
+     * workers of the tick executor. Concurrent work is faster on multi-core
+     * hosts, but the order in which elements deliver packets to a shared
+     * node or link in the same tick depends on thread scheduling, so two runs
+     * of a simulation are not identical even if traffic generators are
+     * seeded. In sequential mode, nodes work in the order of their
+     * identifiers and then links do the same, as a single worker would do,
+     * so seeded simulations are repeatable on any host. When the topology is
+     * split in several partitions, partitions are also simulated one after
+     * another.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param sequentialDispatch TRUE, if topology elements have to work one
+     * after another in the timer thread. FALSE, if they have to work
+     * concurrently.
+     * @since 2.0
+     */
+    public void setSequentialDispatch(boolean sequentialDispatch) {
+        this.sequentialDispatch = sequentialDispatch;
+        for (TTopologyElement node : this.timerEventListenerNodes) {
+            node.setTickExecutor(getElementsTickExecutor());
+        }
+        for (TTopologyElement link : this.timerEventListenerLinks) {
+            link.setTickExecutor(getElementsTickExecutor());
+        }
+    }
+
+    /**
+     * This method checks whether topology elements do the work of each tick
+     * one after another, in the timer thread, or not.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if topology elements work one after another in the timer
+     * thread. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isSequentialDispatch() {
+        return this.sequentialDispatch;
+    }
+
+    /**
+     * This method sets the number of partitions the topology has to be split
+     * in. With a single partition, the default, every topology element works
+     * on its own in each tick. With several partitions, each one is simulated
+     * by its own thread, tick by tick, and links connecting two partitions are
+     * used as lookahead: partitions work independently during a window of as
+     * many ticks as the shortest delay of those links allows, because nothing
+     * sent from a partition can reach another one before the end of the
+     * window. Partitions only wait for each other at the end of each window.
+     * Event driven and active set modes are not used when the topology is
+     * split in several partitions.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param numberOfPartitions the maximum number of partitions. It has to be
+     * one or greater.
+     * @since 2.0
+     */
+    public void setNumberOfPartitions(int numberOfPartitions) {
+        if (numberOfPartitions < ONE) {
+            this.logger.error(this.translations.getString("TReloj.NumeroDeParticionesFueraDeRango"));
+            throw new IllegalArgumentException(this.translations.getString("TReloj.NumeroDeParticionesFueraDeRango"));
+        }
+        this.numberOfPartitions = numberOfPartitions;
+    }
+
+    /**
+     * This method gets the number of partitions the topology has to be split
+     * in.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the maximum number of partitions.
+     * @since 2.0
+     */
+    public int getNumberOfPartitions() {
+        return this.numberOfPartitions;
+    }
+
+    /**
+     * This method adds a topology element to the set of active elements, so
+     * that it receives the timer event of the next tick. It is called by
+     * topology elements when something arrives to them. It does nothing when
+     * the timer is not working in active set mode.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param topologyElement the topology element that has work to do.
+     * @since 2.0
+     */
+    public void activate(TTopologyElement topologyElement) {
+        if ((this.activeSetDispatch) && (this.numberOfPartitions == ONE)) {
+            if (topologyElement.getElementType() == TTopologyElement.LINK) {
+                this.activeLinks.add(topologyElement);
+            } else {
+                // Nodes have already grouped their stats in this tick.
+                ((TNode) topologyElement).groupStatsOfIdleTimeInstants(this.endOfLastNodesTick, this.tickInNs);
+                this.activeNodes.add(topologyElement);
+            }
+        }
+    }
+
     /**
      * This method let a topology element (nodes and/or links) to subscribe the
      * timer to receive timer events.
@@ -127,6 +391,8 @@ public class TTimer implements Runnable {
      * @since 2.0
      */
     public void addTimerEventListener(TTopologyElement timerEventListener) {
+        timerEventListener.setTickExecutor(getElementsTickExecutor());
+        timerEventListener.setTimer(this);
         if (timerEventListener.getElementType() == TTopologyElement.LINK) {
             this.timerEventListenerLinks.add(timerEventListener);
         } else {
@@ -144,6 +410,8 @@ public class TTimer implements Runnable {
      * @since 2.0
      */
     public void removeTimerEventListener(TTopologyElement timerEventListener) {
+        timerEventListener.setTickExecutor(null);
+        timerEventListener.setTimer(null);
         if (timerEventListener.getElementType() == TTopologyElement.LINK) {
             Iterator<TTopologyElement> iterator = this.timerEventListenerLinks.iterator();
             TLink linkAux;
@@ -152,6 +420,7 @@ public class TTimer implements Runnable {
                 linkAux = (TLink) iterator.next();
                 if (linkAux.getID() == timerEventListenerAux.getID()) {
                     iterator.remove();
+                    this.activeLinks.remove(linkAux);
                 }
             }
         } else {
@@ -162,6 +431,7 @@ public class TTimer implements Runnable {
                 nodeAux = (TNode) iterator.next();
                 if (nodeAux.getNodeID() == timerEventListenerAux.getNodeID()) {
                     iterator.remove();
+                    this.activeNodes.remove(nodeAux);
                 }
             }
         }
@@ -181,6 +451,7 @@ public class TTimer implements Runnable {
             linkAux = (TLink) linksIterator.next();
             if (linkAux.isMarkedForDeletionAsTimerEventListener()) {
                 linksIterator.remove();
+                this.activeLinks.remove(linkAux);
             }
         }
         Iterator<TTopologyElement> nodesIterator = this.timerEventListenerNodes.iterator();
@@ -189,6 +460,7 @@ public class TTimer implements Runnable {
             nodeAux = (TNode) nodesIterator.next();
             if (nodeAux.isMarkedForDeletionAsTimerEventListener()) {
                 nodesIterator.remove();
+                this.activeNodes.remove(nodeAux);
             }
         }
     }
@@ -225,6 +497,181 @@ public class TTimer implements Runnable {
         this.progressEventListener = null;
     }
 
+    /**
+     * This method subscribes a telemetry event listener to this timer. Several
+     * telemetry event listeners can be subscribed at the same time. While the
+     * timer is running, all of them receive a telemetry event every telemetry
+     * interval and a last one when the simulation stops, if it has gone on
+     * since the previous telemetry event.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param telemetryEventListener The telemetry event listener that is going
+     * to receive telemetry events from this timer.
+     * @since 2.0
+     */
+    public void addTelemetryEventListener(ITelemetryEventListener telemetryEventListener) {
+        if (telemetryEventListener == null) {
+            this.logger.error(this.translations.getString("TReloj.ArgumentoErroneo"));
+            throw new IllegalArgumentException(this.translations.getString("TReloj.ArgumentoErroneo"));
+        }
+        this.telemetryEventListeners.add(telemetryEventListener);
+    }
+
+    /**
+     * This method unsubscribes a telemetry event listener from this timer. So,
+     * this telemetry event listener will stop receiving telemetry events.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param telemetryEventListener The telemetry event listener to be
+     * unsubscribed.
+     * @since 2.0
+     */
+    public void removeTelemetryEventListener(ITelemetryEventListener telemetryEventListener) {
+        this.telemetryEventListeners.remove(telemetryEventListener);
+    }
+
+    /**
+     * This method sets how often, in wall-clock time, telemetry events are
+     * generated.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param telemetryIntervalInMs The milliseconds between a telemetry event
+     * and the next one. It has to be one or greater.
+     * @since 2.0
+     */
+    public void setTelemetryInterval(long telemetryIntervalInMs) {
+        if (telemetryIntervalInMs < ONE) {
+            this.logger.error(this.translations.getString("TReloj.ArgumentoErroneo"));
+            throw new IllegalArgumentException(this.translations.getString("TReloj.ArgumentoErroneo"));
+        }
+        this.telemetryIntervalInMs = telemetryIntervalInMs;
+    }
+
+    /**
+     * This method sets the wall-clock time the simulation can last. When it is
+     * exhausted, the timer stops cleanly at the end of the current tick, as if
+     * the simulation had finished, so the statistics collected until then are
+     * available and the simulation can be resumed later.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param wallClockBudgetInMs The milliseconds the simulation can last, or
+     * TTimer.NO_WALL_CLOCK_BUDGET if it can last as long as needed.
+     * @since 2.0
+     */
+    public void setWallClockBudget(long wallClockBudgetInMs) {
+        if (wallClockBudgetInMs < NO_WALL_CLOCK_BUDGET) {
+            this.logger.error(this.translations.getString("TReloj.ArgumentoErroneo"));
+            throw new IllegalArgumentException(this.translations.getString("TReloj.ArgumentoErroneo"));
+        }
+        this.wallClockBudgetInMs = wallClockBudgetInMs;
+    }
+
+    /**
+     * This method checks whether the last run of the timer was stopped because
+     * its wall-clock budget was exhausted.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if the last run stopped before the end of the simulation
+     * because of its wall-clock budget. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isWallClockBudgetExhausted() {
+        return this.wallClockBudgetExhausted;
+    }
+
+    /**
+     * This method counts a simulation event generated by a topology element,
+     * so that it is taken into account by telemetry. It can be called
+     * concurrently by the topology elements working in the same tick.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationEventSubtype The subtype of the simulation event. It is
+     * one of the constants defined in TSimulationEvent.
+     * @since 2.0
+     */
+    public void countSimulationEvent(int simulationEventSubtype) {
+        this.numberOfSimulationEvents.increment();
+        if ((simulationEventSubtype == TSimulationEvent.PACKET_SWITCHED) || (simulationEventSubtype == TSimulationEvent.PACKET_ROUTED)) {
+            this.numberOfSwitchedPackets.increment();
+        }
+    }
+
+    /**
+     * This method takes the wall-clock time when the timer starts running,
+     * as the reference for telemetry and the wall-clock budget.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private void startWallClock() {
+        this.wallClockBudgetExhausted = false;
+        this.startOfRunInNs = System.nanoTime();
+        this.lastTelemetryInNs = this.startOfRunInNs;
+        this.lastTelemetrySimulatedTime = this.previousTimestamp.getTotalAsNanoseconds();
+        this.numberOfTicks = ZERO;
+        this.lastTelemetryNumberOfTicks = ZERO;
+        this.numberOfSimulationEvents.reset();
+        this.numberOfSwitchedPackets.reset();
+        this.lastTelemetryNumberOfSimulationEvents = ZERO;
+        this.lastTelemetryNumberOfSwitchedPackets = ZERO;
+    }
+
+    /**
+     * This method is called between ticks, when no topology element is
+     * working. It generates a telemetry event if the telemetry interval has
+     * elapsed and stops the timer if its wall-clock budget has been exhausted.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param ticks The number of ticks simulated since the previous call.
+     * @since 2.0
+     */
+    private void checkWallClock(long ticks) {
+        this.numberOfTicks += ticks;
+        long now = System.nanoTime();
+        if ((!this.telemetryEventListeners.isEmpty()) && (now - this.lastTelemetryInNs >= this.telemetryIntervalInMs * ONE_MILLION)) {
+            generateTelemetryEvent(now);
+        }
+        if ((this.wallClockBudgetInMs != NO_WALL_CLOCK_BUDGET) && (now - this.startOfRunInNs >= this.wallClockBudgetInMs * ONE_MILLION)) {
+            this.wallClockBudgetExhausted = true;
+            this.isFinished = true;
+        }
+    }
+
+    /**
+     * This method generates a new telemetry event, with the rates measured
+     * since the previous one, and sends it to every telemetry event listener
+     * subscribed to this timer.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param now The current value of System.nanoTime().
+     * @since 2.0
+     */
+    private void generateTelemetryEvent(long now) {
+        double elapsedSeconds = Math.max(ONE, now - this.lastTelemetryInNs) / (double) ONE_BILLION;
+        long simulatedTime = this.previousTimestamp.getTotalAsNanoseconds();
+        long simulationEvents = this.numberOfSimulationEvents.sum();
+        long switchedPackets = this.numberOfSwitchedPackets.sum();
+        Runtime runtime = Runtime.getRuntime();
+        try {
+            TTelemetryEvent telemetryEvent = new TTelemetryEvent(this, this.longIdentifierGenerator.getNextIdentifier(), simulatedTime, now - this.startOfRunInNs,
+                    (simulatedTime - this.lastTelemetrySimulatedTime) / elapsedSeconds,
+                    (this.numberOfTicks - this.lastTelemetryNumberOfTicks) / elapsedSeconds,
+                    (switchedPackets - this.lastTelemetryNumberOfSwitchedPackets) / elapsedSeconds,
+                    (simulationEvents - this.lastTelemetryNumberOfSimulationEvents) / elapsedSeconds,
+                    runtime.totalMemory() - runtime.freeMemory());
+            for (ITelemetryEventListener telemetryEventListener : this.telemetryEventListeners) {
+                telemetryEventListener.receiveTelemetryEvent(telemetryEvent);
+            }
+        } catch (EIDGeneratorOverflow ex) {
+            this.logger.error(ex.getMessage(), ex);
+        }
+        this.lastTelemetryInNs = now;
+        this.lastTelemetrySimulatedTime = simulatedTime;
+        this.lastTelemetryNumberOfTicks = this.numberOfTicks;
+        this.lastTelemetryNumberOfSimulationEvents = simulationEvents;
+        this.lastTelemetryNumberOfSwitchedPackets = switchedPackets;
+    }
+
     /**
      * This method generates a new timer event an sends it to all topology
      * elements that are subscribed to receive timer events.
@@ -233,6 +680,10 @@ public class TTimer implements Runnable {
      * @since 2.0
      */
     private void generateTimerEvent() {
+        if (this.activeSetDispatch) {
+            generateTimerEventForActiveElements();
+            return;
+        }
         Iterator<TTopologyElement> linksIterator = this.timerEventListenerLinks.iterator();
         Iterator<TTopologyElement> nodesIterator = this.timerEventListenerNodes.iterator();
         TNode nodeAux;
@@ -294,6 +745,108 @@ public class TTimer implements Runnable {
         }
     }
 
+    /**
+     * This method generates a new timer event and sends it only to the active
+     * topology elements: those that have been activated since the previous
+     * tick and those whose scheduled wake up happens before the end of this
+     * tick. Each one leaves the set of active elements when it receives the
+     * timer event. If a topology element has been idle during the previous
+     * ticks, the timer event also tells it how long.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private void generateTimerEventForActiveElements() {
+        TTimestamp startOfSimulationInterval = new TTimestamp(this.previousTimestamp.getMillisecond(), this.previousTimestamp.getNanosecond());
+        TTimestamp endOfSimulationInterval = new TTimestamp(this.currentTimestamp.getMillisecond(), this.currentTimestamp.getNanosecond());
+        long endOfSimulationIntervalInNs = endOfSimulationInterval.getTotalAsNanoseconds();
+        while ((!this.scheduledWakeUps.isEmpty()) && (this.scheduledWakeUps.peek().getInstant() <= endOfSimulationIntervalInNs)) {
+            TTopologyElement topologyElement = this.scheduledWakeUps.poll().getTopologyElement();
+            // Elements that have stopped receiving timer events are not woken
+            // up.
+            if (topologyElement.getElementType() == TTopologyElement.LINK) {
+                if (this.timerEventListenerLinks.contains(topologyElement)) {
+                    this.activeLinks.add(topologyElement);
+                }
+            } else if (this.timerEventListenerNodes.contains(topologyElement)) {
+                this.activeNodes.add(topologyElement);
+            }
+        }
+        this.dispatchedElements.clear();
+        dispatchTimerEvent(this.activeNodes, startOfSimulationInterval, endOfSimulationInterval);
+        // Links receive the timer event once nodes have finished their work,
+        // so that links where nodes have just put packets advance them in this
+        // tick, as they do in the default mode.
+        for (TTopologyElement node : this.dispatchedElements) {
+            node.waitForCompletion();
+        }
+        this.endOfLastNodesTick = endOfSimulationIntervalInNs;
+        dispatchTimerEvent(this.activeLinks, startOfSimulationInterval, endOfSimulationInterval);
+        this.lastTickDurationInNs = (int) (endOfSimulationIntervalInNs - startOfSimulationInterval.getTotalAsNanoseconds());
+    }
+
+    /**
+     * This method sends a timer event to each topology element of the
+     * specified set of active elements, removing them from the set.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param activeElements the set of active elements.
+     * @param startOfSimulationInterval the start of the tick.
+     * @param endOfSimulationInterval the end of the tick.
+     * @since 2.0
+     */
+    private void dispatchTimerEvent(ConcurrentSkipListSet<TTopologyElement> activeElements, TTimestamp startOfSimulationInterval, TTimestamp endOfSimulationInterval) {
+        long startOfSimulationIntervalInNs = startOfSimulationInterval.getTotalAsNanoseconds();
+        for (TTopologyElement topologyElement : activeElements) {
+            activeElements.remove(topologyElement);
+            if (topologyElement.getElementType() != TTopologyElement.LINK) {
+                // The node groups the stats of the end of this tick by
+                // itself.
+                ((TNode) topologyElement).groupStatsOfIdleTimeInstants(endOfSimulationInterval.getTotalAsNanoseconds() - ONE, this.tickInNs);
+            }
+            long idleNanoseconds = startOfSimulationIntervalInNs - topologyElement.getCurrentTimeInstant();
+            try {
+                TTimerEvent timerEvent;
+                if (idleNanoseconds > ZERO) {
+                    timerEvent = new TTimerEvent(this, this.longIdentifierGenerator.getNextIdentifier(), startOfSimulationInterval, endOfSimulationInterval, idleNanoseconds, this.lastTickDurationInNs);
+                } else {
+                    timerEvent = new TTimerEvent(this, this.longIdentifierGenerator.getNextIdentifier(), startOfSimulationInterval, endOfSimulationInterval);
+                }
+                topologyElement.receiveTimerEvent(timerEvent);
+                this.dispatchedElements.add(topologyElement);
+            } catch (EIDGeneratorOverflow ex) {
+                this.logger.error(ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * This method decides, for each topology element that received the timer
+     * event of the last tick, when it has to receive the next one. Links with
+     * packets in transit stay active, because packets have to advance in each
+     * tick. Nodes stay active if they have work to do in the next tick or
+     * schedule a wake up for their next event. The rest become idle until
+     * something arrives to them. It has to be called between ticks, when no
+     * topology element is working.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private void scheduleDispatchedElements() {
+        long endOfLastTick = this.previousTimestamp.getTotalAsNanoseconds();
+        for (TTopologyElement topologyElement : this.dispatchedElements) {
+            long nanosecondsToNextEvent = topologyElement.getNanosecondsToNextEvent();
+            if ((nanosecondsToNextEvent == TTopologyElement.NO_PENDING_EVENTS) || (nanosecondsToNextEvent > Long.MAX_VALUE - endOfLastTick)) {
+                continue;
+            }
+            if ((nanosecondsToNextEvent == ZERO) || (topologyElement.getElementType() == TTopologyElement.LINK)) {
+                activate(topologyElement);
+            } else {
+                this.scheduledWakeUps.add(new TTimerWakeUp(endOfLastTick + nanosecondsToNextEvent, topologyElement));
+            }
+        }
+    }
+
     /**
      * This method generates a new progress event an sends it to the only one
      * listener that are subscribed to receive it.
@@ -335,6 +888,36 @@ public class TTimer implements Runnable {
         }
     }
 
+    /**
+     * This method continues a simulation that reached its finish timestamp,
+     * or that has been restored from a checkpoint, without resetting the
+     * timer. The next tick starts where the last simulated tick ended, so the
+     * finish timestamp has to be set later than that before calling this
+     * method. This method is a synchronized one.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public synchronized void resume() {
+        if ((this.thread == null) || (!this.thread.isAlive())) {
+            this.currentTimestamp.setTimestamp(this.previousTimestamp);
+            this.paused = false;
+            this.thread = new Thread(this);
+            this.thread.start();
+        }
+    }
+
+    /**
+     * This method gets the instant where the last simulated tick ended.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the instant where the last simulated tick ended.
+     * @since 2.0
+     */
+    public TTimestamp getSimulatedTimestamp() {
+        return new TTimestamp(this.previousTimestamp.getMillisecond(), this.previousTimestamp.getNanosecond());
+    }
+
     /**
      * This method starts the timer operation and, therefore, the planned
      * simulation will start. This method is a synchronized one.
@@ -407,7 +990,22 @@ public class TTimer implements Runnable {
      */
     @Override
     public void run() {
+        if (this.numberOfPartitions > ONE) {
+            runPartitions();
+            return;
+        }
         this.running = true;
+        if (this.activeSetDispatch) {
+            // Every topology element receives the first timer event, so that
+            // all of them know when the simulation starts.
+            this.activeNodes.addAll(this.timerEventListenerNodes);
+            this.activeLinks.addAll(this.timerEventListenerLinks);
+            this.scheduledWakeUps.clear();
+            this.lastTickDurationInNs = ZERO;
+            this.endOfLastNodesTick = this.previousTimestamp.getTotalAsNanoseconds();
+        }
+        this.adaptiveTickInNs = this.tickInNs;
+        startWallClock();
         long currentSimulatedTime;
         long previousSimulatedTime;
         long simulationDuration;
@@ -445,19 +1043,334 @@ public class TTimer implements Runnable {
                 this.isFinished = true;
             }
             waitUntilTimerEventListenersFinishTheirWork();
+            if (this.activeSetDispatch) {
+                scheduleDispatchedElements();
+            }
+            if ((this.adaptiveTick) && (!simulationFinished) && (!this.isFinished)) {
+                simulationFinished = adaptTick();
+            }
+            if ((this.eventDriven) && (!simulationFinished) && (!this.isFinished)) {
+                simulationFinished = skipIdleTicks();
+            }
+            // In active set mode, nodes catch up with the stats of the ticks
+            // they have not received when they are activated again.
+            if (((this.adaptiveTick) || (this.eventDriven)) && (!this.isFinished) && (!this.activeSetDispatch)) {
+                groupStatsOfSkippedTimeInstants();
+            }
+            checkWallClock(ONE);
+        }
+        if (this.activeSetDispatch) {
+            groupStatsOfIdleNodes();
+        }
+        if ((!this.telemetryEventListeners.isEmpty()) && (this.numberOfTicks > this.lastTelemetryNumberOfTicks)) {
+            generateTelemetryEvent(System.nanoTime());
         }
         this.running = false;
     }
 
+    /**
+     * This method simulates the topology split in partitions. Each partition
+     * is simulated by its own thread during a window of ticks, without
+     * waiting for the rest of partitions. Before each window, the timer
+     * advances the packets in transit through links connecting two partitions
+     * until the start of the last tick of the window, and schedules their
+     * delivery in the partition of their destination node. Packets sent
+     * through these links during the window cannot reach their destination
+     * before the last tick, because the window is not longer than the
+     * shortest delay of them. So links of all partitions work in the last
+     * tick after the window, one after another in the thread of the timer, as
+     * they do without partitions. Windows are never longer than
+     * MAX_TICKS_PER_WINDOW ticks, so that progress is reported regularly even
+     * if no link connects two partitions.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private void runPartitions() {
+        this.running = true;
+        this.isFinished = false;
+        startWallClock();
+        ArrayList<TLink> crossPartitionLinks = new ArrayList<>();
+        List<TTopologyPartition> partitions = TTopologyPartition.createPartitions(this.timerEventListenerNodes, this.timerEventListenerLinks, this.numberOfPartitions, crossPartitionLinks);
+        HashMap<TNode, TTopologyPartition> partitionOfNode = new HashMap<>();
+        for (TTopologyPartition partition : partitions) {
+            partition.setTickExecutor(null);
+            for (TNode node : partition.getNodes()) {
+                partitionOfNode.put(node, partition);
+            }
+        }
+        long startOfWindow = this.previousTimestamp.getTotalAsNanoseconds();
+        long simulationDuration = this.finishTimestamp.getTotalAsNanoseconds();
+        long lookahead = TTopologyElement.NO_PENDING_EVENTS;
+        for (TLink link : crossPartitionLinks) {
+            lookahead = Math.min(lookahead, link.getDelay());
+            // Links connecting partitions work in the thread of the timer.
+            link.setTickExecutor(this.callingThreadTickExecutor);
+        }
+        long ticksPerWindow = Math.max(ONE, Math.min(lookahead / this.tickInNs, MAX_TICKS_PER_WINDOW));
+        TTickExecutor partitionsExecutor = this.callingThreadTickExecutor;
+        if (!this.sequentialDispatch) {
+            partitionsExecutor = new TTickExecutor(partitions.size());
+        }
+        ArrayList<Future<?>> partitionsWork = new ArrayList<>();
+        ArrayList<TTimestamp> tickLimits = new ArrayList<>();
+        // Packets that reach their destination in the same tick are delivered
+        // in the same order links do.
+        TreeSet<TLinkBufferEntry> deliveredEntries = new TreeSet<>();
+        while ((startOfWindow < simulationDuration) && (!this.isFinished)) {
+            tickLimits.clear();
+            long endOfWindow = startOfWindow;
+            tickLimits.add(new TTimestamp(endOfWindow / ONE_MILLION, (int) (endOfWindow % ONE_MILLION)));
+            while ((tickLimits.size() <= ticksPerWindow) && (endOfWindow < simulationDuration)) {
+                endOfWindow = Math.min(endOfWindow + this.tickInNs, simulationDuration);
+                tickLimits.add(new TTimestamp(endOfWindow / ONE_MILLION, (int) (endOfWindow % ONE_MILLION)));
+            }
+            final TTimestamp[] windowTickLimits = tickLimits.toArray(new TTimestamp[tickLimits.size()]);
+            this.currentTimestamp.setTimestamp(windowTickLimits[windowTickLimits.length - ONE]);
+            generateProgressEvent();
+            int lastTick = windowTickLimits.length - TWO;
+            for (int tick = ZERO; tick < lastTick; tick++) {
+                long tickDurationInNs = windowTickLimits[tick + ONE].getTotalAsNanoseconds() - windowTickLimits[tick].getTotalAsNanoseconds();
+                for (TLink link : crossPartitionLinks) {
+                    deliveredEntries.clear();
+                    link.advancePartitionedTransit(tickDurationInNs, deliveredEntries);
+                    for (TLinkBufferEntry linkBufferEntry : deliveredEntries) {
+                        TNode destinationNode = link.getTailEndNode();
+                        if (linkBufferEntry.getPacketEnd() == TLink.HEAD_END_NODE) {
+                            destinationNode = link.getHeadEndNode();
+                        }
+                        partitionOfNode.get(destinationNode).scheduleDelivery(tick, link, linkBufferEntry);
+                    }
+                }
+            }
+            for (TLink link : crossPartitionLinks) {
+                link.setPartitionedTransitClockInstant(windowTickLimits[lastTick].getTotalAsNanoseconds());
+            }
+            partitionsWork.clear();
+            for (TTopologyPartition partition : partitions) {
+                partitionsWork.add(partitionsExecutor.submit(() -> partition.simulateWindow(windowTickLimits, this, this.longIdentifierGenerator)));
+            }
+            for (Future<?> partitionWork : partitionsWork) {
+                try {
+                    partitionWork.get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    this.logger.error(ex.getMessage(), ex);
+                }
+            }
+            for (TLink link : crossPartitionLinks) {
+                link.setPartitionedTransitClockInstant(TLink.NOT_PARTITIONED);
+            }
+            for (TTopologyElement link : this.timerEventListenerLinks) {
+                try {
+                    link.receiveTimerEvent(new TTimerEvent(this, this.longIdentifierGenerator.getNextIdentifier(), windowTickLimits[lastTick], windowTickLimits[lastTick + ONE]));
+                } catch (EIDGeneratorOverflow ex) {
+                    this.logger.error(ex.getMessage(), ex);
+                }
+            }
+            this.previousTimestamp.setTimestamp(this.currentTimestamp);
+            startOfWindow = endOfWindow;
+            checkWallClock(windowTickLimits.length - ONE);
+        }
+        if ((!this.telemetryEventListeners.isEmpty()) && (this.numberOfTicks > this.lastTelemetryNumberOfTicks)) {
+            generateTelemetryEvent(System.nanoTime());
+        }
+        for (TTopologyPartition partition : partitions) {
+            partition.setTickExecutor(getElementsTickExecutor());
+        }
+        for (TLink link : crossPartitionLinks) {
+            link.setTickExecutor(getElementsTickExecutor());
+        }
+        partitionsExecutor.shutdown();
+        this.running = false;
+    }
+
+    /**
+     * This method computes the number of nanoseconds, from the end of the last
+     * tick, until the next event of any topology element subscribed to receive
+     * timer events.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of nanoseconds until the next event or
+     * TTopologyElement.NO_PENDING_EVENTS if no topology element is waiting for
+     * anything.
+     * @since 2.0
+     */
+    private long getNanosecondsToNextEvent() {
+        long nanosecondsToNextEvent = TTopologyElement.NO_PENDING_EVENTS;
+        if (this.activeSetDispatch) {
+            // Idle topology elements have nothing to do until something
+            // arrives to them or their scheduled wake up.
+            for (TTopologyElement node : this.activeNodes) {
+                nanosecondsToNextEvent = Math.min(nanosecondsToNextEvent, node.getNanosecondsToNextEvent());
+            }
+            for (TTopologyElement link : this.activeLinks) {
+                nanosecondsToNextEvent = Math.min(nanosecondsToNextEvent, link.getNanosecondsToNextEvent());
+            }
+            if (!this.scheduledWakeUps.isEmpty()) {
+                long nanosecondsToNextWakeUp = this.scheduledWakeUps.peek().getInstant() - this.previousTimestamp.getTotalAsNanoseconds();
+                nanosecondsToNextEvent = Math.min(nanosecondsToNextEvent, Math.max(ZERO, nanosecondsToNextWakeUp));
+            }
+            return nanosecondsToNextEvent;
+        }
+        for (TTopologyElement node : this.timerEventListenerNodes) {
+            nanosecondsToNextEvent = Math.min(nanosecondsToNextEvent, node.getNanosecondsToNextEvent());
+        }
+        for (TTopologyElement link : this.timerEventListenerLinks) {
+            nanosecondsToNextEvent = Math.min(nanosecondsToNextEvent, link.getNanosecondsToNextEvent());
+        }
+        return nanosecondsToNextEvent;
+    }
+
+    /**
+     * This method stretches the next tick to cover all the ticks before the
+     * next event of the topology, if there are several of them. The stretched
+     * tick always finishes before the next event, so this event happens in a
+     * regular tick, as in the default mode. It has to be called between ticks,
+     * when no topology element is working.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if the next tick reaches the end of the simulation.
+     * Otherwise, FALSE.
+     * @since 2.0
+     */
+    private boolean skipIdleTicks() {
+        long nanosecondsToNextEvent = getNanosecondsToNextEvent();
+        long idleTicks = (nanosecondsToNextEvent - ONE) / this.tickInNs;
+        if (idleTicks <= ONE) {
+            return false;
+        }
+        long startOfNextTick = this.previousTimestamp.getTotalAsNanoseconds();
+        long simulationDuration = this.finishTimestamp.getTotalAsNanoseconds();
+        // Tick durations are integer values.
+        idleTicks = Math.min(idleTicks, Integer.MAX_VALUE / this.tickInNs);
+        long idleNanoseconds = idleTicks * this.tickInNs;
+        if (startOfNextTick + idleNanoseconds >= simulationDuration) {
+            this.currentTimestamp.setTimestamp(this.finishTimestamp);
+            return true;
+        }
+        long endOfNextTick = startOfNextTick + idleNanoseconds;
+        this.currentTimestamp.setMillisecond(endOfNextTick / ONE_MILLION);
+        this.currentTimestamp.setNanosecond((int) (endOfNextTick % ONE_MILLION));
+        return false;
+    }
+
+    /**
+     * This method computes the length of the next tick from the network
+     * activity and sets the end of the next tick accordingly. The length is
+     * doubled if nothing is going to happen during the next tick, never
+     * longer than the maximum tick length; it goes back to the configured
+     * tick length if any port is loaded above LIGHT_LOAD_CONGESTION_LEVEL; and
+     * it is kept otherwise. It has to be called between ticks, when no
+     * topology element is working.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if the next tick reaches the end of the simulation.
+     * Otherwise, FALSE.
+     * @since 2.0
+     */
+    private boolean adaptTick() {
+        // Adapted ticks are a multiple of the configured tick length.
+        int maximumAdaptiveTickInNs = Math.max(this.tickInNs, (this.maximumTickInNs / this.tickInNs) * this.tickInNs);
+        long nanosecondsToNextEvent = getNanosecondsToNextEvent();
+        int widenedTickInNs = (int) Math.min((long) this.adaptiveTickInNs * TWO, maximumAdaptiveTickInNs);
+        // The tick that is going to be used, not the current one, has to
+        // finish before the next event, so that this event happens in a
+        // regular tick, as in the default mode.
+        if (widenedTickInNs < nanosecondsToNextEvent) {
+            this.adaptiveTickInNs = widenedTickInNs;
+        } else if ((this.adaptiveTickInNs >= nanosecondsToNextEvent) || (getMaximumCongestionLevel() > LIGHT_LOAD_CONGESTION_LEVEL)) {
+            this.adaptiveTickInNs = this.tickInNs;
+        }
+        this.adaptiveTickInNs = Math.min(this.adaptiveTickInNs, maximumAdaptiveTickInNs);
+        long startOfNextTick = this.previousTimestamp.getTotalAsNanoseconds();
+        long endOfNextTick = startOfNextTick + this.adaptiveTickInNs;
+        if (endOfNextTick >= this.finishTimestamp.getTotalAsNanoseconds()) {
+            this.currentTimestamp.setTimestamp(this.finishTimestamp);
+            return true;
+        }
+        this.currentTimestamp.setMillisecond(endOfNextTick / ONE_MILLION);
+        this.currentTimestamp.setNanosecond((int) (endOfNextTick % ONE_MILLION));
+        return false;
+    }
+
+    /**
+     * This method groups the stats of every node at each time instant of the
+     * regular tick grid covered by the next tick, except its end, when the
+     * next tick has been widened or stretched. In the default mode nodes
+     * group their stats at the end of every regular tick, even when nothing
+     * happens; nothing happens during a widened or stretched tick either, so
+     * this keeps the statistics identical to those of the default mode. It
+     * has to be called between ticks, when no topology element is working.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private void groupStatsOfSkippedTimeInstants() {
+        long startOfNextTick = this.previousTimestamp.getTotalAsNanoseconds();
+        long endOfNextTick = Math.min(this.currentTimestamp.getTotalAsNanoseconds(), this.finishTimestamp.getTotalAsNanoseconds());
+        if ((endOfNextTick - startOfNextTick) <= this.tickInNs) {
+            return;
+        }
+        long firstTimeInstant = startOfNextTick + this.tickInNs;
+        long lastTimeInstant = firstTimeInstant + (((endOfNextTick - ONE - firstTimeInstant) / this.tickInNs) * this.tickInNs);
+        for (TTopologyElement node : this.timerEventListenerNodes) {
+            ((TNode) node).getStats().groupStatsByTimeInstants(firstTimeInstant, lastTimeInstant, this.tickInNs);
+        }
+    }
+
+    /**
+     * This method groups the stats of the nodes that have been idle until the
+     * end of the last tick, when the timer stops in active set mode, as they
+     * would have done in the default mode. If the last tick is shorter than
+     * the regular one, because it finishes the simulation, its end is not in
+     * the regular tick grid and it is grouped explicitly.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private void groupStatsOfIdleNodes() {
+        long endOfLastTick = this.previousTimestamp.getTotalAsNanoseconds();
+        for (TTopologyElement node : this.timerEventListenerNodes) {
+            ((TNode) node).groupStatsOfIdleTimeInstants(endOfLastTick, this.tickInNs);
+            if ((node.getCurrentTimeInstant() < endOfLastTick) && ((endOfLastTick % this.tickInNs) != ZERO)) {
+                ((TNode) node).getStats().groupStatsByTimeInstant(endOfLastTick);
+            }
+        }
+    }
+
+    /**
+     * This method computes the congestion level of the most loaded node of
+     * the topology.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the congestion level, as a percentage, of the port set of the
+     * most loaded node.
+     * @since 2.0
+     */
+    private long getMaximumCongestionLevel() {
+        long maximumCongestionLevel = ZERO;
+        for (TTopologyElement node : this.timerEventListenerNodes) {
+            maximumCongestionLevel = Math.max(maximumCongestionLevel, ((TNode) node).getPorts().getCongestionLevel());
+        }
+        return maximumCongestionLevel;
+    }
+
     /**
      * This method wait until all element that received a timer event have
      * consumed them. This is the way to synchronize al topology elements
-     * between timer events. This method is a synchronized one.
+     * between timer events, acting as a barrier at the end of each tick. This
+     * method is a synchronized one.
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
     private synchronized void waitUntilTimerEventListenersFinishTheirWork() {
+        if (this.activeSetDispatch) {
+            for (TTopologyElement topologyElement : this.dispatchedElements) {
+                topologyElement.waitForCompletion();
+            }
+            return;
+        }
         Iterator<TTopologyElement> nodesIterator = this.timerEventListenerNodes.iterator();
         Iterator<TTopologyElement> linksIterator = this.timerEventListenerLinks.iterator();
         TNode nodeAux;
@@ -474,15 +1387,20 @@ public class TTimer implements Runnable {
 
     /**
      * This method is used by any simulator object to wait for the timer finish
-     * before doing a new operation. This method is a synchronized one.
+     * before doing a new operation. The timer monitor is not held while
+     * waiting, because the timer thread needs it at the end of each tick.
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
-    public synchronized void waitForCompletion() {
-        if (this.thread != null) {
+    public void waitForCompletion() {
+        Thread timerThread;
+        synchronized (this) {
+            timerThread = this.thread;
+        }
+        if (timerThread != null) {
             try {
-                this.thread.join();
+                timerThread.join();
             } catch (InterruptedException e) {
                 logger.error(this.translations.getString("TReloj.ErrorAlEsperarFinalizacionDelReloj") + e.toString());
             }
@@ -501,12 +1419,83 @@ public class TTimer implements Runnable {
         return this.running;
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TIMER.getPath());
+        // Threads are not part of checkpoints. Every topology element will
+        // work in the new tick executor and active sets are rebuilt when the
+        // timer runs again.
+        this.thread = null;
+        this.tickExecutor = new TTickExecutor();
+        this.callingThreadTickExecutor = TTickExecutor.newCallingThreadTickExecutor();
+        this.activeNodes = new ConcurrentSkipListSet<>();
+        this.activeLinks = new ConcurrentSkipListSet<>();
+        this.scheduledWakeUps = new PriorityQueue<>();
+        this.dispatchedElements = new ArrayList<>();
+        this.progressEventListener = null;
+        this.telemetryEventListeners = new CopyOnWriteArrayList<>();
+        this.numberOfSimulationEvents = new LongAdder();
+        this.numberOfSwitchedPackets = new LongAdder();
+        for (TTopologyElement node : this.timerEventListenerNodes) {
+            node.setTickExecutor(getElementsTickExecutor());
+        }
+        for (TTopologyElement link : this.timerEventListenerLinks) {
+            link.setTickExecutor(getElementsTickExecutor());
+        }
+    }
+
+    /**
+     * This method gets the tick executor topology elements have to work in:
+     * the one that does the work in the timer thread in sequential mode or the
+     * pool of workers otherwise.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the tick executor topology elements have to work in.
+     * @since 2.0
+     */
+    private TTickExecutor getElementsTickExecutor() {
+        if (this.sequentialDispatch) {
+            return this.callingThreadTickExecutor;
+        }
+        return this.tickExecutor;
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private TreeSet<TTopologyElement> timerEventListenerNodes;
     private TreeSet<TTopologyElement> timerEventListenerLinks;
-    private TProgressEventListener progressEventListener;
+    private transient ConcurrentSkipListSet<TTopologyElement> activeNodes;
+    private transient ConcurrentSkipListSet<TTopologyElement> activeLinks;
+    private transient PriorityQueue<TTimerWakeUp> scheduledWakeUps;
+    private transient ArrayList<TTopologyElement> dispatchedElements;
+    private transient TProgressEventListener progressEventListener;
+    private transient CopyOnWriteArrayList<ITelemetryEventListener> telemetryEventListeners;
+    private transient LongAdder numberOfSimulationEvents;
+    private transient LongAdder numberOfSwitchedPackets;
+    private long telemetryIntervalInMs;
+    private long wallClockBudgetInMs;
+    private boolean wallClockBudgetExhausted;
+    private long startOfRunInNs;
+    private long lastTelemetryInNs;
+    private long lastTelemetrySimulatedTime;
+    private long numberOfTicks;
+    private long lastTelemetryNumberOfTicks;
+    private long lastTelemetryNumberOfSimulationEvents;
+    private long lastTelemetryNumberOfSwitchedPackets;
     private TLongIDGenerator longIdentifierGenerator;
+    private transient TTickExecutor tickExecutor;
+    private transient TTickExecutor callingThreadTickExecutor;
     private int tickInNs;
-    private Thread thread;
+    private boolean eventDriven;
+    private boolean adaptiveTick;
+    private int maximumTickInNs;
+    private int adaptiveTickInNs;
+    private boolean activeSetDispatch;
+    private boolean sequentialDispatch;
+    private int numberOfPartitions;
+    private int lastTickDurationInNs;
+    private long endOfLastNodesTick;
+    private transient Thread thread;
     private TTimestamp currentTimestamp;
     private TTimestamp previousTimestamp;
     private TTimestamp finishTimestamp;
@@ -516,11 +1505,31 @@ public class TTimer implements Runnable {
     private TTimestamp currentTimestampAux;
     private TTimestamp previousTimestampAux;
     private TTimestamp finishTimestampAux;
-    private ResourceBundle translations;
+    private transient ResourceBundle translations;
     private final Logger logger = LoggerFactory.getLogger(TTimer.class);
     
     private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int TWO = 2;
     private static final int ONE_HUNDRED = 100;
+    /**
+     * Congestion level, as a percentage, above which a port is not lightly
+     * loaded any more and ticks go back to their configured length in
+     * adaptive tick mode.
+     */
+    public static final long LIGHT_LOAD_CONGESTION_LEVEL = 10;
     private static final int DEFAULT_TICK_LENGTH_IN_NS = 1000;
     private static final int ONE_HUNDRED_THOUSAND = 100000;
+    private static final long ONE_MILLION = 1000000L;
+    private static final long ONE_BILLION = 1000000000L;
+    private static final long DEFAULT_TELEMETRY_INTERVAL_IN_MS = 1000L;
+    /**
+     * Maximum number of ticks partitions work without waiting for each other
+     * in a partitioned simulation.
+     */
+    public static final long MAX_TICKS_PER_WINDOW = 100L;
+    /**
+     * Wall-clock budget of timers whose simulation can last as long as needed.
+     */
+    public static final long NO_WALL_CLOCK_BUDGET = 0L;
 }
@@ -39,9 +39,32 @@ public class TTimerEvent extends TOpenSimMPLSEvent {
      * @since 2.0
      */
     public TTimerEvent(Object eventGenerator, long eventID, TTimestamp lowerEndOfInterval, TTimestamp upperEndOfInterval) {
+        this(eventGenerator, eventID, lowerEndOfInterval, upperEndOfInterval, ZERO, ZERO);
+    }
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TTimerEvent for a receiver that has not received the timer events of
+     * the last ticks because it had nothing to do in them.
+     *
+     * @param eventID The unique event identifier.
+     * @param eventGenerator The object that generates the event.
+     * @param lowerEndOfInterval The start of the period of time (simulation
+     * step) carried out by this event.
+     * @param upperEndOfInterval The end of the period of time (simulation step)
+     * carried out by this event.
+     * @param idleNanoseconds The nanoseconds, just before the start of the
+     * interval, the receiver has been idle without receiving timer events.
+     * @param lastIdleTickDurationInNs The duration of the last tick the
+     * receiver has been idle, in nanoseconds.
+     * @since 2.0
+     */
+    public TTimerEvent(Object eventGenerator, long eventID, TTimestamp lowerEndOfInterval, TTimestamp upperEndOfInterval, long idleNanoseconds, int lastIdleTickDurationInNs) {
         super(eventGenerator, eventID, upperEndOfInterval.getTotalAsNanoseconds());
         this.lowerEndOfInterval = lowerEndOfInterval;
         this.upperEndOfInterval = upperEndOfInterval;
+        this.idleNanoseconds = idleNanoseconds;
+        this.lastIdleTickDurationInNs = lastIdleTickDurationInNs;
     }
 
     /**
@@ -69,6 +92,32 @@ public class TTimerEvent extends TOpenSimMPLSEvent {
         return this.upperEndOfInterval.getTotalAsNanoseconds();
     }
 
+    /**
+     * This method gets the number of nanoseconds, just before the start of
+     * the interval, the receiver of this event has been idle without receiving
+     * timer events. The receiver has to catch up with them before working in
+     * the interval carried out by this event.
+     *
+     * @return The number of nanoseconds the receiver has been idle. Zero if
+     * the receiver received the timer event of the previous tick.
+     * @since 2.0
+     */
+    public long getIdleNanoseconds() {
+        return this.idleNanoseconds;
+    }
+
+    /**
+     * This method gets the duration of the last tick the receiver of this
+     * event has been idle without receiving its timer event.
+     *
+     * @return The duration of the last idle tick in nanoseconds. Zero if the
+     * receiver received the timer event of the previous tick.
+     * @since 2.0
+     */
+    public int getLastIdleTickDurationInNs() {
+        return this.lastIdleTickDurationInNs;
+    }
+
     /**
      * This method return the type of this event. It is one of the constants
      * defined in TOpenSimMPLSEvent.
@@ -84,4 +133,8 @@ public class TTimerEvent extends TOpenSimMPLSEvent {
 
     private final TTimestamp lowerEndOfInterval;
     private final TTimestamp upperEndOfInterval;
+    private final long idleNanoseconds;
+    private final int lastIdleTickDurationInNs;
+
+    private static final int ZERO = 0;
 }
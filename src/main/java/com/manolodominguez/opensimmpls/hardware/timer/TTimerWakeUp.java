@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.timer;
+
+import com.manolodominguez.opensimmpls.scenario.TTopologyElement;
+
+/**
+ * This class implements a wake up scheduled by the timer for an idle topology
+ * element that will have something to do at a given simulation instant, as a
+ * TLDP timeout or the generation of a new packet. Wake ups are ordered by
+ * their instant.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+final class TTimerWakeUp implements Comparable<TTimerWakeUp> {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance
+     * of TTimerWakeUp.
+     *
+     * @param instant the simulation instant, in nanoseconds, when the topology
+     * element has something to do.
+     * @param topologyElement the topology element to be woken up.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    TTimerWakeUp(long instant, TTopologyElement topologyElement) {
+        this.instant = instant;
+        this.topologyElement = topologyElement;
+    }
+
+    /**
+     * This method gets the simulation instant when the topology element has
+     * something to do.
+     *
+     * @return the simulation instant, in nanoseconds.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    long getInstant() {
+        return this.instant;
+    }
+
+    /**
+     * This method gets the topology element to be woken up.
+     *
+     * @return the topology element to be woken up.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    TTopologyElement getTopologyElement() {
+        return this.topologyElement;
+    }
+
+    /**
+     * This method compares this wake up with another one, by their instant.
+     *
+     * @param anotherWakeUp the wake up to be compared with.
+     * @return a negative value if this wake up happens before, zero if both
+     * happen at the same instant or a positive value otherwise.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    public int compareTo(TTimerWakeUp anotherWakeUp) {
+        return Long.compare(this.instant, anotherWakeUp.instant);
+    }
+
+    private final long instant;
+    private final TTopologyElement topologyElement;
+}
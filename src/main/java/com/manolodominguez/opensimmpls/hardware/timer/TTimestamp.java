@@ -15,13 +15,15 @@
  */
 package com.manolodominguez.opensimmpls.hardware.timer;
 
+import java.io.Serializable;
+
 /**
  * This class implements a timestamp.
  *
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TTimestamp implements Comparable<TTimestamp> {
+public class TTimestamp implements Comparable<TTimestamp>, Serializable {
 
     /**
      * This method is the constructor of the class. Is creates a new instance of
@@ -162,6 +164,8 @@ public class TTimestamp implements Comparable<TTimestamp> {
     public long getTotalAsNanoseconds() {
         return (this.getMillisecond() * TTimestamp.ONE_MILLION) + this.getNanosecond();
     }
+
+    private static final long serialVersionUID = 1L;
     public static final int THIS_LOWER = -1;
     public static final int THIS_EQUAL = 0;
     public static final int THIS_GREATER = 1;
@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.timer;
+
+import com.manolodominguez.opensimmpls.commons.EIDGeneratorOverflow;
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import com.manolodominguez.opensimmpls.scenario.TLink;
+import com.manolodominguez.opensimmpls.scenario.TLinkBufferEntry;
+import com.manolodominguez.opensimmpls.scenario.TNode;
+import com.manolodominguez.opensimmpls.scenario.TTopologyElement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a partition of the topology in a partitioned
+ * simulation. A partition is a set of nodes and the links between them that
+ * are simulated tick by tick, one after another, by a single thread, with its
+ * own clock. Links that connect two partitions are not simulated by any of
+ * them; the timer advances their packets in transit for a whole window of
+ * ticks and each partition delivers the packets that reach its nodes in the
+ * corresponding tick of the window, when the link would have worked.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+final class TTopologyPartition {
+
+    /**
+     * This method is the constructor of the class. It creates a new empty
+     * instance of TTopologyPartition.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    TTopologyPartition() {
+        this.nodes = new ArrayList<>();
+        this.links = new ArrayList<>();
+        this.linksInIDOrder = new ArrayList<>();
+        this.endOfCrossPartitionLinks = new HashMap<>();
+        this.scheduledDeliveries = new ArrayDeque<>();
+        this.callingThreadTickExecutor = TTickExecutor.newCallingThreadTickExecutor();
+    }
+
+    /**
+     * This method splits the topology in, at most, the specified number of
+     * partitions with a similar number of nodes. Nodes are taken in breadth
+     * first order from each connected group of nodes, so that the nodes of a
+     * partition are close to each other and few links connect different
+     * partitions. Groups of nodes that are not connected at all are never
+     * split unless it is needed to balance partitions.
+     *
+     * @param nodes the nodes of the topology.
+     * @param links the links of the topology.
+     * @param numberOfPartitions the maximum number of partitions.
+     * @param crossPartitionLinks the list where links that connect two
+     * partitions are added.
+     * @return the partitions of the topology, none of them empty.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    static List<TTopologyPartition> createPartitions(Collection<TTopologyElement> nodes, Collection<TTopologyElement> links, int numberOfPartitions, List<TLink> crossPartitionLinks) {
+        Map<TNode, List<TNode>> neighbours = new HashMap<>();
+        for (TTopologyElement node : nodes) {
+            neighbours.put((TNode) node, new ArrayList<TNode>());
+        }
+        for (TTopologyElement element : links) {
+            TLink link = (TLink) element;
+            List<TNode> headEndNodeNeighbours = neighbours.get(link.getHeadEndNode());
+            List<TNode> tailEndNodeNeighbours = neighbours.get(link.getTailEndNode());
+            if ((headEndNodeNeighbours != null) && (tailEndNodeNeighbours != null)) {
+                headEndNodeNeighbours.add(link.getTailEndNode());
+                tailEndNodeNeighbours.add(link.getHeadEndNode());
+            }
+        }
+        int nodesPerPartition = Math.max(ONE, (nodes.size() + numberOfPartitions - ONE) / numberOfPartitions);
+        List<TTopologyPartition> partitions = new ArrayList<>();
+        Map<TNode, TTopologyPartition> partitionOfNode = new HashMap<>();
+        TTopologyPartition currentPartition = new TTopologyPartition();
+        ArrayDeque<TNode> pendingNodes = new ArrayDeque<>();
+        for (TTopologyElement element : nodes) {
+            TNode firstNode = (TNode) element;
+            if (partitionOfNode.containsKey(firstNode)) {
+                continue;
+            }
+            partitionOfNode.put(firstNode, currentPartition);
+            pendingNodes.add(firstNode);
+            while (!pendingNodes.isEmpty()) {
+                TNode node = pendingNodes.poll();
+                if ((currentPartition.nodes.size() == nodesPerPartition) && (partitions.size() < numberOfPartitions - ONE)) {
+                    partitions.add(currentPartition);
+                    currentPartition = new TTopologyPartition();
+                }
+                currentPartition.nodes.add(node);
+                partitionOfNode.put(node, currentPartition);
+                for (TNode neighbour : neighbours.get(node)) {
+                    if (!partitionOfNode.containsKey(neighbour)) {
+                        // Reserved, the partition is set when it is taken.
+                        partitionOfNode.put(neighbour, currentPartition);
+                        pendingNodes.add(neighbour);
+                    }
+                }
+            }
+        }
+        if ((!currentPartition.nodes.isEmpty()) || (partitions.isEmpty())) {
+            partitions.add(currentPartition);
+        }
+        for (TTopologyElement element : links) {
+            TLink link = (TLink) element;
+            TTopologyPartition headEndNodePartition = partitionOfNode.get(link.getHeadEndNode());
+            TTopologyPartition tailEndNodePartition = partitionOfNode.get(link.getTailEndNode());
+            if ((headEndNodePartition != null) && (tailEndNodePartition != null) && (headEndNodePartition != tailEndNodePartition)) {
+                crossPartitionLinks.add(link);
+                headEndNodePartition.linksInIDOrder.add(link);
+                headEndNodePartition.endOfCrossPartitionLinks.put(link, TLink.HEAD_END_NODE);
+                tailEndNodePartition.linksInIDOrder.add(link);
+                tailEndNodePartition.endOfCrossPartitionLinks.put(link, TLink.TAIL_END_NODE);
+            } else if (headEndNodePartition != null) {
+                headEndNodePartition.links.add(link);
+                headEndNodePartition.linksInIDOrder.add(link);
+            } else if (tailEndNodePartition != null) {
+                tailEndNodePartition.links.add(link);
+                tailEndNodePartition.linksInIDOrder.add(link);
+            } else {
+                partitions.get(ZERO).links.add(link);
+                partitions.get(ZERO).linksInIDOrder.add(link);
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * This method gets the nodes of this partition.
+     *
+     * @return the nodes of this partition.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    List<TNode> getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * This method gets the links between nodes of this partition.
+     *
+     * @return the links between nodes of this partition.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    List<TLink> getLinks() {
+        return this.links;
+    }
+
+    /**
+     * This method makes the topology elements of this partition work in the
+     * thread that simulates the partition, or in the specified tick executor
+     * again when the partitioned simulation finishes.
+     *
+     * @param tickExecutor the tick executor to be used by topology elements
+     * of this partition, or null to use the thread that simulates the
+     * partition.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void setTickExecutor(TTickExecutor tickExecutor) {
+        TTickExecutor elementsTickExecutor = tickExecutor;
+        if (elementsTickExecutor == null) {
+            elementsTickExecutor = this.callingThreadTickExecutor;
+        }
+        for (TNode node : this.nodes) {
+            node.setTickExecutor(elementsTickExecutor);
+        }
+        for (TLink link : this.links) {
+            link.setTickExecutor(elementsTickExecutor);
+        }
+    }
+
+    /**
+     * This method schedules the delivery of a packet that reaches a node of
+     * this partition through a link that connects two partitions. Deliveries
+     * have to be scheduled in tick order and, within a tick, in the order of
+     * the identifiers of the links.
+     *
+     * @param tick the tick of the next window, counted from zero, when the
+     * packet reaches its destination.
+     * @param link the link the packet is in transit through.
+     * @param linkBufferEntry the entry of the packet in the link.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void scheduleDelivery(int tick, TLink link, TLinkBufferEntry linkBufferEntry) {
+        this.scheduledDeliveries.add(new TScheduledDelivery(tick, link, linkBufferEntry));
+    }
+
+    /**
+     * This method simulates a window of ticks of this partition, except the
+     * links of the last tick, that work after the window in the thread of the
+     * timer, together with those of the rest of partitions. In each tick,
+     * nodes work first and then links work in the order of their identifiers,
+     * as they do without partitions; when the turn of a link that connects
+     * two partitions comes, the packets that reach nodes of this partition
+     * through it are delivered.
+     *
+     * @param tickLimits the instants, in nanoseconds, where the ticks of the
+     * window start and finish. Tick i starts at tickLimits[i] and finishes at
+     * tickLimits[i + 1].
+     * @param timer the timer that generates timer events.
+     * @param identifierGenerator the identifier generator for timer events.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void simulateWindow(TTimestamp[] tickLimits, TTimer timer, TLongIDGenerator identifierGenerator) {
+        int lastTick = tickLimits.length - TWO;
+        for (int tick = ZERO; tick <= lastTick; tick++) {
+            long startOfTick = tickLimits[tick].getTotalAsNanoseconds();
+            long endOfTick = tickLimits[tick + ONE].getTotalAsNanoseconds();
+            for (Map.Entry<TLink, Integer> endOfCrossPartitionLink : this.endOfCrossPartitionLinks.entrySet()) {
+                endOfCrossPartitionLink.getKey().setPartitionedTransitStartInstant(endOfCrossPartitionLink.getValue(), startOfTick);
+            }
+            try {
+                for (TNode node : this.nodes) {
+                    node.receiveTimerEvent(new TTimerEvent(timer, identifierGenerator.getNextIdentifier(), tickLimits[tick], tickLimits[tick + ONE]));
+                }
+                if (tick < lastTick) {
+                    for (TLink link : this.linksInIDOrder) {
+                        Integer endOfCrossPartitionLink = this.endOfCrossPartitionLinks.get(link);
+                        if (endOfCrossPartitionLink == null) {
+                            link.receiveTimerEvent(new TTimerEvent(timer, identifierGenerator.getNextIdentifier(), tickLimits[tick], tickLimits[tick + ONE]));
+                        } else {
+                            link.setPartitionedTransitStartInstant(endOfCrossPartitionLink, endOfTick);
+                            while ((!this.scheduledDeliveries.isEmpty()) && (this.scheduledDeliveries.peek().tick == tick) && (this.scheduledDeliveries.peek().link == link)) {
+                                TScheduledDelivery scheduledDelivery = this.scheduledDeliveries.poll();
+                                deliver(scheduledDelivery.link, scheduledDelivery.linkBufferEntry);
+                            }
+                        }
+                    }
+                }
+            } catch (EIDGeneratorOverflow ex) {
+                this.logger.error(ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * This method puts a packet that has reached its destination through the
+     * specified link in the corresponding port of the destination node.
+     *
+     * @param link the link the packet has been in transit through.
+     * @param linkBufferEntry the entry of the packet in the link.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    static void deliver(TLink link, TLinkBufferEntry linkBufferEntry) {
+        if (linkBufferEntry.getPacketEnd() == TLink.HEAD_END_NODE) {
+            link.getHeadEndNode().putPacket(linkBufferEntry.getPacket(), link.getHeadEndNodePortID());
+        } else {
+            link.getTailEndNode().putPacket(linkBufferEntry.getPacket(), link.getTailEndNodePortID());
+        }
+    }
+
+    /**
+     * This class implements the delivery of a packet scheduled for a tick of
+     * the next window.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @version 2.0
+     */
+    private static final class TScheduledDelivery {
+
+        TScheduledDelivery(int tick, TLink link, TLinkBufferEntry linkBufferEntry) {
+            this.tick = tick;
+            this.link = link;
+            this.linkBufferEntry = linkBufferEntry;
+        }
+
+        private final int tick;
+        private final TLink link;
+        private final TLinkBufferEntry linkBufferEntry;
+    }
+
+    private final List<TNode> nodes;
+    private final List<TLink> links;
+    private final List<TLink> linksInIDOrder;
+    private final Map<TLink, Integer> endOfCrossPartitionLinks;
+    private final ArrayDeque<TScheduledDelivery> scheduledDeliveries;
+    private final TTickExecutor callingThreadTickExecutor;
+    private final Logger logger = LoggerFactory.getLogger(TTopologyPartition.class);
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int TWO = 2;
+}
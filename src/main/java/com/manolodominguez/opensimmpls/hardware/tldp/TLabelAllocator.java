@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.tldp;
+
+import java.io.Serializable;
+
+/**
+ * This class implements the allocator of the label space of a switching
+ * matrix. It keeps track of used labels by means of a hierarchical bitmap:
+ * the first level has a bit per label and each upper level has a bit per
+ * word of the level below that is set when that word is full. So, both
+ * getting the lowest free label and using or releasing a label cost a few
+ * word operations (four levels for a 20-bits label space), whatever the
+ * number of labels in use. This class is not thread safe; the switching
+ * matrix is in charge of synchronizing accesses.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+class TLabelAllocator implements Serializable {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance
+     * of TLabelAllocator where every label is free except the reserved ones.
+     *
+     * @param firstUnreservedLabel the lowest label that can be allocated.
+     * @param lastLabel the highest label that can be allocated.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    TLabelAllocator(int firstUnreservedLabel, int lastLabel) {
+        this.firstUnreservedLabel = firstUnreservedLabel;
+        this.lastLabel = lastLabel;
+        int numberOfLevels = ONE;
+        int numberOfBits = lastLabel + ONE;
+        while (getNumberOfWords(numberOfBits) > ONE) {
+            numberOfBits = getNumberOfWords(numberOfBits);
+            numberOfLevels++;
+        }
+        this.levels = new long[numberOfLevels][];
+        this.reset();
+    }
+
+    /**
+     * This method frees every label except the reserved ones and clears
+     * allocation and release counters, as when the allocator was created.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    final void reset() {
+        int numberOfBits = this.lastLabel + ONE;
+        for (int level = ZERO; level < this.levels.length; level++) {
+            int numberOfWords = getNumberOfWords(numberOfBits);
+            this.levels[level] = new long[numberOfWords];
+            // Bits beyond the end of each level are marked as used so they
+            // are never chosen.
+            int paddingBits = (numberOfWords * WORD_SIZE) - numberOfBits;
+            if (paddingBits > ZERO) {
+                this.levels[level][numberOfWords - ONE] = ALL_BITS_SET << (WORD_SIZE - paddingBits);
+            }
+            numberOfBits = numberOfWords;
+        }
+        for (int label = ZERO; label < this.firstUnreservedLabel; label++) {
+            this.setBit(label);
+        }
+        this.numberOfUsedLabels = ZERO;
+        this.numberOfAllocations = ZERO;
+        this.numberOfReleases = ZERO;
+    }
+
+    /**
+     * This method gets the lowest label that is not being used.
+     *
+     * @return the lowest label that is not being used or
+     * TSwitchingMatrixEntry.LABEL_UNAVAILABLE if every label is being used.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    int getLowestFreeLabel() {
+        int topLevel = this.levels.length - ONE;
+        if (this.levels[topLevel][ZERO] == ALL_BITS_SET) {
+            return TSwitchingMatrixEntry.LABEL_UNAVAILABLE;
+        }
+        int index = ZERO;
+        for (int level = topLevel; level >= ZERO; level--) {
+            long word = this.levels[level][index];
+            index = (index * WORD_SIZE) + Long.numberOfTrailingZeros(~word);
+        }
+        return index;
+    }
+
+    /**
+     * This method marks the specified label as used. Reserved labels and
+     * labels out of the label space are ignored.
+     *
+     * @param label the label to be marked as used.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void allocate(int label) {
+        if ((label >= this.firstUnreservedLabel) && (label <= this.lastLabel) && (!this.isUsed(label))) {
+            this.setBit(label);
+            this.numberOfUsedLabels++;
+            this.numberOfAllocations++;
+        }
+    }
+
+    /**
+     * This method marks the specified label as free. Reserved labels and
+     * labels out of the label space are ignored.
+     *
+     * @param label the label to be marked as free.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void release(int label) {
+        if ((label >= this.firstUnreservedLabel) && (label <= this.lastLabel) && (this.isUsed(label))) {
+            this.clearBit(label);
+            this.numberOfUsedLabels--;
+            this.numberOfReleases++;
+        }
+    }
+
+    /**
+     * This method checks whether the specified label is being used.
+     *
+     * @param label the label to be checked.
+     * @return TRUE, if the label is being used or is reserved. Otherwise,
+     * FALSE.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    boolean isUsed(int label) {
+        if ((label < ZERO) || (label > this.lastLabel)) {
+            return false;
+        }
+        return (this.levels[ZERO][label / WORD_SIZE] & (ONE_BIT << (label % WORD_SIZE))) != ZERO;
+    }
+
+    /**
+     * This method gets the number of labels being used, not including the
+     * reserved ones.
+     *
+     * @return the number of labels being used.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    int getNumberOfUsedLabels() {
+        return this.numberOfUsedLabels;
+    }
+
+    /**
+     * This method gets the number of times a free label has been marked as
+     * used since the allocator was created or reset.
+     *
+     * @return the number of label allocations.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    long getNumberOfAllocations() {
+        return this.numberOfAllocations;
+    }
+
+    /**
+     * This method gets the number of times a used label has been marked as
+     * free since the allocator was created or reset.
+     *
+     * @return the number of label releases.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    long getNumberOfReleases() {
+        return this.numberOfReleases;
+    }
+
+    private void setBit(int bit) {
+        int index = bit;
+        for (int level = ZERO; level < this.levels.length; level++) {
+            int word = index / WORD_SIZE;
+            this.levels[level][word] |= ONE_BIT << (index % WORD_SIZE);
+            if (this.levels[level][word] != ALL_BITS_SET) {
+                // The word is not full, so upper levels do not change.
+                break;
+            }
+            index = word;
+        }
+    }
+
+    private void clearBit(int bit) {
+        int index = bit;
+        for (int level = ZERO; level < this.levels.length; level++) {
+            int word = index / WORD_SIZE;
+            long previousWord = this.levels[level][word];
+            this.levels[level][word] = previousWord & ~(ONE_BIT << (index % WORD_SIZE));
+            if (previousWord != ALL_BITS_SET) {
+                // The word was not full, so upper levels do not change.
+                break;
+            }
+            index = word;
+        }
+    }
+
+    private static int getNumberOfWords(int numberOfBits) {
+        return (numberOfBits + WORD_SIZE - ONE) / WORD_SIZE;
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final int firstUnreservedLabel;
+    private final int lastLabel;
+    private final long[][] levels;
+    private int numberOfUsedLabels;
+    private long numberOfAllocations;
+    private long numberOfReleases;
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int WORD_SIZE = 64;
+    private static final long ONE_BIT = 1L;
+    private static final long ALL_BITS_SET = -1L;
+}
@@ -15,18 +15,31 @@
  */
 package com.manolodominguez.opensimmpls.hardware.tldp;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
+import java.io.Serializable;
 
 /**
  * This class implements a switching matrix to be used within each node of the
- * topology.
+ * topology. Switching entries are indexed by (incoming port, label or FEC), by
+ * local TLDP session ID, by (upstream TLDP session ID, incoming port) and by
+ * label, so lookups do not depend on the number of entries. Indexes are kept
+ * up to date when an indexed field of a switching entry changes. Labels used
+ * by ILM entries are tracked by a label allocator, so getting a new label does
+ * not depend on the number of labels in use either; a label is released as
+ * soon as the last ILM entry using it is removed or changes.
+ *
+ * The semaphore of the matrix still protects the set of entries while it is
+ * being iterated; lookups only need the monitor of the matrix, that guards
+ * the indexes.
  *
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TSwitchingMatrix {
+public class TSwitchingMatrix implements Serializable {
 
     /**
      * This method is the constructor of the class. It creates a new instance of
@@ -36,8 +49,14 @@ public class TSwitchingMatrix {
      * @since 2.0
      */
     public TSwitchingMatrix() {
-        this.switchingMatrix = new LinkedList<>();
+        this.switchingMatrix = new LinkedHashSet<>();
         this.semaphore = new TSemaphore();
+        this.entriesIndex = new TSwitchingMatrixIndex();
+        this.localTLDPSessionsIndex = new TSwitchingMatrixIndex();
+        this.upstreamTLDPSessionsIndex = new TSwitchingMatrixIndex();
+        this.labelsIndex = new TSwitchingMatrixIndex();
+        this.labelAllocator = new TLabelAllocator(TSwitchingMatrixEntry.FIRST_UNRESERVED_LABEL, TSwitchingMatrixEntry.LABEL_SPACE);
+        this.nextSequenceNumber = ZERO;
     }
 
     /**
@@ -63,7 +82,13 @@ public class TSwitchingMatrix {
      */
     public void addEntry(TSwitchingMatrixEntry switchingMatrixEntry) {
         this.semaphore.setRed();
-        this.switchingMatrix.addLast(switchingMatrixEntry);
+        synchronized (this) {
+            if (this.switchingMatrix.add(switchingMatrixEntry) && (switchingMatrixEntry != null)) {
+                switchingMatrixEntry.setSwitchingMatrix(this, this.nextSequenceNumber);
+                this.nextSequenceNumber++;
+                this.addToIndexes(switchingMatrixEntry);
+            }
+        }
         this.semaphore.setGreen();
     }
 
@@ -81,23 +106,8 @@ public class TSwitchingMatrix {
      * arguments (if exist) or NULL on the contrary.
      * @since 2.0
      */
-    public TSwitchingMatrixEntry getEntry(int incomingPortID, int labelOrFEC, int entryType) {
-        this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getLabelOrFEC() == labelOrFEC) {
-                if (switchingMatrixEntryAux.getIncomingPortID() == incomingPortID) {
-                    if (switchingMatrixEntryAux.getEntryType() == entryType) {
-                        this.semaphore.setGreen();
-                        return switchingMatrixEntryAux;
-                    }
-                }
-            }
-        }
-        this.semaphore.setGreen();
-        return null;
+    public synchronized TSwitchingMatrixEntry getEntry(int incomingPortID, int labelOrFEC, int entryType) {
+        return this.findEntry(incomingPortID, labelOrFEC, entryType);
     }
 
     /**
@@ -111,19 +121,12 @@ public class TSwitchingMatrix {
      * argument (if exist) or NULL on the contrary.
      * @since 2.0
      */
-    public TSwitchingMatrixEntry getEntry(int localTLDPSessionID) {
-        this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getLocalTLDPSessionID() == localTLDPSessionID) {
-                this.semaphore.setGreen();
-                return switchingMatrixEntryAux;
-            }
+    public synchronized TSwitchingMatrixEntry getEntry(int localTLDPSessionID) {
+        List<TSwitchingMatrixEntry> candidates = this.localTLDPSessionsIndex.get(localTLDPSessionID);
+        if (candidates.isEmpty()) {
+            return null;
         }
-        this.semaphore.setGreen();
-        return null;
+        return candidates.get(ZERO);
     }
 
     /**
@@ -139,21 +142,12 @@ public class TSwitchingMatrix {
      * arguments (if exist) or NULL on the contrary.
      * @since 2.0
      */
-    public TSwitchingMatrixEntry getEntry(int upstreamTLDPSessionID, int incomingPortID) {
-        this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getUpstreamTLDPSessionID() == upstreamTLDPSessionID) {
-                if (switchingMatrixEntryAux.getIncomingPortID() == incomingPortID) {
-                    this.semaphore.setGreen();
-                    return switchingMatrixEntryAux;
-                }
-            }
+    public synchronized TSwitchingMatrixEntry getEntry(int upstreamTLDPSessionID, int incomingPortID) {
+        List<TSwitchingMatrixEntry> candidates = this.upstreamTLDPSessionsIndex.get(TSwitchingMatrixIndex.getKey(upstreamTLDPSessionID, incomingPortID));
+        if (candidates.isEmpty()) {
+            return null;
         }
-        this.semaphore.setGreen();
-        return null;
+        return candidates.get(ZERO);
     }
 
     /**
@@ -170,23 +164,8 @@ public class TSwitchingMatrix {
      * matrix. Otherwise, returns FALSE.
      * @since 2.0
      */
-    public boolean existsEntry(int incomingPortID, int labelOrFEC, int entryType) {
-        this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getLabelOrFEC() == labelOrFEC) {
-                if (switchingMatrixEntryAux.getIncomingPortID() == incomingPortID) {
-                    if (switchingMatrixEntryAux.getEntryType() == entryType) {
-                        this.semaphore.setGreen();
-                        return true;
-                    }
-                }
-            }
-        }
-        this.semaphore.setGreen();
-        return false;
+    public synchronized boolean existsEntry(int incomingPortID, int labelOrFEC, int entryType) {
+        return this.findEntry(incomingPortID, labelOrFEC, entryType) != null;
     }
 
     /**
@@ -204,15 +183,12 @@ public class TSwitchingMatrix {
      */
     public void removeEntry(int incomingPortID, int labelOrFEC, int entryType) {
         this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getLabelOrFEC() == labelOrFEC) {
-                if (switchingMatrixEntryAux.getIncomingPortID() == incomingPortID) {
-                    if (switchingMatrixEntryAux.getEntryType() == entryType) {
-                        iterator.remove();
-                    }
+        synchronized (this) {
+            List<TSwitchingMatrixEntry> candidates = new ArrayList<>(this.entriesIndex.get(TSwitchingMatrixIndex.getKey(incomingPortID, labelOrFEC)));
+            for (TSwitchingMatrixEntry switchingMatrixEntryAux : candidates) {
+                if (switchingMatrixEntryAux.getEntryType() == entryType) {
+                    this.switchingMatrix.remove(switchingMatrixEntryAux);
+                    this.detachEntry(switchingMatrixEntryAux);
                 }
             }
         }
@@ -232,13 +208,12 @@ public class TSwitchingMatrix {
      */
     public void removeEntry(int localTLDPSessionID, int incomingPortID) {
         this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getLocalTLDPSessionID() == localTLDPSessionID) {
+        synchronized (this) {
+            List<TSwitchingMatrixEntry> candidates = new ArrayList<>(this.localTLDPSessionsIndex.get(localTLDPSessionID));
+            for (TSwitchingMatrixEntry switchingMatrixEntryAux : candidates) {
                 if (switchingMatrixEntryAux.getIncomingPortID() == incomingPortID) {
-                    iterator.remove();
+                    this.switchingMatrix.remove(switchingMatrixEntryAux);
+                    this.detachEntry(switchingMatrixEntryAux);
                 }
             }
         }
@@ -264,22 +239,11 @@ public class TSwitchingMatrix {
      * TSwitchingMatrixEntry.SWAP_LABEL and TSwitchingMatrixEntry.NOOP).
      * @since 2.0
      */
-    public int getLabelStackOperation(int incomingPortID, int labelOrFEC, int entryType) {
-        this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getLabelOrFEC() == labelOrFEC) {
-                if (switchingMatrixEntryAux.getIncomingPortID() == incomingPortID) {
-                    if (switchingMatrixEntryAux.getEntryType() == entryType) {
-                        this.semaphore.setGreen();
-                        return switchingMatrixEntryAux.getLabelStackOperation();
-                    }
-                }
-            }
+    public synchronized int getLabelStackOperation(int incomingPortID, int labelOrFEC, int entryType) {
+        TSwitchingMatrixEntry switchingMatrixEntryAux = this.findEntry(incomingPortID, labelOrFEC, entryType);
+        if (switchingMatrixEntryAux != null) {
+            return switchingMatrixEntryAux.getLabelStackOperation();
         }
-        this.semaphore.setGreen();
         return TSwitchingMatrixEntry.UNDEFINED;
     }
 
@@ -300,22 +264,11 @@ public class TSwitchingMatrix {
      * arguments.
      * @since 2.0
      */
-    public int getOutgoingLabel(int incomingPortID, int labelOrFEC, int entryType) {
-        this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getLabelOrFEC() == labelOrFEC) {
-                if (switchingMatrixEntryAux.getIncomingPortID() == incomingPortID) {
-                    if (switchingMatrixEntryAux.getEntryType() == entryType) {
-                        this.semaphore.setGreen();
-                        return switchingMatrixEntryAux.getOutgoingLabel();
-                    }
-                }
-            }
+    public synchronized int getOutgoingLabel(int incomingPortID, int labelOrFEC, int entryType) {
+        TSwitchingMatrixEntry switchingMatrixEntryAux = this.findEntry(incomingPortID, labelOrFEC, entryType);
+        if (switchingMatrixEntryAux != null) {
+            return switchingMatrixEntryAux.getOutgoingLabel();
         }
-        this.semaphore.setGreen();
         return TSwitchingMatrixEntry.UNDEFINED;
     }
 
@@ -336,22 +289,11 @@ public class TSwitchingMatrix {
      * arguments.
      * @since 2.0
      */
-    public int getOutgoingPortID(int incomingPortID, int labelOrFEC, int entryType) {
-        this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux = null;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getLabelOrFEC() == labelOrFEC) {
-                if (switchingMatrixEntryAux.getIncomingPortID() == incomingPortID) {
-                    if (switchingMatrixEntryAux.getEntryType() == entryType) {
-                        this.semaphore.setGreen();
-                        return switchingMatrixEntryAux.getOutgoingPortID();
-                    }
-                }
-            }
+    public synchronized int getOutgoingPortID(int incomingPortID, int labelOrFEC, int entryType) {
+        TSwitchingMatrixEntry switchingMatrixEntryAux = this.findEntry(incomingPortID, labelOrFEC, entryType);
+        if (switchingMatrixEntryAux != null) {
+            return switchingMatrixEntryAux.getOutgoingPortID();
         }
-        this.semaphore.setGreen();
         return TSwitchingMatrixEntry.UNDEFINED;
     }
 
@@ -365,20 +307,12 @@ public class TSwitchingMatrix {
      * specified label. Otherwise returns FALSE.
      * @since 2.0
      */
-    public boolean labelIsAlreadyUsed(int label) {
-        this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        TSwitchingMatrixEntry switchingMatrixEntryAux;
-        while (iterator.hasNext()) {
-            switchingMatrixEntryAux = iterator.next();
-            if (switchingMatrixEntryAux.getLabelOrFEC() == label) {
-                if (switchingMatrixEntryAux.getEntryType() == TSwitchingMatrixEntry.LABEL_ENTRY) {
-                    this.semaphore.setGreen();
-                    return true;
-                }
+    public synchronized boolean labelIsAlreadyUsed(int label) {
+        for (TSwitchingMatrixEntry switchingMatrixEntryAux : this.labelsIndex.get(label)) {
+            if (switchingMatrixEntryAux.getEntryType() == TSwitchingMatrixEntry.LABEL_ENTRY) {
+                return true;
             }
         }
-        this.semaphore.setGreen();
         return false;
     }
 
@@ -393,16 +327,92 @@ public class TSwitchingMatrix {
      * TSwitchingMatrixEntry.LABEL_UNAVAILABLE.
      * @since 2.0
      */
-    public int getNewLabel() {
-        int labelAux = TSwitchingMatrixEntry.FIRST_UNRESERVED_LABEL;
-        while (labelAux <= TSwitchingMatrixEntry.LABEL_SPACE) {
-            if (!labelIsAlreadyUsed(labelAux)) {
-                return labelAux;
-            } else {
-                labelAux++;
+    public synchronized int getNewLabel() {
+        return this.labelAllocator.getLowestFreeLabel();
+    }
+
+    /**
+     * This method gets the number of labels currently used by switching
+     * entries in the switching matrix.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of labels currently used by switching entries in the
+     * switching matrix.
+     * @since 2.0
+     */
+    public synchronized int getNumberOfUsedLabels() {
+        return this.labelAllocator.getNumberOfUsedLabels();
+    }
+
+    /**
+     * This method gets the number of times a free label has started being
+     * used by a switching entry since the switching matrix was created or
+     * reset.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of label allocations.
+     * @since 2.0
+     */
+    public synchronized long getNumberOfLabelAllocations() {
+        return this.labelAllocator.getNumberOfAllocations();
+    }
+
+    /**
+     * This method gets the number of times a label has stopped being used by
+     * any switching entry since the switching matrix was created or reset.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of label releases.
+     * @since 2.0
+     */
+    public synchronized long getNumberOfLabelReleases() {
+        return this.labelAllocator.getNumberOfReleases();
+    }
+
+    /**
+     * This method gets the number of nanoseconds that have to elapse before
+     * the first TLDP timeout of the switching entries has any effect.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of nanoseconds until the first TLDP timeout expires,
+     * or TSwitchingMatrixEntry.NO_PENDING_TIMEOUT if no switching entry is
+     * waiting for any TLDP operation.
+     * @since 2.0
+     */
+    public long getNanosecondsToNextTimeOut() {
+        long nanosecondsToNextTimeOut = TSwitchingMatrixEntry.NO_PENDING_TIMEOUT;
+        this.semaphore.setRed();
+        for (TSwitchingMatrixEntry switchingMatrixEntryAux : this.switchingMatrix) {
+            if (switchingMatrixEntryAux != null) {
+                nanosecondsToNextTimeOut = Math.min(nanosecondsToNextTimeOut, switchingMatrixEntryAux.getNanosecondsToTimeOut());
             }
         }
-        return TSwitchingMatrixEntry.LABEL_UNAVAILABLE;
+        this.semaphore.setGreen();
+        return nanosecondsToNextTimeOut;
+    }
+
+    /**
+     * This method decreases the TLDP timeouts of all switching entries in the
+     * specified number of nanoseconds. It is used to catch up with the ticks
+     * the node has been idle, without receiving timer events.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param nanosecondsToDecrease the number of nanoseconds to be decreased.
+     * Nothing is done if it is not a positive value.
+     * @since 2.0
+     */
+    public void decreaseTimeOuts(long nanosecondsToDecrease) {
+        if (nanosecondsToDecrease <= ZERO) {
+            return;
+        }
+        int nanoseconds = (int) Math.min(nanosecondsToDecrease, Integer.MAX_VALUE);
+        this.semaphore.setRed();
+        for (TSwitchingMatrixEntry switchingMatrixEntryAux : this.switchingMatrix) {
+            if (switchingMatrixEntryAux != null) {
+                switchingMatrixEntryAux.decreaseTimeOut(nanoseconds);
+            }
+        }
+        this.semaphore.setGreen();
     }
 
     /**
@@ -414,7 +424,7 @@ public class TSwitchingMatrix {
      * @since 2.0
      */
     public Iterator<TSwitchingMatrixEntry> getEntriesIterator() {
-        return this.switchingMatrix.iterator();
+        return new TSwitchingMatrixIterator(this.switchingMatrix.iterator());
     }
 
     /**
@@ -439,14 +449,151 @@ public class TSwitchingMatrix {
      */
     public void reset() {
         this.semaphore.setRed();
-        Iterator<TSwitchingMatrixEntry> iterator = this.switchingMatrix.iterator();
-        while (iterator.hasNext()) {
-            iterator.next();
-            iterator.remove();
+        synchronized (this) {
+            for (TSwitchingMatrixEntry switchingMatrixEntryAux : this.switchingMatrix) {
+                if (switchingMatrixEntryAux != null) {
+                    switchingMatrixEntryAux.setSwitchingMatrix(null, ZERO);
+                }
+            }
+            this.switchingMatrix.clear();
+            this.entriesIndex.clear();
+            this.localTLDPSessionsIndex.clear();
+            this.upstreamTLDPSessionsIndex.clear();
+            this.labelsIndex.clear();
+            this.labelAllocator.reset();
         }
         this.semaphore.setGreen();
     }
 
-    private LinkedList<TSwitchingMatrixEntry> switchingMatrix;
+    /**
+     * This method looks for the first switching entry, in the order they were
+     * added, that matches the values specified as arguments.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param incomingPortID The incoming port of field of the wanted switching
+     * entry.
+     * @param labelOrFEC The labelOrFEC field of the wanted switching entry.
+     * @param entryType The entry type (ILM or FTN) field of the wanted
+     * switching entry.
+     * @return The switching entry corresponding to the values specified as
+     * arguments (if exist) or NULL on the contrary.
+     * @since 2.0
+     */
+    private TSwitchingMatrixEntry findEntry(int incomingPortID, int labelOrFEC, int entryType) {
+        for (TSwitchingMatrixEntry switchingMatrixEntryAux : this.entriesIndex.get(TSwitchingMatrixIndex.getKey(incomingPortID, labelOrFEC))) {
+            if (switchingMatrixEntryAux.getEntryType() == entryType) {
+                return switchingMatrixEntryAux;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method adds a switching entry to all indexes, using the current
+     * values of its indexed fields. It does nothing if the switching entry
+     * does not belong to this switching matrix.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param switchingMatrixEntry the switching entry to be indexed.
+     * @since 2.0
+     */
+    synchronized void addToIndexes(TSwitchingMatrixEntry switchingMatrixEntry) {
+        if (switchingMatrixEntry.getSwitchingMatrix() == this) {
+            this.entriesIndex.add(TSwitchingMatrixIndex.getKey(switchingMatrixEntry.getIncomingPortID(), switchingMatrixEntry.getLabelOrFEC()), switchingMatrixEntry);
+            this.localTLDPSessionsIndex.add(switchingMatrixEntry.getLocalTLDPSessionID(), switchingMatrixEntry);
+            this.upstreamTLDPSessionsIndex.add(TSwitchingMatrixIndex.getKey(switchingMatrixEntry.getUpstreamTLDPSessionID(), switchingMatrixEntry.getIncomingPortID()), switchingMatrixEntry);
+            this.labelsIndex.add(switchingMatrixEntry.getLabelOrFEC(), switchingMatrixEntry);
+            if (switchingMatrixEntry.getEntryType() == TSwitchingMatrixEntry.LABEL_ENTRY) {
+                this.labelAllocator.allocate(switchingMatrixEntry.getLabelOrFEC());
+            }
+        }
+    }
+
+    /**
+     * This method removes a switching entry from all indexes, using the
+     * current values of its indexed fields. It does nothing if the switching
+     * entry does not belong to this switching matrix.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param switchingMatrixEntry the switching entry to be removed from
+     * indexes.
+     * @since 2.0
+     */
+    synchronized void removeFromIndexes(TSwitchingMatrixEntry switchingMatrixEntry) {
+        if (switchingMatrixEntry.getSwitchingMatrix() == this) {
+            this.entriesIndex.remove(TSwitchingMatrixIndex.getKey(switchingMatrixEntry.getIncomingPortID(), switchingMatrixEntry.getLabelOrFEC()), switchingMatrixEntry);
+            this.localTLDPSessionsIndex.remove(switchingMatrixEntry.getLocalTLDPSessionID(), switchingMatrixEntry);
+            this.upstreamTLDPSessionsIndex.remove(TSwitchingMatrixIndex.getKey(switchingMatrixEntry.getUpstreamTLDPSessionID(), switchingMatrixEntry.getIncomingPortID()), switchingMatrixEntry);
+            this.labelsIndex.remove(switchingMatrixEntry.getLabelOrFEC(), switchingMatrixEntry);
+            if (!this.labelIsAlreadyUsed(switchingMatrixEntry.getLabelOrFEC())) {
+                this.labelAllocator.release(switchingMatrixEntry.getLabelOrFEC());
+            }
+        }
+    }
+
+    /**
+     * This method removes a switching entry, that has been already removed
+     * from the set of entries, from all indexes and detaches it from this
+     * switching matrix.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param switchingMatrixEntry the switching entry to be detached.
+     * @since 2.0
+     */
+    private void detachEntry(TSwitchingMatrixEntry switchingMatrixEntry) {
+        if (switchingMatrixEntry != null) {
+            this.removeFromIndexes(switchingMatrixEntry);
+            switchingMatrixEntry.setSwitchingMatrix(null, ZERO);
+        }
+    }
+
+    /**
+     * This class implements the iterator returned by getEntriesIterator(). It
+     * keeps indexes up to date when switching entries are removed through it.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @version 2.0
+     */
+    private class TSwitchingMatrixIterator implements Iterator<TSwitchingMatrixEntry> {
+
+        TSwitchingMatrixIterator(Iterator<TSwitchingMatrixEntry> iterator) {
+            this.iterator = iterator;
+            this.currentEntry = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.iterator.hasNext();
+        }
+
+        @Override
+        public TSwitchingMatrixEntry next() {
+            this.currentEntry = this.iterator.next();
+            return this.currentEntry;
+        }
+
+        @Override
+        public void remove() {
+            synchronized (TSwitchingMatrix.this) {
+                this.iterator.remove();
+                TSwitchingMatrix.this.detachEntry(this.currentEntry);
+            }
+        }
+
+        private final Iterator<TSwitchingMatrixEntry> iterator;
+        private TSwitchingMatrixEntry currentEntry;
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private LinkedHashSet<TSwitchingMatrixEntry> switchingMatrix;
     private TSemaphore semaphore;
+    private TSwitchingMatrixIndex entriesIndex;
+    private TSwitchingMatrixIndex localTLDPSessionsIndex;
+    private TSwitchingMatrixIndex upstreamTLDPSessionsIndex;
+    private TSwitchingMatrixIndex labelsIndex;
+    private TLabelAllocator labelAllocator;
+    private long nextSequenceNumber;
+
+    private static final int ZERO = 0;
 }
@@ -15,6 +15,8 @@
  */
 package com.manolodominguez.opensimmpls.hardware.tldp;
 
+import java.io.Serializable;
+
 /**
  * This class implements a switching matrix entry needed to manage traffic
  * forwarding.
@@ -22,7 +24,7 @@ package com.manolodominguez.opensimmpls.hardware.tldp;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TSwitchingMatrixEntry {
+public class TSwitchingMatrixEntry implements Serializable {
 
     /**
      * This is the constructor of the class. It creates a newe instance of
@@ -46,6 +48,8 @@ public class TSwitchingMatrixEntry {
         this.timeout = TSwitchingMatrixEntry.TIMEOUT;
         this.labelRequestAttempts = TSwitchingMatrixEntry.LABEL_REQUEST_ATTEMPTS;
         this.isRequestForBackupLSP = false;
+        this.switchingMatrix = null;
+        this.sequenceNumber = ZERO;
     }
 
     /**
@@ -241,6 +245,30 @@ public class TSwitchingMatrixEntry {
         return false;
     }
 
+    /**
+     * This method gets the number of nanoseconds that have to elapse before
+     * the timeout of this entry forces the node to do something: retrying a
+     * label request or a label withdrawal, or discarding the entry.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     * @return the number of nanoseconds until the timeout of this entry has
+     * any effect, or TSwitchingMatrixEntry.NO_PENDING_TIMEOUT if the entry is
+     * not waiting for any TLDP operation.
+     */
+    public long getNanosecondsToTimeOut() {
+        if ((this.label == TSwitchingMatrixEntry.LABEL_REQUESTED) || (this.label == TSwitchingMatrixEntry.REMOVING_LABEL)) {
+            if (areThereAvailableAttempts()) {
+                return this.timeout;
+            }
+            if (this.label == TSwitchingMatrixEntry.REMOVING_LABEL) {
+                // The entry is going to be discarded in the next tick.
+                return TSwitchingMatrixEntry.ZERO;
+            }
+        }
+        return TSwitchingMatrixEntry.NO_PENDING_TIMEOUT;
+    }
+
     /**
      * This method set the incoming portID for this entry..
      *
@@ -249,7 +277,18 @@ public class TSwitchingMatrixEntry {
      * @since 2.0
      */
     public void setIncomingPortID(int incomingPortID) {
-        this.incomingPortID = incomingPortID;
+        TSwitchingMatrix owner = this.switchingMatrix;
+        if (owner != null) {
+            // The entry is indexed by this field, so the switching matrix
+            // has to reindex it.
+            synchronized (owner) {
+                owner.removeFromIndexes(this);
+                this.incomingPortID = incomingPortID;
+                owner.addToIndexes(this);
+            }
+        } else {
+            this.incomingPortID = incomingPortID;
+        }
     }
 
     /**
@@ -271,7 +310,18 @@ public class TSwitchingMatrixEntry {
      * @since 2.0
      */
     public void setLabelOrFEC(int labelOrFEC) {
-        this.labelOrFEC = labelOrFEC;
+        TSwitchingMatrix owner = this.switchingMatrix;
+        if (owner != null) {
+            // The entry is indexed by this field, so the switching matrix
+            // has to reindex it.
+            synchronized (owner) {
+                owner.removeFromIndexes(this);
+                this.labelOrFEC = labelOrFEC;
+                owner.addToIndexes(this);
+            }
+        } else {
+            this.labelOrFEC = labelOrFEC;
+        }
     }
 
     /**
@@ -427,7 +477,18 @@ public class TSwitchingMatrixEntry {
      * @since 2.0
      */
     public void setEntryType(int entryType) {
-        this.entryType = entryType;
+        TSwitchingMatrix owner = this.switchingMatrix;
+        if (owner != null) {
+            // The entry is indexed by this field, so the switching matrix
+            // has to reindex it.
+            synchronized (owner) {
+                owner.removeFromIndexes(this);
+                this.entryType = entryType;
+                owner.addToIndexes(this);
+            }
+        } else {
+            this.entryType = entryType;
+        }
     }
 
     /**
@@ -477,7 +538,18 @@ public class TSwitchingMatrixEntry {
      * @since 2.0
      */
     public void setLocalTLDPSessionID(int localTLDPSessionID) {
-        this.localTLDPSessionID = localTLDPSessionID;
+        TSwitchingMatrix owner = this.switchingMatrix;
+        if (owner != null) {
+            // The entry is indexed by this field, so the switching matrix
+            // has to reindex it.
+            synchronized (owner) {
+                owner.removeFromIndexes(this);
+                this.localTLDPSessionID = localTLDPSessionID;
+                owner.addToIndexes(this);
+            }
+        } else {
+            this.localTLDPSessionID = localTLDPSessionID;
+        }
     }
 
     /**
@@ -502,7 +574,18 @@ public class TSwitchingMatrixEntry {
      * @since 2.0
      */
     public void setUpstreamTLDPSessionID(int upstreamTLDPSessionID) {
-        this.upstreamTLDPSessionID = upstreamTLDPSessionID;
+        TSwitchingMatrix owner = this.switchingMatrix;
+        if (owner != null) {
+            // The entry is indexed by this field, so the switching matrix
+            // has to reindex it.
+            synchronized (owner) {
+                owner.removeFromIndexes(this);
+                this.upstreamTLDPSessionID = upstreamTLDPSessionID;
+                owner.addToIndexes(this);
+            }
+        } else {
+            this.upstreamTLDPSessionID = upstreamTLDPSessionID;
+        }
     }
 
     /**
@@ -554,6 +637,49 @@ public class TSwitchingMatrixEntry {
         return true;
     }
 
+    /**
+     * This method gets the switching matrix this entry has been added to.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the switching matrix this entry has been added to or NULL if it
+     * does not belong to any switching matrix.
+     * @since 2.0
+     */
+    TSwitchingMatrix getSwitchingMatrix() {
+        return this.switchingMatrix;
+    }
+
+    /**
+     * This method sets the switching matrix this entry has been added to and
+     * the order in which it was added. It is used by the switching matrix to
+     * keep its indexes up to date.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param switchingMatrix the switching matrix this entry has been added to
+     * or NULL if it has been removed from it.
+     * @param sequenceNumber the order in which this entry was added to the
+     * switching matrix.
+     * @since 2.0
+     */
+    void setSwitchingMatrix(TSwitchingMatrix switchingMatrix, long sequenceNumber) {
+        this.switchingMatrix = switchingMatrix;
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    /**
+     * This method gets the order in which this entry was added to its
+     * switching matrix.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the order in which this entry was added to its switching matrix.
+     * @since 2.0
+     */
+    long getSequenceNumber() {
+        return this.sequenceNumber;
+    }
+
+    private static final long serialVersionUID = 1L;
+
     // Entry types
     public static final int FEC_ENTRY = 0;
     public static final int LABEL_ENTRY = 1;
@@ -579,6 +705,7 @@ public class TSwitchingMatrixEntry {
     public static final int PATH_UNAVAILABLE = -20;
 
     // TLDP timeout and attempts number
+    public static final long NO_PENDING_TIMEOUT = Long.MAX_VALUE;
     private static final int TIMEOUT = 50000;
     private static final int LABEL_REQUEST_ATTEMPTS = 3;
 
@@ -599,4 +726,6 @@ public class TSwitchingMatrixEntry {
     private boolean isRequestForBackupLSP;
     private int timeout;
     private int labelRequestAttempts;
+    private volatile TSwitchingMatrix switchingMatrix;
+    private long sequenceNumber;
 }
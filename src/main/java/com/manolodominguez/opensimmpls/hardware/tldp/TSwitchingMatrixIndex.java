@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.tldp;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class implements a hash index over the entries of a switching matrix.
+ * Keys are built from one or two integer fields of the switching entries,
+ * packed in a long value. Each key gives access to all the switching entries
+ * having those values, in the same order they were added to the switching
+ * matrix. This class is not thread safe; the switching matrix is in charge of
+ * synchronizing accesses.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+class TSwitchingMatrixIndex implements Serializable {
+
+    /**
+     * This method is the constructor of the class. It creates a new empty
+     * instance of TSwitchingMatrixIndex.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    TSwitchingMatrixIndex() {
+        this.buckets = new HashMap<>();
+    }
+
+    /**
+     * This method packs two integer values in a single key.
+     *
+     * @param high the value to be stored in the 32 most significant bits.
+     * @param low the value to be stored in the 32 less significant bits.
+     * @return a key made of both values.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    static long getKey(int high, int low) {
+        return (((long) high) << INT_SIZE) | (low & LOW_BITS_MASK);
+    }
+
+    /**
+     * This method adds a switching entry to the index, under the specified key.
+     *
+     * @param key the key of the switching entry.
+     * @param switchingMatrixEntry the switching entry to be added.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void add(long key, TSwitchingMatrixEntry switchingMatrixEntry) {
+        ArrayList<TSwitchingMatrixEntry> bucket = this.buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<>(ONE);
+            this.buckets.put(key, bucket);
+        }
+        // Entries are usually appended at the end. Only an entry whose key
+        // has changed can be older than the ones already in the bucket.
+        int position = bucket.size();
+        while ((position > ZERO) && (bucket.get(position - ONE).getSequenceNumber() > switchingMatrixEntry.getSequenceNumber())) {
+            position--;
+        }
+        bucket.add(position, switchingMatrixEntry);
+    }
+
+    /**
+     * This method removes a switching entry from the index. It has to be
+     * specified the same key that was used to add it.
+     *
+     * @param key the key of the switching entry.
+     * @param switchingMatrixEntry the switching entry to be removed.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void remove(long key, TSwitchingMatrixEntry switchingMatrixEntry) {
+        ArrayList<TSwitchingMatrixEntry> bucket = this.buckets.get(key);
+        if (bucket != null) {
+            for (int i = ZERO; i < bucket.size(); i++) {
+                if (bucket.get(i) == switchingMatrixEntry) {
+                    bucket.remove(i);
+                    break;
+                }
+            }
+            if (bucket.isEmpty()) {
+                this.buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * This method gets all the switching entries stored under the specified
+     * key, in the same order they were added to the switching matrix.
+     *
+     * @param key the key of the wanted switching entries.
+     * @return all the switching entries stored under the specified key. The
+     * returned list must not be modified.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    List<TSwitchingMatrixEntry> get(long key) {
+        ArrayList<TSwitchingMatrixEntry> bucket = this.buckets.get(key);
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        return bucket;
+    }
+
+    /**
+     * This method removes all the switching entries from the index.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void clear() {
+        this.buckets.clear();
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final HashMap<Long, ArrayList<TSwitchingMatrixEntry>> buckets;
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int INT_SIZE = 32;
+    private static final long LOW_BITS_MASK = 0xFFFFFFFFL;
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.checkpoint;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a class that loads a checkpoint of a scenario, stored
+ * by TCheckpointSaver, from disk. The loaded scenario is in the same state it
+ * was when the checkpoint was stored, so its simulation can go on from that
+ * instant. Each load creates a new, independent, scenario.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TCheckpointLoader {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TCheckpointLoader.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TCheckpointLoader() {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_CHECKPOINT_LOADER.getPath());
+        this.scenario = null;
+    }
+
+    /**
+     * This method loads a checkpoint from a disk file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param inputFile The file where the checkpoint is stored.
+     * @return True, if the checkpoint can be loaded successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean load(File inputFile) {
+        if (inputFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("inputFile is null");
+        }
+        this.scenario = null;
+        try (InputStream input = new FileInputStream(inputFile)) {
+            return load(input, inputFile.getPath());
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("badCheckpoint") + e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * This method loads a checkpoint from an input stream, that is not
+     * closed. Each call creates a new, independent, scenario, so it can be
+     * used to get several copies of a scenario kept in memory.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param inputStream The input stream where the checkpoint is read from.
+     * @return True, if the checkpoint can be loaded successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean load(InputStream inputStream) {
+        if (inputStream == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("inputStream is null");
+        }
+        return load(inputStream, inputStream.getClass().getSimpleName());
+    }
+
+    private boolean load(InputStream inputStream, String inputName) {
+        this.scenario = null;
+        // The object graph of a scenario is deep, so it is read by a thread
+        // with a stack large enough for big topologies.
+        Thread checkpointThread = new Thread(null, () -> this.scenario = read(inputStream, inputName), CHECKPOINT_THREAD_NAME, STACK_SIZE);
+        checkpointThread.start();
+        try {
+            checkpointThread.join();
+        } catch (InterruptedException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.toString());
+            return false;
+        }
+        return this.scenario != null;
+    }
+
+    private TScenario read(InputStream inputStream, String inputName) {
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+            if ((!input.readUTF().equals(TCheckpointSaver.MAGIC)) || (input.readInt() != TCheckpointSaver.VERSION)) {
+                this.logger.error(this.translations.getString("badCheckpoint") + inputName);
+                return null;
+            }
+            ObjectInputStream objectInput = new ObjectInputStream(input);
+            return (TScenario) objectInput.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            this.logger.error(this.translations.getString("badCheckpoint") + e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * This method gets the scenario loaded from the checkpoint.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return The scenario loaded from the checkpoint, or null if no
+     * checkpoint has been loaded.
+     * @since 2.0
+     */
+    public TScenario getScenario() {
+        return this.scenario;
+    }
+
+    private static final String CHECKPOINT_THREAD_NAME = "checkpoint";
+    private static final long STACK_SIZE = 256L * 1024L * 1024L;
+
+    private volatile TScenario scenario;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TCheckpointLoader.class);
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.checkpoint;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a class that stores a checkpoint of a scenario to
+ * disk. A checkpoint is a binary file with the complete state of the scenario
+ * at a given instant of its simulation: the clock, the packets in ports and
+ * links, switching matrices, DMGP memories, GPSRP requests, identifier
+ * generators and statistics. Checkpoints are stored using Java serialization,
+ * so they can only be loaded by the same version of the simulator that stored
+ * them.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TCheckpointSaver {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TCheckpointSaver.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenario The TScenario object whose state will be stored in
+     * disk. Its simulation must not be running.
+     * @since 2.0
+     */
+    public TCheckpointSaver(TScenario scenario) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_CHECKPOINT_SAVER.getPath());
+        if (scenario == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("scenario is null");
+        }
+        this.scenario = scenario;
+    }
+
+    /**
+     * This method saves a checkpoint of the scenario to a disk file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param outputFile The file where the checkpoint will be stored.
+     * @return True, if the checkpoint can be saved successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean save(File outputFile) {
+        if (outputFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("outputFile is null");
+        }
+        try (OutputStream output = new FileOutputStream(outputFile)) {
+            return save(output);
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * This method saves a checkpoint of the scenario to an output stream, that
+     * is not closed. It can be used to keep a copy of the scenario in memory.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param outputStream The output stream where the checkpoint will be
+     * written.
+     * @return True, if the checkpoint can be saved successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean save(OutputStream outputStream) {
+        if (outputStream == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("outputStream is null");
+        }
+        final boolean[] saved = new boolean[ONE];
+        // The object graph of a scenario is deep, so it is written by a
+        // thread with a stack large enough for big topologies.
+        Thread checkpointThread = new Thread(null, () -> saved[ZERO] = write(outputStream), CHECKPOINT_THREAD_NAME, STACK_SIZE);
+        checkpointThread.start();
+        try {
+            checkpointThread.join();
+        } catch (InterruptedException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.toString());
+            return false;
+        }
+        return saved[ZERO];
+    }
+
+    private boolean write(OutputStream outputStream) {
+        try {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+            output.writeUTF(MAGIC);
+            output.writeInt(VERSION);
+            ObjectOutputStream objectOutput = new ObjectOutputStream(output);
+            objectOutput.writeObject(this.scenario);
+            objectOutput.flush();
+            return true;
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * Text every checkpoint file starts with.
+     */
+    static final String MAGIC = "openSimMPLS checkpoint";
+    /**
+     * Version of the format of checkpoint files.
+     */
+    static final int VERSION = 1;
+
+    private static final String CHECKPOINT_THREAD_NAME = "checkpoint";
+    private static final long STACK_SIZE = 256L * 1024L * 1024L;
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+
+    private final TScenario scenario;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TCheckpointSaver.class);
+}
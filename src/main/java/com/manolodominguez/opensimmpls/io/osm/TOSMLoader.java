@@ -21,6 +21,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import com.manolodominguez.opensimmpls.scenario.TInternalLink;
 import com.manolodominguez.opensimmpls.scenario.TExternalLink;
 import com.manolodominguez.opensimmpls.scenario.TScenario;
@@ -70,62 +71,12 @@ public class TOSMLoader {
             this.logger.error(translations.getString("badArgument"));
             throw new IllegalArgumentException("inputFile is null");
         }
-        String stringAux = "";
-        int configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
         this.scenario.setScenarioFile(inputFile);
         try {
             if (inputFile.exists()) {
                 this.inputStream = new FileInputStream(inputFile);
                 this.input = new BufferedReader(new InputStreamReader(this.inputStream));
-                while ((stringAux = this.input.readLine()) != null) { // Read till EOF
-                    // This code read lines from the file, sequentially, 
-                    // untill it detects tokens that allow to identify 
-                    // different sections of the configuration file. 
-                    // Do not load blank linkes, comments and lines that
-                    // store CRC info (deprecated, but still present in some
-                    // scenarios).
-                    if ((!stringAux.equals("")) && (!stringAux.startsWith("//")) && (!stringAux.startsWith("@CRC#"))) {
-                        switch (configSection) {
-                            case TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION:
-                                if (stringAux.startsWith("@?Escenario")) {
-                                    configSection = TOSMLoader.SCENARIO;
-                                } else if (stringAux.startsWith("@?Topologia")) {
-                                    configSection = TOSMLoader.TOPOLOGY;
-                                } else if (stringAux.startsWith("@?Simulacion")) {
-                                    configSection = TOSMLoader.SIMULATION;
-                                } else if (stringAux.startsWith("@?Analisis")) {
-                                    configSection = TOSMLoader.ANALISYS;
-                                }
-                                break;
-                            case TOSMLoader.SCENARIO:
-                                if (stringAux.startsWith("@!Escenario")) {
-                                    configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
-                                } else {
-                                    loadScenario(stringAux);
-                                }
-                                break;
-                            case TOSMLoader.TOPOLOGY:
-                                if (stringAux.startsWith("@!Topologia")) {
-                                    configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
-                                } else {
-                                    loadTopology(stringAux);
-                                }
-                                break;
-                            case TOSMLoader.SIMULATION:
-                                if (stringAux.startsWith("@!Simulacion")) {
-                                    configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
-                                }
-                                break;
-                            case TOSMLoader.ANALISYS:
-                                if (stringAux.startsWith("@!Analisis")) {
-                                    configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
-                                }
-                                break;
-                            default:
-                                break;
-                        }
-                    }
-                }
+                loadSections();
                 this.inputStream.close();
                 this.input.close();
                 this.scenario.setAlreadySaved(true);
@@ -138,6 +89,89 @@ public class TOSMLoader {
         return true;
     }
 
+    /**
+     * This method loads an scenario description formated as OSM from the
+     * specified reader. It is used to load scenarios already in memory, as
+     * those that have to be loaded several times.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param reader The reader where a scenario description is read from.
+     * @return true, if the scenario can be correctly loaded. False on the
+     * contrary.
+     * @since 2.0
+     */
+    public boolean load(Reader reader) {
+        if (reader == null) {
+            this.logger.error(translations.getString("badArgument"));
+            throw new IllegalArgumentException("reader is null");
+        }
+        try {
+            this.input = new BufferedReader(reader);
+            loadSections();
+            this.input.close();
+            this.scenario.setAlreadySaved(true);
+            this.scenario.setModified(false);
+        } catch (IOException e) {
+            this.logger.error(translations.getString("ioexceptionDescription"));
+            return false;
+        }
+        return true;
+    }
+
+    private void loadSections() throws IOException {
+        String stringAux = "";
+        int configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
+        while ((stringAux = this.input.readLine()) != null) { // Read till EOF
+            // This code read lines from the file, sequentially, 
+            // untill it detects tokens that allow to identify 
+            // different sections of the configuration file. 
+            // Do not load blank linkes, comments and lines that
+            // store CRC info (deprecated, but still present in some
+            // scenarios).
+            if ((!stringAux.equals("")) && (!stringAux.startsWith("//")) && (!stringAux.startsWith("@CRC#"))) {
+                switch (configSection) {
+                    case TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION:
+                        if (stringAux.startsWith("@?Escenario")) {
+                            configSection = TOSMLoader.SCENARIO;
+                        } else if (stringAux.startsWith("@?Topologia")) {
+                            configSection = TOSMLoader.TOPOLOGY;
+                        } else if (stringAux.startsWith("@?Simulacion")) {
+                            configSection = TOSMLoader.SIMULATION;
+                        } else if (stringAux.startsWith("@?Analisis")) {
+                            configSection = TOSMLoader.ANALISYS;
+                        }
+                        break;
+                    case TOSMLoader.SCENARIO:
+                        if (stringAux.startsWith("@!Escenario")) {
+                            configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
+                        } else {
+                            loadScenario(stringAux);
+                        }
+                        break;
+                    case TOSMLoader.TOPOLOGY:
+                        if (stringAux.startsWith("@!Topologia")) {
+                            configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
+                        } else {
+                            loadTopology(stringAux);
+                        }
+                        break;
+                    case TOSMLoader.SIMULATION:
+                        if (stringAux.startsWith("@!Simulacion")) {
+                            configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
+                        }
+                        break;
+                    case TOSMLoader.ANALISYS:
+                        if (stringAux.startsWith("@!Analisis")) {
+                            configSection = TOSMLoader.LOOKING_FOR_A_NEW_CONFIG_SECTION;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
     private void loadTopology(String topologyString) {
         if ((topologyString == null) || (topologyString.isEmpty())) {
             this.logger.error(translations.getString("badArgument"));
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.stats;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a class that aggregates the statistics collected by
+ * the nodes of several simulations of the same scenario, as independent
+ * replications, and stores them to disk as a CSV table. Each row of the table
+ * is a value of a dataset of a node, with its mean over all replications, its
+ * standard deviation and the half width of its 95% confidence interval. Nodes
+ * only store the time instants where something has been counted, so a value
+ * missing from a replication is a zero of that replication.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TStatsAggregator {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TStatsAggregator without any statistics.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TStatsAggregator() {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_STATS_AGGREGATOR.getPath());
+        this.aggregatedValues = new LinkedHashMap<>();
+        this.numberOfScenarios = ZERO;
+    }
+
+    /**
+     * This method adds the statistics collected by the nodes of a simulated
+     * scenario to the aggregated statistics.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenario The simulated scenario.
+     * @since 2.0
+     */
+    public synchronized void add(TScenario scenario) {
+        if (scenario == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        new TStatsSaver(scenario).forEachValue((row, value) -> {
+            TAggregatedValue aggregatedValue = this.aggregatedValues.get(row);
+            if (aggregatedValue == null) {
+                aggregatedValue = new TAggregatedValue();
+                this.aggregatedValues.put(row, aggregatedValue);
+            }
+            aggregatedValue.add(value.doubleValue());
+        });
+        this.numberOfScenarios++;
+    }
+
+    /**
+     * This method gets the number of simulated scenarios whose statistics have
+     * been aggregated.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of aggregated scenarios.
+     * @since 2.0
+     */
+    public synchronized int getNumberOfScenarios() {
+        return this.numberOfScenarios;
+    }
+
+    /**
+     * This method saves the aggregated statistics to a disk file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param outputFile The file where the statistics will be stored.
+     * @return True, if the statistics can be saved successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean save(File outputFile) {
+        if (outputFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        try (PrintStream output = new PrintStream(new FileOutputStream(outputFile), false, UTF_8)) {
+            save(output);
+            if (output.checkError()) {
+                this.logger.error(this.translations.getString("ioexceptionDescription"));
+                return false;
+            }
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription"));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * This method writes the aggregated statistics to the specified output,
+     * including the header of the table. Values that are not present in every
+     * replication are taken as zero in the replications where they are not,
+     * so every row is aggregated over all replications.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param output The output where the statistics will be written.
+     * @since 2.0
+     */
+    public synchronized void save(PrintStream output) {
+        if (output == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        output.println(HEADER);
+        for (Map.Entry<String, TAggregatedValue> entry : this.aggregatedValues.entrySet()) {
+            TAggregatedValue aggregatedValue = entry.getValue();
+            TAggregatedValue allReplications = aggregatedValue.withZeros(this.numberOfScenarios - aggregatedValue.getCount());
+            output.println(entry.getKey() + SEPARATOR + allReplications.getCount() + SEPARATOR + allReplications.getMean() + SEPARATOR + allReplications.getStandardDeviation() + SEPARATOR + allReplications.getConfidenceIntervalHalfWidth());
+        }
+    }
+
+    /**
+     * This class implements the aggregation of the values of a single row of
+     * the statistics. The mean and variance are updated incrementally, as
+     * values are added, using Welford's method.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @version 2.0
+     */
+    private static final class TAggregatedValue {
+
+        void add(double value) {
+            this.count++;
+            double delta = value - this.mean;
+            this.mean += delta / this.count;
+            this.sumOfSquaredDeviations += delta * (value - this.mean);
+        }
+
+        // Merges the specified number of zeros with the values added so far,
+        // as the pairwise update of Chan et al. does with two sets of values.
+        TAggregatedValue withZeros(int numberOfZeros) {
+            TAggregatedValue merged = new TAggregatedValue();
+            merged.count = this.count + numberOfZeros;
+            merged.mean = this.mean;
+            merged.sumOfSquaredDeviations = this.sumOfSquaredDeviations;
+            if ((numberOfZeros > ZERO) && (merged.count > ZERO)) {
+                merged.mean = this.mean * this.count / merged.count;
+                merged.sumOfSquaredDeviations += this.mean * this.mean * this.count * numberOfZeros / merged.count;
+            }
+            return merged;
+        }
+
+        int getCount() {
+            return this.count;
+        }
+
+        double getMean() {
+            return this.mean;
+        }
+
+        double getStandardDeviation() {
+            if (this.count < TWO) {
+                return ZERO;
+            }
+            return Math.sqrt(this.sumOfSquaredDeviations / (this.count - ONE));
+        }
+
+        double getConfidenceIntervalHalfWidth() {
+            if (this.count < TWO) {
+                return ZERO;
+            }
+            double criticalValue = NORMAL_CRITICAL_VALUE_95;
+            if (this.count - ONE <= STUDENT_T_CRITICAL_VALUES_95.length) {
+                criticalValue = STUDENT_T_CRITICAL_VALUES_95[this.count - TWO];
+            }
+            return criticalValue * getStandardDeviation() / Math.sqrt(this.count);
+        }
+
+        private int count;
+        private double mean;
+        private double sumOfSquaredDeviations;
+    }
+
+    private static final String HEADER = "nodeID,nodeName,dataset,series,x,replications,mean,standardDeviation,confidenceInterval95";
+    private static final String SEPARATOR = ",";
+    private static final String UTF_8 = "UTF-8";
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int TWO = 2;
+    // Two-tailed critical values of the Student's t distribution for a 95%
+    // confidence level, from 1 to 30 degrees of freedom.
+    private static final double[] STUDENT_T_CRITICAL_VALUES_95 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    private static final double NORMAL_CRITICAL_VALUE_95 = 1.960;
+
+    private final Map<String, TAggregatedValue> aggregatedValues;
+    private int numberOfScenarios;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TStatsAggregator.class);
+}
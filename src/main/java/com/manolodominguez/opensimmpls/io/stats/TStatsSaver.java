@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.stats;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TStats;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.ResourceBundle;
+import org.jfree.data.category.CategoryDataset;
+import org.jfree.data.general.AbstractDataset;
+import org.jfree.data.xy.XYDataset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a class that stores the statistics collected by the
+ * nodes of a scenario to disk, as a CSV table. Each row of the table is a
+ * single value of a dataset of a node.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TStatsSaver {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TStatsSaver.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param scenario The TScenario whose statistics will be stored in disk.
+     * @since 2.0
+     */
+    public TStatsSaver(TScenario scenario) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_STATS_SAVER.getPath());
+        if (scenario == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        this.scenario = scenario;
+    }
+
+    /**
+     * This method saves the statistics of all nodes that generate statistics
+     * to a disk file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param outputFile The file where the statistics will be stored.
+     * @return True, if the statistics can be saved successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public boolean save(File outputFile) {
+        if (outputFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        try (PrintStream output = new PrintStream(new FileOutputStream(outputFile), false, UTF_8)) {
+            save(output);
+            if (output.checkError()) {
+                this.logger.error(this.translations.getString("ioexceptionDescription"));
+                return false;
+            }
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription"));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * This method writes the statistics of all nodes that generate statistics
+     * to the specified output, including the header of the table.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param output The output where the statistics will be written.
+     * @since 2.0
+     */
+    public void save(PrintStream output) {
+        if (output == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        output.println(HEADER);
+        forEachValue((row, value) -> output.println(row + SEPARATOR + value));
+    }
+
+    /**
+     * This method reads every value of the statistics of all nodes that
+     * generate statistics and sends it to the specified listener, together
+     * with the columns of the table that identify the value.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param statsValueListener The listener that will receive the values.
+     * @since 2.0
+     */
+    public void forEachValue(IStatsValueListener statsValueListener) {
+        Iterator<TNode> nodesIterator = this.scenario.getTopology().getNodesIterator();
+        TNode node;
+        while (nodesIterator.hasNext()) {
+            node = nodesIterator.next();
+            if ((node != null) && (node.isGeneratingStats()) && (node.getStats() != null)) {
+                readNodeStats(statsValueListener, node);
+            }
+        }
+    }
+
+    private void readNodeStats(IStatsValueListener statsValueListener, TNode node) {
+        TStats stats = node.getStats();
+        String rowPrefix = node.getNodeID() + SEPARATOR + quote(node.getName()) + SEPARATOR;
+        for (int i = ONE; i <= stats.getNumberOfAvailableDatasets(); i++) {
+            String datasetPrefix = rowPrefix + quote(getTitleOfDataset(stats, i)) + SEPARATOR;
+            AbstractDataset dataset = getDataset(stats, i);
+            if (dataset instanceof XYDataset) {
+                XYDataset xyDataset = (XYDataset) dataset;
+                for (int series = ZERO; series < xyDataset.getSeriesCount(); series++) {
+                    String seriesPrefix = datasetPrefix + quote(String.valueOf(xyDataset.getSeriesKey(series))) + SEPARATOR;
+                    for (int item = ZERO; item < xyDataset.getItemCount(series); item++) {
+                        statsValueListener.receiveStatsValue(seriesPrefix + xyDataset.getX(series, item), xyDataset.getY(series, item));
+                    }
+                }
+            } else if (dataset instanceof CategoryDataset) {
+                CategoryDataset categoryDataset = (CategoryDataset) dataset;
+                for (int row = ZERO; row < categoryDataset.getRowCount(); row++) {
+                    String seriesPrefix = datasetPrefix + quote(String.valueOf(categoryDataset.getRowKey(row))) + SEPARATOR;
+                    for (int column = ZERO; column < categoryDataset.getColumnCount(); column++) {
+                        Number value = categoryDataset.getValue(row, column);
+                        if (value != null) {
+                            statsValueListener.receiveStatsValue(seriesPrefix + quote(String.valueOf(categoryDataset.getColumnKey(column))), value);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private AbstractDataset getDataset(TStats stats, int datasetNumber) {
+        switch (datasetNumber) {
+            case 1:
+                return stats.getDataset1();
+            case 2:
+                return stats.getDataset2();
+            case 3:
+                return stats.getDataset3();
+            case 4:
+                return stats.getDataset4();
+            case 5:
+                return stats.getDataset5();
+            case 6:
+                return stats.getDataset6();
+            default:
+                return null;
+        }
+    }
+
+    private String getTitleOfDataset(TStats stats, int datasetNumber) {
+        switch (datasetNumber) {
+            case 1:
+                return stats.getTitleOfDataset1();
+            case 2:
+                return stats.getTitleOfDataset2();
+            case 3:
+                return stats.getTitleOfDataset3();
+            case 4:
+                return stats.getTitleOfDataset4();
+            case 5:
+                return stats.getTitleOfDataset5();
+            case 6:
+                return stats.getTitleOfDataset6();
+            default:
+                return "";
+        }
+    }
+
+    private String quote(String value) {
+        if (value == null) {
+            return QUOTE + QUOTE;
+        }
+        return QUOTE + value.replace(QUOTE, QUOTE + QUOTE) + QUOTE;
+    }
+
+    private static final String HEADER = "nodeID,nodeName,dataset,series,x,y";
+    private static final String SEPARATOR = ",";
+    private static final String QUOTE = "\"";
+    private static final String UTF_8 = "UTF-8";
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+
+    private TScenario scenario;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TStatsSaver.class);
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.trace;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TTopology;
+import com.manolodominguez.opensimmpls.scenario.TTopologyElement;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLSPEstablished;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLSPRemoved;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLabelAssigned;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLabelDenied;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLabelReceived;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLabelRemoved;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLabelRequested;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLinkBroken;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLinkRecovered;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventNodeCongested;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketDiscarded;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketGenerated;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketOnFly;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketReceived;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketRouted;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketSent;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketSwitched;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a reader of the binary traces stored by
+ * TTraceRecorder. The trace is memory mapped and its records have a fixed
+ * size, so any simulation event can be read directly and the first event of a
+ * given instant is found by means of a binary search. This is what allows
+ * replaying a trace from any instant, forwards or after a rewind.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TTraceReader {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TTraceReader.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TTraceReader() {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TRACE_READER.getPath());
+        this.regions = new MappedByteBuffer[ZERO];
+        this.numberOfEvents = ZERO;
+    }
+
+    /**
+     * This method opens a trace stored in a disk file.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param traceFile The file where the trace is stored.
+     * @return True, if the trace can be opened successful. Otherwise, returns
+     * false.
+     * @since 2.0
+     */
+    public boolean open(File traceFile) {
+        if (traceFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("traceFile is null");
+        }
+        this.regions = new MappedByteBuffer[ZERO];
+        this.numberOfEvents = ZERO;
+        try (FileChannel channel = FileChannel.open(traceFile.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < TTraceRecorder.HEADER_SIZE) {
+                this.logger.error(this.translations.getString("badTrace") + traceFile.getPath());
+                return false;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, ZERO, TTraceRecorder.HEADER_SIZE);
+            long recordedEvents = header.getLong(TTraceRecorder.NUMBER_OF_EVENTS_POSITION);
+            if ((header.getInt(TTraceRecorder.MAGIC_POSITION) != TTraceRecorder.MAGIC) || (header.getInt(TTraceRecorder.VERSION_POSITION) != TTraceRecorder.VERSION) || (recordedEvents < ZERO) || (TTraceRecorder.HEADER_SIZE + (recordedEvents * TTraceRecorder.RECORD_SIZE) > fileSize)) {
+                this.logger.error(this.translations.getString("badTrace") + traceFile.getPath());
+                return false;
+            }
+            int numberOfRegions = (int) ((recordedEvents + EVENTS_PER_REGION - ONE) / EVENTS_PER_REGION);
+            MappedByteBuffer[] mappedRegions = new MappedByteBuffer[numberOfRegions];
+            for (int i = ZERO; i < numberOfRegions; i++) {
+                long eventsInRegion = Math.min(EVENTS_PER_REGION, recordedEvents - (i * EVENTS_PER_REGION));
+                mappedRegions[i] = channel.map(FileChannel.MapMode.READ_ONLY, TTraceRecorder.HEADER_SIZE + (i * EVENTS_PER_REGION * TTraceRecorder.RECORD_SIZE), eventsInRegion * TTraceRecorder.RECORD_SIZE);
+            }
+            this.regions = mappedRegions;
+            this.numberOfEvents = recordedEvents;
+            return true;
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * This method gets the number of simulation events stored in the trace.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of simulation events of the trace.
+     * @since 2.0
+     */
+    public long getNumberOfEvents() {
+        return this.numberOfEvents;
+    }
+
+    /**
+     * This method gets the instant of the simulation event stored in the
+     * specified position of the trace.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param index the position of the simulation event in the trace.
+     * @return the instant, in nanoseconds, of the simulation event.
+     * @since 2.0
+     */
+    public long getInstant(long index) {
+        checkIndex(index);
+        return getRegion(index).getLong(getOffset(index) + TTraceRecorder.INSTANT_OFFSET);
+    }
+
+    /**
+     * This method gets the instant of the last simulation event of the trace.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the instant, in nanoseconds, of the last simulation event, or
+     * zero if the trace is empty.
+     * @since 2.0
+     */
+    public long getLastInstant() {
+        if (this.numberOfEvents == ZERO) {
+            return ZERO;
+        }
+        return getInstant(this.numberOfEvents - ONE);
+    }
+
+    /**
+     * This method finds the first simulation event of the trace that happened
+     * at the specified instant or later. Simulation events are recorded as
+     * they are generated, so their instants never decrease along the trace.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param instant the instant, in nanoseconds.
+     * @return the position of the first simulation event at that instant or
+     * later, or the number of simulation events of the trace if there is none.
+     * @since 2.0
+     */
+    public long findFirstEventAt(long instant) {
+        long lowerIndex = ZERO;
+        long upperIndex = this.numberOfEvents;
+        while (lowerIndex < upperIndex) {
+            long middleIndex = (lowerIndex + upperIndex) >>> ONE;
+            if (getInstant(middleIndex) < instant) {
+                lowerIndex = middleIndex + ONE;
+            } else {
+                upperIndex = middleIndex;
+            }
+        }
+        return lowerIndex;
+    }
+
+    /**
+     * This method rebuilds the simulation event stored in the specified
+     * position of the trace. The topology elements that generated it are
+     * looked up in the specified topology, that has to be the one of the
+     * scenario the trace was recorded from.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param index the position of the simulation event in the trace.
+     * @param topology the topology of the scenario the trace was recorded
+     * from.
+     * @return the simulation event, or null if its topology element is not in
+     * the topology or its subtype cannot be replayed.
+     * @since 2.0
+     */
+    public TSimulationEvent getEvent(long index, TTopology topology) {
+        if (topology == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("topology is null");
+        }
+        checkIndex(index);
+        MappedByteBuffer region = getRegion(index);
+        int offset = getOffset(index);
+        long instant = region.getLong(offset + TTraceRecorder.INSTANT_OFFSET);
+        long eventID = region.getLong(offset + TTraceRecorder.EVENT_ID_OFFSET);
+        long value = region.getLong(offset + TTraceRecorder.VALUE_OFFSET);
+        int sourceID = region.getInt(offset + TTraceRecorder.SOURCE_ID_OFFSET);
+        int subtype = region.get(offset + TTraceRecorder.SUBTYPE_OFFSET);
+        int sourceType = region.get(offset + TTraceRecorder.SOURCE_TYPE_OFFSET);
+        int packetType = region.getShort(offset + TTraceRecorder.PACKET_TYPE_OFFSET);
+        TTopologyElement source;
+        if (sourceType == TTopologyElement.LINK) {
+            source = topology.getLink(sourceID);
+        } else {
+            source = topology.getNode(sourceID);
+        }
+        if (source == null) {
+            return null;
+        }
+        switch (subtype) {
+            case TSimulationEvent.PACKET_GENERATED:
+                return new TSimulationEventPacketGenerated(source, eventID, instant, packetType, (int) value);
+            case TSimulationEvent.PACKET_SENT:
+                return new TSimulationEventPacketSent(source, eventID, instant, packetType);
+            case TSimulationEvent.PACKET_RECEIVED:
+                return new TSimulationEventPacketReceived(source, eventID, instant, packetType, (int) value);
+            case TSimulationEvent.PACKET_SWITCHED:
+                return new TSimulationEventPacketSwitched(source, eventID, instant, packetType);
+            case TSimulationEvent.PACKET_ROUTED:
+                return new TSimulationEventPacketRouted(source, eventID, instant, packetType);
+            case TSimulationEvent.PACKET_DISCARDED:
+                return new TSimulationEventPacketDiscarded(source, eventID, instant, packetType);
+            case TSimulationEvent.PACKET_ON_FLY:
+                return new TSimulationEventPacketOnFly(source, eventID, instant, packetType, value);
+            case TSimulationEvent.NODE_CONGESTED:
+                return new TSimulationEventNodeCongested(source, eventID, instant, value);
+            case TSimulationEvent.LINK_BROKEN:
+                return new TSimulationEventLinkBroken(source, eventID, instant);
+            case TSimulationEvent.LINK_RECOVERED:
+                return new TSimulationEventLinkRecovered(source, eventID, instant);
+            case TSimulationEvent.LSP_ESTABLISHED:
+                return new TSimulationEventLSPEstablished(source, eventID, instant);
+            case TSimulationEvent.LSP_REMOVED:
+                return new TSimulationEventLSPRemoved(source, eventID, instant);
+            case TSimulationEvent.LABEL_REQUESTED:
+                return new TSimulationEventLabelRequested(source, eventID, instant);
+            case TSimulationEvent.LABEL_RECEIVED:
+                return new TSimulationEventLabelReceived(source, eventID, instant);
+            case TSimulationEvent.LABEL_ASSIGNED:
+                return new TSimulationEventLabelAssigned(source, eventID, instant);
+            case TSimulationEvent.LABEL_DENIED:
+                return new TSimulationEventLabelDenied(source, eventID, instant);
+            case TSimulationEvent.LABEL_REMOVED:
+                return new TSimulationEventLabelRemoved(source, eventID, instant);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * This method closes the trace. The mapped file is released when it is no
+     * longer referenced.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void close() {
+        this.regions = new MappedByteBuffer[ZERO];
+        this.numberOfEvents = ZERO;
+    }
+
+    private void checkIndex(long index) {
+        if ((index < ZERO) || (index >= this.numberOfEvents)) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException("index is out of the trace");
+        }
+    }
+
+    private MappedByteBuffer getRegion(long index) {
+        return this.regions[(int) (index / EVENTS_PER_REGION)];
+    }
+
+    private int getOffset(long index) {
+        return (int) ((index % EVENTS_PER_REGION) * TTraceRecorder.RECORD_SIZE);
+    }
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    // A mapping cannot be larger than 2 GiB, so large traces are mapped in
+    // several regions of 1 GiB.
+    private static final long EVENTS_PER_REGION = (1L << 30) / TTraceRecorder.RECORD_SIZE;
+
+    private MappedByteBuffer[] regions;
+    private long numberOfEvents;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TTraceReader.class);
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.trace;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import com.manolodominguez.opensimmpls.scenario.TLink;
+import com.manolodominguez.opensimmpls.scenario.TNode;
+import com.manolodominguez.opensimmpls.scenario.TTopologyElement;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.ISimulationEventBatchListener;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventNodeCongested;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketDiscarded;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketGenerated;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketOnFly;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketReceived;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketRouted;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketSent;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketSwitched;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a recorder that stores every simulation event it
+ * receives from a simulation event bus into a compact binary trace file, so
+ * that the simulation can be replayed later, at any speed, by means of
+ * TTraceReader. Events are written through memory mapped regions of the file,
+ * as fixed size records, so a trace can be read in any order.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TTraceRecorder implements ISimulationEventBatchListener {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TTraceRecorder.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TTraceRecorder() {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TRACE_RECORDER.getPath());
+        this.channel = null;
+        this.header = null;
+        this.region = null;
+        this.numberOfEvents = ZERO;
+    }
+
+    /**
+     * This method creates the trace file where next simulation events will be
+     * recorded. If the file already exists, it is overwritten.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param traceFile The file where the trace will be stored.
+     * @return True, if the trace file can be created successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public synchronized boolean open(File traceFile) {
+        if (traceFile == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("traceFile is null");
+        }
+        if (this.channel != null) {
+            this.logger.error(this.translations.getString("alreadyOpen"));
+            throw new IllegalStateException("a trace is already being recorded");
+        }
+        try {
+            this.channel = new RandomAccessFile(traceFile, READ_WRITE_MODE).getChannel();
+            this.channel.truncate(ZERO);
+            this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, ZERO, HEADER_SIZE);
+            this.header.putInt(MAGIC_POSITION, MAGIC);
+            this.header.putInt(VERSION_POSITION, VERSION);
+            this.header.putLong(NUMBER_OF_EVENTS_POSITION, ZERO);
+            this.region = null;
+            this.numberOfEvents = ZERO;
+            return true;
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.toString());
+            closeChannel();
+            return false;
+        }
+    }
+
+    /**
+     * This method records a simulation event at the end of the trace. Events
+     * received while no trace is open are ignored.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationEvent The simulation event received.
+     * @since 2.0
+     */
+    @Override
+    public synchronized void captureSimulationEvents(TSimulationEvent simulationEvent) {
+        if (this.channel == null) {
+            return;
+        }
+        try {
+            if ((this.region == null) || (!this.region.hasRemaining())) {
+                this.region = this.channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (this.numberOfEvents * RECORD_SIZE), REGION_SIZE);
+            }
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.toString());
+            closeChannel();
+            return;
+        }
+        writeRecord(this.region, simulationEvent);
+        this.numberOfEvents++;
+    }
+
+    /**
+     * This method updates the number of events stored in the header of the
+     * trace, so that a reader opening the trace while it is being recorded
+     * sees every complete batch.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    public synchronized void captureEndOfBatch() {
+        if (this.header != null) {
+            this.header.putLong(NUMBER_OF_EVENTS_POSITION, this.numberOfEvents);
+        }
+    }
+
+    /**
+     * This method gets the number of simulation events recorded in the current
+     * trace.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of recorded simulation events.
+     * @since 2.0
+     */
+    public synchronized long getNumberOfEvents() {
+        return this.numberOfEvents;
+    }
+
+    /**
+     * This method finishes the trace being recorded and closes its file. The
+     * simulation event bus has to be flushed before, so that no event is lost.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return True, if the trace has been stored successful. Otherwise,
+     * returns false.
+     * @since 2.0
+     */
+    public synchronized boolean close() {
+        if (this.channel == null) {
+            return false;
+        }
+        try {
+            this.header.putLong(NUMBER_OF_EVENTS_POSITION, this.numberOfEvents);
+            this.header.force();
+            if (this.region != null) {
+                this.region.force();
+            }
+            try {
+                // The last region is mapped beyond the last record. Some
+                // platforms do not allow truncating a mapped file; the unused
+                // part is harmless because readers rely on the header.
+                this.channel.truncate(HEADER_SIZE + (this.numberOfEvents * RECORD_SIZE));
+            } catch (IOException e) {
+                this.logger.warn(this.translations.getString("notTruncated") + e.toString());
+            }
+            return true;
+        } catch (UncheckedIOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.toString());
+            return false;
+        } finally {
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            if (this.channel != null) {
+                this.channel.close();
+            }
+        } catch (IOException e) {
+            this.logger.error(this.translations.getString("ioexceptionDescription") + e.toString());
+        }
+        this.channel = null;
+        this.header = null;
+        this.region = null;
+    }
+
+    private static void writeRecord(MappedByteBuffer buffer, TSimulationEvent simulationEvent) {
+        int packetType = NO_PACKET_TYPE;
+        long value = ZERO;
+        switch (simulationEvent.getSubtype()) {
+            case TSimulationEvent.PACKET_GENERATED: {
+                TSimulationEventPacketGenerated packetGenerated = (TSimulationEventPacketGenerated) simulationEvent;
+                packetType = packetGenerated.getPacketType();
+                value = packetGenerated.getPacketSize();
+                break;
+            }
+            case TSimulationEvent.PACKET_RECEIVED: {
+                TSimulationEventPacketReceived packetReceived = (TSimulationEventPacketReceived) simulationEvent;
+                packetType = packetReceived.getPacketType();
+                value = packetReceived.getPacketSize();
+                break;
+            }
+            case TSimulationEvent.PACKET_ON_FLY: {
+                TSimulationEventPacketOnFly packetOnFly = (TSimulationEventPacketOnFly) simulationEvent;
+                packetType = packetOnFly.getPacketType();
+                value = packetOnFly.getTransitPercentage();
+                break;
+            }
+            case TSimulationEvent.PACKET_SENT: {
+                packetType = ((TSimulationEventPacketSent) simulationEvent).getPacketType();
+                break;
+            }
+            case TSimulationEvent.PACKET_SWITCHED: {
+                packetType = ((TSimulationEventPacketSwitched) simulationEvent).getPacketType();
+                break;
+            }
+            case TSimulationEvent.PACKET_ROUTED: {
+                packetType = ((TSimulationEventPacketRouted) simulationEvent).getPacketType();
+                break;
+            }
+            case TSimulationEvent.PACKET_DISCARDED: {
+                packetType = ((TSimulationEventPacketDiscarded) simulationEvent).getPacketType();
+                break;
+            }
+            case TSimulationEvent.NODE_CONGESTED: {
+                value = ((TSimulationEventNodeCongested) simulationEvent).getCongestionLevel();
+                break;
+            }
+        }
+        TTopologyElement source = simulationEvent.getSource();
+        int sourceID;
+        if (source.getElementType() == TTopologyElement.LINK) {
+            sourceID = ((TLink) source).getID();
+        } else {
+            sourceID = ((TNode) source).getNodeID();
+        }
+        buffer.putLong(simulationEvent.getInstant());
+        buffer.putLong(simulationEvent.getEventID());
+        buffer.putLong(value);
+        buffer.putInt(sourceID);
+        buffer.put((byte) simulationEvent.getSubtype());
+        buffer.put((byte) source.getElementType());
+        buffer.putShort((short) packetType);
+    }
+
+    static final int MAGIC = 0x4F534D54;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 32;
+    static final int MAGIC_POSITION = 0;
+    static final int VERSION_POSITION = 4;
+    static final int NUMBER_OF_EVENTS_POSITION = 8;
+    static final int INSTANT_OFFSET = 0;
+    static final int EVENT_ID_OFFSET = 8;
+    static final int VALUE_OFFSET = 16;
+    static final int SOURCE_ID_OFFSET = 24;
+    static final int SUBTYPE_OFFSET = 28;
+    static final int SOURCE_TYPE_OFFSET = 29;
+    static final int PACKET_TYPE_OFFSET = 30;
+    static final int NO_PACKET_TYPE = -1;
+
+    private static final int ZERO = 0;
+    // A multiple of the record size, so records never span two regions.
+    private static final long REGION_SIZE = RECORD_SIZE * 256L * 1024L;
+    private static final String READ_WRITE_MODE = "rw";
+
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private MappedByteBuffer region;
+    private long numberOfEvents;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TTraceRecorder.class);
+}
@@ -24,6 +24,7 @@ import com.manolodominguez.opensimmpls.gui.splash.JSplash;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
 import java.awt.Dimension;
 import java.awt.Toolkit;
+import java.util.Arrays;
 import java.util.ResourceBundle;
 import javax.swing.SwingUtilities;
 
@@ -37,13 +38,19 @@ import javax.swing.SwingUtilities;
 public class openSimMPLS {
 
     /**
-     * This method start OpenSimMPLS.
+     * This method start OpenSimMPLS. If the first argument is --batch, the
+     * rest of arguments are passed to the headless simulator and no GUI is
+     * created.
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @param args Arguments specified at command line.
      * @since 2.0
      */
     public static void main(String args[]) {
+        if ((args.length > 0) && (BATCH_OPTION.equals(args[0]))) {
+            openSimMPLSBatch.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         translations = ResourceBundle.getBundle(AvailableBundles.MAIN_OPENSIMMPLS.getPath());
         try {
             boolean nimbusSet = false;
@@ -80,4 +87,6 @@ public class openSimMPLS {
     private static JSplash splash;
     private static JOpenSimMPLS simulator;
     private static ResourceBundle translations;
+
+    private static final String BATCH_OPTION = "--batch";
 }
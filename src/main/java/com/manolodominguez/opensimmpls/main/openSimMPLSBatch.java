@@ -0,0 +1,374 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.main;
+
+import com.manolodominguez.opensimmpls.batch.TBatchSimulator;
+import com.manolodominguez.opensimmpls.batch.TParameterSweep;
+import com.manolodominguez.opensimmpls.batch.TReplicationRunner;
+import com.manolodominguez.opensimmpls.batch.TSimulationOptions;
+import com.manolodominguez.opensimmpls.batch.TSpoolDirectory;
+import com.manolodominguez.opensimmpls.batch.TSpoolJob;
+import com.manolodominguez.opensimmpls.batch.TSpoolWorker;
+import com.manolodominguez.opensimmpls.batch.TTelemetryPrinter;
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.File;
+import java.util.ResourceBundle;
+
+/**
+ * This class implements the command line entry point of the headless
+ * simulator. It simulates an OSM scenario, or resumes a checkpoint, without
+ * GUI and stores the collected statistics to a CSV file. It never initializes AWT or Swing.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class openSimMPLSBatch {
+
+    /**
+     * This method starts a headless simulation. Expected arguments are the
+     * options, if any, the OSM scenario file and the CSV file where statistics
+     * will be stored.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param args Arguments specified at command line.
+     * @since 2.0
+     */
+    public static void main(String args[]) {
+        System.exit(run(args));
+    }
+
+    /**
+     * This method runs a headless simulation as specified by the command line
+     * arguments and returns the exit status of the process.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param args Arguments specified at command line.
+     * @return zero if the simulation has finished and its statistics have been
+     * stored. A value other than zero otherwise.
+     * @since 2.0
+     */
+    public static int run(String args[]) {
+        translations = ResourceBundle.getBundle(AvailableBundles.MAIN_OPENSIMMPLS_BATCH.getPath());
+        TSimulationOptions simulationOptions = new TSimulationOptions();
+        int numberOfReplications = ONE;
+        Long randomSeed = null;
+        File sweepFile = null;
+        File spoolDirectory = null;
+        File workerSpoolDirectory = null;
+        File checkpointFile = null;
+        long warmUpLengthInNs = ZERO;
+        boolean fromCheckpoint = false;
+        long telemetryIntervalInMs = ZERO;
+        File traceFile = null;
+        int firstFileArgument = ZERO;
+        while ((firstFileArgument < args.length) && (args[firstFileArgument].startsWith(OPTION_PREFIX))) {
+            if (args[firstFileArgument].equals(EVENT_DRIVEN_OPTION)) {
+                simulationOptions.setEventDriven(true);
+            } else if (args[firstFileArgument].equals(ACTIVE_SET_OPTION)) {
+                simulationOptions.setActiveSetDispatch(true);
+            } else if (args[firstFileArgument].equals(ADAPTIVE_TICK_OPTION)) {
+                simulationOptions.setAdaptiveTick(true);
+            } else if ((args[firstFileArgument].equals(PARTITIONS_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                int numberOfPartitions = parsePositiveInteger(args[firstFileArgument]);
+                if (numberOfPartitions < ONE) {
+                    System.err.println(translations.getString("usage"));
+                    return EXIT_BAD_ARGUMENTS;
+                }
+                simulationOptions.setNumberOfPartitions(numberOfPartitions);
+            } else if ((args[firstFileArgument].equals(REPLICATIONS_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                numberOfReplications = parsePositiveInteger(args[firstFileArgument]);
+                if (numberOfReplications < ONE) {
+                    System.err.println(translations.getString("usage"));
+                    return EXIT_BAD_ARGUMENTS;
+                }
+            } else if ((args[firstFileArgument].equals(SEED_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                try {
+                    randomSeed = Long.valueOf(args[firstFileArgument]);
+                } catch (NumberFormatException e) {
+                    System.err.println(translations.getString("usage"));
+                    return EXIT_BAD_ARGUMENTS;
+                }
+            } else if ((args[firstFileArgument].equals(SWEEP_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                sweepFile = new File(args[firstFileArgument]);
+            } else if ((args[firstFileArgument].equals(SPOOL_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                spoolDirectory = new File(args[firstFileArgument]);
+            } else if ((args[firstFileArgument].equals(WORKER_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                workerSpoolDirectory = new File(args[firstFileArgument]);
+            } else if ((args[firstFileArgument].equals(CHECKPOINT_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                checkpointFile = new File(args[firstFileArgument]);
+            } else if ((args[firstFileArgument].equals(WARM_UP_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                try {
+                    warmUpLengthInNs = Long.parseLong(args[firstFileArgument]);
+                } catch (NumberFormatException e) {
+                    warmUpLengthInNs = ZERO;
+                }
+                if (warmUpLengthInNs < ONE) {
+                    System.err.println(translations.getString("usage"));
+                    return EXIT_BAD_ARGUMENTS;
+                }
+            } else if ((args[firstFileArgument].equals(BUDGET_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                long wallClockBudgetInMs = parsePositiveInteger(args[firstFileArgument]) * ONE_THOUSAND;
+                if (wallClockBudgetInMs < ONE) {
+                    System.err.println(translations.getString("usage"));
+                    return EXIT_BAD_ARGUMENTS;
+                }
+                simulationOptions.setWallClockBudget(wallClockBudgetInMs);
+            } else if ((args[firstFileArgument].equals(TELEMETRY_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                telemetryIntervalInMs = parsePositiveInteger(args[firstFileArgument]) * ONE_THOUSAND;
+                if (telemetryIntervalInMs < ONE) {
+                    System.err.println(translations.getString("usage"));
+                    return EXIT_BAD_ARGUMENTS;
+                }
+            } else if ((args[firstFileArgument].equals(TRACE_OPTION)) && (firstFileArgument + ONE < args.length)) {
+                firstFileArgument++;
+                traceFile = new File(args[firstFileArgument]);
+            } else if (args[firstFileArgument].equals(RESUME_OPTION)) {
+                fromCheckpoint = true;
+            } else {
+                System.err.println(translations.getString("usage"));
+                return EXIT_BAD_ARGUMENTS;
+            }
+            firstFileArgument++;
+        }
+        int numberOfFileArguments = NUMBER_OF_FILE_ARGUMENTS;
+        if (workerSpoolDirectory != null) {
+            numberOfFileArguments = ZERO;
+        } else if (spoolDirectory != null) {
+            numberOfFileArguments = ONE;
+        }
+        if (((args.length - firstFileArgument) != numberOfFileArguments) || ((sweepFile != null) && (numberOfReplications > ONE)) || ((spoolDirectory != null) && (workerSpoolDirectory != null))) {
+            System.err.println(translations.getString("usage"));
+            return EXIT_BAD_ARGUMENTS;
+        }
+        boolean checkpointing = (checkpointFile != null) || (warmUpLengthInNs > ZERO) || fromCheckpoint;
+        if (checkpointing && ((sweepFile != null) || (numberOfReplications > ONE) || (spoolDirectory != null) || (workerSpoolDirectory != null) || (fromCheckpoint && (checkpointFile != null)) || ((checkpointFile == null) != (warmUpLengthInNs == ZERO)))) {
+            System.err.println(translations.getString("usage"));
+            return EXIT_BAD_ARGUMENTS;
+        }
+        if (((telemetryIntervalInMs > ZERO) || (traceFile != null)) && ((sweepFile != null) || (numberOfReplications > ONE) || (spoolDirectory != null) || (workerSpoolDirectory != null))) {
+            System.err.println(translations.getString("usage"));
+            return EXIT_BAD_ARGUMENTS;
+        }
+        if (workerSpoolDirectory != null) {
+            return runWorker(workerSpoolDirectory, simulationOptions);
+        }
+        File scenarioFile = new File(args[firstFileArgument + SCENARIO_FILE]);
+        if (spoolDirectory != null) {
+            return submitJobs(spoolDirectory, scenarioFile, sweepFile, numberOfReplications, randomSeed);
+        }
+        File statsFile = new File(args[firstFileArgument + STATS_FILE]);
+        if (sweepFile != null) {
+            TParameterSweep parameterSweep = new TParameterSweep(scenarioFile);
+            if (!parameterSweep.loadSweepSpecification(sweepFile)) {
+                System.err.println(translations.getString("usage"));
+                return EXIT_BAD_ARGUMENTS;
+            }
+            parameterSweep.setSimulationOptions(simulationOptions);
+            if (randomSeed != null) {
+                parameterSweep.setRandomSeed(randomSeed);
+            }
+            if (!parameterSweep.run(statsFile)) {
+                System.err.println(translations.getString("sweepNotCompleted") + statsFile.getPath());
+                return EXIT_STATS_NOT_SAVED;
+            }
+            if (parameterSweep.getNumberOfTruncatedPoints() > ZERO) {
+                System.err.println(translations.getString("simulationsTruncated") + statsFile.getPath());
+                return EXIT_BUDGET_EXHAUSTED;
+            }
+            return EXIT_OK;
+        }
+        if (numberOfReplications > ONE) {
+            TReplicationRunner replicationRunner = new TReplicationRunner(scenarioFile);
+            replicationRunner.setNumberOfReplications(numberOfReplications);
+            replicationRunner.setSimulationOptions(simulationOptions);
+            if (randomSeed != null) {
+                replicationRunner.setRandomSeed(randomSeed);
+            }
+            if (!replicationRunner.run()) {
+                System.err.println(translations.getString("scenarioNotLoaded") + scenarioFile.getPath());
+                return EXIT_SCENARIO_NOT_LOADED;
+            }
+            if (!replicationRunner.saveStats(statsFile)) {
+                System.err.println(translations.getString("statsNotSaved") + statsFile.getPath());
+                return EXIT_STATS_NOT_SAVED;
+            }
+            if (replicationRunner.getNumberOfTruncatedReplications() > ZERO) {
+                System.err.println(translations.getString("simulationsTruncated") + statsFile.getPath());
+                return EXIT_BUDGET_EXHAUSTED;
+            }
+            return EXIT_OK;
+        }
+        TBatchSimulator batchSimulator;
+        if (fromCheckpoint) {
+            batchSimulator = TBatchSimulator.fromCheckpointFile(scenarioFile);
+        } else {
+            batchSimulator = TBatchSimulator.fromOSMFile(scenarioFile);
+        }
+        if (batchSimulator == null) {
+            System.err.println(translations.getString("scenarioNotLoaded") + scenarioFile.getPath());
+            return EXIT_SCENARIO_NOT_LOADED;
+        }
+        batchSimulator.setSimulationOptions(simulationOptions);
+        if (randomSeed != null) {
+            batchSimulator.setRandomSeed(randomSeed);
+        }
+        if (telemetryIntervalInMs > ZERO) {
+            batchSimulator.addTelemetryEventListener(new TTelemetryPrinter(System.err), telemetryIntervalInMs);
+        }
+        if ((checkpointFile != null) && (warmUpLengthInNs > batchSimulator.getScenario().getSimulation().getSimulationLengthInNs())) {
+            System.err.println(translations.getString("usage"));
+            return EXIT_BAD_ARGUMENTS;
+        }
+        if ((traceFile != null) && (!batchSimulator.startTrace(traceFile))) {
+            System.err.println(translations.getString("traceNotSaved") + traceFile.getPath());
+            return EXIT_STATS_NOT_SAVED;
+        }
+        if (fromCheckpoint) {
+            batchSimulator.resume();
+        } else if (checkpointFile != null) {
+            batchSimulator.simulateUntil(warmUpLengthInNs);
+            if (!batchSimulator.isWallClockBudgetExhausted()) {
+                if (!batchSimulator.saveCheckpoint(checkpointFile)) {
+                    batchSimulator.stopTrace();
+                    System.err.println(translations.getString("checkpointNotSaved") + checkpointFile.getPath());
+                    return EXIT_STATS_NOT_SAVED;
+                }
+                batchSimulator.resume();
+            }
+        } else {
+            batchSimulator.simulate();
+        }
+        if ((traceFile != null) && (!batchSimulator.stopTrace())) {
+            System.err.println(translations.getString("traceNotSaved") + traceFile.getPath());
+            return EXIT_STATS_NOT_SAVED;
+        }
+        if (!batchSimulator.saveStats(statsFile)) {
+            System.err.println(translations.getString("statsNotSaved") + statsFile.getPath());
+            return EXIT_STATS_NOT_SAVED;
+        }
+        if (batchSimulator.isWallClockBudgetExhausted()) {
+            System.err.println(translations.getString("budgetExhausted") + statsFile.getPath());
+            return EXIT_BUDGET_EXHAUSTED;
+        }
+        return EXIT_OK;
+    }
+
+    private static int runWorker(File spoolDirectory, TSimulationOptions simulationOptions) {
+        TSpoolDirectory spool = new TSpoolDirectory(spoolDirectory);
+        if (!spool.initialize()) {
+            System.err.println(translations.getString("spoolNotAvailable") + spoolDirectory.getPath());
+            return EXIT_SCENARIO_NOT_LOADED;
+        }
+        TSpoolWorker spoolWorker = new TSpoolWorker(spool);
+        spoolWorker.setSimulationOptions(simulationOptions);
+        spoolWorker.run();
+        if (spoolWorker.getNumberOfTruncatedJobs() > ZERO) {
+            System.err.println(translations.getString("simulationsTruncated") + spoolDirectory.getPath());
+            return EXIT_BUDGET_EXHAUSTED;
+        }
+        return EXIT_OK;
+    }
+
+    private static int submitJobs(File spoolDirectory, File scenarioFile, File sweepFile, int numberOfReplications, Long randomSeed) {
+        TSpoolDirectory spool = new TSpoolDirectory(spoolDirectory);
+        if ((!scenarioFile.isFile()) || (!spool.initialize())) {
+            System.err.println(translations.getString("spoolNotAvailable") + spoolDirectory.getPath());
+            return EXIT_SCENARIO_NOT_LOADED;
+        }
+        boolean submitted;
+        if (sweepFile != null) {
+            TParameterSweep parameterSweep = new TParameterSweep(scenarioFile);
+            if (!parameterSweep.loadSweepSpecification(sweepFile)) {
+                System.err.println(translations.getString("usage"));
+                return EXIT_BAD_ARGUMENTS;
+            }
+            if (randomSeed != null) {
+                parameterSweep.setRandomSeed(randomSeed);
+            }
+            submitted = parameterSweep.submit(spool);
+        } else if (numberOfReplications > ONE) {
+            TReplicationRunner replicationRunner = new TReplicationRunner(scenarioFile);
+            replicationRunner.setNumberOfReplications(numberOfReplications);
+            if (randomSeed != null) {
+                replicationRunner.setRandomSeed(randomSeed);
+            }
+            submitted = replicationRunner.submit(spool);
+        } else {
+            String scenarioName = spool.addScenario(scenarioFile);
+            submitted = scenarioName != null;
+            if (submitted) {
+                TSpoolJob spoolJob = spool.createJob(scenarioName);
+                if (randomSeed != null) {
+                    spoolJob.setRandomSeed(randomSeed);
+                }
+                submitted = spool.submit(spoolJob);
+            }
+        }
+        if (!submitted) {
+            System.err.println(translations.getString("spoolNotAvailable") + spoolDirectory.getPath());
+            return EXIT_SCENARIO_NOT_LOADED;
+        }
+        return EXIT_OK;
+    }
+
+    private static int parsePositiveInteger(String argument) {
+        try {
+            return Math.max(ZERO, Integer.parseInt(argument));
+        } catch (NumberFormatException e) {
+            return ZERO;
+        }
+    }
+
+    private static final String OPTION_PREFIX = "--";
+    private static final String EVENT_DRIVEN_OPTION = "--event-driven";
+    private static final String ACTIVE_SET_OPTION = "--active-set";
+    private static final String ADAPTIVE_TICK_OPTION = "--adaptive-tick";
+    private static final String PARTITIONS_OPTION = "--partitions";
+    private static final String REPLICATIONS_OPTION = "--replications";
+    private static final String SEED_OPTION = "--seed";
+    private static final String SWEEP_OPTION = "--sweep";
+    private static final String SPOOL_OPTION = "--spool";
+    private static final String WORKER_OPTION = "--worker";
+    private static final String CHECKPOINT_OPTION = "--checkpoint";
+    private static final String WARM_UP_OPTION = "--warm-up";
+    private static final String RESUME_OPTION = "--resume";
+    private static final String BUDGET_OPTION = "--budget";
+    private static final String TELEMETRY_OPTION = "--telemetry";
+    private static final String TRACE_OPTION = "--trace";
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final long ONE_THOUSAND = 1000L;
+    private static final int NUMBER_OF_FILE_ARGUMENTS = 2;
+    private static final int SCENARIO_FILE = 0;
+    private static final int STATS_FILE = 1;
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_BAD_ARGUMENTS = 1;
+    private static final int EXIT_SCENARIO_NOT_LOADED = 2;
+    private static final int EXIT_STATS_NOT_SAVED = 3;
+    private static final int EXIT_BUDGET_EXHAUSTED = 4;
+
+    private static ResourceBundle translations;
+}
@@ -15,6 +15,8 @@
  */
 package com.manolodominguez.opensimmpls.protocols;
 
+import java.io.Serializable;
+
 /**
  * This class implements an abstract PDU containing the minimum set of data that
  * is common for all PDU. Cannot be directly instantiated.
@@ -22,7 +24,7 @@ package com.manolodominguez.opensimmpls.protocols;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public abstract class TAbstractPDU implements Comparable {
+public abstract class TAbstractPDU implements Comparable, Serializable {
 
     /**
      * This method is the constructor of the class. It is create a new instance
@@ -105,6 +107,8 @@ public abstract class TAbstractPDU implements Comparable {
         }
     }
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * This method has to be implemented by any subclasses. It has to return the
      * size of the packet in bytes (octects).
@@ -123,6 +123,8 @@ public class TGPSRPPDU extends TAbstractPDU {
         // Do nothing. FIX (remove).
     }
 
+    private static final long serialVersionUID = 1L;
+
     private TTCPPayload TCPPayload;
     private TGPSRPPayload GPSRPPayload;
 }
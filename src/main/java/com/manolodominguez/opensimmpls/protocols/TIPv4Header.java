@@ -15,13 +15,15 @@
  */
 package com.manolodominguez.opensimmpls.protocols;
 
+import java.io.Serializable;
+
 /**
  * This class implements a IPv4 header.
  *
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TIPv4Header {
+public class TIPv4Header implements Serializable {
 
     /**
      * This method is the constructor of the class. It is create a new instance
@@ -156,6 +158,8 @@ public class TIPv4Header {
         return this.IPv4OptionsField;
     }
 
+    private static final long serialVersionUID = 1L;
+
     private String originIP;
     private String targetIP;
     private int TTL;
@@ -19,6 +19,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import com.manolodominguez.opensimmpls.commons.EIDGeneratorOverflow;
 import com.manolodominguez.opensimmpls.commons.TIDGenerator;
+import java.io.Serializable;
 
 /**
  * This class implements the MPLS label stack of a MPLS packet.
@@ -26,7 +27,7 @@ import com.manolodominguez.opensimmpls.commons.TIDGenerator;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TMPLSLabelStack {
+public class TMPLSLabelStack implements Serializable {
 
     /**
      * This method is the constructor of the class. It is create a new empty
@@ -125,6 +126,8 @@ public class TMPLSLabelStack {
         }
     }
 
+    private static final long serialVersionUID = 1L;
+
     private LinkedList stack;
     private TIDGenerator idGenerator;
 }
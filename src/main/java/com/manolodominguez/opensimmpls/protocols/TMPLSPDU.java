@@ -197,6 +197,8 @@ public class TMPLSPDU extends TAbstractPDU {
         return this.subType;
     }
 
+    private static final long serialVersionUID = 1L;
+
     private int subType;
     private TTCPPayload tcpPayload;
     private TMPLSLabelStack mplsLabelStack;
@@ -15,6 +15,8 @@
  */
 package com.manolodominguez.opensimmpls.protocols;
 
+import java.io.Serializable;
+
 /**
  * This class implements a TCP packet content (payload of TCP packet). It is
  * used to simulate packets of different sizes.
@@ -22,7 +24,7 @@ package com.manolodominguez.opensimmpls.protocols;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TTCPPayload {
+public class TTCPPayload implements Serializable {
 
     /**
      * This method is the constructor of the class. It is create a new instance
@@ -68,5 +70,7 @@ public class TTCPPayload {
         this.sizeInOctets += size;
     }
 
+    private static final long serialVersionUID = 1L;
+
     private int sizeInOctets;
 }
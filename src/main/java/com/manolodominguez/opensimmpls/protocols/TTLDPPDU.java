@@ -200,6 +200,8 @@ public class TTLDPPDU extends TAbstractPDU {
         this.packetDirection = localTarget;
     }
 
+    private static final long serialVersionUID = 1L;
+
     public static final int DIRECTION_FORWARD = -1;
     public static final int DIRECTION_BACKWARD = -2;
     public static final int DIRECTION_BACKWARD_BACKUP = -3;
@@ -34,7 +34,6 @@ public enum AvailableBundles {
     T_ACTIVE_LER_NODE("translations"),
     MAIN_OPENSIMMPLS("translations"),
     T_TIMER("translations"),
-    E_SIMULATION_SINGLE_SUBSCRIBER("translations"),
     E_PROGRESS_EVENT_GENERATOR_ONLY_ALLOW_A_SINGLE_LISTENER("translations"),
     LER_WINDOW("translations"),
     LSR_WINDOW("translations"),
@@ -73,7 +72,27 @@ public enum AvailableBundles {
     T_GPSRP_REQUEST_ENTRY("tgpsrprequestentry"),
     T_GPSRP_REQUESTS_MATRIX("tgpsrprequestsmatrix"),
     UNITS_TRANSLATIONS("unitstranslations"),
-    T_OSM_LOADER("osmloader");
+    T_OSM_LOADER("osmloader"),
+    T_TICK_EXECUTOR("ttickexecutor"),
+    T_STATS_SAVER("tstatssaver"),
+    T_STATS_AGGREGATOR("tstatsaggregator"),
+    T_BATCH_SIMULATOR("tbatchsimulator"),
+    T_REPLICATION_RUNNER("treplicationrunner"),
+    T_PARAMETER_SWEEP("tparametersweep"),
+    T_SPOOL_DIRECTORY("tspooldirectory"),
+    T_SPOOL_WORKER("tspoolworker"),
+    T_SPOOL_JOB("tspooljob"),
+    T_TELEMETRY_PRINTER("ttelemetryprinter"),
+    T_SIMULATION_OPTIONS("tsimulationoptions"),
+    T_CHECKPOINT_SAVER("tcheckpointsaver"),
+    T_CHECKPOINT_LOADER("tcheckpointloader"),
+    T_SIMULATION_EVENT_BUS("tsimulationeventbus"),
+    T_TRACE_RECORDER("ttracerecorder"),
+    T_TRACE_READER("ttracereader"),
+    T_TRACE_REPLAYER("ttracereplayer"),
+    T_TRACE_FILTER("translations"),
+    T_TOPOLOGY_SPATIAL_INDEX("ttopologyspatialindex"),
+    MAIN_OPENSIMMPLS_BATCH("opensimmplsbatch");
 
     private final String bundlePath;
     private static final String BASE_PATH = "com/manolodominguez/opensimmpls/resources/translations/";
@@ -227,8 +227,9 @@ public class TActiveLERStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void addStatEntry(TAbstractPDU packet, int entryType) {
+    public synchronized void addStatEntry(TAbstractPDU packet, int entryType) {
         if (this.statsEnabled) {
+            this.statEntriesAdded = true;
             int packetType = packet.getSubtype();
             // FIX: Do use class constants instead of hardcoded values.
             int GOSLevel = 0;
@@ -392,7 +393,8 @@ public class TActiveLERStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void reset() {
+    public synchronized void reset() {
+        this.statEntriesAdded = false;
         this.incomingPackets = new XYSeriesCollection();
         this.outgoingPackets = new XYSeriesCollection();
         this.discardedPackets = new XYSeriesCollection();
@@ -483,7 +485,7 @@ public class TActiveLERStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void groupStatsByTimeInstant(long timeInstant) {
+    public synchronized void groupStatsByTimeInstant(long timeInstant) {
         if (this.statsEnabled) {
             // FIX: do not use harcoded values. Use class constants instead.
             if (this.incomingIPv4PacketsOfThisTimeInstant > 0) {
@@ -972,6 +974,8 @@ public class TActiveLERStats extends TStats {
         return null;
     }
 
+    private static final long serialVersionUID = 1L;
+
     private int incomingIPv4PacketsOfThisTimeInstant;
     private int incomingIPv4GOS1PacketsOfThisTimeInstant;
     private int incomingIPv4GOS2PacketsOfThisTimeInstant;
@@ -203,8 +203,9 @@ public class TActiveLSRStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void addStatEntry(TAbstractPDU packet, int entryType) {
+    public synchronized void addStatEntry(TAbstractPDU packet, int entryType) {
         if (this.statsEnabled) {
+            this.statEntriesAdded = true;
             int packetType = packet.getSubtype();
             // FIX: Do use class constants instead of hardcoded values.
             int GOSLevel = 0;
@@ -326,7 +327,8 @@ public class TActiveLSRStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void reset() {
+    public synchronized void reset() {
+        this.statEntriesAdded = false;
         this.incomingPackets = new XYSeriesCollection();
         this.outgoingPackets = new XYSeriesCollection();
         this.discardedPackets = new XYSeriesCollection();
@@ -393,7 +395,7 @@ public class TActiveLSRStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void groupStatsByTimeInstant(long timeInstant) {
+    public synchronized void groupStatsByTimeInstant(long timeInstant) {
         if (this.statsEnabled) {
             // FIX: do not use harcoded values. Use class constants instead.
             if (this.incomingMPLSPacketsOfThisTimeInstant > 0) {
@@ -726,6 +728,8 @@ public class TActiveLSRStats extends TStats {
         return null;
     }
 
+    private static final long serialVersionUID = 1L;
+
     private int incomingMPLSPacketsOfThisTimeInstant;
     private int incomingMPLSGOS1PacketsOfThisTimeInstant;
     private int incomingMPLSGOS2PacketsOfThisTimeInstant;
@@ -15,6 +15,7 @@
  */
 package com.manolodominguez.opensimmpls.scenario;
 
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLinkBroken;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketDiscarded;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLinkRecovered;
@@ -95,9 +96,16 @@ public class TExternalLink extends TLink implements ITimerEventListener, Runnabl
     @Override
     public void setAsBrokenLink(boolean linkIsBroken) {
         this.linkIsBroken = linkIsBroken;
+        if (this.topology != null) {
+            this.topology.invalidateFloydWarshallRoutes();
+            this.topology.invalidateScreenAppearance();
+        }
         if (this.linkIsBroken) {
+            this.activateEndNodes();
             try {
-                this.generateSimulationEvent(new TSimulationEventLinkBroken(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                if (this.announceSimulationEvent(TSimulationEvent.LINK_BROKEN)) {
+                    this.generateSimulationEvent(new TSimulationEventLinkBroken(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                }
                 this.packetsInTransitEntriesLock.setRed();
                 TAbstractPDU packet = null;
                 TLinkBufferEntry bufferedPacketEntry = null;
@@ -109,11 +117,15 @@ public class TExternalLink extends TLink implements ITimerEventListener, Runnabl
                         // FIX: do not use harcoded values. Use constants class
                         // instead
                         if (bufferedPacketEntry.getPacketEnd() == 1) {
-                            this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this.getTailEndNode(), this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+                            if (this.announceSimulationEvent(TSimulationEvent.PACKET_DISCARDED)) {
+                                this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this.getTailEndNode(), this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+                            }
                             // FIX: do not use harcoded values. Use constants class
                             // instead
                         } else if (bufferedPacketEntry.getPacketEnd() == 2) {
-                            this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this.getHeadEndNode(), this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+                            if (this.announceSimulationEvent(TSimulationEvent.PACKET_DISCARDED)) {
+                                this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this.getHeadEndNode(), this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+                            }
                         }
                     }
                     bufferedPacketEntriesIterator.remove();
@@ -125,7 +137,9 @@ public class TExternalLink extends TLink implements ITimerEventListener, Runnabl
             }
         } else {
             try {
-                this.generateSimulationEvent(new TSimulationEventLinkRecovered(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                if (this.announceSimulationEvent(TSimulationEvent.LINK_RECOVERED)) {
+                    this.generateSimulationEvent(new TSimulationEventLinkRecovered(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                }
             } catch (EIDGeneratorOverflow e) {
                 // FIX: this is not a good practice
                 e.printStackTrace();
@@ -157,10 +171,10 @@ public class TExternalLink extends TLink implements ITimerEventListener, Runnabl
      */
     public void updateTransitDelay() {
         this.packetsInTransitEntriesLock.setRed();
+        this.buffer.advance(this.stepLength);
         Iterator bufferedPacketEntriesIterator = this.buffer.iterator();
         while (bufferedPacketEntriesIterator.hasNext()) {
             TLinkBufferEntry bufferedPacketEntry = (TLinkBufferEntry) bufferedPacketEntriesIterator.next();
-            bufferedPacketEntry.substractStepFromRemainingDelay(this.stepLength);
             long transitPercentage = this.getCurrentTransitPercentage(bufferedPacketEntry.getTotalTransitDelay(), bufferedPacketEntry.getRemainingTransitDelay());
             // FIX: do not use harcoded values. Use constants class instead.
             if (bufferedPacketEntry.getPacketEnd() == 1) {
@@ -168,7 +182,9 @@ public class TExternalLink extends TLink implements ITimerEventListener, Runnabl
                 transitPercentage = 100 - transitPercentage;
             }
             try {
-                this.generateSimulationEvent(new TSimulationEventPacketOnFly(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), bufferedPacketEntry.getPacket().getSubtype(), transitPercentage));
+                if (this.announceSimulationEvent(TSimulationEvent.PACKET_ON_FLY)) {
+                    this.generateSimulationEvent(new TSimulationEventPacketOnFly(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), bufferedPacketEntry.getPacket().getSubtype(), transitPercentage));
+                }
             } catch (EIDGeneratorOverflow e) {
                 // FIX: This is not a good practice.
                 e.printStackTrace();
@@ -187,24 +203,9 @@ public class TExternalLink extends TLink implements ITimerEventListener, Runnabl
      */
     public void advancePacketInTransit() {
         this.packetsInTransitEntriesLock.setRed();
-        Iterator bufferedPacketEntriesIterator = this.buffer.iterator();
-        while (bufferedPacketEntriesIterator.hasNext()) {
-            TLinkBufferEntry bufferedPacketEntry = (TLinkBufferEntry) bufferedPacketEntriesIterator.next();
-            // FIX: Do not use harcoded values. Use constants class instead.
-            if (bufferedPacketEntry.getRemainingTransitDelay() <= 0) {
-                this.deliveredPacketEntriesLock.setRed();
-                this.deliveredPacketsBuffer.add(bufferedPacketEntry);
-                this.deliveredPacketEntriesLock.setGreen();
-            }
-        }
-        bufferedPacketEntriesIterator = this.buffer.iterator();
-        while (bufferedPacketEntriesIterator.hasNext()) {
-            TLinkBufferEntry bufferedPacketEntry = (TLinkBufferEntry) bufferedPacketEntriesIterator.next();
-            // FIX: Do not use harcoded values. Use constants class instead.
-            if (bufferedPacketEntry.getRemainingTransitDelay() <= 0) {
-                bufferedPacketEntriesIterator.remove();
-            }
-        }
+        this.deliveredPacketEntriesLock.setRed();
+        this.buffer.pollDeliveredEntries(this.deliveredPacketsBuffer);
+        this.deliveredPacketEntriesLock.setGreen();
         this.packetsInTransitEntriesLock.setGreen();
     }
 
@@ -362,11 +363,7 @@ public class TExternalLink extends TLink implements ITimerEventListener, Runnabl
     @Override
     public void reset() {
         this.packetsInTransitEntriesLock.setRed();
-        Iterator bufferedPacketEntriesIterator = this.buffer.iterator();
-        while (bufferedPacketEntriesIterator.hasNext()) {
-            bufferedPacketEntriesIterator.next();
-            bufferedPacketEntriesIterator.remove();
-        }
+        this.buffer.clear();
         this.packetsInTransitEntriesLock.setGreen();
         this.deliveredPacketEntriesLock.setRed();
         Iterator deliveredPacketEntriesIterator = this.deliveredPacketsBuffer.iterator();
@@ -395,5 +392,7 @@ public class TExternalLink extends TLink implements ITimerEventListener, Runnabl
         return this.getWeight();
     }
 
+    private static final long serialVersionUID = 1L;
+
     private long stepLength;
 }
@@ -15,6 +15,7 @@
  */
 package com.manolodominguez.opensimmpls.scenario;
 
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLSPEstablished;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLinkBroken;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLSPRemoved;
@@ -99,12 +100,19 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
     @Override
     public void setAsBrokenLink(boolean linkIsBroken) {
         this.linkIsBroken = linkIsBroken;
+        if (this.topology != null) {
+            this.topology.invalidateFloydWarshallRoutes();
+            this.topology.invalidateScreenAppearance();
+        }
         if (this.linkIsBroken) {
+            this.activateEndNodes();
             try {
                 // FIX: Use class contants instead of harcoded values
                 this.numberOfLSPs = 0;
                 this.numberOfBackupLSPs = 0;
-                this.generateSimulationEvent(new TSimulationEventLinkBroken(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                if (this.announceSimulationEvent(TSimulationEvent.LINK_BROKEN)) {
+                    this.generateSimulationEvent(new TSimulationEventLinkBroken(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                }
                 this.packetsInTransitEntriesLock.setRed();
                 TAbstractPDU packet = null;
                 TLinkBufferEntry bufferedPacketEntry = null;
@@ -116,11 +124,15 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
                         // FIX: do not use harcoded values. Use class constants
                         // instead
                         if (bufferedPacketEntry.getPacketEnd() == 1) {
-                            this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this.getTailEndNode(), this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+                            if (this.announceSimulationEvent(TSimulationEvent.PACKET_DISCARDED)) {
+                                this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this.getTailEndNode(), this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+                            }
                             // FIX: do not use harcoded values. Use class
                             // constants instead
                         } else if (bufferedPacketEntry.getPacketEnd() == 2) {
-                            this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this.getHeadEndNode(), this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+                            if (this.announceSimulationEvent(TSimulationEvent.PACKET_DISCARDED)) {
+                                this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this.getHeadEndNode(), this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+                            }
                         }
                     }
                     bufferedPacketEntriesIterator.remove();
@@ -132,7 +144,9 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
             }
         } else {
             try {
-                this.generateSimulationEvent(new TSimulationEventLinkRecovered(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                if (this.announceSimulationEvent(TSimulationEvent.LINK_RECOVERED)) {
+                    this.generateSimulationEvent(new TSimulationEventLinkRecovered(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                }
             } catch (EIDGeneratorOverflow e) {
                 // FIX: this is not a good practice
                 e.printStackTrace();
@@ -177,8 +191,13 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
      */
     public void setAsUsedByALSP() {
         this.numberOfLSPs++;
+        if (this.topology != null) {
+            this.topology.invalidateScreenAppearance();
+        }
         try {
-            this.generateSimulationEvent(new TSimulationEventLSPEstablished(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+            if (this.announceSimulationEvent(TSimulationEvent.LSP_ESTABLISHED)) {
+                this.generateSimulationEvent(new TSimulationEventLSPEstablished(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+            }
         } catch (Exception e) {
             // FIX: this is not a good practice
             e.printStackTrace();
@@ -196,8 +215,13 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
         // FIX: use class constants instead of harcoded values
         if (this.numberOfLSPs > 0) {
             this.numberOfLSPs--;
+            if (this.topology != null) {
+                this.topology.invalidateScreenAppearance();
+            }
             try {
-                this.generateSimulationEvent(new TSimulationEventLSPRemoved(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                if (this.announceSimulationEvent(TSimulationEvent.LSP_REMOVED)) {
+                    this.generateSimulationEvent(new TSimulationEventLSPRemoved(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant()));
+                }
             } catch (Exception e) {
                 // FIX: this is not a good practice
                 e.printStackTrace();
@@ -227,6 +251,9 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
      */
     public void setAsUsedByABackupLSP() {
         this.numberOfBackupLSPs++;
+        if (this.topology != null) {
+            this.topology.invalidateScreenAppearance();
+        }
     }
 
     /**
@@ -240,6 +267,9 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
         // FIX: use class constants instead of harcoded values
         if (this.numberOfBackupLSPs > 0) {
             this.numberOfBackupLSPs--;
+            if (this.topology != null) {
+                this.topology.invalidateScreenAppearance();
+            }
         }
     }
 
@@ -252,10 +282,10 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
      */
     public void updateTransitDelay() {
         this.packetsInTransitEntriesLock.setRed();
+        this.buffer.advance(this.stepLength);
         Iterator bufferedPacketEntriesIterator = this.buffer.iterator();
         while (bufferedPacketEntriesIterator.hasNext()) {
             TLinkBufferEntry bufferedPacketEntry = (TLinkBufferEntry) bufferedPacketEntriesIterator.next();
-            bufferedPacketEntry.substractStepFromRemainingDelay(this.stepLength);
             long transitPercentage = this.getCurrentTransitPercentage(bufferedPacketEntry.getTotalTransitDelay(), bufferedPacketEntry.getRemainingTransitDelay());
             // FIX: do not use harcoded values. Use constants class instead.
             if (bufferedPacketEntry.getPacketEnd() == 1) {
@@ -264,11 +294,17 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
             }
             try {
                 if (bufferedPacketEntry.getPacket().getType() == TAbstractPDU.TLDP) {
-                    this.generateSimulationEvent(new TSimulationEventPacketOnFly(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), TAbstractPDU.TLDP, transitPercentage));
+                    if (this.announceSimulationEvent(TSimulationEvent.PACKET_ON_FLY)) {
+                        this.generateSimulationEvent(new TSimulationEventPacketOnFly(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), TAbstractPDU.TLDP, transitPercentage));
+                    }
                 } else if (bufferedPacketEntry.getPacket().getType() == TAbstractPDU.MPLS) {
-                    this.generateSimulationEvent(new TSimulationEventPacketOnFly(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), bufferedPacketEntry.getPacket().getSubtype(), transitPercentage));
+                    if (this.announceSimulationEvent(TSimulationEvent.PACKET_ON_FLY)) {
+                        this.generateSimulationEvent(new TSimulationEventPacketOnFly(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), bufferedPacketEntry.getPacket().getSubtype(), transitPercentage));
+                    }
                 } else if (bufferedPacketEntry.getPacket().getType() == TAbstractPDU.GPSRP) {
-                    this.generateSimulationEvent(new TSimulationEventPacketOnFly(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), TAbstractPDU.GPSRP, transitPercentage));
+                    if (this.announceSimulationEvent(TSimulationEvent.PACKET_ON_FLY)) {
+                        this.generateSimulationEvent(new TSimulationEventPacketOnFly(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), TAbstractPDU.GPSRP, transitPercentage));
+                    }
                 }
             } catch (EIDGeneratorOverflow e) {
                 // FIX: this is not a good practice
@@ -288,24 +324,9 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
      */
     public void advancePacketInTransit() {
         this.packetsInTransitEntriesLock.setRed();
-        Iterator bufferedPacketEntriesIterator = this.buffer.iterator();
-        while (bufferedPacketEntriesIterator.hasNext()) {
-            TLinkBufferEntry bufferedPacketEntry = (TLinkBufferEntry) bufferedPacketEntriesIterator.next();
-            // FIX: Do not use harcoded values. Use constants class instead.
-            if (bufferedPacketEntry.getRemainingTransitDelay() <= 0) {
-                this.deliveredPacketEntriesLock.setRed();
-                this.deliveredPacketsBuffer.add(bufferedPacketEntry);
-                this.deliveredPacketEntriesLock.setGreen();
-            }
-        }
-        bufferedPacketEntriesIterator = this.buffer.iterator();
-        while (bufferedPacketEntriesIterator.hasNext()) {
-            TLinkBufferEntry bufferedPacketEntry = (TLinkBufferEntry) bufferedPacketEntriesIterator.next();
-            // FIX: Do not use harcoded values. Use constants class instead.
-            if (bufferedPacketEntry.getRemainingTransitDelay() <= 0) {
-                bufferedPacketEntriesIterator.remove();
-            }
-        }
+        this.deliveredPacketEntriesLock.setRed();
+        this.buffer.pollDeliveredEntries(this.deliveredPacketsBuffer);
+        this.deliveredPacketEntriesLock.setGreen();
         this.packetsInTransitEntriesLock.setGreen();
     }
 
@@ -463,14 +484,10 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
     @Override
     public void reset() {
         this.packetsInTransitEntriesLock.setRed();
-        Iterator bufferedPacketEntriesIterator = this.buffer.iterator();
-        while (bufferedPacketEntriesIterator.hasNext()) {
-            bufferedPacketEntriesIterator.next();
-            bufferedPacketEntriesIterator.remove();
-        }
+        this.buffer.clear();
         this.packetsInTransitEntriesLock.setGreen();
         this.deliveredPacketEntriesLock.setRed();
-        bufferedPacketEntriesIterator = this.deliveredPacketsBuffer.iterator();
+        Iterator bufferedPacketEntriesIterator = this.deliveredPacketsBuffer.iterator();
         while (bufferedPacketEntriesIterator.hasNext()) {
             bufferedPacketEntriesIterator.next();
             bufferedPacketEntriesIterator.remove();
@@ -509,6 +526,8 @@ public class TInternalLink extends TLink implements ITimerEventListener, Runnabl
         return rabanWeight;
     }
 
+    private static final long serialVersionUID = 1L;
+
     private int numberOfLSPs;
     private int numberOfBackupLSPs;
     private long stepLength;
@@ -22,8 +22,8 @@ import com.manolodominguez.opensimmpls.hardware.ports.TPortSet;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
 import java.awt.Point;
-import java.util.Collections;
-import java.util.SortedSet;
+import java.awt.Rectangle;
+import java.util.Collection;
 import java.util.TreeSet;
 
 /**
@@ -57,12 +57,15 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
         this.delay = 1;
         this.headEndNodePortID = -1;
         this.tailEndNodePortID = -1;
-        this.buffer = Collections.synchronizedSortedSet(new TreeSet<>());
+        this.buffer = new TLinkTransitQueue();
         this.deliveredPacketsBuffer = new TreeSet<>();
         this.packetsInTransitEntriesLock = new TSemaphore();
         this.deliveredPacketEntriesLock = new TSemaphore();
         this.topology = topology;
         this.linkIsBroken = false;
+        this.partitionedTransitClockInstant = TLink.NOT_PARTITIONED;
+        this.headEndNodeTransitStartInstant = TLink.NOT_PARTITIONED;
+        this.tailEndNodeTransitStartInstant = TLink.NOT_PARTITIONED;
     }
 
     /**
@@ -260,6 +263,10 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
         } else {
             this.delay = delay;
         }
+        if (this.topology != null) {
+            this.topology.invalidateFloydWarshallRoutes();
+            this.topology.invalidateScreenAppearance();
+        }
     }
 
     /**
@@ -304,6 +311,9 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
      */
     public void setName(String name) {
         this.name = name;
+        if (this.topology != null) {
+            this.topology.invalidateScreenAppearance();
+        }
     }
 
     /**
@@ -328,6 +338,9 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
      */
     public void setShowName(boolean showName) {
         this.showName = showName;
+        if (this.topology != null) {
+            this.topology.invalidateScreenAppearance();
+        }
     }
 
     /**
@@ -363,6 +376,10 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
      */
     public void setHeadEndNode(TNode headEndNode) {
         this.headEndNode = headEndNode;
+        if (this.topology != null) {
+            this.topology.invalidateFloydWarshallRoutes();
+            this.topology.updateSpatialIndex(this);
+        }
     }
 
     /**
@@ -376,6 +393,23 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
         return this.tailEndNode;
     }
 
+    /**
+     * This method tells the timer that the nodes connected to both ends of
+     * this link have work to do. They have to check their connectivity when
+     * this link breaks, although they were idle.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    protected void activateEndNodes() {
+        if (this.headEndNode != null) {
+            this.headEndNode.joinActiveSet();
+        }
+        if (this.tailEndNode != null) {
+            this.tailEndNode.joinActiveSet();
+        }
+    }
+
     /**
      * This method sets the node to be connected to the head end of this link.
      *
@@ -385,6 +419,10 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
      */
     public void setTailEndNode(TNode tailEndNode) {
         this.tailEndNode = tailEndNode;
+        if (this.topology != null) {
+            this.topology.invalidateFloydWarshallRoutes();
+            this.topology.updateSpatialIndex(this);
+        }
     }
 
     /**
@@ -513,11 +551,112 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
      * @since 2.0
      */
     public void deliverPacketToNode(TAbstractPDU packet, int endNode) {
+        TLinkBufferEntry linkBufferEntry = new TLinkBufferEntry(packet, this.getDelay(), endNode);
+        long transitClockInstant = this.partitionedTransitClockInstant;
+        if (transitClockInstant != TLink.NOT_PARTITIONED) {
+            // The packet starts its transit when the sender node says, that
+            // is behind the clock of the link.
+            long startOfTransit = this.headEndNodeTransitStartInstant;
+            if (endNode == TLink.HEAD_END_NODE) {
+                startOfTransit = this.tailEndNodeTransitStartInstant;
+            }
+            linkBufferEntry.substractStepFromRemainingDelay(transitClockInstant - startOfTransit);
+        }
+        this.packetsInTransitEntriesLock.setRed();
+        this.buffer.add(linkBufferEntry);
+        this.packetsInTransitEntriesLock.setGreen();
+        this.joinActiveSet();
+    }
+
+    /**
+     * This method sets the simulation instant the transit clock of this link
+     * represents when the link connects two partitions of a partitioned
+     * simulation. In that case the link does not work in each tick. Instead,
+     * the timer advances its packets in transit at once for a window of ticks
+     * where packets sent through the link cannot reach their destination, so
+     * the clock of the link is ahead of the nodes at both ends, that work
+     * independently. Packets sent by them are put in transit taking into
+     * account this difference and the instant set for the sender end by
+     * setPartitionedTransitStartInstant().
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param transitClockInstant the simulation instant, in nanoseconds, the
+     * transit clock of this link represents, or TLink.NOT_PARTITIONED if this
+     * link works tick by tick.
+     * @since 2.0
+     */
+    public void setPartitionedTransitClockInstant(long transitClockInstant) {
+        this.partitionedTransitClockInstant = transitClockInstant;
+    }
+
+    /**
+     * This method sets the simulation instant packets sent by the node at the
+     * specified end of this link start their transit, when the link connects
+     * two partitions of a partitioned simulation. It is the start of the
+     * current tick of that node or, once the link would have worked in that
+     * tick, its end, as packets sent after the link has advanced its packets
+     * in transit wait for the next tick.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param senderEnd TLink.TAIL_END_NODE or TLink.HEAD_END_NODE, depending on
+     * whether the sender node is connected to the tail end of the link or to
+     * the head end, respectively.
+     * @param transitStartInstant the simulation instant, in nanoseconds,
+     * packets sent by that node start their transit.
+     * @since 2.0
+     */
+    public void setPartitionedTransitStartInstant(int senderEnd, long transitStartInstant) {
+        if (senderEnd == TLink.HEAD_END_NODE) {
+            this.headEndNodeTransitStartInstant = transitStartInstant;
+        } else {
+            this.tailEndNodeTransitStartInstant = transitStartInstant;
+        }
+    }
+
+    /**
+     * This method advances the packets in transit through this link as a tick
+     * of the specified duration would do and removes those that reach their
+     * destination. It is used by the timer in a partitioned simulation, where
+     * packets are delivered by the partition of the destination node.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param nanoseconds the duration of the tick.
+     * @param deliveredEntries the collection where entries of packets that
+     * have reached their destination are added.
+     * @since 2.0
+     */
+    public void advancePartitionedTransit(long nanoseconds, Collection<TLinkBufferEntry> deliveredEntries) {
         this.packetsInTransitEntriesLock.setRed();
-        this.buffer.add(new TLinkBufferEntry(packet, this.getDelay(), endNode));
+        this.buffer.advance(nanoseconds);
+        this.buffer.pollDeliveredEntries(deliveredEntries);
         this.packetsInTransitEntriesLock.setGreen();
     }
 
+    /**
+     * This method gets the number of nanoseconds that have to elapse before a
+     * packet in transit through this link reaches its destination node.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of nanoseconds until the first packet in transit
+     * reaches its destination node, zero if there are packets waiting to be
+     * delivered or TTopologyElement.NO_PENDING_EVENTS if there is not any
+     * packet in transit.
+     * @since 2.0
+     */
+    @Override
+    public long getNanosecondsToNextEvent() {
+        long nanosecondsToNextEvent = TTopologyElement.NO_PENDING_EVENTS;
+        this.deliveredPacketEntriesLock.setRed();
+        if (!this.deliveredPacketsBuffer.isEmpty()) {
+            nanosecondsToNextEvent = TLink.ZERO;
+        }
+        this.deliveredPacketEntriesLock.setGreen();
+        this.packetsInTransitEntriesLock.setRed();
+        nanosecondsToNextEvent = Math.min(nanosecondsToNextEvent, this.buffer.getNanosecondsToNextDelivery());
+        this.packetsInTransitEntriesLock.setGreen();
+        return nanosecondsToNextEvent;
+    }
+
     /**
      * This method gets the current number of packet in tranit through this link
      * that have not reached their destionation yet.
@@ -546,48 +685,47 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
      */
     public boolean crossesScreenPosition(Point screenPosition) {
         // FIX: Use class constants instead of harcoded values.
-        int x1 = this.headEndNode.getScreenPosition().x + 24;
-        int y1 = this.headEndNode.getScreenPosition().y + 24;
-        int x2 = this.tailEndNode.getScreenPosition().x + 24;
-        int y2 = this.tailEndNode.getScreenPosition().y + 24;
-        int dx, dy, steps, k;
-        double incrementX, incrementY, x, y;
-
-        if ((x1 == x2) && (y1 == y2)) // Lines that are a single point.
-        {
-            if ((screenPosition.x == x1) && (screenPosition.y == y1)) {
-                return true;
-            }
-        } else // Rest of lines.
-        {
-            dx = x2 - x1;
-            dy = y2 - y1;
-            if (Math.abs(dx) > Math.abs(dy)) {
-                steps = Math.abs(dx);
-            } else {
-                steps = Math.abs(dy);
-            }
-            incrementX = (float) dx / steps;
-            incrementY = (float) dy / steps;
-            x = x1;
-            y = y1;
+        double x1 = this.headEndNode.getScreenPosition().x + 24;
+        double y1 = this.headEndNode.getScreenPosition().y + 24;
+        double x2 = this.tailEndNode.getScreenPosition().x + 24;
+        double y2 = this.tailEndNode.getScreenPosition().y + 24;
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = (dx * dx) + (dy * dy);
+        // The closest point of the segment to the screen position, as a
+        // fraction of the way from the head end to the tail end.
+        double fraction = 0.0;
+        if (lengthSquared > 0.0) {
+            fraction = (((screenPosition.x - x1) * dx) + ((screenPosition.y - y1) * dy)) / lengthSquared;
+            fraction = Math.max(0.0, Math.min(1.0, fraction));
+        }
+        double distanceX = screenPosition.x - (x1 + (fraction * dx));
+        double distanceY = screenPosition.y - (y1 + (fraction * dy));
+        return ((distanceX * distanceX) + (distanceY * distanceY)) <= (SELECTION_TOLERANCE * SELECTION_TOLERANCE);
+    }
 
-            // FIX: Use class constants instead of harcoded values.
-            if ((x >= screenPosition.x - 3) && (x <= screenPosition.x + 3)
-                    && (y >= screenPosition.y - 3) && (y <= screenPosition.y + 3)) {
-                return true;
-            }
-            for (k = 1; k <= steps; k++) {
-                x += incrementX;
-                y += incrementY;
-                // FIX: Use class constants instead of harcoded values.
-                if ((x >= screenPosition.x - 3) && (x <= screenPosition.x + 3)
-                        && (y >= screenPosition.y - 3) && (y <= screenPosition.y + 3)) {
-                    return true;
-                }
-            }
+    /**
+     * This method gets the smallest rectangle, in screen coordinates, that
+     * contains every screen position that correspond to this link, as checked
+     * by crossesScreenPosition().
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the screen bounds of the link, or null if any of its ends is not
+     * connected to a node yet.
+     * @since 2.0
+     */
+    public Rectangle getScreenBounds() {
+        if ((this.headEndNode == null) || (this.tailEndNode == null)) {
+            return null;
         }
-        return false;
+        // FIX: Use class constants instead of harcoded values.
+        Rectangle screenBounds = new Rectangle(this.headEndNode.getScreenPosition().x + 24, this.headEndNode.getScreenPosition().y + 24, 0, 0);
+        screenBounds.add(this.tailEndNode.getScreenPosition().x + 24, this.tailEndNode.getScreenPosition().y + 24);
+        // Rectangles do not contain their right and bottom edges.
+        screenBounds.grow(SELECTION_TOLERANCE, SELECTION_TOLERANCE);
+        screenBounds.width++;
+        screenBounds.height++;
+        return screenBounds;
     }
 
     /**
@@ -636,6 +774,8 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
         return TLink.HEAD_END_NODE;
     }
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * This method gets the link type. It should be implemented by subclasses.
      *
@@ -761,6 +901,7 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
     public static final int EXTERNAL_LINK = 1;
     public static final int HEAD_END_NODE = 1;
     public static final int TAIL_END_NODE = 2;
+    public static final long NOT_PARTITIONED = -1L;
 
     private int identifier;
     private TNode headEndNode;
@@ -771,12 +912,18 @@ public abstract class TLink extends TTopologyElement implements Comparable, ITim
     private boolean showName;
     private int delay;
 
-    protected SortedSet<TLinkBufferEntry> buffer;
+    protected TLinkTransitQueue buffer;
     protected TreeSet<TLinkBufferEntry> deliveredPacketsBuffer;
     protected TSemaphore packetsInTransitEntriesLock;
     protected TSemaphore deliveredPacketEntriesLock;
     protected TTopology topology;
     protected boolean linkIsBroken;
+    private volatile long partitionedTransitClockInstant;
+    private volatile long headEndNodeTransitStartInstant;
+    private volatile long tailEndNodeTransitStartInstant;
+
+    private static final long ZERO = 0L;
+    private static final int SELECTION_TOLERANCE = 3;
 
     public static final int OK = 0;
     public static final int UNNAMED = 1;
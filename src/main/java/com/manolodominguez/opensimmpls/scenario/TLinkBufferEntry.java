@@ -16,6 +16,7 @@
 package com.manolodominguez.opensimmpls.scenario;
 
 import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
+import java.io.Serializable;
 
 /**
  * This class implements a TLinkBufferEntry that allow simulation of the transit
@@ -24,7 +25,7 @@ import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TLinkBufferEntry implements Comparable {
+public class TLinkBufferEntry implements Comparable, Serializable {
 
     /**
      * This is the constructor of the class. It creates a new instance of
@@ -179,8 +180,67 @@ public class TLinkBufferEntry implements Comparable {
         return this.packetEnd;
     }
 
+    /**
+     * This method sets the remaining transit delay the packet has to be in the
+     * link before being delivered to the target node (in nanoseconds).
+     *
+     * @param remainingTransitDelay the remaining transit delay, in
+     * nanoseconds.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void setRemainingTransitDelay(long remainingTransitDelay) {
+        this.remainingTransitDelay = remainingTransitDelay;
+    }
+
+    /**
+     * This method sets the instant, measured by the clock of the link, when
+     * the packet reaches the target node, and the order in which this entry
+     * was added to the link. It is used by the link to sort packets in
+     * transit.
+     *
+     * @param deliveryInstant the instant when the packet reaches the target
+     * node, in nanoseconds.
+     * @param sequenceNumber the order in which this entry was added to the
+     * link.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void setDeliveryInstant(long deliveryInstant, long sequenceNumber) {
+        this.deliveryInstant = deliveryInstant;
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    /**
+     * This method gets the instant, measured by the clock of the link, when
+     * the packet reaches the target node.
+     *
+     * @return the instant when the packet reaches the target node, in
+     * nanoseconds.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    long getDeliveryInstant() {
+        return this.deliveryInstant;
+    }
+
+    /**
+     * This method gets the order in which this entry was added to the link.
+     *
+     * @return the order in which this entry was added to the link.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    long getSequenceNumber() {
+        return this.sequenceNumber;
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private TAbstractPDU packet;
     private int packetEnd;
     private long remainingTransitDelay;
     private long initialTotalTransitDelay;
+    private long deliveryInstant;
+    private long sequenceNumber;
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * This class implements the set of packets in transit through a link. Instead
+ * of decreasing the remaining transit delay of every packet in each tick, it
+ * keeps a clock with the time elapsed in the link and stores, for each packet,
+ * the instant of that clock when the packet reaches its destination. Packets
+ * are sorted by that instant, so advancing the clock is a constant time
+ * operation and getting the packets that have reached their destination only
+ * costs work for those packets, whatever the number of packets in transit.
+ * This class is not thread safe; the link is in charge of synchronizing
+ * accesses.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+class TLinkTransitQueue implements Iterable<TLinkBufferEntry>, Serializable {
+
+    /**
+     * This method is the constructor of the class. It creates a new empty
+     * instance of TLinkTransitQueue.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    TLinkTransitQueue() {
+        this.entries = new PriorityQueue<>(INITIAL_CAPACITY, DELIVERY_ORDER);
+        this.elapsedNanoseconds = ZERO;
+        this.sequenceNumber = ZERO;
+    }
+
+    /**
+     * This method adds a packet to the set of packets in transit. The packet
+     * will reach its destination when the clock of the link has advanced the
+     * remaining transit delay of the specified entry.
+     *
+     * @param linkBufferEntry the entry of the packet that starts its transit
+     * through the link.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void add(TLinkBufferEntry linkBufferEntry) {
+        linkBufferEntry.setDeliveryInstant(this.elapsedNanoseconds + linkBufferEntry.getRemainingTransitDelay(), this.sequenceNumber++);
+        this.entries.add(linkBufferEntry);
+    }
+
+    /**
+     * This method advances the clock of the link.
+     *
+     * @param nanoseconds the number of nanoseconds to advance.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void advance(long nanoseconds) {
+        this.elapsedNanoseconds += nanoseconds;
+    }
+
+    /**
+     * This method removes all the packets that have reached their destination
+     * and adds them to the specified collection.
+     *
+     * @param deliveredEntries the collection where entries of packets that
+     * have reached their destination are added.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void pollDeliveredEntries(Collection<TLinkBufferEntry> deliveredEntries) {
+        TLinkBufferEntry linkBufferEntry = this.entries.peek();
+        while ((linkBufferEntry != null) && (linkBufferEntry.getDeliveryInstant() <= this.elapsedNanoseconds)) {
+            this.entries.poll();
+            this.updateRemainingTransitDelay(linkBufferEntry);
+            deliveredEntries.add(linkBufferEntry);
+            linkBufferEntry = this.entries.peek();
+        }
+    }
+
+    /**
+     * This method gets the number of nanoseconds that have to elapse before
+     * the first packet in transit reaches its destination.
+     *
+     * @return the number of nanoseconds until the first packet reaches its
+     * destination, or TTopologyElement.NO_PENDING_EVENTS if there is not any
+     * packet in transit.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    long getNanosecondsToNextDelivery() {
+        TLinkBufferEntry linkBufferEntry = this.entries.peek();
+        if (linkBufferEntry == null) {
+            return TTopologyElement.NO_PENDING_EVENTS;
+        }
+        return Math.max(ZERO, linkBufferEntry.getDeliveryInstant() - this.elapsedNanoseconds);
+    }
+
+    /**
+     * This method gets the number of packets in transit.
+     *
+     * @return the number of packets in transit.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * This method checks whether there is any packet in transit.
+     *
+     * @return TRUE, if there is not any packet in transit. Otherwise, FALSE.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * This method removes all the packets in transit and resets the clock of
+     * the link.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    void clear() {
+        this.entries.clear();
+        this.elapsedNanoseconds = ZERO;
+        this.sequenceNumber = ZERO;
+    }
+
+    /**
+     * This method gets an iterator over the packets in transit, in no
+     * particular order. The remaining transit delay of each entry is updated
+     * as the entry is returned by the iterator.
+     *
+     * @return an iterator over the packets in transit.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    public Iterator<TLinkBufferEntry> iterator() {
+        final Iterator<TLinkBufferEntry> entriesIterator = this.entries.iterator();
+        return new Iterator<TLinkBufferEntry>() {
+            @Override
+            public boolean hasNext() {
+                return entriesIterator.hasNext();
+            }
+
+            @Override
+            public TLinkBufferEntry next() {
+                TLinkBufferEntry linkBufferEntry = entriesIterator.next();
+                updateRemainingTransitDelay(linkBufferEntry);
+                return linkBufferEntry;
+            }
+
+            @Override
+            public void remove() {
+                entriesIterator.remove();
+            }
+        };
+    }
+
+    private void updateRemainingTransitDelay(TLinkBufferEntry linkBufferEntry) {
+        linkBufferEntry.setRemainingTransitDelay(Math.max(ZERO, linkBufferEntry.getDeliveryInstant() - this.elapsedNanoseconds));
+    }
+
+    private static final long ZERO = 0L;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Comparator<TLinkBufferEntry> DELIVERY_ORDER = new TDeliveryOrder();
+
+    /**
+     * This class implements the order in which packets in transit reach their
+     * destination. It is serializable so that the queue can be checkpointed.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @version 2.0
+     */
+    private static final class TDeliveryOrder implements Comparator<TLinkBufferEntry>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int compare(TLinkBufferEntry linkBufferEntry1, TLinkBufferEntry linkBufferEntry2) {
+            int result = Long.compare(linkBufferEntry1.getDeliveryInstant(), linkBufferEntry2.getDeliveryInstant());
+            if (result == ZERO) {
+                result = Long.compare(linkBufferEntry1.getSequenceNumber(), linkBufferEntry2.getSequenceNumber());
+            }
+            return result;
+        }
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final PriorityQueue<TLinkBufferEntry> entries;
+    private long elapsedNanoseconds;
+    private long sequenceNumber;
+}
@@ -23,6 +23,7 @@ import com.manolodominguez.opensimmpls.hardware.ports.TPortSet;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
 import java.awt.Point;
+import java.awt.Rectangle;
 
 /**
  * This class implements a node of the topology. It is an abstract class that
@@ -61,6 +62,7 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
         this.availableNanoseconds = 0;
         this.tickNanoseconds = 0;
         this.ticksWithoutEmittingBeforeAlert = 0;
+        this.lastIdleTimeInstantGrouped = 0;
     }
 
     /**
@@ -149,6 +151,9 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
      */
     public void setName(String name) {
         this.name = name;
+        if (this.topology != null) {
+            this.topology.invalidateScreenAppearance();
+        }
     }
 
     /**
@@ -194,6 +199,23 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
     public void setScreenPosition(Point screenPosition) {
         this.screenPosition.x = screenPosition.x - (TNode.ICONS_WIDTH / 2);
         this.screenPosition.y = screenPosition.y - (TNode.ICONS_HEIGHT / 2);
+        if (this.topology != null) {
+            this.topology.updateSpatialIndex(this);
+        }
+    }
+
+    /**
+     * This method gets the smallest rectangle, in screen coordinates, that
+     * contains every screen position that match the position of the node, as
+     * checked by isInScreenPosition().
+     *
+     * @return the screen bounds of the node.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public Rectangle getScreenBounds() {
+        // Rectangles do not contain their right and bottom edges.
+        return new Rectangle(this.screenPosition.x, this.screenPosition.y, TNode.ICONS_WIDTH + 1, TNode.ICONS_HEIGHT + 1);
     }
 
     /**
@@ -236,6 +258,9 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
      */
     public void setSelected(int selected) {
         this.selected = selected;
+        if (this.topology != null) {
+            this.topology.invalidateScreenAppearance();
+        }
     }
 
     /**
@@ -253,6 +278,9 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
         } else {
             this.showName = showName;
         }
+        if (this.topology != null) {
+            this.topology.invalidateScreenAppearance();
+        }
     }
 
     /**
@@ -288,6 +316,9 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
      */
     public void setIPv4Address(String ipv4Address) {
         this.ipv4Address = ipv4Address;
+        if (this.topology != null) {
+            this.topology.invalidateFloydWarshallRoutes();
+        }
     }
 
     /**
@@ -308,6 +339,9 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
      * @since 2.0
      */
     public synchronized void putPacket(TAbstractPDU packet, int portID) {
+        // The port updates the stats of the node, so an idle node has to
+        // catch up with the stats of the ticks it has missed before.
+        this.joinActiveSet();
         lock.setRed();
         this.ports.getPort(portID).addPacket(packet);
         lock.setGreen();
@@ -348,6 +382,60 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
         return this.ticksWithoutEmittingBeforeAlert;
     }
 
+    /**
+     * This method catches up with the ticks this node has been idle, without
+     * receiving timer events, if any. The state of the node is left as if it
+     * had received those timer events with nothing to switch: the time
+     * available for switching is that of the last idle tick. Subclasses with
+     * their own timers extend this behaviour. It has to be called when a timer
+     * event is received, before using it.
+     *
+     * @param timerEvent the timer event that has just been received.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    protected void catchUpWithIdleTicks(TTimerEvent timerEvent) {
+        if (timerEvent.getIdleNanoseconds() > TNode.ZERO) {
+            this.resetTicksWithoutEmitting();
+            this.increaseTicksWithoutEmitting();
+            this.availableNanoseconds = timerEvent.getLastIdleTickDurationInNs();
+        }
+    }
+
+    /**
+     * This method groups the stats of this node at the end of each regular
+     * tick it has been idle, without receiving timer events, up to the
+     * specified time instant. In the default mode, nodes group their stats at
+     * the end of every tick, even when they have nothing to do; as stats are
+     * cumulative, the stats of an idle node have to be grouped before anything
+     * changes them and before the node receives its next timer event. Ticks
+     * whose stats have already been grouped are skipped.
+     *
+     * @param lastTimeInstant the last time instant whose stats can be grouped.
+     * @param tickInNs the length of the regular tick of the timer.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public synchronized void groupStatsOfIdleTimeInstants(long lastTimeInstant, int tickInNs) {
+        long firstTimeInstant = Math.max(this.getCurrentTimeInstant(), this.lastIdleTimeInstantGrouped) + tickInNs;
+        if (firstTimeInstant <= lastTimeInstant) {
+            long lastTimeInstantOfTheGrid = firstTimeInstant + (((lastTimeInstant - firstTimeInstant) / tickInNs) * tickInNs);
+            this.getStats().groupStatsByTimeInstants(firstTimeInstant, lastTimeInstantOfTheGrid, tickInNs);
+            this.lastIdleTimeInstantGrouped = lastTimeInstantOfTheGrid;
+        }
+    }
+
+    /**
+     * This method forgets the idle ticks whose stats have been grouped, as
+     * when a simulation starts.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public synchronized void resetIdleTimeInstantsGrouped() {
+        this.lastIdleTimeInstantGrouped = TNode.ZERO;
+    }
+
     /**
      * This method discard a packet from this node.
      *
@@ -366,6 +454,26 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
      */
     public abstract TPortSet getPorts();
 
+    /**
+     * This method gets the number of nanoseconds this node can stay idle. A
+     * node has work to do as soon as there are packets waiting in its ports.
+     * Subclasses with their own timers extend this behaviour.
+     *
+     * @return zero if there are packets to be switched in the ports of this
+     * node. Otherwise, TTopologyElement.NO_PENDING_EVENTS.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    public long getNanosecondsToNextEvent() {
+        if (this.getPorts().isThereAnyPacketPending()) {
+            return TNode.ZERO;
+        }
+        return TTopologyElement.NO_PENDING_EVENTS;
+    }
+
+    private static final long serialVersionUID = 1L;
+
     /**
      * This method receives a timer event to do things. It should be implemented
      * by subclasses.
@@ -524,6 +632,7 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
 
     private static final int ICONS_WIDTH = 48;
     private static final int ICONS_HEIGHT = 48;
+    private static final long ZERO = 0L;
 
     public static final int TRAFFIC_GENERATOR = 0;
     public static final int TRAFFIC_SINK = 1;
@@ -554,6 +663,7 @@ public abstract class TNode extends TTopologyElement implements Comparable, ITim
     private boolean generateStatistics;
     // FIX: Do not use harcoded values. Use class constant.
     private int ticksWithoutEmittingBeforeAlert = 0;
+    private long lastIdleTimeInstantGrouped;
 
     protected TPortSet ports;
     protected TTopology topology;
@@ -17,6 +17,9 @@ package com.manolodominguez.opensimmpls.scenario;
 
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
 
 /**
@@ -26,7 +29,7 @@ import java.util.ResourceBundle;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TScenario {
+public class TScenario implements Serializable {
 
     /**
      * This is the constructor of the class. It creates a new instance of
@@ -372,6 +375,13 @@ public class TScenario {
         return this.modified;
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.SCENARIO.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private String title;
     private String author;
     private String description;
@@ -380,5 +390,5 @@ public class TScenario {
     private File scenarioFile;
     private boolean alreadySaved;
     private boolean modified;
-    private ResourceBundle translations;
+    private transient ResourceBundle translations;
 }
@@ -16,7 +16,11 @@
 package com.manolodominguez.opensimmpls.scenario;
 
 import com.manolodominguez.opensimmpls.gui.simulator.JSimulationPanel;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TBackpressurePolicy;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventBus;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventListener;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventSubscription;
+import java.io.Serializable;
 
 /**
  * This class implements a container of simulation events that also link the
@@ -26,7 +30,7 @@ import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEven
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TSimulation {
+public class TSimulation implements Serializable {
 
     /**
      * This is the constructor of the class. It creates a new instance of
@@ -39,7 +43,9 @@ public class TSimulation {
      */
     public TSimulation(TScenario scenario) {
         this.parentScenario = scenario;
+        this.simulationEventBus = new TSimulationEventBus();
         this.simulationEventListener = new TSimulationEventListener();
+        this.simulationPanelSubscription = null;
         // FIX: Use class constants instead of harcoded values.
         this.simulationLengthInNs = 500;
         this.simulationTickDurationInNs = 1;
@@ -47,15 +53,25 @@ public class TSimulation {
 
     /**
      * This method sets the simulation panel that will be the place where visual
-     * representation of simulation events will happen.
+     * representation of simulation events will happen. The simulation event
+     * listener that feeds the simulation panel is subscribed to the simulation
+     * event bus while there is a simulation panel, with a BLOCK policy so that
+     * the simulation does not go further than what the panel can display.
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @param simulationPanel the simulation panel that will be the place where
-     * visual representation of simulation events will happen.
+     * visual representation of simulation events will happen, or null to stop
+     * displaying simulation events.
      * @since 2.0
      */
-    public void setSimulationPanel(JSimulationPanel simulationPanel) {
+    public synchronized void setSimulationPanel(JSimulationPanel simulationPanel) {
         this.simulationEventListener.setSimulationPanel(simulationPanel);
+        if ((simulationPanel != null) && (this.simulationPanelSubscription == null)) {
+            this.simulationPanelSubscription = this.simulationEventBus.subscribe(this.simulationEventListener, TBackpressurePolicy.BLOCK);
+        } else if ((simulationPanel == null) && (this.simulationPanelSubscription != null)) {
+            this.simulationEventBus.unsubscribe(this.simulationPanelSubscription);
+            this.simulationPanelSubscription = null;
+        }
     }
 
     /**
@@ -66,6 +82,7 @@ public class TSimulation {
      * @since 2.0
      */
     public void reset() {
+        this.simulationEventBus.discardPendingEvents();
         this.simulationEventListener.reset();
     }
 
@@ -164,9 +181,26 @@ public class TSimulation {
         return this.simulationEventListener;
     }
 
+    /**
+     * This methods gets the simulation event bus where topology elements
+     * publish their simulation events. Any number of listeners can subscribe
+     * to it, for instance to display, trace or aggregate simulation events.
+     *
+     * @return the simulation event bus of the scenario.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TSimulationEventBus getSimulationEventBus() {
+        return this.simulationEventBus;
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private long simulationLengthInNs;
     private long simulationTickDurationInNs;
 
     private TScenario parentScenario;
     private TSimulationEventListener simulationEventListener;
+    private TSimulationEventBus simulationEventBus;
+    private transient TSimulationEventSubscription simulationPanelSubscription;
 }
@@ -16,6 +16,7 @@
 package com.manolodominguez.opensimmpls.scenario;
 
 import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
+import java.io.Serializable;
 import java.util.ResourceBundle;
 import org.jfree.data.general.AbstractDataset;
 
@@ -26,7 +27,7 @@ import org.jfree.data.general.AbstractDataset;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public abstract class TStats {
+public abstract class TStats implements Serializable {
 
     /**
      * This is the constructor of the class. As this class is abstract it will
@@ -37,6 +38,7 @@ public abstract class TStats {
      */
     public TStats() {
         this.statsEnabled = false;
+        this.statEntriesAdded = false;
     }
 
     /**
@@ -50,6 +52,8 @@ public abstract class TStats {
         this.statsEnabled = statsEnabled;
     }
 
+    private static final long serialVersionUID = 1L;
+
     /**
      * This method is abstract; once implemented will return the dataset #1 of
      * the TStats that can be represented in a GUI or used by any other
@@ -203,6 +207,29 @@ public abstract class TStats {
      */
     public abstract void groupStatsByTimeInstant(long timeInstant);
 
+    /**
+     * This method groups the latest data added by each time instant of a
+     * range of the regular tick grid, during which nothing has been added,
+     * holding the lock of this TStats only once. Until the first stat entry
+     * is added, grouping them is not different from grouping the first time
+     * instant only, so the rest of the range is skipped.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param firstTimeInstant the first time instant of the range.
+     * @param lastTimeInstant the last time instant of the range.
+     * @param tickInNs the distance between consecutive time instants of the
+     * range.
+     * @since 2.0
+     */
+    public synchronized void groupStatsByTimeInstants(long firstTimeInstant, long lastTimeInstant, int tickInNs) {
+        groupStatsByTimeInstant(firstTimeInstant);
+        if (this.statEntriesAdded) {
+            for (long timeInstant = firstTimeInstant + tickInNs; timeInstant <= lastTimeInstant; timeInstant += tickInNs) {
+                groupStatsByTimeInstant(timeInstant);
+            }
+        }
+    }
+
     /**
      * This abstract method, once implemented will get the number of datasets
      * that are available.
@@ -222,6 +249,7 @@ public abstract class TStats {
     public abstract void reset();
 
     protected boolean statsEnabled;
+    protected boolean statEntriesAdded;
 
     // Strings related to stats.
     public static final String IPV4 = java.util.ResourceBundle.getBundle("com/manolodominguez/opensimmpls/resources/translations/translations").getString("TEstadisticas.IPv4");
@@ -15,15 +15,17 @@
  */
 package com.manolodominguez.opensimmpls.scenario;
 
-import com.manolodominguez.opensimmpls.scenario.simulationevents.ESimulationSingleSubscriber;
 import com.manolodominguez.opensimmpls.hardware.timer.TTimer;
 import com.manolodominguez.opensimmpls.commons.TIPv4AddressGenerator;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
 import com.manolodominguez.opensimmpls.commons.TIDGenerator;
 import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
 import java.awt.Point;
+import java.io.Serializable;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class implements a network topology: nodes, links and the required
@@ -34,7 +36,7 @@ import java.util.TreeSet;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TTopology {
+public class TTopology implements Serializable {
 
     /**
      * This is the constructor of the class. It creates a new instance of
@@ -54,6 +56,10 @@ public class TTopology {
         this.ipv4AddressGenerator = new TIPv4AddressGenerator();
         this.floydWarshallAlgorithmLock = new TSemaphore();
         this.rabanAlgorithmLock = new TSemaphore();
+        this.floydWarshallRoutes = null;
+        this.floydWarshallRoutesVersion = new AtomicLong();
+        this.screenAppearanceVersion = new AtomicLong();
+        this.spatialIndex = new TTopologySpatialIndex();
     }
 
     /**
@@ -79,6 +85,8 @@ public class TTopology {
         }
         this.timer.reset();
         this.eventIDGenerator.reset();
+        this.invalidateFloydWarshallRoutes();
+        this.invalidateScreenAppearance();
         this.floydWarshallAlgorithmLock.setGreen();
         this.rabanAlgorithmLock.setGreen();
     }
@@ -92,12 +100,11 @@ public class TTopology {
      */
     public void addNode(TNode node) {
         this.nodes.add(node);
+        this.getSpatialIndex().addNode(node);
         this.timer.addTimerEventListener(node);
-        try {
-            node.addSimulationListener(this.parentScenario.getSimulation().getSimulationEventListener());
-        } catch (ESimulationSingleSubscriber e) {
-            System.out.println(e.toString());
-        }
+        this.invalidateFloydWarshallRoutes();
+        this.invalidateScreenAppearance();
+        node.setSimulationEventBus(this.parentScenario.getSimulation().getSimulationEventBus());
     }
 
     /**
@@ -118,10 +125,13 @@ public class TTopology {
             if (node.getNodeID() == nodeID) {
                 node.markForDeletionAsTimerEventListener(true);
                 nodesIterator.remove();
+                this.getSpatialIndex().remove(node);
                 done = true;
             }
         }
         this.timer.purgeTimerEventListenersMarkedForDeletion();
+        this.invalidateFloydWarshallRoutes();
+        this.invalidateScreenAppearance();
     }
 
     /**
@@ -306,15 +316,7 @@ public class TTopology {
      * @since 2.0
      */
     public TNode getNodeInScreenPosition(Point screenPosition) {
-        TNode node = null;
-        Iterator nodesIterator = this.nodes.iterator();
-        while (nodesIterator.hasNext()) {
-            node = (TNode) nodesIterator.next();
-            if (node.isInScreenPosition(screenPosition)) {
-                return node;
-            }
-        }
-        return null;
+        return this.getSpatialIndex().getNodeInScreenPosition(screenPosition);
     }
 
     /**
@@ -383,12 +385,11 @@ public class TTopology {
      */
     public void addLink(TLink link) {
         this.links.add(link);
+        this.getSpatialIndex().addLink(link);
         this.timer.addTimerEventListener(link);
-        try {
-            link.addSimulationListener(this.parentScenario.getSimulation().getSimulationEventListener());
-        } catch (ESimulationSingleSubscriber e) {
-            System.out.println(e.toString());
-        }
+        this.invalidateFloydWarshallRoutes();
+        this.invalidateScreenAppearance();
+        link.setSimulationEventBus(this.parentScenario.getSimulation().getSimulationEventBus());
     }
 
     /**
@@ -410,10 +411,13 @@ public class TTopology {
                 // FIX: Do not use harcoded values; use class constants instead.
                 link.markForDeletionAsTimerEventListener(true);
                 linksIterator.remove();
+                this.getSpatialIndex().remove(link);
                 done = true;
             }
         }
         this.timer.purgeTimerEventListenersMarkedForDeletion();
+        this.invalidateFloydWarshallRoutes();
+        this.invalidateScreenAppearance();
     }
 
     /**
@@ -459,15 +463,47 @@ public class TTopology {
      * @since 2.0
      */
     public TLink getLinkInScreenPosition(Point screenPosition) {
-        TLink links = null;
-        Iterator linksIterator = this.links.iterator();
-        while (linksIterator.hasNext()) {
-            links = (TLink) linksIterator.next();
-            if (links.crossesScreenPosition(screenPosition)) {
-                return links;
+        return this.getSpatialIndex().getLinkInScreenPosition(screenPosition);
+    }
+
+    /**
+     * This method updates the spatial index used to find the elements in a
+     * given screen position after a node has moved or a link has been
+     * connected to other nodes. Elements that are not in the topology are
+     * ignored.
+     *
+     * @param topologyElement the node or link that has changed.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void updateSpatialIndex(TTopologyElement topologyElement) {
+        this.getSpatialIndex().update(topologyElement);
+        this.invalidateScreenAppearance();
+    }
+
+    /**
+     * This method gets the spatial index of the nodes and links of the
+     * topology, building it from scratch if needed.
+     *
+     * @return the spatial index of the topology.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private TTopologySpatialIndex getSpatialIndex() {
+        if (this.spatialIndex == null) {
+            // The index is not serialized with the topology.
+            TTopologySpatialIndex newSpatialIndex = new TTopologySpatialIndex();
+            Iterator<TNode> nodesIterator = this.getNodesIterator();
+            while (nodesIterator.hasNext()) {
+                newSpatialIndex.addNode(nodesIterator.next());
             }
+            Iterator<TLink> linksIterator = this.getLinksIterator();
+            while (linksIterator.hasNext()) {
+                newSpatialIndex.addLink(linksIterator.next());
+            }
+            this.spatialIndex = newSpatialIndex;
         }
-        return null;
+        return this.spatialIndex;
     }
 
     /**
@@ -511,27 +547,6 @@ public class TTopology {
         }
     }
 
-    /**
-     * This method checks wheteher there is a topology element (node or link) in
-     * the screen position specified as an argument.
-     *
-     * @param screenPosition screen position to check if there is a topology
-     * element there.
-     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
-     * @since 2.0
-     * @return TRUE, if there is a topology element in the screen position
-     * specified as an argument. Otherwise, FALSE.
-     */
-    private boolean isThereAnElementInScreenPosition(Point screenPosition) {
-        if (getNodeInScreenPosition(screenPosition) != null) {
-            return true;
-        }
-        if (getLinkInScreenPosition(screenPosition) != null) {
-            return true;
-        }
-        return false;
-    }
-
     /**
      * This method returns the topology element that is in the screen position
      * specified as an argument.
@@ -545,20 +560,11 @@ public class TTopology {
      * overlapped in the same screen position, the node is returned.
      */
     public TTopologyElement getElementInScreenPosition(Point screenPosition) {
-        if (isThereAnElementInScreenPosition(screenPosition)) {
-            TNode node;
-            node = getNodeInScreenPosition(screenPosition);
-            if (node != null) {
-                return node;
-            }
-
-            TLink link;
-            link = getLinkInScreenPosition(screenPosition);
-            if (link != null) {
-                return link;
-            }
+        TNode node = getNodeInScreenPosition(screenPosition);
+        if (node != null) {
+            return node;
         }
-        return null;
+        return getLinkInScreenPosition(screenPosition);
     }
 
     /**
@@ -579,10 +585,13 @@ public class TTopology {
                 link.disconnectFromBothNodes();
                 link.markForDeletionAsTimerEventListener(true);
                 linksIterator.remove();
+                this.getSpatialIndex().remove(link);
             }
         }
         TTopology.this.removeNode(nodeID);
         this.timer.purgeTimerEventListenersMarkedForDeletion();
+        this.invalidateFloydWarshallRoutes();
+        this.invalidateScreenAppearance();
     }
 
     /**
@@ -641,7 +650,10 @@ public class TTopology {
             node.markForDeletionAsTimerEventListener(true);
             elementsIterator.remove();
         }
+        this.getSpatialIndex().clear();
         this.timer.purgeTimerEventListenersMarkedForDeletion();
+        this.invalidateFloydWarshallRoutes();
+        this.invalidateScreenAppearance();
     }
 
     /**
@@ -831,75 +843,212 @@ public class TTopology {
     }
 
     /**
-     * This method runs Floyd-Warshall algorithm to compute the next hop node ID
-     * to reach the target node (whose node ID is specified as an argument) from
-     * a given origin node (whose node ID is specified as an argument, too).
-     * This algorithm is the "traditional" one where link delay are used to
-     * route packets through a network.
+     * This method invalidates the routes computed by Floyd-Warshall algorithm
+     * that are cached by this topology. It has to be called every time
+     * something that changes routing happens: a node or a link is added or
+     * removed, a link is broken or recovered or the delay of a link changes.
+     * Routes will be recomputed lazily the next time they are needed. This
+     * method does not block so it can be called from any thread, even while
+     * routes are being computed.
      *
-     * @param originNodeID node ID of the origin node.
-     * @param targetNodeID node ID of the target/destination node.
-     * @return node ID of the next hop node, that is an adjacent node of the
-     * origin node, to reach the target node with a minimum delay, according to
-     * Floyd-Warsall algorithm. If there is not a route to reach the target
-     * node, TTopology.TARGET_UNREACHABLE is returned.
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
-    public synchronized int getFloydWarshallNextHopID(int originNodeID, int targetNodeID) {
+    public void invalidateFloydWarshallRoutes() {
+        this.floydWarshallRoutesVersion.incrementAndGet();
+    }
+
+    /**
+     * This method tells that the topology has to be painted again, because
+     * something that is shown on screen has changed: a node or a link has been
+     * added, removed or moved, the name, selection or delay of an element has
+     * changed, or a link has been broken, recovered or joined to or unlinked
+     * from a LSP. It does not block, so it can be called from any thread.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void invalidateScreenAppearance() {
+        this.screenAppearanceVersion.incrementAndGet();
+    }
+
+    /**
+     * This method gets the version of the screen appearance of the topology.
+     * It changes every time invalidateScreenAppearance is called, so views
+     * that keep an image of the topology know whether it is outdated without
+     * going through all the nodes and links.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the version of the screen appearance of the topology.
+     * @since 2.0
+     */
+    public long getScreenAppearanceVersion() {
+        return this.screenAppearanceVersion.get();
+    }
+
+    /**
+     * This method gets the routes computed by Floyd-Warshall algorithm for the
+     * current state of the topology. If the cached routes are outdated, they
+     * are computed again.
+     *
+     * @return the routes computed by Floyd-Warshall algorithm for the current
+     * state of the topology.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private TFloydWarshallRoutes getFloydWarshallRoutes() {
+        TFloydWarshallRoutes routes = this.floydWarshallRoutes;
+        if ((routes != null) && (routes.getVersion() == this.floydWarshallRoutesVersion.get())) {
+            return routes;
+        }
         this.floydWarshallAlgorithmLock.setRed();
+        // Another thread could have computed routes while we were waiting.
+        routes = this.floydWarshallRoutes;
+        long currentVersion = this.floydWarshallRoutesVersion.get();
+        if ((routes == null) || (routes.getVersion() != currentVersion)) {
+            // The version is read before reading the topology. So, if the
+            // topology changes while routes are being computed, these routes
+            // will be outdated as soon as they are stored and will be
+            // computed again next time.
+            routes = this.computeFloydWarshallRoutes(currentVersion);
+            this.floydWarshallRoutes = routes;
+        }
+        this.floydWarshallAlgorithmLock.setGreen();
+        return routes;
+    }
+
+    /**
+     * This method runs Floyd-Warshall algorithm to compute the next hop of
+     * every node of the topology to reach any other node of the topology. This
+     * algorithm is the "traditional" one where link delay are used to route
+     * packets through a network.
+     *
+     * @param version version of the topology for which routes are computed.
+     * @return the next hop of every node of the topology to reach any other
+     * node of the topology.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private TFloydWarshallRoutes computeFloydWarshallRoutes(long version) {
         int currentNumberOfNodes = this.nodes.size();
-        int tmpOrigin = 0;
-        int tmpDestination = 0;
-        // We compute equivalences betweeen indexes and node IDs to be used 
-        // when computing the adjacency matrix. This is needed because node IDs 
-        // cannot be used as indexes of the adjacency matrix. It's an index 
+        // We compute equivalences betweeen indexes and node IDs to be used
+        // when computing the adjacency matrix. This is needed because node IDs
+        // cannot be used as indexes of the adjacency matrix. It's an index
         // translation.
         int[] equivalenceMatrix = new int[currentNumberOfNodes];
+        String[] ipv4Addresses = new String[currentNumberOfNodes];
+        HashMap<Integer, Integer> nodeIndexes = new HashMap<>();
+        HashMap<String, Integer> ipv4AddressIndexes = new HashMap<>();
         int i = 0;
         TNode node = null;
         Iterator nodesIterator = this.getNodesIterator();
         while (nodesIterator.hasNext()) {
             node = (TNode) nodesIterator.next();
             equivalenceMatrix[i] = node.getNodeID();
-            if (equivalenceMatrix[i] == originNodeID) {
-                tmpOrigin = i;
-            } else if (equivalenceMatrix[i] == targetNodeID) {
-                tmpDestination = i;
-            }
+            ipv4Addresses[i] = node.getIPv4Address();
+            nodeIndexes.putIfAbsent(equivalenceMatrix[i], i);
+            ipv4AddressIndexes.putIfAbsent(ipv4Addresses[i], i);
             i++;
         }
-        // We compute adjacency matrix
-        TLink link = null;
+        boolean[][] joinedNodes = new boolean[currentNumberOfNodes][currentNumberOfNodes];
+        long[][] adjacencyMatrix = this.computeAdjacencyMatrix(nodeIndexes, joinedNodes, false);
+        int[][] pathsMatrix = this.computePathsMatrix(adjacencyMatrix);
+        // For every pair of nodes, if there is a route between them, this step
+        // get the first hop of this route.
+        int[][] nextHopsMatrix = new int[currentNumberOfNodes][currentNumberOfNodes];
+        int j = 0;
+        int k = 0;
+        for (i = 0; i < currentNumberOfNodes; i++) {
+            for (j = 0; j < currentNumberOfNodes; j++) {
+                nextHopsMatrix[i][j] = TTopology.TARGET_UNREACHABLE;
+                k = pathsMatrix[i][j];
+                while (k != currentNumberOfNodes) {
+                    nextHopsMatrix[i][j] = k;
+                    k = pathsMatrix[i][k];
+                }
+            }
+        }
+        return new TFloydWarshallRoutes(version, equivalenceMatrix, ipv4Addresses, nodeIndexes, ipv4AddressIndexes, nextHopsMatrix, joinedNodes);
+    }
+
+    /**
+     * This method computes the adjacency matrix of the topology. Links are
+     * visited only once. If several links join the same pair of nodes, the
+     * first one, in the same order used by getLinkThatJoins(...), is the one
+     * taken into account.
+     *
+     * @param nodeIndexes translation from node IDs to indexes of the adjacency
+     * matrix.
+     * @param joinedNodes matrix that will be filled with TRUE for every pair of
+     * nodes joined by a link, even if the link is broken.
+     * @param useRABANWeights TRUE, if RABAN weight has to be used as the weight
+     * of links. FALSE, if the "traditional" weight has to be used.
+     * @return the adjacency matrix of the topology.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private long[][] computeAdjacencyMatrix(HashMap<Integer, Integer> nodeIndexes, boolean[][] joinedNodes, boolean useRABANWeights) {
+        int currentNumberOfNodes = joinedNodes.length;
         long[][] adjacencyMatrix = new long[currentNumberOfNodes][currentNumberOfNodes];
+        int i = 0;
         int j = 0;
         for (i = 0; i < currentNumberOfNodes; i++) {
             for (j = 0; j < currentNumberOfNodes; j++) {
-                link = getLinkThatJoins(equivalenceMatrix[i], equivalenceMatrix[j]);
-                if ((link == null) || ((link != null) && (link.isBroken()))) {
-                    // If there is not a link joining node i and j. Or if this
-                    // link exists but is down at this moment:
-                    if (i == j) {
-                        // It's the same node.
-                        adjacencyMatrix[i][j] = 0;
+                if (i == j) {
+                    // It's the same node.
+                    adjacencyMatrix[i][j] = 0;
+                } else {
+                    // It's impossible to reach i from j or viceversa.
+                    adjacencyMatrix[i][j] = TTopology.INFINITE_WEIGHT;
+                }
+            }
+        }
+        TLink link = null;
+        Integer headEndIndex = null;
+        Integer tailEndIndex = null;
+        long weight = 0;
+        Iterator linksIterator = this.getLinksIterator();
+        while (linksIterator.hasNext()) {
+            link = (TLink) linksIterator.next();
+            headEndIndex = nodeIndexes.get(link.getHeadEndNode().getNodeID());
+            tailEndIndex = nodeIndexes.get(link.getTailEndNode().getNodeID());
+            if ((headEndIndex != null) && (tailEndIndex != null) && (!joinedNodes[headEndIndex][tailEndIndex])) {
+                joinedNodes[headEndIndex][tailEndIndex] = true;
+                joinedNodes[tailEndIndex][headEndIndex] = true;
+                // If the link is down at this moment, the default weight
+                // remains.
+                if (!link.isBroken()) {
+                    if (useRABANWeights) {
+                        weight = link.getRABANWeight();
                     } else {
-                        // It's impossible to reach i from j or viceversa.
-                        adjacencyMatrix[i][j] = TTopology.INFINITE_WEIGHT;
+                        weight = link.getWeight();
                     }
-                } else if (link.getLinkType() == TLink.EXTERNAL_LINK) {
-                    // We put the link weight in the adjacency matrix
-                    TExternalLink externalLink = (TExternalLink) link;
-                    adjacencyMatrix[i][j] = externalLink.getWeight();
-                } else {
-                    // We put the link weight in the adjacency matrix
-                    TInternalLink internalLink = (TInternalLink) link;
-                    adjacencyMatrix[i][j] = internalLink.getWeight();
+                    adjacencyMatrix[headEndIndex][tailEndIndex] = weight;
+                    adjacencyMatrix[tailEndIndex][headEndIndex] = weight;
                 }
             }
         }
+        return adjacencyMatrix;
+    }
+
+    /**
+     * This method runs Floyd-Warshall algorithm over the adjacency matrix
+     * specified as an argument.
+     *
+     * @param adjacencyMatrix the adjacency matrix of the topology.
+     * @return the paths matrix computed by Floyd-Warshall algorithm. Each
+     * position [i][j] contains the intermediate node of the route from i to j
+     * or the number of nodes if there is no intermediate node.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    private int[][] computePathsMatrix(long[][] adjacencyMatrix) {
+        int currentNumberOfNodes = adjacencyMatrix.length;
         // We compute costs matrix and paths matrix
         long[][] costsMatrix = new long[currentNumberOfNodes][currentNumberOfNodes];
         int[][] pathsMatrix = new int[currentNumberOfNodes][currentNumberOfNodes];
+        int i = 0;
+        int j = 0;
         int k = 0;
         for (i = 0; i < currentNumberOfNodes; i++) {
             for (j = 0; j < currentNumberOfNodes; j++) {
@@ -919,33 +1068,37 @@ public class TTopology {
                 }
             }
         }
-        // If there is a route to destination host, this step get the first hop
-        // of this route.
-        int nextHop = TTopology.TARGET_UNREACHABLE;
-        k = pathsMatrix[tmpOrigin][tmpDestination];
-        while (k != currentNumberOfNodes) {
-            nextHop = k;
-            k = pathsMatrix[tmpOrigin][k];
-        }
-        // We check wether there is not route to host or they are adjacents
-        if (nextHop == TTopology.TARGET_UNREACHABLE) {
-            TLink linkAux = this.getLinkThatJoins(originNodeID, targetNodeID);
-            if (linkAux != null) {
-                nextHop = targetNodeID;
-            }
-        } else {
-            nextHop = equivalenceMatrix[nextHop];
-        }
-        this.floydWarshallAlgorithmLock.setGreen();
-        return nextHop;
+        return pathsMatrix;
+    }
+
+    /**
+     * This method gets the next hop node ID to reach the target node (whose
+     * node ID is specified as an argument) from a given origin node (whose node
+     * ID is specified as an argument, too), computed by Floyd-Warshall
+     * algorithm. This algorithm is the "traditional" one where link delay are
+     * used to route packets through a network. Routes are computed only once
+     * after every change of the topology and cached, so this method is only a
+     * lookup most of times.
+     *
+     * @param originNodeID node ID of the origin node.
+     * @param targetNodeID node ID of the target/destination node.
+     * @return node ID of the next hop node, that is an adjacent node of the
+     * origin node, to reach the target node with a minimum delay, according to
+     * Floyd-Warsall algorithm. If there is not a route to reach the target
+     * node, TTopology.TARGET_UNREACHABLE is returned.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public int getFloydWarshallNextHopID(int originNodeID, int targetNodeID) {
+        return this.getFloydWarshallRoutes().getNextHopID(originNodeID, targetNodeID);
     }
 
     /**
-     * This method runs Floyd-Warshall algorithm to compute the next hop IPv4
-     * address to reach the target node (whose IPv4 address is specified as an
-     * argument) from a given origin node (whose IPv4 address is specified as an
-     * argument, too). This algorithm is the "traditional" one where link delay
-     * are used to route packets through a network.
+     * This method gets the next hop IPv4 address to reach the target node
+     * (whose IPv4 address is specified as an argument) from a given origin node
+     * (whose IPv4 address is specified as an argument, too), computed by
+     * Floyd-Warshall algorithm. This algorithm is the "traditional" one where
+     * link delay are used to route packets through a network.
      *
      * @param originNodeIPv4Address IPv4 address of the origin node.
      * @param targetNodeIPv4Address IPv4 address of the target/destination node.
@@ -956,15 +1109,18 @@ public class TTopology {
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
-    public synchronized String getFloydWarsallNextHopIPv4Address(String originNodeIPv4Address, String targetNodeIPv4Address) {
-        int originNodeID = this.getNode(originNodeIPv4Address).getNodeID();
-        int destinationID = this.getNode(targetNodeIPv4Address).getNodeID();
-        int nextHopID = getFloydWarshallNextHopID(originNodeID, destinationID);
-        TNode node = this.getNode(nextHopID);
-        if (node != null) {
-            return node.getIPv4Address();
+    public String getFloydWarsallNextHopIPv4Address(String originNodeIPv4Address, String targetNodeIPv4Address) {
+        TFloydWarshallRoutes routes = this.getFloydWarshallRoutes();
+        int originNodeID = routes.getNodeID(originNodeIPv4Address);
+        if (originNodeID == TTopology.TARGET_UNREACHABLE) {
+            originNodeID = this.getNode(originNodeIPv4Address).getNodeID();
         }
-        return null;
+        int destinationID = routes.getNodeID(targetNodeIPv4Address);
+        if (destinationID == TTopology.TARGET_UNREACHABLE) {
+            destinationID = this.getNode(targetNodeIPv4Address).getNodeID();
+        }
+        int nextHopID = routes.getNextHopID(originNodeID, destinationID);
+        return routes.getIPv4Address(nextHopID);
     }
 
     /**
@@ -1058,12 +1214,14 @@ public class TTopology {
         // cannot be used as indexes of the adjacency matrix. It's an index 
         // translation.
         int[] equivalenceMatrix = new int[currentNumberOfNodes];
+        HashMap<Integer, Integer> nodeIndexes = new HashMap<>();
         int i = 0;
         TNode node = null;
         Iterator nodesIterator = this.getNodesIterator();
         while (nodesIterator.hasNext()) {
             node = (TNode) nodesIterator.next();
             equivalenceMatrix[i] = node.getNodeID();
+            nodeIndexes.putIfAbsent(equivalenceMatrix[i], i);
             if (equivalenceMatrix[i] == originNodeID) {
                 tmpOrigin = i;
             } else if (equivalenceMatrix[i] == targetNodeID) {
@@ -1072,53 +1230,12 @@ public class TTopology {
             i++;
         }
         // We compute adjacency matrix
-        TLink link = null;
-        long[][] adjacencyMatrix = new long[currentNumberOfNodes][currentNumberOfNodes];
-        int j = 0;
-        for (i = 0; i < currentNumberOfNodes; i++) {
-            for (j = 0; j < currentNumberOfNodes; j++) {
-                link = getLinkThatJoins(equivalenceMatrix[i], equivalenceMatrix[j]);
-                if ((link == null) || ((link != null) && (link.isBroken()))) {
-                    if (i == j) {
-                        adjacencyMatrix[i][j] = 0;
-                    } else {
-                        adjacencyMatrix[i][j] = TTopology.INFINITE_WEIGHT;
-                    }
-                } else if (link.getLinkType() == TLink.EXTERNAL_LINK) {
-                    TExternalLink externalLink = (TExternalLink) link;
-                    adjacencyMatrix[i][j] = externalLink.getRABANWeight();
-                } else {
-                    TInternalLink internalLink = (TInternalLink) link;
-                    adjacencyMatrix[i][j] = internalLink.getRABANWeight();
-                }
-            }
-        }
-        // We compute costs matrix and paths matrix
-        long[][] costsMatrix = new long[currentNumberOfNodes][currentNumberOfNodes];
-        int[][] pathsMatrix = new int[currentNumberOfNodes][currentNumberOfNodes];
-        int k = 0;
-        for (i = 0; i < currentNumberOfNodes; i++) {
-            for (j = 0; j < currentNumberOfNodes; j++) {
-                costsMatrix[i][j] = adjacencyMatrix[i][j];
-                pathsMatrix[i][j] = currentNumberOfNodes;
-            }
-        }
-        for (k = 0; k < currentNumberOfNodes; k++) {
-            for (i = 0; i < currentNumberOfNodes; i++) {
-                for (j = 0; j < currentNumberOfNodes; j++) {
-                    if (!((costsMatrix[i][k] == TTopology.INFINITE_WEIGHT) || (costsMatrix[k][j] == TTopology.INFINITE_WEIGHT))) {
-                        if ((costsMatrix[i][k] + costsMatrix[k][j]) < costsMatrix[i][j]) {
-                            costsMatrix[i][j] = costsMatrix[i][k] + costsMatrix[k][j];
-                            pathsMatrix[i][j] = k;
-                        }
-                    }
-                }
-            }
-        }
+        long[][] adjacencyMatrix = this.computeAdjacencyMatrix(nodeIndexes, new boolean[currentNumberOfNodes][currentNumberOfNodes], true);
+        int[][] pathsMatrix = this.computePathsMatrix(adjacencyMatrix);
         // If there is a route to destination host, this step get the first hop
         // of this route.
         int nextHop = TTopology.TARGET_UNREACHABLE;
-        k = pathsMatrix[tmpOrigin][tmpDestination];
+        int k = pathsMatrix[tmpOrigin][tmpDestination];
         while (k != currentNumberOfNodes) {
             nextHop = k;
             k = pathsMatrix[tmpOrigin][k];
@@ -1168,12 +1285,14 @@ public class TTopology {
         // cannot be used as indexes of the adjacency matrix. It's an index 
         // translation.
         int[] equivalenceMatrix = new int[currentNumberOfNodes];
+        HashMap<Integer, Integer> nodeIndexes = new HashMap<>();
         int i = 0;
         TNode node = null;
         Iterator nodesIterator = this.getNodesIterator();
         while (nodesIterator.hasNext()) {
             node = (TNode) nodesIterator.next();
             equivalenceMatrix[i] = node.getNodeID();
+            nodeIndexes.putIfAbsent(equivalenceMatrix[i], i);
             if (equivalenceMatrix[i] == originNodeID) {
                 tmpOrigin = i;
             } else if (equivalenceMatrix[i] == targetNodeID) {
@@ -1184,62 +1303,17 @@ public class TTopology {
             i++;
         }
         // We compute adjacency matrix
-        TLink link = null;
-        long[][] adjacencyMatrix = new long[currentNumberOfNodes][currentNumberOfNodes];
-        int j = 0;
-        for (i = 0; i < currentNumberOfNodes; i++) {
-            for (j = 0; j < currentNumberOfNodes; j++) {
-                link = getLinkThatJoins(equivalenceMatrix[i], equivalenceMatrix[j]);
-                if ((link == null) || ((link != null) && (link.isBroken()))) {
-                    if (i == j) {
-                        adjacencyMatrix[i][j] = 0;
-                    } else {
-                        adjacencyMatrix[i][j] = TTopology.INFINITE_WEIGHT;
-                    }
-                } else if (link.getLinkType() == TLink.EXTERNAL_LINK) {
-                    TExternalLink externalLink = (TExternalLink) link;
-                    adjacencyMatrix[i][j] = externalLink.getRABANWeight();
-                } else {
-                    TInternalLink internalLink = (TInternalLink) link;
-                    adjacencyMatrix[i][j] = internalLink.getRABANWeight();
-                }
-                // He we avoid to choose the specified undesired node as next
-                // hop. Let's say, we avoid to include the undesired node in
-                // the computed route to destination.
-                if ((i == tmpOrigin) && (j == tmpNodeToAvoidID)) {
-                    adjacencyMatrix[i][j] = TTopology.INFINITE_WEIGHT;
-                }
-                if ((i == tmpNodeToAvoidID) && (j == tmpOrigin)) {
-                    adjacencyMatrix[i][j] = TTopology.INFINITE_WEIGHT;
-                }
-            }
-        }
-        // We compute costs matrix and paths matrix
-        long[][] costsMatrix = new long[currentNumberOfNodes][currentNumberOfNodes];
-        int[][] pathsMatrix = new int[currentNumberOfNodes][currentNumberOfNodes];
-        int k = 0;
-        for (i = 0; i < currentNumberOfNodes; i++) {
-            for (j = 0; j < currentNumberOfNodes; j++) {
-                costsMatrix[i][j] = adjacencyMatrix[i][j];
-                pathsMatrix[i][j] = currentNumberOfNodes;
-            }
-        }
-        for (k = 0; k < currentNumberOfNodes; k++) {
-            for (i = 0; i < currentNumberOfNodes; i++) {
-                for (j = 0; j < currentNumberOfNodes; j++) {
-                    if (!((costsMatrix[i][k] == TTopology.INFINITE_WEIGHT) || (costsMatrix[k][j] == TTopology.INFINITE_WEIGHT))) {
-                        if ((costsMatrix[i][k] + costsMatrix[k][j]) < costsMatrix[i][j]) {
-                            costsMatrix[i][j] = costsMatrix[i][k] + costsMatrix[k][j];
-                            pathsMatrix[i][j] = k;
-                        }
-                    }
-                }
-            }
-        }
+        long[][] adjacencyMatrix = this.computeAdjacencyMatrix(nodeIndexes, new boolean[currentNumberOfNodes][currentNumberOfNodes], true);
+        // He we avoid to choose the specified undesired node as next
+        // hop. Let's say, we avoid to include the undesired node in
+        // the computed route to destination.
+        adjacencyMatrix[tmpOrigin][tmpNodeToAvoidID] = TTopology.INFINITE_WEIGHT;
+        adjacencyMatrix[tmpNodeToAvoidID][tmpOrigin] = TTopology.INFINITE_WEIGHT;
+        int[][] pathsMatrix = this.computePathsMatrix(adjacencyMatrix);
         // If there is a route to destination host, this step get the first hop
         // of this route.
         int nextHop = TTopology.TARGET_UNREACHABLE;
-        k = pathsMatrix[tmpOrigin][tmpDestination];
+        int k = pathsMatrix[tmpOrigin][tmpDestination];
         while (k != currentNumberOfNodes) {
             nextHop = k;
             k = pathsMatrix[tmpOrigin][k];
@@ -1257,6 +1331,145 @@ public class TTopology {
         return nextHop;
     }
 
+    /**
+     * This class stores the routes computed by Floyd-Warshall algorithm for a
+     * given version of the topology, so that they can be looked up without
+     * running the algorithm again. Instances are immutable and can be shared by
+     * any number of threads.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @version 2.0
+     */
+    private static final class TFloydWarshallRoutes {
+
+        /**
+         * This is the constructor of the class. It creates a new instance of
+         * TFloydWarshallRoutes.
+         *
+         * @param version version of the topology for which routes were
+         * computed.
+         * @param nodeIDs node ID of the node corresponding to each index.
+         * @param ipv4Addresses IPv4 address of the node corresponding to each
+         * index.
+         * @param nodeIndexes translation from node IDs to indexes.
+         * @param ipv4AddressIndexes translation from IPv4 addresses to indexes.
+         * @param nextHopsMatrix index of the next hop from i to reach j, or
+         * TTopology.TARGET_UNREACHABLE if there is no route.
+         * @param joinedNodes TRUE for every pair of nodes joined by a link,
+         * even if the link is broken.
+         * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+         * @since 2.0
+         */
+        TFloydWarshallRoutes(long version, int[] nodeIDs, String[] ipv4Addresses, HashMap<Integer, Integer> nodeIndexes, HashMap<String, Integer> ipv4AddressIndexes, int[][] nextHopsMatrix, boolean[][] joinedNodes) {
+            this.version = version;
+            this.nodeIDs = nodeIDs;
+            this.ipv4Addresses = ipv4Addresses;
+            this.nodeIndexes = nodeIndexes;
+            this.ipv4AddressIndexes = ipv4AddressIndexes;
+            this.nextHopsMatrix = nextHopsMatrix;
+            this.joinedNodes = joinedNodes;
+        }
+
+        /**
+         * This method gets the version of the topology for which these routes
+         * were computed.
+         *
+         * @return the version of the topology for which these routes were
+         * computed.
+         * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+         * @since 2.0
+         */
+        long getVersion() {
+            return this.version;
+        }
+
+        /**
+         * This method gets the next hop node ID to reach the target node from
+         * the origin node. It behaves exactly as running Floyd-Warshall
+         * algorithm for this pair of nodes.
+         *
+         * @param originNodeID node ID of the origin node.
+         * @param targetNodeID node ID of the target/destination node.
+         * @return node ID of the next hop node. If there is not a route to
+         * reach the target node, TTopology.TARGET_UNREACHABLE is returned.
+         * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+         * @since 2.0
+         */
+        int getNextHopID(int originNodeID, int targetNodeID) {
+            if (this.nodeIDs.length == 0) {
+                return TTopology.TARGET_UNREACHABLE;
+            }
+            Integer originIndex = this.nodeIndexes.get(originNodeID);
+            Integer targetIndex = this.nodeIndexes.get(targetNodeID);
+            // Unknown nodes, and the target node when it is the origin node
+            // too, are translated to index 0, as Floyd-Warshall algorithm
+            // has always done.
+            int tmpOrigin = 0;
+            int tmpDestination = 0;
+            if (originIndex != null) {
+                tmpOrigin = originIndex;
+            }
+            if ((targetIndex != null) && (targetNodeID != originNodeID)) {
+                tmpDestination = targetIndex;
+            }
+            int nextHop = this.nextHopsMatrix[tmpOrigin][tmpDestination];
+            if (nextHop != TTopology.TARGET_UNREACHABLE) {
+                return this.nodeIDs[nextHop];
+            }
+            // We check wether there is not route to host or they are adjacents
+            if ((originIndex != null) && (targetIndex != null) && (this.joinedNodes[originIndex][targetIndex])) {
+                return targetNodeID;
+            }
+            return TTopology.TARGET_UNREACHABLE;
+        }
+
+        /**
+         * This method gets the node ID of the node having the IPv4 address
+         * specified as an argument.
+         *
+         * @param ipv4Address IPv4 address of the node.
+         * @return the node ID of the node having the specified IPv4 address or
+         * TTopology.TARGET_UNREACHABLE if there is no such node.
+         * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+         * @since 2.0
+         */
+        int getNodeID(String ipv4Address) {
+            Integer index = this.ipv4AddressIndexes.get(ipv4Address);
+            if (index == null) {
+                return TTopology.TARGET_UNREACHABLE;
+            }
+            return this.nodeIDs[index];
+        }
+
+        /**
+         * This method gets the IPv4 address of the node having the node ID
+         * specified as an argument.
+         *
+         * @param nodeID node ID of the node.
+         * @return the IPv4 address of the node having the specified node ID or
+         * NULL if there is no such node.
+         * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+         * @since 2.0
+         */
+        String getIPv4Address(int nodeID) {
+            Integer index = this.nodeIndexes.get(nodeID);
+            if (index == null) {
+                return null;
+            }
+            return this.ipv4Addresses[index];
+        }
+
+        private final long version;
+        private final int[] nodeIDs;
+        private final String[] ipv4Addresses;
+        private final HashMap<Integer, Integer> nodeIndexes;
+        private final HashMap<String, Integer> ipv4AddressIndexes;
+        private final int[][] nextHopsMatrix;
+        private final boolean[][] joinedNodes;
+    }
+
+    private static final long serialVersionUID = 1L;
+
     public static final long INFINITE_WEIGHT = 9223372036854775806L;
     public static final long VERY_HIGH_WEIGHT = (long) INFINITE_WEIGHT / 2;
     public static final int TARGET_UNREACHABLE = -1;
@@ -1270,4 +1483,8 @@ public class TTopology {
     private TIPv4AddressGenerator ipv4AddressGenerator;
     private TSemaphore floydWarshallAlgorithmLock;
     private TSemaphore rabanAlgorithmLock;
+    private transient volatile TFloydWarshallRoutes floydWarshallRoutes;
+    private final AtomicLong floydWarshallRoutesVersion;
+    private final AtomicLong screenAppearanceVersion;
+    private transient TTopologySpatialIndex spatialIndex;
 }
@@ -15,14 +15,20 @@
  */
 package com.manolodominguez.opensimmpls.scenario;
 
-import com.manolodominguez.opensimmpls.scenario.simulationevents.ESimulationSingleSubscriber;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
 import com.manolodominguez.opensimmpls.hardware.timer.TTimerEvent;
 import com.manolodominguez.opensimmpls.hardware.timer.ITimerEventListener;
-import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventListener;
+import com.manolodominguez.opensimmpls.hardware.timer.TTickExecutor;
+import com.manolodominguez.opensimmpls.hardware.timer.TTimer;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventBus;
+import com.manolodominguez.opensimmpls.commons.TLongIDBlockGenerator;
 import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ResourceBundle;
+import java.util.concurrent.Future;
 
 /**
  * This is an abstract class that is the super class of all elements of a
@@ -31,7 +37,7 @@ import java.util.ResourceBundle;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public abstract class TTopologyElement implements ITimerEventListener, Runnable {
+public abstract class TTopologyElement implements ITimerEventListener, Runnable, Serializable {
 
     /**
      * This is the constructor of the class. It will be called by subclasses
@@ -39,7 +45,9 @@ public abstract class TTopologyElement implements ITimerEventListener, Runnable
      *
      * @param elementType The type of the element. One of the contants defined
      * in this class.
-     * @param eventIdentifierGenerator The event identifier generator.
+     * @param eventIdentifierGenerator The event identifier generator shared by
+     * the whole topology. The element reserves blocks of IDs on it and hands
+     * them out on its own, so that elements do not contend for it.
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
@@ -47,8 +55,15 @@ public abstract class TTopologyElement implements ITimerEventListener, Runnable
         this.elementType = elementType;
         this.markForDeletionAsTimerEventListener = false;
         this.elementThread = null;
-        this.simulationEventsListener = null;
-        this.eventIdentifierGenerator = eventIdentifierGenerator;
+        this.tickExecutor = null;
+        this.timer = null;
+        this.tickWork = null;
+        this.simulationEventBus = null;
+        if (eventIdentifierGenerator != null) {
+            this.eventIdentifierGenerator = new TLongIDBlockGenerator(eventIdentifierGenerator);
+        } else {
+            this.eventIdentifierGenerator = null;
+        }
         this.availableNanoseconds = 0;
         this.alive = true;
         this.wellConfigured = false;
@@ -210,14 +225,65 @@ public abstract class TTopologyElement implements ITimerEventListener, Runnable
     }
 
     /**
-     * This method starts the independent thread that governs the topology
-     * element.
+     * This method sets the tick executor whose workers will do the work of this
+     * topology element during each timer tick. If no tick executor is set, a
+     * new thread is created each time the topology element starts operating.
+     *
+     * @param tickExecutor the tick executor that will do the work of this
+     * topology element, or null to use a dedicated thread per tick.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public synchronized void setTickExecutor(TTickExecutor tickExecutor) {
+        this.tickExecutor = tickExecutor;
+    }
+
+    /**
+     * This method sets the timer this topology element receives timer events
+     * from.
+     *
+     * @param timer the timer that sends timer events to this topology element,
+     * or null if it is not receiving timer events.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public synchronized void setTimer(TTimer timer) {
+        this.timer = timer;
+    }
+
+    /**
+     * This method tells the timer that this topology element has work to do,
+     * so that it receives the timer event of the next tick even if the timer
+     * only sends timer events to the active topology elements. It has to be
+     * called when something arrives to the topology element from outside.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    protected void joinActiveSet() {
+        TTimer currentTimer;
+        synchronized (this) {
+            currentTimer = this.timer;
+        }
+        if (currentTimer != null) {
+            currentTimer.activate(this);
+        }
+    }
+
+    /**
+     * This method starts the work of the topology element for the current
+     * tick, either in a worker of the tick executor or in an independent
+     * thread when no tick executor has been set.
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
     public synchronized void startOperation() {
-        if (elementThread == null) {
+        if (this.tickExecutor != null) {
+            if ((this.tickWork == null) || (this.tickWork.isDone())) {
+                this.tickWork = this.tickExecutor.submit(this);
+            }
+        } else if (elementThread == null) {
             elementThread = new Thread(this);
             this.elementThread.start();
         } else if (!elementThread.isAlive()) {
@@ -235,59 +301,98 @@ public abstract class TTopologyElement implements ITimerEventListener, Runnable
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
-    public synchronized void waitForCompletion() {
-        if (elementThread != null) {
+    public void waitForCompletion() {
+        // The monitor is not held while waiting. Otherwise, pool workers
+        // delivering packets to this element through synchronized methods
+        // could block forever waiting for this element to finish.
+        Future<?> pendingTickWork;
+        Thread pendingThread;
+        synchronized (this) {
+            pendingTickWork = this.tickWork;
+            pendingThread = this.elementThread;
+        }
+        if (pendingTickWork != null) {
             try {
-                this.elementThread.join();
+                pendingTickWork.get();
             } catch (Exception e) {
                 System.out.println(this.translations.getString("TElementoTopologia.ErrorFinReloj") + e.toString());
-            };
+            }
+        }
+        if (pendingThread != null) {
+            try {
+                pendingThread.join();
+            } catch (Exception e) {
+                System.out.println(this.translations.getString("TElementoTopologia.ErrorFinReloj") + e.toString());
+            }
         }
     }
 
     /**
-     * This methods sets the simulation events listener of this element. This
-     * listener will collect the simulation of thi topology element.
+     * This methods sets the simulation event bus where this element publishes
+     * its simulation events. Any number of listeners can be subscribed to the
+     * bus.
      *
-     * @param simulationEventsListener the simulation event listener that will
-     * collect wimulation events generated by the topology element.
-     * @throws ESimulationSingleSubscriber this exception is thrown when a
-     * listener is being defined but there is already a listener for this
-     * element.
+     * @param simulationEventBus the simulation event bus that will carry the
+     * simulation events generated by the topology element.
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
-    public void addSimulationListener(TSimulationEventListener simulationEventsListener) throws ESimulationSingleSubscriber {
-        if (this.simulationEventsListener == null) {
-            this.simulationEventsListener = simulationEventsListener;
-        } else {
-            throw new ESimulationSingleSubscriber();
-        }
+    public void setSimulationEventBus(TSimulationEventBus simulationEventBus) {
+        this.simulationEventBus = simulationEventBus;
     }
 
     /**
-     * This method removes, if exists, the simulation event listener of this
-     * topology element.
+     * This method removes, if exists, the simulation event bus of this
+     * topology element. From now on, its simulation events are discarded.
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
-    public void removeSimulationEventListener() {
-        this.simulationEventsListener = null;
+    public void removeSimulationEventBus() {
+        this.simulationEventBus = null;
     }
 
     /**
-     * This method send a simulation event to the simulation event listener of
-     * this topology element.
+     * This method has to be called whenever a simulation event happens in
+     * this topology element, before building it. The event is counted by the
+     * timer, for telemetry, and the method checks whether any listener is
+     * subscribed to its subtype. Only in that case the simulation event has to
+     * be built and published by means of generateSimulationEvent, so that no
+     * simulation event nobody is going to receive is ever allocated.
      *
-     * @param simulationEvent simulation event to be sent to the simulation
-     * event listener of this topology element.
+     * @param simulationEventSubtype the subtype of the simulation event. It is
+     * one of the constants defined in TSimulationEvent.
+     * @return TRUE, if the simulation event has to be built and generated.
+     * Otherwise, FALSE.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public boolean announceSimulationEvent(int simulationEventSubtype) {
+        TTimer currentTimer;
+        synchronized (this) {
+            currentTimer = this.timer;
+        }
+        if (currentTimer != null) {
+            currentTimer.countSimulationEvent(simulationEventSubtype);
+        }
+        TSimulationEventBus currentSimulationEventBus = this.simulationEventBus;
+        return (currentSimulationEventBus != null) && (currentSimulationEventBus.isSubscribed(simulationEventSubtype));
+    }
+
+    /**
+     * This method publishes a simulation event to the simulation event bus of
+     * this topology element. The simulation event has to be announced first
+     * by means of announceSimulationEvent.
+     *
+     * @param simulationEvent simulation event to be published to the
+     * simulation event bus of this topology element.
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
      */
     public void generateSimulationEvent(TSimulationEvent simulationEvent) {
-        if (this.simulationEventsListener != null) {
-            this.simulationEventsListener.captureSimulationEvents(simulationEvent);
+        TSimulationEventBus currentSimulationEventBus = this.simulationEventBus;
+        if (currentSimulationEventBus != null) {
+            currentSimulationEventBus.publish(simulationEvent);
         }
     }
 
@@ -316,6 +421,26 @@ public abstract class TTopologyElement implements ITimerEventListener, Runnable
         this.wellConfigured = wellConfigured;
     }
 
+    /**
+     * This method gets the number of nanoseconds, counted from the end of the
+     * last timer tick, that this topology element can stay idle before it has
+     * something to do. The timer uses it in event driven mode to skip
+     * simulated time where nothing happens. This default implementation
+     * assumes the topology element has work to do in every tick. Subclasses
+     * that are able to foresee their next event override it; the value they
+     * return can be lower than the real one, but never higher.
+     *
+     * @return the number of nanoseconds until the next event of this topology
+     * element, zero if it has work to do in the next tick or
+     * TTopologyElement.NO_PENDING_EVENTS if nothing is going to happen unless
+     * another topology element interacts with it.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public long getNanosecondsToNextEvent() {
+        return TTopologyElement.ZERO;
+    }
+
     /**
      * This is an abstract method that once implemented will receive a timer
      * event from the global timer.
@@ -396,13 +521,26 @@ public abstract class TTopologyElement implements ITimerEventListener, Runnable
      */
     public abstract void reset();
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TOPOLOGY_ELEMENT.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     public static final int LINK = 0;
     public static final int NODE = 1;
+    public static final long NO_PENDING_EVENTS = Long.MAX_VALUE;
+
+    private static final long ZERO = 0L;
 
     private int elementType;
     private boolean markForDeletionAsTimerEventListener;
-    private Thread elementThread;
-    public TSimulationEventListener simulationEventsListener;
+    private transient Thread elementThread;
+    private transient TTickExecutor tickExecutor;
+    private TTimer timer;
+    private transient Future<?> tickWork;
+    private TSimulationEventBus simulationEventBus;
     public TLongIDGenerator eventIdentifierGenerator;
     // FIX: put this attribute as private, not protected.
     protected double availableNanoseconds;
@@ -410,5 +548,5 @@ public abstract class TTopologyElement implements ITimerEventListener, Runnable
     protected boolean wellConfigured;
     private long currentTimeInstant;
     private int tickDurationInNs;
-    private ResourceBundle translations;
+    private transient ResourceBundle translations;
 }
@@ -0,0 +1,450 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a spatial index of the nodes and links of a topology,
+ * so that the element in a given screen position can be found without
+ * checking every node and link of the topology. It is a quadtree in which
+ * every element is stored in the smallest quadrant that contains its screen
+ * bounds; a query only visits the quadrants that contain the screen position,
+ * from the root to a leaf, and checks the elements stored in them. The root
+ * quadrant grows as needed to contain every element.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TTopologySpatialIndex {
+
+    /**
+     * This method is the constructor of the class. It creates a new empty
+     * instance of TTopologySpatialIndex.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TTopologySpatialIndex() {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TOPOLOGY_SPATIAL_INDEX.getPath());
+        this.root = new TQuadrant(null, ZERO, ZERO, INITIAL_ROOT_SIZE);
+        this.entries = new HashMap<>();
+        this.linksOfNodes = new HashMap<>();
+    }
+
+    /**
+     * This method adds a node to the index.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param node the node to be added.
+     * @since 2.0
+     */
+    public synchronized void addNode(TNode node) {
+        if (node == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("node is null");
+        }
+        remove(node);
+        TEntry entry = new TEntry(node);
+        this.entries.put(node, entry);
+        place(entry, node.getScreenBounds());
+    }
+
+    /**
+     * This method adds a link to the index. A link whose ends are not
+     * connected to nodes yet is kept in the index, but it cannot be found
+     * until it is updated once its ends are connected.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param link the link to be added.
+     * @since 2.0
+     */
+    public synchronized void addLink(TLink link) {
+        if (link == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException("link is null");
+        }
+        remove(link);
+        TEntry entry = new TEntry(link);
+        this.entries.put(link, entry);
+        entry.headEndNode = link.getHeadEndNode();
+        entry.tailEndNode = link.getTailEndNode();
+        attachLink(entry.headEndNode, link);
+        attachLink(entry.tailEndNode, link);
+        place(entry, link.getScreenBounds());
+    }
+
+    /**
+     * This method removes a node or a link from the index. Nothing happens if
+     * the element is not in the index.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param topologyElement the node or link to be removed.
+     * @since 2.0
+     */
+    public synchronized void remove(TTopologyElement topologyElement) {
+        TEntry entry = this.entries.remove(topologyElement);
+        if (entry == null) {
+            return;
+        }
+        unplace(entry);
+        if (topologyElement.getElementType() == TTopologyElement.LINK) {
+            detachLink(entry.headEndNode, (TLink) topologyElement);
+            detachLink(entry.tailEndNode, (TLink) topologyElement);
+        } else {
+            this.linksOfNodes.remove((TNode) topologyElement);
+        }
+    }
+
+    /**
+     * This method updates the index after the screen position of a node, or
+     * the nodes a link is connected to, have changed. When a node moves, the
+     * links connected to it are updated too. Nothing happens if the element is
+     * not in the index.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param topologyElement the node or link that has changed.
+     * @since 2.0
+     */
+    public synchronized void update(TTopologyElement topologyElement) {
+        TEntry entry = this.entries.get(topologyElement);
+        if (entry == null) {
+            return;
+        }
+        if (topologyElement.getElementType() == TTopologyElement.LINK) {
+            TLink link = (TLink) topologyElement;
+            if ((entry.headEndNode != link.getHeadEndNode()) || (entry.tailEndNode != link.getTailEndNode())) {
+                detachLink(entry.headEndNode, link);
+                detachLink(entry.tailEndNode, link);
+                entry.headEndNode = link.getHeadEndNode();
+                entry.tailEndNode = link.getTailEndNode();
+                attachLink(entry.headEndNode, link);
+                attachLink(entry.tailEndNode, link);
+            }
+            unplace(entry);
+            place(entry, link.getScreenBounds());
+        } else {
+            TNode node = (TNode) topologyElement;
+            unplace(entry);
+            place(entry, node.getScreenBounds());
+            HashSet<TLink> linksOfNode = this.linksOfNodes.get(node);
+            if (linksOfNode != null) {
+                for (TLink link : linksOfNode) {
+                    TEntry linkEntry = this.entries.get(link);
+                    unplace(linkEntry);
+                    place(linkEntry, link.getScreenBounds());
+                }
+            }
+        }
+    }
+
+    /**
+     * This method removes every node and link from the index.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public synchronized void clear() {
+        this.root = new TQuadrant(null, ZERO, ZERO, INITIAL_ROOT_SIZE);
+        this.entries.clear();
+        this.linksOfNodes.clear();
+    }
+
+    /**
+     * This method gets the node that is in the specified screen position. If
+     * several nodes are there, the one with the lowest identifier is returned.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param screenPosition the screen position.
+     * @return the node in the screen position, or null if there is no node
+     * there.
+     * @since 2.0
+     */
+    public synchronized TNode getNodeInScreenPosition(Point screenPosition) {
+        TNode foundNode = null;
+        TQuadrant quadrant = this.root;
+        while (quadrant != null) {
+            for (TEntry entry : quadrant.entries) {
+                if ((entry.topologyElement.getElementType() == TTopologyElement.NODE) && entry.bounds.contains(screenPosition)) {
+                    TNode node = (TNode) entry.topologyElement;
+                    if (node.isInScreenPosition(screenPosition) && ((foundNode == null) || (node.compareTo(foundNode) < 0))) {
+                        foundNode = node;
+                    }
+                }
+            }
+            quadrant = quadrant.getChildContaining(screenPosition);
+        }
+        return foundNode;
+    }
+
+    /**
+     * This method gets the link that crosses the specified screen position. If
+     * several links cross it, the one with the lowest identifier is returned.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param screenPosition the screen position.
+     * @return the link that crosses the screen position, or null if there is
+     * no link there.
+     * @since 2.0
+     */
+    public synchronized TLink getLinkInScreenPosition(Point screenPosition) {
+        TLink foundLink = null;
+        TQuadrant quadrant = this.root;
+        while (quadrant != null) {
+            for (TEntry entry : quadrant.entries) {
+                if ((entry.topologyElement.getElementType() == TTopologyElement.LINK) && entry.bounds.contains(screenPosition)) {
+                    TLink link = (TLink) entry.topologyElement;
+                    if (link.crossesScreenPosition(screenPosition) && ((foundLink == null) || (link.compareTo(foundLink) < 0))) {
+                        foundLink = link;
+                    }
+                }
+            }
+            quadrant = quadrant.getChildContaining(screenPosition);
+        }
+        return foundLink;
+    }
+
+    /**
+     * This method gets the number of nodes and links in the index.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of nodes and links in the index.
+     * @since 2.0
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    private void attachLink(TNode node, TLink link) {
+        if (node != null) {
+            this.linksOfNodes.computeIfAbsent(node, key -> new HashSet<>()).add(link);
+        }
+    }
+
+    private void detachLink(TNode node, TLink link) {
+        if (node != null) {
+            HashSet<TLink> linksOfNode = this.linksOfNodes.get(node);
+            if (linksOfNode != null) {
+                linksOfNode.remove(link);
+                if (linksOfNode.isEmpty()) {
+                    this.linksOfNodes.remove(node);
+                }
+            }
+        }
+    }
+
+    private void place(TEntry entry, Rectangle bounds) {
+        entry.bounds = bounds;
+        if (bounds == null) {
+            return;
+        }
+        while (!this.root.contains(bounds)) {
+            growRoot(bounds);
+        }
+        TQuadrant quadrant = this.root;
+        int depth = ZERO;
+        while (depth < MAX_DEPTH) {
+            int childIndex = quadrant.getChildIndexContaining(bounds);
+            if (childIndex == NO_CHILD) {
+                break;
+            }
+            quadrant = quadrant.getOrCreateChild(childIndex);
+            depth++;
+        }
+        quadrant.entries.add(entry);
+        entry.quadrant = quadrant;
+    }
+
+    private void unplace(TEntry entry) {
+        TQuadrant quadrant = entry.quadrant;
+        if (quadrant == null) {
+            return;
+        }
+        quadrant.entries.remove(entry);
+        entry.quadrant = null;
+        // Empty leaves are pruned, so that moving elements around does not
+        // leave a trail of quadrants behind.
+        while ((quadrant.parent != null) && quadrant.isEmpty()) {
+            quadrant.parent.removeChild(quadrant);
+            quadrant = quadrant.parent;
+        }
+    }
+
+    private void growRoot(Rectangle bounds) {
+        TQuadrant oldRoot = this.root;
+        int x = oldRoot.x;
+        int y = oldRoot.y;
+        if (bounds.x < oldRoot.x) {
+            x = oldRoot.x - oldRoot.size;
+        }
+        if (bounds.y < oldRoot.y) {
+            y = oldRoot.y - oldRoot.size;
+        }
+        TQuadrant newRoot = new TQuadrant(null, x, y, oldRoot.size * 2);
+        if (!oldRoot.isEmpty()) {
+            int childIndex = newRoot.getChildIndexContaining(oldRoot.x, oldRoot.y);
+            newRoot.children[childIndex] = oldRoot;
+            oldRoot.parent = newRoot;
+        }
+        this.root = newRoot;
+    }
+
+    /**
+     * This class implements an element of the index: a node or a link, the
+     * screen bounds it was indexed with and the quadrant where it is stored.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @version 2.0
+     */
+    private static class TEntry {
+
+        TEntry(TTopologyElement topologyElement) {
+            this.topologyElement = topologyElement;
+            this.bounds = null;
+            this.quadrant = null;
+            this.headEndNode = null;
+            this.tailEndNode = null;
+        }
+
+        private final TTopologyElement topologyElement;
+        private Rectangle bounds;
+        private TQuadrant quadrant;
+        // The nodes a link was connected to when it was indexed.
+        private TNode headEndNode;
+        private TNode tailEndNode;
+    }
+
+    /**
+     * This class implements a square quadrant of the quadtree, with the
+     * elements that fit in it but not in any of its four children.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @version 2.0
+     */
+    private static class TQuadrant {
+
+        TQuadrant(TQuadrant parent, int x, int y, int size) {
+            this.parent = parent;
+            this.x = x;
+            this.y = y;
+            this.size = size;
+            this.children = new TQuadrant[NUMBER_OF_CHILDREN];
+            this.entries = new ArrayList<>();
+        }
+
+        boolean contains(Rectangle bounds) {
+            return (bounds.x >= this.x) && (bounds.y >= this.y)
+                    && (((long) bounds.x + bounds.width) <= ((long) this.x + this.size))
+                    && (((long) bounds.y + bounds.height) <= ((long) this.y + this.size));
+        }
+
+        int getChildIndexContaining(int pointX, int pointY) {
+            int halfSize = this.size / 2;
+            int childIndex = ZERO;
+            if (pointX >= (this.x + halfSize)) {
+                childIndex += RIGHT_CHILDREN;
+            }
+            if (pointY >= (this.y + halfSize)) {
+                childIndex += BOTTOM_CHILDREN;
+            }
+            return childIndex;
+        }
+
+        int getChildIndexContaining(Rectangle bounds) {
+            if (this.size <= MIN_QUADRANT_SIZE) {
+                return NO_CHILD;
+            }
+            int childIndex = getChildIndexContaining(bounds.x, bounds.y);
+            if (childIndex != getChildIndexContaining(bounds.x + bounds.width - 1, bounds.y + bounds.height - 1)) {
+                return NO_CHILD;
+            }
+            return childIndex;
+        }
+
+        TQuadrant getChildContaining(Point point) {
+            if ((point.x < this.x) || (point.y < this.y) || (point.x >= (this.x + this.size)) || (point.y >= (this.y + this.size))) {
+                return null;
+            }
+            return this.children[getChildIndexContaining(point.x, point.y)];
+        }
+
+        TQuadrant getOrCreateChild(int childIndex) {
+            if (this.children[childIndex] == null) {
+                int halfSize = this.size / 2;
+                int childX = this.x;
+                int childY = this.y;
+                if ((childIndex & RIGHT_CHILDREN) != ZERO) {
+                    childX += halfSize;
+                }
+                if ((childIndex & BOTTOM_CHILDREN) != ZERO) {
+                    childY += halfSize;
+                }
+                this.children[childIndex] = new TQuadrant(this, childX, childY, halfSize);
+            }
+            return this.children[childIndex];
+        }
+
+        void removeChild(TQuadrant child) {
+            for (int i = ZERO; i < NUMBER_OF_CHILDREN; i++) {
+                if (this.children[i] == child) {
+                    this.children[i] = null;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            if (!this.entries.isEmpty()) {
+                return false;
+            }
+            for (TQuadrant child : this.children) {
+                if (child != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private TQuadrant parent;
+        private final int x;
+        private final int y;
+        private final int size;
+        private final TQuadrant[] children;
+        private final ArrayList<TEntry> entries;
+    }
+
+    private static final int ZERO = 0;
+    private static final int NO_CHILD = -1;
+    private static final int NUMBER_OF_CHILDREN = 4;
+    private static final int RIGHT_CHILDREN = 1;
+    private static final int BOTTOM_CHILDREN = 2;
+    private static final int INITIAL_ROOT_SIZE = 4096;
+    private static final int MIN_QUADRANT_SIZE = 64;
+    private static final int MAX_DEPTH = 16;
+
+    private TQuadrant root;
+    private final HashMap<TTopologyElement, TEntry> entries;
+    private final HashMap<TNode, HashSet<TLink>> linksOfNodes;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TTopologySpatialIndex.class);
+}
@@ -15,6 +15,7 @@
  */
 package com.manolodominguez.opensimmpls.scenario;
 
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketSent;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketGenerated;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketDiscarded;
@@ -33,6 +34,8 @@ import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
 import com.manolodominguez.opensimmpls.commons.TRotaryIDGenerator;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
 import java.awt.Point;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.Random;
 import java.util.ResourceBundle;
 
@@ -71,7 +74,7 @@ public class TTrafficGeneratorNode extends TNode implements ITimerEventListener,
         this.gosLevel = 0;
         this.requestBackupLSP = false;
         this.randomNumberGenerator = new Random();
-        this.sendingLabel = (16 + randomNumberGenerator.nextInt(1000000));
+        this.sendingLabel = (FIRST_SENDING_LABEL + randomNumberGenerator.nextInt(NUMBER_OF_SENDING_LABELS));
         this.constantPayloadSizeInBytes = 0;
         this.variablePayloadSizeInBytes = 0;
         this.stats = new TTrafficGeneratorStats();
@@ -312,6 +315,24 @@ public class TTrafficGeneratorNode extends TNode implements ITimerEventListener,
         return TNode.TRAFFIC_GENERATOR;
     }
 
+    /**
+     * This method catches up with the ticks this sender node has been idle,
+     * without receiving timer events, if any. The time of all of them is
+     * accumulated to generate the next packet, as it would have been in each
+     * idle tick.
+     *
+     * @param timerEvent the timer event that has just been received.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    protected void catchUpWithIdleTicks(TTimerEvent timerEvent) {
+        if (timerEvent.getIdleNanoseconds() > ZERO) {
+            this.availableNanoseconds += timerEvent.getIdleNanoseconds();
+            this.increaseTicksWithoutEmitting();
+        }
+    }
+
     /**
      * This method receive a timer event from the simulation's global timer. It
      * does some initial tasks and then wake up this sender node to start doing
@@ -324,12 +345,29 @@ public class TTrafficGeneratorNode extends TNode implements ITimerEventListener,
      */
     @Override
     public void receiveTimerEvent(TTimerEvent timerEvent) {
+        this.catchUpWithIdleTicks(timerEvent);
         this.setTickDurationInNs(timerEvent.getTickDurationInNs());
         this.setCurrentTimeInstant(timerEvent.getUpperLimit());
         this.availableNanoseconds += timerEvent.getTickDurationInNs();
         this.startOperation();
     }
 
+    /**
+     * This method gets the number of nanoseconds this sender node has to
+     * accumulate before it can generate the next packet. Headers are not taken
+     * into account because the size of the next packet is not known until it
+     * is created, so the returned value is never higher than the real one.
+     *
+     * @return the number of nanoseconds until the next packet is generated.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    public long getNanosecondsToNextEvent() {
+        double requiredNs = this.getNsRequiredForAllOctets(this.getNextPacketPayloadSizeInBytes() + ONE) - this.availableNanoseconds;
+        return Math.max(ZERO, ((long) requiredNs) - ONE);
+    }
+
     /**
      * This method starts all tasks that has to be executed during a timer tick.
      * The number of nanoseconds of this tick is the time this sender node will
@@ -342,7 +380,9 @@ public class TTrafficGeneratorNode extends TNode implements ITimerEventListener,
     public void run() {
         // Actions to be done during the timer tick.
         try {
-            this.generateSimulationEvent(new TSimulationEventNodeCongested(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), 0));
+            if (this.announceSimulationEvent(TSimulationEvent.NODE_CONGESTED)) {
+                this.generateSimulationEvent(new TSimulationEventNodeCongested(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), 0));
+            }
         } catch (Exception e) {
             // FIX: this is not a good practice. Avoid.
             e.printStackTrace();
@@ -447,8 +487,12 @@ public class TTrafficGeneratorNode extends TNode implements ITimerEventListener,
                             TIPv4PDU ipv4Packet = (TIPv4PDU) packetWithPayload;
                             packetType = ipv4Packet.getSubtype();
                         }
-                        this.generateSimulationEvent(new TSimulationEventPacketGenerated(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packetType, packetWithPayload.getSize()));
-                        this.generateSimulationEvent(new TSimulationEventPacketSent(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packetType));
+                        if (this.announceSimulationEvent(TSimulationEvent.PACKET_GENERATED)) {
+                            this.generateSimulationEvent(new TSimulationEventPacketGenerated(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packetType, packetWithPayload.getSize()));
+                        }
+                        if (this.announceSimulationEvent(TSimulationEvent.PACKET_SENT)) {
+                            this.generateSimulationEvent(new TSimulationEventPacketSent(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packetType));
+                        }
                     } catch (Exception e) {
                         // FIX: this is not a good practice. Avoid.
                         e.printStackTrace();
@@ -578,6 +622,22 @@ public class TTrafficGeneratorNode extends TNode implements ITimerEventListener,
         return payloadSize;
     }
 
+    /**
+     * This method seeds the random number generator of this node, used to
+     * choose the label of the traffic sent over MPLS and the payload size of
+     * packets when variable traffic rate is configured. So, the traffic
+     * generated by this node is the same in every simulation using the same
+     * seed. It has to be called before the simulation starts.
+     *
+     * @param seed the seed of the random number generator.
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void setRandomSeed(long seed) {
+        this.randomNumberGenerator = new Random(seed);
+        this.sendingLabel = (FIRST_SENDING_LABEL + this.randomNumberGenerator.nextInt(NUMBER_OF_SENDING_LABELS));
+    }
+
     /**
      * This method gets an empty packet and insert a payload in it. It is used
      * to generate packets that match the size the sender node is configured
@@ -710,7 +770,9 @@ public class TTrafficGeneratorNode extends TNode implements ITimerEventListener,
     @Override
     public void discardPacket(TAbstractPDU packet) {
         try {
-            this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+            if (this.announceSimulationEvent(TSimulationEvent.PACKET_DISCARDED)) {
+                this.generateSimulationEvent(new TSimulationEventPacketDiscarded(this, this.eventIdentifierGenerator.getNextIdentifier(), this.getCurrentTimeInstant(), packet.getSubtype()));
+            }
             this.stats.addStatEntry(packet, TStats.BEING_DISCARDED);
         } catch (Exception e) {
             // FIX: This is ugly. Avoid.
@@ -983,6 +1045,13 @@ public class TTrafficGeneratorNode extends TNode implements ITimerEventListener,
     public void runGPSRP(TMPLSPDU mplsPacket, int outgoingPortID) {
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TRAFFIC_GENERATOR_NODE.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     private String targetIPv4Address;
     private int trafficGenerationRate;
     private int trafficGenerationMode;
@@ -1007,5 +1076,10 @@ public class TTrafficGeneratorNode extends TNode implements ITimerEventListener,
     public static final int ONLY_BLANK_SPACES = 3;
     public static final int TARGET_UNREACHABLE = 4;
 
-    private ResourceBundle translations;
+    private static final long ZERO = 0L;
+    private static final int FIRST_SENDING_LABEL = 16;
+    private static final int NUMBER_OF_SENDING_LABELS = 1000000;
+    private static final int ONE = 1;
+
+    private transient ResourceBundle translations;
 }
@@ -184,8 +184,9 @@ public class TTrafficGeneratorStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void addStatEntry(TAbstractPDU packet, int entryType) {
+    public synchronized void addStatEntry(TAbstractPDU packet, int entryType) {
         if (this.statsEnabled) {
+            this.statEntriesAdded = true;
             int packetType = packet.getSubtype();
             // FIX: Do use class constants instead of hardcoded values.
             int GOSLevel = 0;
@@ -274,7 +275,8 @@ public class TTrafficGeneratorStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void reset() {
+    public synchronized void reset() {
+        this.statEntriesAdded = false;
         this.outgoingPackets = new XYSeriesCollection();
         this.discardedPackets = new XYSeriesCollection();
         this.outgoingIPv4Packets = new XYSeries(TStats.IPV4);
@@ -325,7 +327,7 @@ public class TTrafficGeneratorStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void groupStatsByTimeInstant(long timeInstant) {
+    public synchronized void groupStatsByTimeInstant(long timeInstant) {
         if (this.statsEnabled) {
             // FIX: do not use harcoded values. Use class constants instead.
             if (this.outgoingIPv4PacketsOfThisTimeInstant > 0) {
@@ -625,6 +627,8 @@ public class TTrafficGeneratorStats extends TStats {
         return null;
     }
 
+    private static final long serialVersionUID = 1L;
+
     private int outgoingIPv4PacketsOfThisTimeInstant;
     private int outgoingIPv4GOS1PacketsOfThisTimeInstant;
     private int outgoingIPv4GOS2PacketsOfThisTimeInstant;
@@ -15,6 +15,7 @@
  */
 package com.manolodominguez.opensimmpls.scenario;
 
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
 import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketReceived;
 import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
 import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
@@ -26,6 +27,8 @@ import com.manolodominguez.opensimmpls.hardware.ports.TPortSet;
 import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
 import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
 import java.awt.Point;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.ResourceBundle;
 
 /**
@@ -131,18 +134,20 @@ public class TTrafficSinkNode extends TNode implements ITimerEventListener, Runn
         if (incomingPort != null) {
             while (incomingPort.thereIsAPacketWaiting()) {
                 incomingPacket = incomingPort.getPacket();
-                try {
-                    eventID = this.eventIdentifierGenerator.getNextIdentifier();
-                } catch (Exception e) {
-                    // FIX: This is ugly
-                    e.printStackTrace();
-                }
                 // FIX: The following line has no effects as the method called
                 // does nothing. Check whether it is needed or not. If needed, 
                 // do not use harcoded values. Use class constants instead.
                 this.accountPacket(incomingPacket, true);
-                packetReceivedEvent = new TSimulationEventPacketReceived(this, eventID, this.getCurrentTimeInstant(), eventType, incomingPacket.getSize());
-                this.simulationEventsListener.captureSimulationEvents(packetReceivedEvent);
+                if (this.announceSimulationEvent(TSimulationEvent.PACKET_RECEIVED)) {
+                    try {
+                        eventID = this.eventIdentifierGenerator.getNextIdentifier();
+                    } catch (Exception e) {
+                        // FIX: This is ugly
+                        e.printStackTrace();
+                    }
+                    packetReceivedEvent = new TSimulationEventPacketReceived(this, eventID, this.getCurrentTimeInstant(), eventType, incomingPacket.getSize());
+                    this.generateSimulationEvent(packetReceivedEvent);
+                }
                 incomingPacket = null;
             }
         }
@@ -410,11 +415,18 @@ public class TTrafficSinkNode extends TNode implements ITimerEventListener, Runn
     public void runGPSRP(TMPLSPDU mplsPacket, int outgoingPortID) {
     }
 
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_TRAFFIC_SINK_NODE.getPath());
+    }
+
+    private static final long serialVersionUID = 1L;
+
     public static final int OK = 0;
     public static final int UNNAMED = 1;
     public static final int NAME_ALREADY_EXISTS = 2;
     public static final int ONLY_BLANK_SPACES = 3;
 
     private TTrafficSinkStats stats;
-    private ResourceBundle translations;
+    private transient ResourceBundle translations;
 }
@@ -159,8 +159,9 @@ public class TTrafficSinkStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void addStatEntry(TAbstractPDU packet, int entryType) {
+    public synchronized void addStatEntry(TAbstractPDU packet, int entryType) {
         if (this.statsEnabled) {
+            this.statEntriesAdded = true;
             int packetType = packet.getSubtype();
             // FIX: Do use class constants instead of hardcoded values.
             int GOSLevel = 0;
@@ -229,7 +230,8 @@ public class TTrafficSinkStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void reset() {
+    public synchronized void reset() {
+        this.statEntriesAdded = false;
         this.incomingPackets = new XYSeriesCollection();
         this.incomingIPv4Packets = new XYSeries(TStats.IPV4);
         this.incomingIPv4GOS1Packets = new XYSeries(TStats.IPV4_GOS1);
@@ -265,7 +267,7 @@ public class TTrafficSinkStats extends TStats {
      * @since 2.0
      */
     @Override
-    public void groupStatsByTimeInstant(long timeInstant) {
+    public synchronized void groupStatsByTimeInstant(long timeInstant) {
         if (this.statsEnabled) {
             // FIX: do not use harcoded values. Use class constants instead.
             if (incomingIPv4PacketsOfThisTimeInstant > 0) {
@@ -469,6 +471,8 @@ public class TTrafficSinkStats extends TStats {
         return null;
     }
 
+    private static final long serialVersionUID = 1L;
+
     private int incomingIPv4PacketsOfThisTimeInstant;
     private int incomingIPv4GOS1PacketsOfThisTimeInstant;
     private int incomingIPv4GOS2PacketsOfThisTimeInstant;
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario.simulationevents;
+
+/**
+ * This enum implements the policies a subscriber of a simulation event bus can
+ * use when it is not able to keep up with the simulation events being
+ * published.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public enum TBackpressurePolicy {
+    /**
+     * The simulation waits for the subscriber when the bus is full. No event
+     * is lost.
+     */
+    BLOCK,
+    /**
+     * The simulation never waits for the subscriber. The oldest events the
+     * subscriber has not received yet are lost when the bus is full.
+     */
+    DROP,
+    /**
+     * The simulation never waits for the subscriber. While it lags behind, the
+     * subscriber only receives an evenly spaced sample of the events.
+     */
+    SAMPLE
+}
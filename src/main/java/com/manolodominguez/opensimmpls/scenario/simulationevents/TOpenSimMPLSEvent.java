@@ -122,6 +122,7 @@ public abstract class TOpenSimMPLSEvent extends EventObject implements Comparabl
     public static final int SIMULATION = 1;
     public static final int TIMER = 2;
     public static final int PROGRESS = 3;
+    public static final int TELEMETRY = 4;
 
     private long eventID;
     private long instant;
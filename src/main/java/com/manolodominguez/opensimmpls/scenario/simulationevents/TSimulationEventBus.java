@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario.simulationevents;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements a bounded event bus that carries the simulation events
+ * generated by the topology elements of a scenario to any number of
+ * subscribers. Topology elements publish events concurrently, from the threads
+ * of the tick executor, into a ring buffer without taking any lock. Each
+ * subscriber has its own thread and its own cursor on the ring buffer, and
+ * receives the events in batches, in the same order they were published. What
+ * happens when a subscriber does not keep up depends on its backpressure
+ * policy.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TSimulationEventBus implements Serializable {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TSimulationEventBus with the default capacity.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public TSimulationEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TSimulationEventBus.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param capacity the number of simulation events the bus can hold. It has
+     * to be a power of two, two or greater.
+     * @since 2.0
+     */
+    public TSimulationEventBus(int capacity) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_SIMULATION_EVENT_BUS.getPath());
+        if ((capacity < TWO) || (Integer.bitCount(capacity) != ONE)) {
+            this.logger.error(this.translations.getString("argumentOutOfRange"));
+            throw new IllegalArgumentException(this.translations.getString("argumentOutOfRange"));
+        }
+        this.capacity = capacity;
+        initialize();
+    }
+
+    private void initialize() {
+        this.entries = new AtomicReferenceArray<>(this.capacity);
+        this.publishedSequences = new AtomicLongArray(this.capacity);
+        for (int slot = 0; slot < this.capacity; slot++) {
+            this.publishedSequences.set(slot, NO_SEQUENCE);
+        }
+        this.claimedSequence = new AtomicLong(NO_SEQUENCE);
+        this.gatingSequenceCache = NO_SEQUENCE;
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.subscribedSubtypes = NO_SUBTYPES;
+    }
+
+    /**
+     * This method computes the subtype mask that selects the specified
+     * simulation event subtypes, to subscribe only to them.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationEventSubtypes the subtypes of the simulation events. Each
+     * one is one of the constants defined in TSimulationEvent.
+     * @return the subtype mask that selects the specified subtypes.
+     * @since 2.0
+     */
+    public static long getSubtypeMask(int... simulationEventSubtypes) {
+        long subtypeMask = NO_SUBTYPES;
+        for (int simulationEventSubtype : simulationEventSubtypes) {
+            subtypeMask |= (ONE_BIT << simulationEventSubtype);
+        }
+        return subtypeMask;
+    }
+
+    /**
+     * This method subscribes a simulation event listener to this bus. From now
+     * on, it will receive every simulation event published to the bus, in its
+     * own thread, unless the backpressure policy discards some of them.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationEventListener the listener that will receive the
+     * simulation events.
+     * @param backpressurePolicy what to do when the listener does not keep up
+     * with the simulation events being published.
+     * @return the subscription, needed to unsubscribe the listener later.
+     * @since 2.0
+     */
+    public TSimulationEventSubscription subscribe(ISimulationEventListener simulationEventListener, TBackpressurePolicy backpressurePolicy) {
+        return subscribe(simulationEventListener, backpressurePolicy, ALL_SUBTYPES);
+    }
+
+    /**
+     * This method subscribes a simulation event listener to this bus, only
+     * for some simulation event subtypes. Topology elements do not even build
+     * simulation events of a subtype no listener is subscribed to.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationEventListener the listener that will receive the
+     * simulation events.
+     * @param backpressurePolicy what to do when the listener does not keep up
+     * with the simulation events being published.
+     * @param subtypeMask the subtypes of the simulation events the listener
+     * will receive, as computed by getSubtypeMask, or
+     * TSimulationEventBus.ALL_SUBTYPES.
+     * @return the subscription, needed to unsubscribe the listener later.
+     * @since 2.0
+     */
+    public TSimulationEventSubscription subscribe(ISimulationEventListener simulationEventListener, TBackpressurePolicy backpressurePolicy, long subtypeMask) {
+        if ((simulationEventListener == null) || (backpressurePolicy == null) || (subtypeMask == NO_SUBTYPES)) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        TSimulationEventSubscription subscription;
+        synchronized (this.subscriptions) {
+            subscription = new TSimulationEventSubscription(this, simulationEventListener, backpressurePolicy, subtypeMask, this.claimedSequence.get());
+            this.subscriptions.add(subscription);
+            this.subscribedSubtypes |= subtypeMask;
+        }
+        subscription.start();
+        return subscription;
+    }
+
+    /**
+     * This method unsubscribes a simulation event listener from this bus. Its
+     * thread stops after delivering the current batch, if any. Events that it
+     * has not received yet are discarded.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param subscription the subscription returned when the listener was
+     * subscribed.
+     * @since 2.0
+     */
+    public void unsubscribe(TSimulationEventSubscription subscription) {
+        synchronized (this.subscriptions) {
+            if (!this.subscriptions.remove(subscription)) {
+                return;
+            }
+            long remainingSubtypes = NO_SUBTYPES;
+            for (TSimulationEventSubscription remainingSubscription : this.subscriptions) {
+                remainingSubtypes |= remainingSubscription.getSubtypeMask();
+            }
+            this.subscribedSubtypes = remainingSubtypes;
+        }
+        subscription.stop();
+    }
+
+    /**
+     * This method checks whether there is any subscriber to this bus.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return TRUE, if at least a listener is subscribed. Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean hasSubscribers() {
+        return !this.subscriptions.isEmpty();
+    }
+
+    /**
+     * This method checks whether any listener is subscribed to the specified
+     * simulation event subtype. Topology elements use it to avoid building
+     * simulation events nobody is going to receive.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationEventSubtype the subtype of the simulation event. It is
+     * one of the constants defined in TSimulationEvent.
+     * @return TRUE, if at least a listener is subscribed to the subtype.
+     * Otherwise, FALSE.
+     * @since 2.0
+     */
+    public boolean isSubscribed(int simulationEventSubtype) {
+        return (this.subscribedSubtypes & (ONE_BIT << simulationEventSubtype)) != NO_SUBTYPES;
+    }
+
+    /**
+     * This method publishes a simulation event to every subscriber of this
+     * bus. It can be called concurrently by several topology elements. If
+     * no listener is subscribed to its subtype, the event is discarded right
+     * away. If a
+     * subscriber with a BLOCK policy lags a whole bus behind, this method waits
+     * for it.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationEvent the simulation event to be published.
+     * @since 2.0
+     */
+    public void publish(TSimulationEvent simulationEvent) {
+        if (simulationEvent == null) {
+            this.logger.error(this.translations.getString("badArgument"));
+            throw new IllegalArgumentException(this.translations.getString("badArgument"));
+        }
+        if (!isSubscribed(simulationEvent.getSubtype())) {
+            return;
+        }
+        long sequence = claim();
+        int slot = getSlot(sequence);
+        // The slot is marked as being written, so that subscribers that do not
+        // gate the publication detect an event overwritten while reading it.
+        this.publishedSequences.set(slot, WRITING);
+        this.entries.set(slot, simulationEvent);
+        this.publishedSequences.set(slot, sequence);
+    }
+
+    /**
+     * This method blocks until every subscriber has received, or discarded,
+     * every simulation event published before the call.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void flush() {
+        long lastSequence = this.claimedSequence.get();
+        for (TSimulationEventSubscription subscription : this.subscriptions) {
+            while ((subscription.isRunning()) && (subscription.getCursor() < lastSequence)) {
+                LockSupport.parkNanos(WAIT_IN_NS);
+            }
+        }
+    }
+
+    /**
+     * This method discards the simulation events that have been published but
+     * not yet received by the subscribers. It is used when the simulation is
+     * reset, so that events of the previous run are not delivered.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    public void discardPendingEvents() {
+        long lastSequence = this.claimedSequence.get();
+        for (TSimulationEventSubscription subscription : this.subscriptions) {
+            subscription.discardUpTo(lastSequence);
+        }
+    }
+
+    /**
+     * This method gets the number of simulation events the bus can hold.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the capacity of the bus.
+     * @since 2.0
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * This method claims the next sequence of the ring buffer, waiting while
+     * its slot is still needed by a subscriber with a BLOCK policy or is still
+     * being written by another publisher.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the claimed sequence.
+     * @since 2.0
+     */
+    private long claim() {
+        long sequence;
+        while (true) {
+            long currentSequence = this.claimedSequence.get();
+            sequence = currentSequence + ONE;
+            long wrapPoint = sequence - this.capacity;
+            if ((wrapPoint > this.gatingSequenceCache) && (wrapPoint > updateGatingSequence())) {
+                LockSupport.parkNanos(WAIT_IN_NS);
+                continue;
+            }
+            if (this.claimedSequence.compareAndSet(currentSequence, sequence)) {
+                break;
+            }
+        }
+        int slot = getSlot(sequence);
+        while (this.publishedSequences.get(slot) < (sequence - this.capacity)) {
+            Thread.yield();
+        }
+        return sequence;
+    }
+
+    private long updateGatingSequence() {
+        long gatingSequence = Long.MAX_VALUE;
+        for (TSimulationEventSubscription subscription : this.subscriptions) {
+            if (subscription.getBackpressurePolicy() == TBackpressurePolicy.BLOCK) {
+                gatingSequence = Math.min(gatingSequence, subscription.getCursor());
+            }
+        }
+        if (gatingSequence == Long.MAX_VALUE) {
+            // No subscriber gates the publication. Only the slot being reused
+            // has to be written completely, what claim() checks afterwards.
+            gatingSequence = this.claimedSequence.get();
+        }
+        this.gatingSequenceCache = gatingSequence;
+        return gatingSequence;
+    }
+
+    long getClaimedSequence() {
+        return this.claimedSequence.get();
+    }
+
+    long getPublishedSequence(long sequence) {
+        return this.publishedSequences.get(getSlot(sequence));
+    }
+
+    TSimulationEvent getEntry(long sequence) {
+        return this.entries.get(getSlot(sequence));
+    }
+
+    private int getSlot(long sequence) {
+        return (int) (sequence & (this.capacity - ONE));
+    }
+
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        // Subscribers are not part of checkpoints. The bus is restored empty
+        // and listeners have to subscribe again.
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_SIMULATION_EVENT_BUS.getPath());
+        initialize();
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    public static final long ALL_SUBTYPES = -1L;
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final long NO_SUBTYPES = 0L;
+    private static final long ONE_BIT = 1L;
+    private static final int ONE = 1;
+    private static final int TWO = 2;
+    private static final long NO_SEQUENCE = -1L;
+    private static final long WRITING = Long.MIN_VALUE;
+    private static final long WAIT_IN_NS = 50000L;
+
+    private final int capacity;
+    private transient AtomicReferenceArray<TSimulationEvent> entries;
+    private transient AtomicLongArray publishedSequences;
+    private transient AtomicLong claimedSequence;
+    private transient volatile long gatingSequenceCache;
+    private transient List<TSimulationEventSubscription> subscriptions;
+    private transient volatile long subscribedSubtypes;
+    private transient ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TSimulationEventBus.class);
+}
@@ -19,6 +19,7 @@ import java.util.Iterator;
 import java.util.TreeSet;
 import com.manolodominguez.opensimmpls.gui.simulator.JSimulationPanel;
 import com.manolodominguez.opensimmpls.commons.TSemaphore;
+import java.io.Serializable;
 
 /**
  * This class implements a simulation event listener that will receive
@@ -27,7 +28,7 @@ import com.manolodominguez.opensimmpls.commons.TSemaphore;
  * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
  * @version 2.0
  */
-public class TSimulationEventListener implements ISimulationEventListener {
+public class TSimulationEventListener implements ISimulationEventListener, Serializable {
 
     /**
      * This method is the constructor of the class. It creates a new instance of
@@ -56,7 +57,8 @@ public class TSimulationEventListener implements ISimulationEventListener {
 
     /**
      * This method, when implemented, will capture simulation events. It also
-     * delivers them to the simulation panel to be displayed.
+     * delivers them to the simulation panel to be displayed. If there is no
+     * simulation panel (headless simulation), events are discarded.
      *
      * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
      * @since 2.0
@@ -64,6 +66,9 @@ public class TSimulationEventListener implements ISimulationEventListener {
      */
     @Override
     public synchronized void captureSimulationEvents(TSimulationEvent simulationEvent) {
+        if (this.simulationPanel == null) {
+            return;
+        }
         // FIX: If nothing different is done... is it neccesary a switch?
         switch (simulationEvent.getSubtype()) {
             case TSimulationEvent.PACKET_GENERATED: {
@@ -155,7 +160,9 @@ public class TSimulationEventListener implements ISimulationEventListener {
         this.eventsSemaphore.setGreen();
     }
 
+    private static final long serialVersionUID = 1L;
+
     private TSemaphore eventsSemaphore;
     private TreeSet simulationEventsBuffer;
-    private JSimulationPanel simulationPanel;
+    private transient JSimulationPanel simulationPanel;
 }
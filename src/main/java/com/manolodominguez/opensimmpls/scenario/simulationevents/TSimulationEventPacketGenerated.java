@@ -45,6 +45,17 @@ public class TSimulationEventPacketGenerated extends TSimulationEvent {
         this.packetSize = packetSize;
     }
 
+    /**
+     * This method gets the size of the packet generated by the source node.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the size of the packet generated by the source node, in octects.
+     * @since 2.0
+     */
+    public int getPacketSize() {
+        return this.packetSize;
+    }
+
     /**
      * This method gets the type of the packet generated by the source node.
      *
@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario.simulationevents;
+
+import com.manolodominguez.opensimmpls.resources.translations.AvailableBundles;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class implements the subscription of a simulation event listener to a
+ * simulation event bus. It has its own thread that follows the ring buffer of
+ * the bus with its own cursor and delivers the simulation events to the
+ * listener in batches, applying the backpressure policy of the subscription.
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ * @version 2.0
+ */
+public class TSimulationEventSubscription implements Runnable {
+
+    /**
+     * This method is the constructor of the class. It creates a new instance of
+     * TSimulationEventSubscription. Subscriptions are created by
+     * TSimulationEventBus.subscribe.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @param simulationEventBus the bus the listener is subscribed to.
+     * @param simulationEventListener the listener that will receive the
+     * simulation events.
+     * @param backpressurePolicy what to do when the listener does not keep up
+     * with the simulation events being published.
+     * @param subtypeMask the subtypes of the simulation events the listener
+     * will receive.
+     * @param cursor the sequence of the last simulation event published before
+     * the subscription.
+     * @since 2.0
+     */
+    TSimulationEventSubscription(TSimulationEventBus simulationEventBus, ISimulationEventListener simulationEventListener, TBackpressurePolicy backpressurePolicy, long subtypeMask, long cursor) {
+        this.translations = ResourceBundle.getBundle(AvailableBundles.T_SIMULATION_EVENT_BUS.getPath());
+        this.simulationEventBus = simulationEventBus;
+        this.simulationEventListener = simulationEventListener;
+        this.backpressurePolicy = backpressurePolicy;
+        this.subtypeMask = subtypeMask;
+        this.cursor = new AtomicLong(cursor);
+        this.discardedSequence = new AtomicLong(cursor);
+        this.numberOfDeliveredEvents = new AtomicLong(ZERO);
+        this.numberOfDroppedEvents = new AtomicLong(ZERO);
+        this.running = false;
+        this.thread = null;
+    }
+
+    /**
+     * This method gets the listener of this subscription.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the listener that receives the simulation events.
+     * @since 2.0
+     */
+    public ISimulationEventListener getSimulationEventListener() {
+        return this.simulationEventListener;
+    }
+
+    /**
+     * This method gets the backpressure policy of this subscription.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the backpressure policy of this subscription.
+     * @since 2.0
+     */
+    public TBackpressurePolicy getBackpressurePolicy() {
+        return this.backpressurePolicy;
+    }
+
+    /**
+     * This method gets the subtypes of the simulation events the listener of
+     * this subscription receives.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the subtype mask of this subscription.
+     * @since 2.0
+     */
+    public long getSubtypeMask() {
+        return this.subtypeMask;
+    }
+
+    /**
+     * This method gets the number of simulation events delivered to the
+     * listener of this subscription.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of delivered simulation events.
+     * @since 2.0
+     */
+    public long getNumberOfDeliveredEvents() {
+        return this.numberOfDeliveredEvents.get();
+    }
+
+    /**
+     * This method gets the number of simulation events the listener of this
+     * subscription has not received because of its backpressure policy.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @return the number of dropped simulation events. It is always zero for a
+     * BLOCK policy.
+     * @since 2.0
+     */
+    public long getNumberOfDroppedEvents() {
+        return this.numberOfDroppedEvents.get();
+    }
+
+    /**
+     * This method follows the ring buffer of the bus and delivers simulation
+     * events to the listener until the subscription is stopped.
+     *
+     * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+     * @since 2.0
+     */
+    @Override
+    public void run() {
+        int capacity = this.simulationEventBus.getCapacity();
+        long nextSequence = this.cursor.get() + ONE;
+        int idleRounds = ZERO;
+        while (this.running) {
+            long discardUpTo = this.discardedSequence.get();
+            if (discardUpTo >= nextSequence) {
+                nextSequence = discardUpTo + ONE;
+                this.cursor.set(discardUpTo);
+            }
+            long claimedSequence = this.simulationEventBus.getClaimedSequence();
+            if (claimedSequence < nextSequence) {
+                idleRounds = waitForEvents(idleRounds);
+                continue;
+            }
+            long samplingInterval = ONE;
+            if (this.backpressurePolicy != TBackpressurePolicy.BLOCK) {
+                long oldestAvailableSequence = claimedSequence - capacity + ONE;
+                if (nextSequence < oldestAvailableSequence) {
+                    this.numberOfDroppedEvents.addAndGet(oldestAvailableSequence - nextSequence);
+                    nextSequence = oldestAvailableSequence;
+                }
+                if (this.backpressurePolicy == TBackpressurePolicy.SAMPLE) {
+                    // Nothing is discarded while the listener lags less than
+                    // half the bus. Beyond that, the more it lags, the sparser
+                    // the sample.
+                    samplingInterval = ((claimedSequence - nextSequence + ONE) / (capacity / TWO)) + ONE;
+                }
+            }
+            long lastSequence = Math.min(claimedSequence, nextSequence + MAXIMUM_BATCH_SIZE - ONE);
+            long sequence = nextSequence;
+            int deliveredEvents = ZERO;
+            while ((this.running) && (sequence <= lastSequence) && (sequence > this.discardedSequence.get())) {
+                long publishedSequence = this.simulationEventBus.getPublishedSequence(sequence);
+                if (publishedSequence < sequence) {
+                    // Claimed, but still being written.
+                    break;
+                }
+                TSimulationEvent simulationEvent = null;
+                if (publishedSequence == sequence) {
+                    simulationEvent = this.simulationEventBus.getEntry(sequence);
+                    if (this.simulationEventBus.getPublishedSequence(sequence) != sequence) {
+                        simulationEvent = null;
+                    }
+                }
+                if ((simulationEvent == null) || ((sequence % samplingInterval) != ZERO)) {
+                    this.numberOfDroppedEvents.incrementAndGet();
+                } else if ((this.subtypeMask & (ONE_BIT << simulationEvent.getSubtype())) != ZERO) {
+                    deliver(simulationEvent);
+                    deliveredEvents++;
+                }
+                sequence++;
+            }
+            if (sequence == nextSequence) {
+                idleRounds = waitForEvents(idleRounds);
+                continue;
+            }
+            idleRounds = ZERO;
+            nextSequence = sequence;
+            this.cursor.set(sequence - ONE);
+            if ((deliveredEvents > ZERO) && (this.simulationEventListener instanceof ISimulationEventBatchListener)) {
+                ((ISimulationEventBatchListener) this.simulationEventListener).captureEndOfBatch();
+            }
+        }
+    }
+
+    private void deliver(TSimulationEvent simulationEvent) {
+        try {
+            this.simulationEventListener.captureSimulationEvents(simulationEvent);
+            this.numberOfDeliveredEvents.incrementAndGet();
+        } catch (RuntimeException e) {
+            // A faulty listener must not stop the delivery of next events.
+            this.logger.error(this.translations.getString("listenerFailed"), e);
+        }
+    }
+
+    private int waitForEvents(int idleRounds) {
+        if (idleRounds < SPINNING_ROUNDS) {
+            Thread.yield();
+        } else if (idleRounds < SPINNING_ROUNDS + SHORT_PARKING_ROUNDS) {
+            LockSupport.parkNanos(SHORT_PARKING_IN_NS);
+        } else {
+            LockSupport.parkNanos(LONG_PARKING_IN_NS);
+            return idleRounds;
+        }
+        return idleRounds + ONE;
+    }
+
+    void start() {
+        this.running = true;
+        this.thread = new Thread(this, THREAD_NAME);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void stop() {
+        this.running = false;
+        LockSupport.unpark(this.thread);
+    }
+
+    boolean isRunning() {
+        return this.running;
+    }
+
+    long getCursor() {
+        return this.cursor.get();
+    }
+
+    void discardUpTo(long sequence) {
+        this.discardedSequence.accumulateAndGet(sequence, Math::max);
+    }
+
+    private static final int ZERO = 0;
+    private static final int ONE = 1;
+    private static final int TWO = 2;
+    private static final long ONE_BIT = 1L;
+    private static final int MAXIMUM_BATCH_SIZE = 256;
+    private static final int SPINNING_ROUNDS = 100;
+    private static final int SHORT_PARKING_ROUNDS = 100;
+    private static final long SHORT_PARKING_IN_NS = 50000L;
+    private static final long LONG_PARKING_IN_NS = 1000000L;
+    private static final String THREAD_NAME = "TSimulationEventSubscription";
+
+    private final TSimulationEventBus simulationEventBus;
+    private final ISimulationEventListener simulationEventListener;
+    private final TBackpressurePolicy backpressurePolicy;
+    private final long subtypeMask;
+    private final AtomicLong cursor;
+    private final AtomicLong discardedSequence;
+    private final AtomicLong numberOfDeliveredEvents;
+    private final AtomicLong numberOfDroppedEvents;
+    private volatile boolean running;
+    private Thread thread;
+    private ResourceBundle translations;
+    private final Logger logger = LoggerFactory.getLogger(TSimulationEventSubscription.class);
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.io.osm.TOSMLoader;
+import com.manolodominguez.opensimmpls.io.stats.TStatsSaver;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TBatchSimulatorTest {
+
+    @TempDir
+    File temporaryDirectory;
+
+    public TBatchSimulatorTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    // Loads one of the examples with the specified simulation length and tick
+    // duration.
+    private TBatchSimulator createBatchSimulator(String example, long simulationLengthInNs, int tickDurationInNs) throws IOException {
+        String osmDescription = new String(Files.readAllBytes(Paths.get("examples", example)), StandardCharsets.UTF_8);
+        osmDescription = osmDescription.replaceFirst("#Temporizacion#[0-9]+#[0-9]+#", "#Temporizacion#" + simulationLengthInNs + "#" + tickDurationInNs + "#");
+        TOSMLoader osmLoader = new TOSMLoader();
+        assertTrue(osmLoader.load(new StringReader(osmDescription)));
+        TBatchSimulator batchSimulator = new TBatchSimulator(osmLoader.getScenario());
+        batchSimulator.setRandomSeed(42);
+        return batchSimulator;
+    }
+
+    // Loads one of the examples with the specified simulation length and its
+    // own tick duration.
+    private TBatchSimulator createBatchSimulator(String example, long simulationLengthInNs) throws IOException {
+        String osmDescription = new String(Files.readAllBytes(Paths.get("examples", example)), StandardCharsets.UTF_8);
+        osmDescription = osmDescription.replaceFirst("#Temporizacion#[0-9]+#", "#Temporizacion#" + simulationLengthInNs + "#");
+        TOSMLoader osmLoader = new TOSMLoader();
+        assertTrue(osmLoader.load(new StringReader(osmDescription)));
+        TBatchSimulator batchSimulator = new TBatchSimulator(osmLoader.getScenario());
+        batchSimulator.setRandomSeed(42);
+        return batchSimulator;
+    }
+
+    private String statsOf(TBatchSimulator batchSimulator) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new TStatsSaver(batchSimulator.getScenario()).save(new PrintStream(bytes));
+        return bytes.toString();
+    }
+
+    /**
+     * Test of setSimulationOptions method, of class TBatchSimulator.
+     */
+    @Test
+    public void testSimulateAdaptiveTickMatchesFixedTick() throws IOException {
+        System.out.println("Test setSimulationOptions");
+        TBatchSimulator fixedTick = createBatchSimulator("GoSJustification.osm", 100000, 10);
+        fixedTick.simulate();
+        TBatchSimulator adaptiveTick = createBatchSimulator("GoSJustification.osm", 100000, 10);
+        TSimulationOptions simulationOptions = new TSimulationOptions();
+        simulationOptions.setAdaptiveTick(true);
+        adaptiveTick.setSimulationOptions(simulationOptions);
+        adaptiveTick.simulate();
+        String expectedStats = statsOf(fixedTick);
+        assertFalse(expectedStats.isEmpty());
+        assertEquals(expectedStats, statsOf(adaptiveTick));
+    }
+
+    /**
+     * Test of setSimulationOptions method, of class TBatchSimulator.
+     */
+    @Test
+    public void testSimulateActiveSetDispatchMatchesDefaultDispatch() throws IOException {
+        System.out.println("Test setSimulationOptions");
+        String[] examples = new File("examples").list((directory, name) -> name.endsWith(".osm"));
+        assertNotNull(examples);
+        assertTrue(examples.length > 0);
+        Arrays.sort(examples);
+        for (String example : examples) {
+            TBatchSimulator defaultDispatch = createBatchSimulator(example, 200000);
+            defaultDispatch.simulate();
+            TBatchSimulator activeSetDispatch = createBatchSimulator(example, 200000);
+            TSimulationOptions simulationOptions = new TSimulationOptions();
+            simulationOptions.setActiveSetDispatch(true);
+            activeSetDispatch.setSimulationOptions(simulationOptions);
+            activeSetDispatch.simulate();
+            assertEquals(statsOf(defaultDispatch), statsOf(activeSetDispatch), example);
+        }
+    }
+
+    /**
+     * Test of setSimulationOptions method, of class TBatchSimulator.
+     */
+    @Test
+    public void testSimulateEventDrivenMatchesTickByTick() throws IOException {
+        System.out.println("Test setSimulationOptions");
+        String[] examples = {"PacketsRecovery.osm", "RABANEffect.osm"};
+        for (String example : examples) {
+            TBatchSimulator tickByTick = createBatchSimulator(example, 200000);
+            tickByTick.simulate();
+            TBatchSimulator eventDriven = createBatchSimulator(example, 200000);
+            TSimulationOptions simulationOptions = new TSimulationOptions();
+            simulationOptions.setEventDriven(true);
+            simulationOptions.setAdaptiveTick(true);
+            eventDriven.setSimulationOptions(simulationOptions);
+            eventDriven.simulate();
+            assertEquals(statsOf(tickByTick), statsOf(eventDriven), example);
+        }
+    }
+
+    /**
+     * Test of setSimulationOptions method, of class TBatchSimulator.
+     */
+    @Test
+    public void testSimulatePartitionedMatchesUnpartitioned() throws IOException {
+        System.out.println("Test setSimulationOptions");
+        // Long enough for GPSRP requests to cross partitions.
+        TBatchSimulator unpartitioned = createBatchSimulator("PacketsRecovery.osm", 600000);
+        unpartitioned.simulate();
+        String expectedStats = statsOf(unpartitioned);
+        for (int numberOfPartitions = 2; numberOfPartitions <= 4; numberOfPartitions++) {
+            TBatchSimulator partitioned = createBatchSimulator("PacketsRecovery.osm", 600000);
+            TSimulationOptions simulationOptions = new TSimulationOptions();
+            simulationOptions.setNumberOfPartitions(numberOfPartitions);
+            partitioned.setSimulationOptions(simulationOptions);
+            partitioned.simulate();
+            assertEquals(expectedStats, statsOf(partitioned), "Partitions: " + numberOfPartitions);
+        }
+    }
+
+    /**
+     * Test of setSimulationOptions method, of class TBatchSimulator.
+     */
+    @Test
+    public void testSetSimulationOptions() throws IOException {
+        System.out.println("Test setSimulationOptions");
+        TBatchSimulator instance = createBatchSimulator("GoSJustification.osm", 20000, 10);
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.setSimulationOptions(null);
+        });
+        TSimulationOptions simulationOptions = new TSimulationOptions();
+        simulationOptions.setEventDriven(true);
+        simulationOptions.setNumberOfPartitions(2);
+        instance.setSimulationOptions(simulationOptions);
+        // Later changes do not affect the simulator.
+        simulationOptions.setEventDriven(false);
+        assertTrue(instance.getSimulationOptions().isEventDriven());
+        assertEquals(2, instance.getSimulationOptions().getNumberOfPartitions());
+        instance.simulate();
+        assertTrue(instance.getScenario().getTopology().getTimer().isEventDriven());
+        assertEquals(2, instance.getScenario().getTopology().getTimer().getNumberOfPartitions());
+    }
+
+    /**
+     * Test of setRandomSeed method, of class TBatchSimulator.
+     */
+    @Test
+    public void testSetRandomSeedMakesTheSimulationRepeatable() throws IOException {
+        System.out.println("Test setRandomSeed");
+        TBatchSimulator firstRun = createBatchSimulator("GoSJustification.osm", 100000, 10);
+        firstRun.simulate();
+        assertTrue(firstRun.getScenario().getTopology().getTimer().isSequentialDispatch());
+        TBatchSimulator secondRun = createBatchSimulator("GoSJustification.osm", 100000, 10);
+        secondRun.simulate();
+        assertEquals(statsOf(firstRun), statsOf(secondRun));
+        // Resumed seeded simulations are repeatable too.
+        File checkpointFile = new File(this.temporaryDirectory, "scenario.checkpoint");
+        assertTrue(firstRun.saveCheckpoint(checkpointFile));
+        assertTrue(TBatchSimulator.fromCheckpointFile(checkpointFile).getScenario().getTopology().getTimer().isSequentialDispatch());
+    }
+
+    /**
+     * Test of setRandomSeed method, of class TBatchSimulator.
+     */
+    @Test
+    public void testSimulateWithoutSeedIsConcurrent() throws IOException {
+        System.out.println("Test setRandomSeed");
+        String osmDescription = new String(Files.readAllBytes(Paths.get("examples", "GoSJustification.osm")), StandardCharsets.UTF_8);
+        osmDescription = osmDescription.replaceFirst("#Temporizacion#[0-9]+#[0-9]+#", "#Temporizacion#10000#10#");
+        TOSMLoader osmLoader = new TOSMLoader();
+        assertTrue(osmLoader.load(new StringReader(osmDescription)));
+        TBatchSimulator instance = new TBatchSimulator(osmLoader.getScenario());
+        instance.simulate();
+        assertFalse(instance.getScenario().getTopology().getTimer().isSequentialDispatch());
+    }
+
+    /**
+     * Test of fromCheckpointFile method, of class TBatchSimulator.
+     */
+    @Test
+    public void testFromCheckpointFileRestoresSimulationOptions() throws IOException {
+        System.out.println("Test fromCheckpointFile");
+        TBatchSimulator warmedUp = createBatchSimulator("GoSJustification.osm", 20000, 10);
+        TSimulationOptions simulationOptions = new TSimulationOptions();
+        simulationOptions.setEventDriven(true);
+        simulationOptions.setActiveSetDispatch(true);
+        simulationOptions.setAdaptiveTick(true);
+        warmedUp.setSimulationOptions(simulationOptions);
+        warmedUp.simulateUntil(10000);
+        File checkpointFile = new File(this.temporaryDirectory, "scenario.checkpoint");
+        assertTrue(warmedUp.saveCheckpoint(checkpointFile));
+        TSimulationOptions restoredOptions = TBatchSimulator.fromCheckpointFile(checkpointFile).getSimulationOptions();
+        assertTrue(restoredOptions.isEventDriven());
+        assertTrue(restoredOptions.isActiveSetDispatch());
+        assertTrue(restoredOptions.isAdaptiveTick());
+        assertEquals(1, restoredOptions.getNumberOfPartitions());
+    }
+
+    /**
+     * Test of simulateUntil and resume methods, of class TBatchSimulator.
+     */
+    @Test
+    public void testResumeMatchesUninterruptedSimulation() throws IOException {
+        System.out.println("Test simulateUntil and resume");
+        TBatchSimulator uninterrupted = createBatchSimulator("AllTypesOfTraffic.osm", 200000, 150);
+        uninterrupted.simulate();
+        // The warm-up is not a multiple of the tick duration.
+        TBatchSimulator warmedUp = createBatchSimulator("AllTypesOfTraffic.osm", 200000, 150);
+        warmedUp.simulateUntil(100000);
+        File checkpointFile = new File(this.temporaryDirectory, "scenario.checkpoint");
+        assertTrue(warmedUp.saveCheckpoint(checkpointFile));
+        TBatchSimulator resumed = TBatchSimulator.fromCheckpointFile(checkpointFile);
+        assertNotNull(resumed);
+        resumed.resume();
+        warmedUp.resume();
+        String expectedStats = statsOf(uninterrupted);
+        assertEquals(expectedStats, statsOf(resumed));
+        assertEquals(expectedStats, statsOf(warmedUp));
+    }
+
+    /**
+     * Test of simulateUntil method, of class TBatchSimulator.
+     */
+    @Test
+    public void testSimulateUntilWhenInstantIsOutOfTheSimulation() throws IOException {
+        System.out.println("Test simulateUntil");
+        TBatchSimulator instance = createBatchSimulator("AllTypesOfTraffic.osm", 200000, 150);
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.simulateUntil(200001);
+        });
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.io.stats.TStatsSaver;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TParameterSweepTest {
+
+    @TempDir
+    File temporaryDirectory;
+
+    public TParameterSweepTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    // Writes a short simulation of one of the examples to a file.
+    private File createScenarioFile() throws IOException {
+        return createScenarioFile(20000);
+    }
+
+    private File createScenarioFile(long simulationLengthInNs) throws IOException {
+        String osmDescription = new String(Files.readAllBytes(Paths.get("examples", "GoSJustification.osm")), StandardCharsets.UTF_8);
+        osmDescription = osmDescription.replaceFirst("#Temporizacion#[0-9]+#", "#Temporizacion#" + simulationLengthInNs + "#");
+        File scenarioFile = new File(this.temporaryDirectory, "GoSJustification.osm");
+        Files.write(scenarioFile.toPath(), osmDescription.getBytes(StandardCharsets.UTF_8));
+        return scenarioFile;
+    }
+
+    private File createSweepFile(String sweepSpecification) throws IOException {
+        File sweepFile = new File(this.temporaryDirectory, "sweep.txt");
+        Files.write(sweepFile.toPath(), sweepSpecification.getBytes(StandardCharsets.UTF_8));
+        return sweepFile;
+    }
+
+    /**
+     * Test of constructor, of class TParameterSweep.
+     */
+    @Test
+    public void testConstructorWhenScenarioFileIsNull() {
+        System.out.println("Test constructor");
+        assertThrows(IllegalArgumentException.class, () -> {
+            new TParameterSweep(null);
+        });
+    }
+
+    /**
+     * Test of addSweptParameter method, of class TParameterSweep.
+     */
+    @Test
+    public void testAddSweptParameterWhenValuesAreEmpty() {
+        System.out.println("Test addSweptParameter");
+        TParameterSweep instance = new TParameterSweep(new File("scenario.osm"));
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.addSweptParameter(TSweepParameter.LINK_DELAY, new int[0]);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.addSweptParameter(null, new int[]{1});
+        });
+        assertEquals(1, instance.getNumberOfPoints());
+    }
+
+    /**
+     * Test of getNumberOfPoints method, of class TParameterSweep.
+     */
+    @Test
+    public void testGetNumberOfPoints() {
+        System.out.println("Test getNumberOfPoints");
+        TParameterSweep instance = new TParameterSweep(new File("scenario.osm"));
+        assertEquals(1, instance.getNumberOfPoints());
+        instance.addSweptParameter(TSweepParameter.LINK_DELAY, new int[]{1000, 2000, 4000});
+        assertEquals(3, instance.getNumberOfPoints());
+        instance.addSweptParameter(TSweepParameter.BUFFER_SIZE, new int[]{1, 2});
+        assertEquals(6, instance.getNumberOfPoints());
+    }
+
+    /**
+     * Test of loadSweepSpecification method, of class TParameterSweep.
+     */
+    @Test
+    public void testLoadSweepSpecification() throws IOException {
+        System.out.println("Test loadSweepSpecification");
+        TParameterSweep instance = new TParameterSweep(new File("scenario.osm"));
+        File sweepFile = createSweepFile("# Swept parameters\n\nlinkDelay = 1000, 2000, 4000\n  bufferSize=1,2\n");
+        assertTrue(instance.loadSweepSpecification(sweepFile));
+        assertEquals(6, instance.getNumberOfPoints());
+    }
+
+    /**
+     * Test of loadSweepSpecification method, of class TParameterSweep.
+     */
+    @Test
+    public void testLoadSweepSpecificationWhenItIsNotWellFormed() throws IOException {
+        System.out.println("Test loadSweepSpecification");
+        TParameterSweep instance = new TParameterSweep(new File("scenario.osm"));
+        String[] badSpecifications = {
+            "linkDelay=1000\nbufferSize\n",
+            "linkDelay=1000\nlinkSpeed=1,2\n",
+            "linkDelay=1000\nbufferSize=1,two\n",
+            "linkDelay=1000\nbufferSize=\n",
+            "linkDelay=1000\nbufferSize=1,,2\n"
+        };
+        for (String badSpecification : badSpecifications) {
+            assertFalse(instance.loadSweepSpecification(createSweepFile(badSpecification)));
+            // No parameter is added, not even the well formed ones.
+            assertEquals(1, instance.getNumberOfPoints());
+        }
+        assertFalse(instance.loadSweepSpecification(new File(this.temporaryDirectory, "missing.txt")));
+        assertEquals(1, instance.getNumberOfPoints());
+    }
+
+    /**
+     * Test of run method, of class TParameterSweep.
+     */
+    @Test
+    public void testRunExpandsTheGrid() throws IOException {
+        System.out.println("Test run");
+        TParameterSweep instance = new TParameterSweep(createScenarioFile());
+        instance.addSweptParameter(TSweepParameter.BUFFER_SIZE, new int[]{1, 4});
+        instance.addSweptParameter(TSweepParameter.LINK_DELAY, new int[]{1000, 3000, 5000});
+        instance.setNumberOfWorkers(2);
+        instance.setRandomSeed(7);
+        File resultsFile = new File(this.temporaryDirectory, "results.csv");
+        assertTrue(instance.run(resultsFile));
+        List<String> lines = Files.readAllLines(resultsFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals("point,bufferSize,linkDelay,nodeID,nodeName,dataset,series,x,y", lines.get(0));
+        Set<String> points = new LinkedHashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            points.add(columns[0] + "," + columns[1] + "," + columns[2]);
+        }
+        List<String> expectedPoints = new ArrayList<>();
+        expectedPoints.add("0,1,1000");
+        expectedPoints.add("1,1,3000");
+        expectedPoints.add("2,1,5000");
+        expectedPoints.add("3,4,1000");
+        expectedPoints.add("4,4,3000");
+        expectedPoints.add("5,4,5000");
+        assertEquals(expectedPoints, new ArrayList<>(points));
+    }
+
+    /**
+     * Test of run method, of class TParameterSweep.
+     */
+    @Test
+    public void testRunMatchesSingleSimulations() throws IOException {
+        System.out.println("Test run");
+        File scenarioFile = createScenarioFile();
+        TParameterSweep instance = new TParameterSweep(scenarioFile);
+        instance.addSweptParameter(TSweepParameter.LINK_DELAY, new int[]{1000, 3000});
+        instance.setRandomSeed(7);
+        File resultsFile = new File(this.temporaryDirectory, "results.csv");
+        assertTrue(instance.run(resultsFile));
+        List<String> lines = Files.readAllLines(resultsFile.toPath(), StandardCharsets.UTF_8);
+        int[] linkDelays = {1000, 3000};
+        for (int point = 0; point < linkDelays.length; point++) {
+            // Every point starts from a fresh copy of the base scenario.
+            TBatchSimulator batchSimulator = TBatchSimulator.fromOSMFile(scenarioFile);
+            TSweepParameter.LINK_DELAY.apply(batchSimulator.getScenario(), linkDelays[point]);
+            batchSimulator.setRandomSeed(7);
+            batchSimulator.simulate();
+            List<String> expectedRows = new ArrayList<>();
+            String pointPrefix = point + "," + linkDelays[point] + ",";
+            new TStatsSaver(batchSimulator.getScenario()).forEachValue((row, value) -> expectedRows.add(pointPrefix + row + "," + value));
+            List<String> pointRows = new ArrayList<>();
+            for (String line : lines) {
+                if (line.startsWith(pointPrefix)) {
+                    pointRows.add(line);
+                }
+            }
+            assertFalse(expectedRows.isEmpty());
+            assertEquals(expectedRows, pointRows);
+        }
+    }
+
+    /**
+     * Test of run method, of class TParameterSweep.
+     */
+    @Test
+    public void testRunWhenScenarioFileIsMissing() {
+        System.out.println("Test run");
+        TParameterSweep instance = new TParameterSweep(new File(this.temporaryDirectory, "missing.osm"));
+        assertFalse(instance.run(new File(this.temporaryDirectory, "results.csv")));
+    }
+
+    /**
+     * Test of run method, of class TParameterSweep.
+     */
+    @Test
+    public void testRunWhenWallClockBudgetIsExhausted() throws IOException {
+        System.out.println("Test run");
+        TParameterSweep instance = new TParameterSweep(createScenarioFile(1000000000));
+        instance.addSweptParameter(TSweepParameter.LINK_DELAY, new int[]{1000, 3000});
+        TSimulationOptions simulationOptions = new TSimulationOptions();
+        simulationOptions.setWallClockBudget(1);
+        instance.setSimulationOptions(simulationOptions);
+        File resultsFile = new File(this.temporaryDirectory, "results.csv");
+        assertTrue(instance.run(resultsFile));
+        assertEquals(2, instance.getNumberOfTruncatedPoints());
+        // Only the header is written; truncated points get no rows.
+        assertEquals(1, Files.readAllLines(resultsFile.toPath(), StandardCharsets.UTF_8).size());
+    }
+}
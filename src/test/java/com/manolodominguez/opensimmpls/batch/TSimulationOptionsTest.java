@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.hardware.timer.TTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TSimulationOptionsTest {
+
+    public TSimulationOptionsTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of constructor, of class TSimulationOptions.
+     */
+    @Test
+    public void testConstructor() {
+        System.out.println("Test constructor");
+        TSimulationOptions instance = new TSimulationOptions();
+        assertFalse(instance.isEventDriven());
+        assertFalse(instance.isActiveSetDispatch());
+        assertFalse(instance.isAdaptiveTick());
+        assertEquals(TTimer.NO_WALL_CLOCK_BUDGET, instance.getWallClockBudget());
+        assertEquals(1, instance.getNumberOfPartitions());
+    }
+
+    /**
+     * Test of constructor, of class TSimulationOptions.
+     */
+    @Test
+    public void testConstructorWhenCopying() {
+        System.out.println("Test constructor");
+        TSimulationOptions simulationOptions = new TSimulationOptions();
+        simulationOptions.setEventDriven(true);
+        simulationOptions.setActiveSetDispatch(true);
+        simulationOptions.setAdaptiveTick(true);
+        simulationOptions.setWallClockBudget(5000);
+        simulationOptions.setNumberOfPartitions(4);
+        TSimulationOptions instance = new TSimulationOptions(simulationOptions);
+        assertTrue(instance.isEventDriven());
+        assertTrue(instance.isActiveSetDispatch());
+        assertTrue(instance.isAdaptiveTick());
+        assertEquals(5000, instance.getWallClockBudget());
+        assertEquals(4, instance.getNumberOfPartitions());
+        assertThrows(IllegalArgumentException.class, () -> {
+            new TSimulationOptions(null);
+        });
+    }
+
+    /**
+     * Test of setWallClockBudget method, of class TSimulationOptions.
+     */
+    @Test
+    public void testSetWallClockBudgetWhenOutOfRange() {
+        System.out.println("Test setWallClockBudget");
+        TSimulationOptions instance = new TSimulationOptions();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.setWallClockBudget(TTimer.NO_WALL_CLOCK_BUDGET - 1);
+        });
+        assertEquals(TTimer.NO_WALL_CLOCK_BUDGET, instance.getWallClockBudget());
+    }
+
+    /**
+     * Test of setNumberOfPartitions method, of class TSimulationOptions.
+     */
+    @Test
+    public void testSetNumberOfPartitionsWhenOutOfRange() {
+        System.out.println("Test setNumberOfPartitions");
+        TSimulationOptions instance = new TSimulationOptions();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.setNumberOfPartitions(0);
+        });
+        assertEquals(1, instance.getNumberOfPartitions());
+    }
+}
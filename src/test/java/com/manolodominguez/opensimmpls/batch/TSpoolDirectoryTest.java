@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TSpoolDirectoryTest {
+
+    @TempDir
+    File temporaryDirectory;
+
+    public TSpoolDirectoryTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private boolean isJobIn(String subdirectory, TSpoolJob spoolJob) {
+        return new File(new File(this.temporaryDirectory, subdirectory), spoolJob.getJobName()).isFile();
+    }
+
+    /**
+     * Test of constructor, of class TSpoolDirectory.
+     */
+    @Test
+    public void testConstructorWhenDirectoryIsNull() {
+        System.out.println("Test constructor");
+        assertThrows(IllegalArgumentException.class, () -> {
+            new TSpoolDirectory(null);
+        });
+    }
+
+    /**
+     * Test of addScenario method, of class TSpoolDirectory.
+     */
+    @Test
+    public void testAddScenario() {
+        System.out.println("Test addScenario");
+        TSpoolDirectory instance = new TSpoolDirectory(this.temporaryDirectory);
+        assertTrue(instance.initialize());
+        String scenarioName = instance.addScenario(new File("examples", "GoSJustification.osm"));
+        assertNotNull(scenarioName);
+        assertTrue(instance.getScenarioFile(instance.createJob(scenarioName)).isFile());
+        assertNull(instance.addScenario(new File(this.temporaryDirectory, "missing.osm")));
+    }
+
+    /**
+     * Test of submit, claim and complete methods, of class TSpoolDirectory.
+     */
+    @Test
+    public void testCompletedJobGoesFromPendingToRunningToDone() {
+        System.out.println("Test submit, claim and complete");
+        TSpoolDirectory instance = new TSpoolDirectory(this.temporaryDirectory);
+        assertTrue(instance.initialize());
+        TSpoolJob spoolJob = instance.createJob("scenario.osm");
+        assertTrue(instance.submit(spoolJob));
+        assertTrue(isJobIn("pending", spoolJob));
+        assertEquals(1, instance.getNumberOfPendingJobs());
+        TSpoolJob claimedJob = instance.claim();
+        assertNotNull(claimedJob);
+        assertEquals(spoolJob.getJobName(), claimedJob.getJobName());
+        assertFalse(isJobIn("pending", spoolJob));
+        assertTrue(isJobIn("running", spoolJob));
+        assertEquals(0, instance.getNumberOfPendingJobs());
+        assertNull(instance.claim());
+        assertTrue(instance.complete(claimedJob, new TScenario()));
+        assertFalse(isJobIn("running", spoolJob));
+        assertTrue(isJobIn("done", spoolJob));
+        assertTrue(instance.getResultsFile(claimedJob).isFile());
+    }
+
+    /**
+     * Test of submit, claim and fail methods, of class TSpoolDirectory.
+     */
+    @Test
+    public void testFailedJobGoesFromPendingToRunningToFailed() {
+        System.out.println("Test submit, claim and fail");
+        TSpoolDirectory instance = new TSpoolDirectory(this.temporaryDirectory);
+        assertTrue(instance.initialize());
+        TSpoolJob spoolJob = instance.createJob("scenario.osm");
+        assertTrue(instance.submit(spoolJob));
+        TSpoolJob claimedJob = instance.claim();
+        assertNotNull(claimedJob);
+        assertTrue(isJobIn("running", spoolJob));
+        instance.fail(claimedJob);
+        assertFalse(isJobIn("running", spoolJob));
+        assertTrue(isJobIn("failed", spoolJob));
+        assertFalse(instance.getResultsFile(claimedJob).exists());
+    }
+
+    /**
+     * Test of claim method, of class TSpoolDirectory.
+     */
+    @Test
+    public void testClaimInSubmissionOrder() {
+        System.out.println("Test claim");
+        TSpoolDirectory instance = new TSpoolDirectory(this.temporaryDirectory);
+        assertTrue(instance.initialize());
+        TSpoolJob firstJob = instance.createJob("scenario.osm");
+        TSpoolJob secondJob = instance.createJob("scenario.osm");
+        assertTrue(instance.submit(secondJob));
+        assertTrue(instance.submit(firstJob));
+        assertEquals(firstJob.getJobName(), instance.claim().getJobName());
+        assertEquals(secondJob.getJobName(), instance.claim().getJobName());
+    }
+
+    /**
+     * Test of claim method, of class TSpoolDirectory.
+     */
+    @Test
+    public void testClaimWhenJobIsMalformed() throws IOException {
+        System.out.println("Test claim");
+        TSpoolDirectory instance = new TSpoolDirectory(this.temporaryDirectory);
+        assertTrue(instance.initialize());
+        TSpoolJob malformedJob = instance.createJob("scenario.osm");
+        Files.write(new File(new File(this.temporaryDirectory, "pending"), malformedJob.getJobName()).toPath(), "linkDelay=fast\n".getBytes(StandardCharsets.ISO_8859_1));
+        TSpoolJob spoolJob = instance.createJob("scenario.osm");
+        assertTrue(instance.submit(spoolJob));
+        // The malformed job is older, but it is skipped.
+        assertEquals(spoolJob.getJobName(), instance.claim().getJobName());
+        assertTrue(isJobIn("failed", malformedJob));
+        assertFalse(isJobIn("running", malformedJob));
+        assertNull(instance.claim());
+    }
+
+    /**
+     * Test of claim method, of class TSpoolDirectory.
+     */
+    @Test
+    public void testClaimWhenSeveralWorkersClaimTheSameJob() throws Exception {
+        System.out.println("Test claim");
+        // Each worker has its own instance, as if it were in another process.
+        TSpoolDirectory coordinator = new TSpoolDirectory(this.temporaryDirectory);
+        TSpoolDirectory firstWorker = new TSpoolDirectory(this.temporaryDirectory);
+        TSpoolDirectory secondWorker = new TSpoolDirectory(this.temporaryDirectory);
+        assertTrue(coordinator.initialize());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 200; i++) {
+                TSpoolJob spoolJob = coordinator.createJob("scenario.osm");
+                assertTrue(coordinator.submit(spoolJob));
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Callable<TSpoolJob> firstClaim = () -> {
+                    barrier.await();
+                    return firstWorker.claim();
+                };
+                Callable<TSpoolJob> secondClaim = () -> {
+                    barrier.await();
+                    return secondWorker.claim();
+                };
+                Future<TSpoolJob> firstClaimedJob = executor.submit(firstClaim);
+                Future<TSpoolJob> secondClaimedJob = executor.submit(secondClaim);
+                TSpoolJob firstResult = firstClaimedJob.get();
+                TSpoolJob secondResult = secondClaimedJob.get();
+                // Exactly one worker wins; the other one finds nothing to do.
+                assertTrue((firstResult == null) != (secondResult == null));
+                TSpoolJob claimedJob = (firstResult != null) ? firstResult : secondResult;
+                assertEquals(spoolJob.getJobName(), claimedJob.getJobName());
+                assertTrue(isJobIn("running", spoolJob));
+                assertFalse(isJobIn("failed", spoolJob));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TSpoolJobTest {
+
+    public TSpoolJobTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private TSpoolJob load(String jobDescription) throws IOException {
+        return TSpoolJob.load("job", new ByteArrayInputStream(jobDescription.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    /**
+     * Test of setParameter method, of class TSpoolJob.
+     */
+    @Test
+    public void testSetParameterWhenParameterIsNull() {
+        System.out.println("Test setParameter");
+        TSpoolJob instance = new TSpoolJob("job", "scenario.osm");
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.setParameter(null, 1);
+        });
+    }
+
+    /**
+     * Test of store and load methods, of class TSpoolJob.
+     */
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        System.out.println("Test store and load");
+        TSpoolJob instance = new TSpoolJob("job", "scenario.osm");
+        instance.setParameter(TSweepParameter.LINK_DELAY, 1000);
+        instance.setParameter(TSweepParameter.BUFFER_SIZE, 5);
+        instance.setRandomSeed(42);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        instance.store(output);
+        TSpoolJob loadedJob = TSpoolJob.load("job", new ByteArrayInputStream(output.toByteArray()));
+        assertNotNull(loadedJob);
+        assertEquals("job", loadedJob.getJobName());
+        assertEquals("scenario.osm", loadedJob.getScenarioName());
+        assertEquals(instance.getParameters(), loadedJob.getParameters());
+        ByteArrayOutputStream loadedOutput = new ByteArrayOutputStream();
+        loadedJob.store(loadedOutput);
+        assertTrue(loadedOutput.toString("ISO-8859-1").contains("seed=42"));
+    }
+
+    /**
+     * Test of load method, of class TSpoolJob.
+     */
+    @Test
+    public void testLoadWhenScenarioIsMissing() throws IOException {
+        System.out.println("Test load");
+        assertNull(load("linkDelay=1000\n"));
+    }
+
+    /**
+     * Test of load method, of class TSpoolJob.
+     */
+    @Test
+    public void testLoadWhenParameterIsUnknown() throws IOException {
+        System.out.println("Test load");
+        assertNull(load("scenario=scenario.osm\nlinkSpeed=1000\n"));
+    }
+
+    /**
+     * Test of load method, of class TSpoolJob.
+     */
+    @Test
+    public void testLoadWhenValueIsNotANumber() throws IOException {
+        System.out.println("Test load");
+        assertNull(load("scenario=scenario.osm\nlinkDelay=fast\n"));
+        assertNull(load("scenario=scenario.osm\nseed=none\n"));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TSpoolWorkerTest {
+
+    @TempDir
+    File temporaryDirectory;
+
+    public TSpoolWorkerTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    // Adds a short simulation of one of the examples to the spool directory.
+    private String addScenario(TSpoolDirectory spoolDirectory) throws IOException {
+        return addScenario(spoolDirectory, 20000);
+    }
+
+    private String addScenario(TSpoolDirectory spoolDirectory, long simulationLengthInNs) throws IOException {
+        String osmDescription = new String(Files.readAllBytes(Paths.get("examples", "GoSJustification.osm")), StandardCharsets.UTF_8);
+        osmDescription = osmDescription.replaceFirst("#Temporizacion#[0-9]+#", "#Temporizacion#" + simulationLengthInNs + "#");
+        File scenarioFile = new File(this.temporaryDirectory, "GoSJustification.osm");
+        Files.write(scenarioFile.toPath(), osmDescription.getBytes(StandardCharsets.UTF_8));
+        return spoolDirectory.addScenario(scenarioFile);
+    }
+
+    private boolean isJobIn(File spoolRoot, String subdirectory, TSpoolJob spoolJob) {
+        return new File(new File(spoolRoot, subdirectory), spoolJob.getJobName()).isFile();
+    }
+
+    /**
+     * Test of constructor, of class TSpoolWorker.
+     */
+    @Test
+    public void testConstructorWhenSpoolDirectoryIsNull() {
+        System.out.println("Test constructor");
+        assertThrows(IllegalArgumentException.class, () -> {
+            new TSpoolWorker(null);
+        });
+    }
+
+    /**
+     * Test of run method, of class TSpoolWorker.
+     */
+    @Test
+    public void testRun() throws IOException {
+        System.out.println("Test run");
+        File spoolRoot = new File(this.temporaryDirectory, "spool");
+        TSpoolDirectory spoolDirectory = new TSpoolDirectory(spoolRoot);
+        assertTrue(spoolDirectory.initialize());
+        String scenarioName = addScenario(spoolDirectory);
+        assertNotNull(scenarioName);
+        TSpoolJob firstJob = spoolDirectory.createJob(scenarioName);
+        firstJob.setRandomSeed(1);
+        TSpoolJob secondJob = spoolDirectory.createJob(scenarioName);
+        secondJob.setParameter(TSweepParameter.BUFFER_SIZE, 2);
+        secondJob.setRandomSeed(2);
+        assertTrue(spoolDirectory.submit(firstJob));
+        assertTrue(spoolDirectory.submit(secondJob));
+        TSpoolWorker instance = new TSpoolWorker(spoolDirectory);
+        assertEquals(2, instance.run());
+        assertEquals(0, spoolDirectory.getNumberOfPendingJobs());
+        assertTrue(isJobIn(spoolRoot, "done", firstJob));
+        assertTrue(isJobIn(spoolRoot, "done", secondJob));
+        assertTrue(spoolDirectory.getResultsFile(firstJob).length() > 0);
+        assertTrue(spoolDirectory.getResultsFile(secondJob).length() > 0);
+    }
+
+    /**
+     * Test of run method, of class TSpoolWorker.
+     */
+    @Test
+    public void testRunWhenScenarioIsMissing() {
+        System.out.println("Test run");
+        File spoolRoot = new File(this.temporaryDirectory, "spool");
+        TSpoolDirectory spoolDirectory = new TSpoolDirectory(spoolRoot);
+        assertTrue(spoolDirectory.initialize());
+        TSpoolJob spoolJob = spoolDirectory.createJob("missing.osm");
+        assertTrue(spoolDirectory.submit(spoolJob));
+        TSpoolWorker instance = new TSpoolWorker(spoolDirectory);
+        assertEquals(0, instance.run());
+        assertTrue(isJobIn(spoolRoot, "failed", spoolJob));
+        assertFalse(isJobIn(spoolRoot, "running", spoolJob));
+        assertFalse(spoolDirectory.getResultsFile(spoolJob).exists());
+    }
+
+    /**
+     * Test of run method, of class TSpoolWorker.
+     */
+    @Test
+    public void testRunWhenWallClockBudgetIsExhausted() throws IOException {
+        System.out.println("Test run");
+        File spoolRoot = new File(this.temporaryDirectory, "spool");
+        TSpoolDirectory spoolDirectory = new TSpoolDirectory(spoolRoot);
+        assertTrue(spoolDirectory.initialize());
+        String scenarioName = addScenario(spoolDirectory, 1000000000);
+        assertNotNull(scenarioName);
+        TSpoolJob spoolJob = spoolDirectory.createJob(scenarioName);
+        assertTrue(spoolDirectory.submit(spoolJob));
+        TSimulationOptions simulationOptions = new TSimulationOptions();
+        simulationOptions.setWallClockBudget(1);
+        TSpoolWorker instance = new TSpoolWorker(spoolDirectory);
+        instance.setSimulationOptions(simulationOptions);
+        assertEquals(0, instance.run());
+        assertEquals(1, instance.getNumberOfTruncatedJobs());
+        assertTrue(isJobIn(spoolRoot, "failed", spoolJob));
+        assertFalse(isJobIn(spoolRoot, "done", spoolJob));
+        assertFalse(spoolDirectory.getResultsFile(spoolJob).exists());
+    }
+}
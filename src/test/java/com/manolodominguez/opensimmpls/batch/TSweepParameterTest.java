@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.batch;
+
+import com.manolodominguez.opensimmpls.io.osm.TOSMLoader;
+import com.manolodominguez.opensimmpls.scenario.TActiveLERNode;
+import com.manolodominguez.opensimmpls.scenario.TActiveLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TLERNode;
+import com.manolodominguez.opensimmpls.scenario.TLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TLink;
+import com.manolodominguez.opensimmpls.scenario.TNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TTrafficGeneratorNode;
+import java.io.File;
+import java.util.Iterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TSweepParameterTest {
+
+    public TSweepParameterTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private TScenario loadScenario() {
+        TOSMLoader osmLoader = new TOSMLoader();
+        assertTrue(osmLoader.load(new File("examples", "AllTypesOfTraffic.osm")));
+        return osmLoader.getScenario();
+    }
+
+    /**
+     * Test of fromParameterName method, of class TSweepParameter.
+     */
+    @Test
+    public void testFromParameterName() {
+        System.out.println("Test fromParameterName");
+        for (TSweepParameter sweepParameter : TSweepParameter.values()) {
+            assertSame(sweepParameter, TSweepParameter.fromParameterName(sweepParameter.getParameterName()));
+        }
+        assertSame(TSweepParameter.LINK_DELAY, TSweepParameter.fromParameterName("linkDelay"));
+        assertNull(TSweepParameter.fromParameterName("LinkDelay"));
+        assertNull(TSweepParameter.fromParameterName("linkSpeed"));
+        assertNull(TSweepParameter.fromParameterName(""));
+    }
+
+    /**
+     * Test of apply method, of class TSweepParameter.
+     */
+    @Test
+    public void testApplyLinkDelay() {
+        System.out.println("Test apply");
+        TScenario scenario = loadScenario();
+        TSweepParameter.LINK_DELAY.apply(scenario, 1234);
+        Iterator<TLink> linksIterator = scenario.getTopology().getLinksIterator();
+        assertTrue(linksIterator.hasNext());
+        while (linksIterator.hasNext()) {
+            assertEquals(1234, linksIterator.next().getDelay());
+        }
+    }
+
+    /**
+     * Test of apply method, of class TSweepParameter.
+     */
+    @Test
+    public void testApplyBufferSize() {
+        System.out.println("Test apply");
+        TScenario scenario = loadScenario();
+        TSweepParameter.BUFFER_SIZE.apply(scenario, 7);
+        int numberOfSwitches = 0;
+        Iterator<TNode> nodesIterator = scenario.getTopology().getNodesIterator();
+        while (nodesIterator.hasNext()) {
+            TNode node = nodesIterator.next();
+            if (node instanceof TLSRNode) {
+                assertEquals(7, ((TLSRNode) node).getBufferSizeInMBytes());
+                numberOfSwitches++;
+            } else if (node instanceof TActiveLSRNode) {
+                assertEquals(7, ((TActiveLSRNode) node).getBufferSizeInMBytes());
+                numberOfSwitches++;
+            } else if (node instanceof TLERNode) {
+                assertEquals(7, ((TLERNode) node).getBufferSizeInMBytes());
+                numberOfSwitches++;
+            } else if (node instanceof TActiveLERNode) {
+                assertEquals(7, ((TActiveLERNode) node).getBufferSizeInMBytes());
+                numberOfSwitches++;
+            }
+        }
+        assertTrue(numberOfSwitches > 0);
+    }
+
+    /**
+     * Test of apply method, of class TSweepParameter.
+     */
+    @Test
+    public void testApplyTrafficGenerationRate() {
+        System.out.println("Test apply");
+        TScenario scenario = loadScenario();
+        TSweepParameter.TRAFFIC_GENERATION_RATE.apply(scenario, 3);
+        int numberOfGenerators = 0;
+        Iterator<TNode> nodesIterator = scenario.getTopology().getNodesIterator();
+        while (nodesIterator.hasNext()) {
+            TNode node = nodesIterator.next();
+            if (node instanceof TTrafficGeneratorNode) {
+                assertEquals(3, ((TTrafficGeneratorNode) node).getTrafficGenerationRate());
+                numberOfGenerators++;
+            }
+        }
+        assertTrue(numberOfGenerators > 0);
+    }
+}
@@ -231,4 +231,34 @@ public class TIDGeneratorTest {
             instance.setIdentifier(-2); // This is lower than DEFAULT_ID and should throws an exception
         });
     }
+
+    /**
+     * Test of getNextIdentifierBlock method, of class TIDGenerator.
+     */
+    @Test
+    public void testGetNextIdentifierBlock() {
+        System.out.println("testing getNextIdentifierBlock() without overflow");
+        try {
+            TIDGenerator instance = new TIDGenerator();
+            instance.getNextIdentifier(); // should return 1. Next 2
+            assertEquals(2, instance.getNextIdentifierBlock(10)); // Reserves from 2 to 11
+            assertEquals(12, instance.getNextIdentifier());
+        } catch (EIDGeneratorOverflow ex) {
+            Logger.getLogger(TIDGeneratorTest.class.getName()).log(Level.SEVERE, null, ex);
+            fail("Unexpected EIDGeneratorOverflow thrown");
+        }
+    }
+
+    /**
+     * Test of getNextIdentifierBlock method, of class TIDGenerator.
+     */
+    @Test
+    public void testGetNextIdentifierBlockOverflow() {
+        System.out.println("testing getNextIdentifierBlock() with overflow");
+        assertThrows(EIDGeneratorOverflow.class, () -> {
+            TIDGenerator instance = new TIDGenerator();
+            instance.setIdentifier(Integer.MAX_VALUE - 5);
+            instance.getNextIdentifierBlock(10); // should throw an exception
+        });
+    }
 }
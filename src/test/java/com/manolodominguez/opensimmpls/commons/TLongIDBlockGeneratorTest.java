@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.commons;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TLongIDBlockGeneratorTest {
+
+    public TLongIDBlockGeneratorTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of constructor, of class TLongIDBlockGenerator.
+     */
+    @Test
+    public void testConstructorWhenSharedIDGeneratorIsNull() {
+        System.out.println("testing TLongIDBlockGenerator constructor when shared ID generator is null");
+        assertThrows(IllegalArgumentException.class, () -> {
+            TLongIDBlockGenerator instance = new TLongIDBlockGenerator(null);
+        });
+    }
+
+    /**
+     * Test of getNextIdentifier method, of class TLongIDBlockGenerator.
+     */
+    @Test
+    public void testGetNextIdentifier() {
+        System.out.println("testing getNextIdentifier()");
+        try {
+            TLongIDGenerator sharedIDGenerator = new TLongIDGenerator();
+            TLongIDBlockGenerator instance = new TLongIDBlockGenerator(sharedIDGenerator, 4);
+            TLongIDBlockGenerator anotherInstance = new TLongIDBlockGenerator(sharedIDGenerator, 4);
+            assertEquals(1L, instance.getNextIdentifier()); // Reserves from 1L to 4L
+            assertEquals(5L, anotherInstance.getNextIdentifier()); // Reserves from 5L to 8L
+            assertEquals(2L, instance.getNextIdentifier());
+            assertEquals(3L, instance.getNextIdentifier());
+            assertEquals(4L, instance.getNextIdentifier());
+            assertEquals(9L, instance.getNextIdentifier()); // Reserves from 9L to 12L
+            assertEquals(6L, anotherInstance.getNextIdentifier());
+        } catch (EIDGeneratorOverflow ex) {
+            Logger.getLogger(TLongIDBlockGeneratorTest.class.getName()).log(Level.SEVERE, null, ex);
+            fail("Unexpected EIDGeneratorOverflow thrown");
+        }
+    }
+
+    /**
+     * Test of getNextIdentifier method, of class TLongIDBlockGenerator.
+     */
+    @Test
+    public void testGetNextIdentifierAfterSharedReset() {
+        System.out.println("testing getNextIdentifier() after resetting the shared ID generator");
+        try {
+            TLongIDGenerator sharedIDGenerator = new TLongIDGenerator();
+            TLongIDBlockGenerator instance = new TLongIDBlockGenerator(sharedIDGenerator, 4);
+            TLongIDBlockGenerator anotherInstance = new TLongIDBlockGenerator(sharedIDGenerator, 4);
+            instance.getNextIdentifier(); // Reserves from 1L to 4L
+            sharedIDGenerator.reset();
+            assertEquals(1L, anotherInstance.getNextIdentifier()); // Reserves from 1L to 4L again
+            assertEquals(5L, instance.getNextIdentifier()); // Old block discarded
+        } catch (EIDGeneratorOverflow ex) {
+            Logger.getLogger(TLongIDBlockGeneratorTest.class.getName()).log(Level.SEVERE, null, ex);
+            fail("Unexpected EIDGeneratorOverflow thrown");
+        }
+    }
+
+    /**
+     * Test of getNextIdentifier method, of class TLongIDBlockGenerator.
+     */
+    @Test
+    public void testGetNextIdentifierConcurrently() throws InterruptedException {
+        System.out.println("testing getNextIdentifier() from several threads");
+        TLongIDGenerator sharedIDGenerator = new TLongIDGenerator();
+        Set<Long> identifiers = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            TLongIDBlockGenerator instance = new TLongIDBlockGenerator(sharedIDGenerator, 16);
+            threads[i] = new Thread(() -> {
+                try {
+                    long previousIdentifier = 0L;
+                    for (int j = 0; j < 10000; j++) {
+                        long identifier = instance.getNextIdentifier();
+                        assertTrue(identifier > previousIdentifier);
+                        identifiers.add(identifier);
+                        previousIdentifier = identifier;
+                    }
+                } catch (EIDGeneratorOverflow ex) {
+                    Logger.getLogger(TLongIDBlockGeneratorTest.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, identifiers.size());
+    }
+}
@@ -168,4 +168,60 @@ public class TLongIDGeneratorTest {
             instance.setIdentifier(-2); // This is lower than DEFAULT_ID and should throws an exception
         });
     }
+
+    /**
+     * Test of getNextIdentifierBlock method, of class TLongIDGenerator.
+     */
+    @Test
+    public void testGetNextIdentifierBlock() {
+        System.out.println("testing getNextIdentifierBlock() without overflow");
+        try {
+            TLongIDGenerator instance = new TLongIDGenerator();
+            instance.getNextIdentifier(); // should return 1L. Next 2L
+            assertEquals(2L, instance.getNextIdentifierBlock(10)); // Reserves from 2L to 11L
+            assertEquals(12L, instance.getNextIdentifier());
+        } catch (EIDGeneratorOverflow ex) {
+            Logger.getLogger(TLongIDGeneratorTest.class.getName()).log(Level.SEVERE, null, ex);
+            fail("Unexpected EIDGeneratorOverflow thrown");
+        }
+    }
+
+    /**
+     * Test of getNextIdentifierBlock method, of class TLongIDGenerator.
+     */
+    @Test
+    public void testGetNextIdentifierBlockOverflow() {
+        System.out.println("testing getNextIdentifierBlock() with overflow");
+        assertThrows(EIDGeneratorOverflow.class, () -> {
+            TLongIDGenerator instance = new TLongIDGenerator();
+            instance.setIdentifier(Long.MAX_VALUE - 5);
+            instance.getNextIdentifierBlock(10); // should throw an exception
+        });
+    }
+
+    /**
+     * Test of getNextIdentifierBlock method, of class TLongIDGenerator.
+     */
+    @Test
+    public void testGetNextIdentifierBlockWhenBlockSizeIsNotPositive() {
+        System.out.println("testing getNextIdentifierBlock() when block size is not positive");
+        assertThrows(IllegalArgumentException.class, () -> {
+            TLongIDGenerator instance = new TLongIDGenerator();
+            instance.getNextIdentifierBlock(0); // should throw an exception
+        });
+    }
+
+    /**
+     * Test of getGeneration method, of class TLongIDGenerator.
+     */
+    @Test
+    public void testGetGeneration() {
+        System.out.println("testing getGeneration()");
+        TLongIDGenerator instance = new TLongIDGenerator();
+        int generation = instance.getGeneration();
+        instance.reset();
+        assertEquals(generation + 1, instance.getGeneration());
+        instance.setIdentifier(10L);
+        assertEquals(generation + 2, instance.getGeneration());
+    }
 }
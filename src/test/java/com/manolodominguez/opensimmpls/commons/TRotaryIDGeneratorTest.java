@@ -138,4 +138,28 @@ public class TRotaryIDGeneratorTest {
             instance.setIdentifier(-2); // This is lower than DEFAULT_ID and should throws an exception
         });
     }
+
+    /**
+     * Test of getNextIdentifierBlock method, of class TRotaryIDGenerator.
+     */
+    @Test
+    public void testGetNextIdentifierBlock() {
+        System.out.println("testing getNextIdentifierBlock()");
+        TRotaryIDGenerator instance = new TRotaryIDGenerator();
+        instance.getNextIdentifier(); // should return 1. Next 2
+        assertEquals(2, instance.getNextIdentifierBlock(10)); // Reserves from 2 to 11
+        assertEquals(12, instance.getNextIdentifier());
+    }
+
+    /**
+     * Test of getNextIdentifierBlock method, of class TRotaryIDGenerator.
+     */
+    @Test
+    public void testGetNextIdentifierBlockRestart() {
+        System.out.println("testing getNextIdentifierBlock() restart");
+        TRotaryIDGenerator instance = new TRotaryIDGenerator();
+        instance.setIdentifier(Integer.MAX_VALUE - 5);
+        assertEquals(0, instance.getNextIdentifierBlock(10)); // Reserves from 0 to 9
+        assertEquals(10, instance.getNextIdentifier());
+    }
 }
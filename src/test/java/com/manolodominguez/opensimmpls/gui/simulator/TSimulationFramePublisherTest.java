@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.gui.simulator;
+
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventNodeCongested;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TSimulationFramePublisherTest {
+
+    public TSimulationFramePublisherTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private TSimulationEvent createEvent(long eventID, long instant) {
+        return new TSimulationEventNodeCongested(this, eventID, instant, 0);
+    }
+
+    private List<Long> getEventIDs(TSimulationFrame frame) {
+        List<Long> eventIDs = new ArrayList<>();
+        for (TSimulationEvent event : frame.getSimulationEvents()) {
+            eventIDs.add(event.getEventID());
+        }
+        return eventIDs;
+    }
+
+    /**
+     * Test of constructor, of class TSimulationFramePublisher.
+     */
+    @Test
+    public void testConstructor() {
+        System.out.println("Test constructor");
+        TSimulationFramePublisher instance = new TSimulationFramePublisher();
+        assertEquals(0, instance.getLatestFrame().getInstant());
+        assertTrue(instance.getLatestFrame().getSimulationEvents().isEmpty());
+    }
+
+    /**
+     * Test of addEvent method, of class TSimulationFramePublisher.
+     */
+    @Test
+    public void testAddEvent() {
+        System.out.println("Test addEvent");
+        TSimulationFramePublisher instance = new TSimulationFramePublisher();
+        TSimulationFrame emptyFrame = instance.getLatestFrame();
+        // The first tick is published when an event of the second one arrives.
+        assertTrue(instance.addEvent(createEvent(2, 10)));
+        assertFalse(instance.addEvent(createEvent(1, 10)));
+        assertFalse(instance.addEvent(createEvent(3, 5)));
+        assertNotSame(emptyFrame, instance.getLatestFrame());
+        assertTrue(instance.getLatestFrame().getSimulationEvents().isEmpty());
+        assertTrue(instance.addEvent(createEvent(4, 20)));
+        TSimulationFrame frame = instance.getLatestFrame();
+        assertEquals(10, frame.getInstant());
+        List<Long> expectedEventIDs = new ArrayList<>();
+        expectedEventIDs.add(3L);
+        expectedEventIDs.add(1L);
+        expectedEventIDs.add(2L);
+        assertEquals(expectedEventIDs, getEventIDs(frame));
+        // Events added later do not change a frame already published.
+        assertFalse(instance.addEvent(createEvent(5, 20)));
+        assertEquals(expectedEventIDs, getEventIDs(frame));
+    }
+
+    /**
+     * Test of addEvent method, of class TSimulationFramePublisher.
+     */
+    @Test
+    public void testAddEventReplacesFramesNotPainted() {
+        System.out.println("Test addEvent");
+        TSimulationFramePublisher instance = new TSimulationFramePublisher();
+        for (long tick = 1; tick <= 5; tick++) {
+            assertTrue(instance.addEvent(createEvent(tick, tick * 10)));
+        }
+        // Only the latest frame is kept.
+        assertEquals(40, instance.getLatestFrame().getInstant());
+        assertEquals(1, instance.getLatestFrame().getSimulationEvents().size());
+    }
+
+    /**
+     * Test of addEvent method, of class TSimulationFramePublisher.
+     */
+    @Test
+    public void testAddEventFromSeveralThreads() throws InterruptedException {
+        System.out.println("Test addEvent");
+        TSimulationFramePublisher instance = new TSimulationFramePublisher();
+        int numberOfThreads = 4;
+        int eventsPerThread = 1000;
+        Thread[] threads = new Thread[numberOfThreads];
+        for (int i = 0; i < numberOfThreads; i++) {
+            final long firstEventID = (long) i * eventsPerThread;
+            threads[i] = new Thread(() -> {
+                for (long eventID = firstEventID; eventID < firstEventID + eventsPerThread; eventID++) {
+                    instance.addEvent(createEvent(eventID, 10));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        instance.addEvent(createEvent(numberOfThreads * eventsPerThread, 20));
+        assertEquals(numberOfThreads * eventsPerThread, instance.getLatestFrame().getSimulationEvents().size());
+    }
+
+    /**
+     * Test of reset method, of class TSimulationFramePublisher.
+     */
+    @Test
+    public void testReset() {
+        System.out.println("Test reset");
+        TSimulationFramePublisher instance = new TSimulationFramePublisher();
+        instance.addEvent(createEvent(1, 10));
+        instance.addEvent(createEvent(2, 20));
+        instance.reset();
+        assertEquals(0, instance.getLatestFrame().getInstant());
+        assertTrue(instance.getLatestFrame().getSimulationEvents().isEmpty());
+        // Pending events are discarded too.
+        assertTrue(instance.addEvent(createEvent(3, 30)));
+        assertTrue(instance.getLatestFrame().getSimulationEvents().isEmpty());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.ports;
+
+import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TActivePortPrioritizedBuffersTest {
+
+    public TActivePortPrioritizedBuffersTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of poll method, of class TActivePortPrioritizedBuffers.
+     */
+    @Test
+    public void testPoll() {
+        System.out.println("Test poll");
+        TActivePortPrioritizedBuffers instance = new TActivePortPrioritizedBuffers(11);
+        TActivePortBufferEntry entry1 = new TActivePortBufferEntry(3, 1, new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024));
+        TActivePortBufferEntry entry2 = new TActivePortBufferEntry(3, 2, new TMPLSPDU(2, "10.0.0.1", "10.0.0.2", 1024));
+        instance.add(entry1);
+        instance.add(entry2);
+        // Entries of the same priority are read in the order they were added.
+        assertSame(entry1, instance.poll(3));
+        assertSame(entry2, instance.poll(3));
+        assertNull(instance.poll(3));
+        assertTrue(instance.isEmpty(3));
+    }
+
+    /**
+     * Test of isEmpty method, of class TActivePortPrioritizedBuffers.
+     */
+    @Test
+    public void testIsEmpty() {
+        System.out.println("Test isEmpty");
+        TActivePortPrioritizedBuffers instance = new TActivePortPrioritizedBuffers(11);
+        assertTrue(instance.isEmpty());
+        instance.add(new TActivePortBufferEntry(10, 1, new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024)));
+        assertFalse(instance.isEmpty());
+        assertFalse(instance.isEmpty(10));
+        assertTrue(instance.isEmpty(0));
+        instance.poll(10);
+        assertTrue(instance.isEmpty());
+    }
+
+    /**
+     * Test of getOccupancy method, of class TActivePortPrioritizedBuffers.
+     */
+    @Test
+    public void testGetOccupancy() {
+        System.out.println("Test getOccupancy");
+        TActivePortPrioritizedBuffers instance = new TActivePortPrioritizedBuffers(11);
+        TMPLSPDU packet1 = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
+        TMPLSPDU packet2 = new TMPLSPDU(2, "10.0.0.1", "10.0.0.2", 512);
+        instance.add(new TActivePortBufferEntry(0, 1, packet1));
+        instance.add(new TActivePortBufferEntry(7, 2, packet2));
+        assertEquals(packet1.getSize(), instance.getOccupancy(0));
+        assertEquals(packet2.getSize(), instance.getOccupancy(7));
+        assertEquals(packet1.getSize() + packet2.getSize(), instance.getOccupancy());
+        assertEquals(2, instance.size());
+        assertEquals(1, instance.size(7));
+        instance.poll(0);
+        assertEquals(packet2.getSize(), instance.getOccupancy());
+        assertEquals(1, instance.size());
+    }
+
+    /**
+     * Test of clear method, of class TActivePortPrioritizedBuffers.
+     */
+    @Test
+    public void testClear() {
+        System.out.println("Test clear");
+        TActivePortPrioritizedBuffers instance = new TActivePortPrioritizedBuffers(11);
+        instance.add(new TActivePortBufferEntry(0, 1, new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024)));
+        instance.add(new TActivePortBufferEntry(5, 2, new TMPLSPDU(2, "10.0.0.1", "10.0.0.2", 1024)));
+        instance.clear();
+        assertTrue(instance.isEmpty());
+        assertEquals(0, instance.size());
+        assertEquals(0, instance.getOccupancy());
+        assertEquals(0, instance.getOccupancy(5));
+    }
+}
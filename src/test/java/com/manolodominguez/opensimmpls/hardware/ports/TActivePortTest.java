@@ -613,7 +613,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         assertEquals(-1, ((TActivePort) tailEndNode.getPorts().getPort(0)).getNextPacketPriority());
     }
 
@@ -629,7 +629,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
         TMPLSLabel outgoingMPLSLabel = new TMPLSLabel();
@@ -698,7 +698,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
         assertDoesNotThrow(() -> {
@@ -734,7 +734,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -766,7 +766,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         assertThrows(IllegalArgumentException.class, () -> {
             tailEndNode.getPorts().getPort(0).addPacket(null);
         });
@@ -784,7 +784,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -813,7 +813,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         assertThrows(IllegalArgumentException.class, () -> {
             ((TActivePort) tailEndNode.getPorts().getPort(0)).runEarlyPacketCatchAndDiscard(null);
@@ -832,7 +832,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -862,7 +862,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -894,7 +894,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         assertThrows(IllegalArgumentException.class, () -> {
             tailEndNode.getPorts().getPort(0).reEnqueuePacket(null);
         });
@@ -912,7 +912,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -948,7 +948,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Tries to read a packet. Does not exit so, throws an exception.
         assertThrows(NoSuchElementException.class, () -> {
             TMPLSPDU mplsPacketRead = (TMPLSPDU) tailEndNode.getPorts().getPort(0).getPacket();
@@ -967,7 +967,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         // a 1024 octets payload means an active packet with a total size of 
         // 1068 octects
@@ -994,7 +994,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 65535);
         TMPLSLabel outgoingMPLSLabel = new TMPLSLabel();
@@ -1020,7 +1020,7 @@ public class TActivePortTest {
         tailEndNode.getPorts().setUnlimitedBuffer(true);
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 65535);
         TMPLSLabel outgoingMPLSLabel = new TMPLSLabel();
@@ -1045,7 +1045,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
         TMPLSLabel outgoingMPLSLabel = new TMPLSLabel();
@@ -1070,7 +1070,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //The port has not a packet waiting.
         assertFalse(tailEndNode.getPorts().getPort(0).thereIsAPacketWaiting());
     }
@@ -1087,7 +1087,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getOccupancy() != 0L) {
@@ -1119,7 +1119,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -1159,7 +1159,7 @@ public class TActivePortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -1219,4 +1219,53 @@ public class TActivePortTest {
         }
         assertTrue(worksFine);
     }
+
+    /**
+     * Test of getPriorityWeight method, of class TActivePort.
+     */
+    @Test
+    public void testGetPriorityWeight() {
+        System.out.println("getPriorityWeight");
+        TScenario scenario = new TScenario();
+        TTopology topology = new TTopology(scenario);
+        TActiveLSRNode node = new TActiveLSRNode(1, "10.0.0.1", new TLongIDGenerator(), topology);
+        TActivePortSet portSet = new TActivePortSet(8, node);
+        TActivePort instance = new TActivePort(portSet, 0);
+        assertEquals(1, instance.getPriorityWeight(0)); // By default, priority + 1
+        assertEquals(11, instance.getPriorityWeight(10));
+    }
+
+    /**
+     * Test of setPriorityWeight method, of class TActivePort.
+     */
+    @Test
+    public void testSetPriorityWeight() {
+        System.out.println("setPriorityWeight");
+        TScenario scenario = new TScenario();
+        TTopology topology = new TTopology(scenario);
+        TActiveLSRNode node = new TActiveLSRNode(1, "10.0.0.1", new TLongIDGenerator(), topology);
+        TActivePortSet portSet = new TActivePortSet(8, node);
+        TActivePort instance = new TActivePort(portSet, 0);
+        instance.setPriorityWeight(5, 20);
+        assertEquals(20, instance.getPriorityWeight(5));
+    }
+
+    /**
+     * Test of setPriorityWeight method, of class TActivePort.
+     */
+    @Test
+    public void testSetPriorityWeightWhenOutOfRange() {
+        System.out.println("setPriorityWeight");
+        TScenario scenario = new TScenario();
+        TTopology topology = new TTopology(scenario);
+        TActiveLSRNode node = new TActiveLSRNode(1, "10.0.0.1", new TLongIDGenerator(), topology);
+        TActivePortSet portSet = new TActivePortSet(8, node);
+        TActivePort instance = new TActivePort(portSet, 0);
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.setPriorityWeight(11, 1); // There is not such priority
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.setPriorityWeight(0, 0); // Weights must be greater than 0
+        });
+    }
 }
@@ -123,6 +123,38 @@ public class TFIFOPortSetTest {
         assertEquals(123, instance.getPortSetOccupancy());
     }
 
+    /**
+     * Test of tryIncreasePortSetOccupancy method, of class TFIFOPortSet.
+     */
+    @Test
+    public void testTryIncreasePortSetOccupancy() {
+        System.out.println("tryIncreasePortSetOccupancy");
+        TScenario scenario = new TScenario();
+        TTopology topology = new TTopology(scenario);
+        TLSRNode node = new TLSRNode(1, "10.0.0.1", new TLongIDGenerator(), topology);
+        TFIFOPortSet instance = new TFIFOPortSet(8, node); // Occupancy is 0 here
+        assertTrue(instance.tryIncreasePortSetOccupancy(100, 150)); // Fits, occupancy is 100 now
+        assertFalse(instance.tryIncreasePortSetOccupancy(100, 150)); // Does not fit
+        assertEquals(100, instance.getPortSetOccupancy());
+        assertTrue(instance.tryIncreasePortSetOccupancy(50, 150)); // Fits exactly
+        assertEquals(150, instance.getPortSetOccupancy());
+    }
+
+    /**
+     * Test of tryIncreasePortSetOccupancy method, of class TFIFOPortSet.
+     */
+    @Test
+    public void testTryIncreasePortSetOccupancyWhenNegativeIncrement() {
+        System.out.println("tryIncreasePortSetOccupancy");
+        TScenario scenario = new TScenario();
+        TTopology topology = new TTopology(scenario);
+        TLSRNode node = new TLSRNode(1, "10.0.0.1", new TLongIDGenerator(), topology);
+        TFIFOPortSet instance = new TFIFOPortSet(8, node); // Occupancy is 0 here
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.tryIncreasePortSetOccupancy(-1, 150); // This should thrown an exception
+        });
+    }
+
     /**
      * Test of increasePortSetOccupancy method, of class TFIFOPortSet.
      */
@@ -645,7 +677,7 @@ public class TFIFOPortSetTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
@@ -691,7 +723,7 @@ public class TFIFOPortSetTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
         for (int i = 0; i < tailEndNode.getPorts().getNumberOfPorts(); i++) {
@@ -725,7 +757,7 @@ public class TFIFOPortSetTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
         for (int i = 0; i < tailEndNode.getPorts().getNumberOfPorts(); i++) {
@@ -759,7 +791,7 @@ public class TFIFOPortSetTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         // a 1024 octets payload means a packet with a total size of 1064 octects
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
@@ -779,7 +811,7 @@ public class TFIFOPortSetTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         // a 1024 octets payload means a packet with a total size of 1064 octects
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
@@ -801,7 +833,7 @@ public class TFIFOPortSetTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         // a 1024 octets payload means a packet with a total size of 1064 octects
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
@@ -1086,7 +1118,7 @@ public class TFIFOPortSetTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 65535);
         tailEndNode.getPorts().getPort(0).reEnqueuePacket(mplsPacket);
@@ -1106,7 +1138,7 @@ public class TFIFOPortSetTest {
         tailEndNode.getPorts().setUnlimitedBuffer(true);
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 65535);
         tailEndNode.getPorts().getPort(0).reEnqueuePacket(mplsPacket);
@@ -1125,7 +1157,7 @@ public class TFIFOPortSetTest {
         instance.setName("Dummy tail end node name");
         topology.addNode(instance); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        instance.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (instance.getPorts().getPortSetOccupancy() != 0L) {
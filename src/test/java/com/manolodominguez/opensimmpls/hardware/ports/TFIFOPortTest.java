@@ -25,6 +25,7 @@ import com.manolodominguez.opensimmpls.scenario.TLink;
 import com.manolodominguez.opensimmpls.scenario.TLinkConfig;
 import com.manolodominguez.opensimmpls.scenario.TScenario;
 import com.manolodominguez.opensimmpls.scenario.TTopology;
+import static com.manolodominguez.opensimmpls.commons.UnitsTranslations.OCTETS_PER_MEGABYTE;
 import java.util.NoSuchElementException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.AfterAll;
@@ -654,7 +655,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
         assertDoesNotThrow(() -> {
@@ -690,7 +691,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -716,7 +717,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         assertThrows(IllegalArgumentException.class, () -> {
             tailEndNode.getPorts().getPort(0).addPacket(null);
         });
@@ -734,7 +735,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -760,7 +761,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         assertThrows(IllegalArgumentException.class, () -> {
             tailEndNode.getPorts().getPort(0).reEnqueuePacket(null);
         });
@@ -778,7 +779,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -808,7 +809,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Tries to read a packet. Does not exit so, throws an exception.
         assertThrows(NoSuchElementException.class, () -> {
             TMPLSPDU mplsPacketRead = (TMPLSPDU) tailEndNode.getPorts().getPort(0).getPacket();
@@ -827,7 +828,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         // a 1024 octets payload means a packet with a total size of 1064 octects
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
@@ -847,7 +848,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         // a 1024 octets payload means a packet with a total size of 1064 octects
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
@@ -867,7 +868,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         // a 1024 octets payload means a packet with a total size of 1064 octects
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
@@ -889,7 +890,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 65535);
         tailEndNode.getPorts().getPort(0).reEnqueuePacket(mplsPacket);
@@ -909,7 +910,7 @@ public class TFIFOPortTest {
         tailEndNode.getPorts().setUnlimitedBuffer(true);
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 65535);
         tailEndNode.getPorts().getPort(0).reEnqueuePacket(mplsPacket);
@@ -928,7 +929,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         TMPLSPDU mplsPacket = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024);
         tailEndNode.getPorts().getPort(0).reEnqueuePacket(mplsPacket);
@@ -947,7 +948,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //The port has not a packet waiting.
         assertFalse(tailEndNode.getPorts().getPort(0).thereIsAPacketWaiting());
     }
@@ -964,7 +965,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getOccupancy() != 0L) {
@@ -990,7 +991,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -1018,7 +1019,7 @@ public class TFIFOPortTest {
         tailEndNode.setName("Dummy tail end node name");
         topology.addNode(tailEndNode); // Adds tail end node to the topology
         JSimulationPanel simulationPanel = new JSimulationPanel();
-        tailEndNode.simulationEventsListener.setSimulationPanel(simulationPanel);
+        scenario.getSimulation().setSimulationPanel(simulationPanel);
         //Creates a new MPLS packet directed to tail end node.
         boolean worksFine = true;
         if (tailEndNode.getPorts().getPort(0).getNumberOfPackets() != 0) {
@@ -1043,4 +1044,47 @@ public class TFIFOPortTest {
         }
         assertTrue(worksFine);
     }
+
+    /**
+     * Test of addPacket method, of class TFIFOPort, when several links put
+     * packets in the ports of the same port set at the same time.
+     */
+    @Test
+    public void testAddPacketFromSeveralThreads() throws InterruptedException {
+        System.out.println("test addPacket");
+        TScenario scenario = new TScenario();  //Creates an scenario
+        TTopology topology = new TTopology(scenario); //Creates a topology
+        TLSRNode tailEndNode = new TLSRNode(2, "10.0.0.2", new TLongIDGenerator(), topology); //Creates a node
+        tailEndNode.setName("Dummy tail end node name");
+        topology.addNode(tailEndNode); // Adds tail end node to the topology
+        TPortSet portSet = tailEndNode.getPorts();
+        int packetSize = new TMPLSPDU(1, "10.0.0.1", "10.0.0.2", 1024).getSize();
+        long bufferSize = portSet.getBufferSizeInMBytes() * OCTETS_PER_MEGABYTE.getUnits();
+        int packetsPerThread = (int) (bufferSize / packetSize);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int portID = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < packetsPerThread; j++) {
+                    portSet.getPort(portID).reEnqueuePacket(new TMPLSPDU(j, "10.0.0.1", "10.0.0.2", 1024));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Every thread could fill the buffer on its own, so the buffer is full
+        // and packets that did not fit have been discarded.
+        int numberOfPackets = 0;
+        for (int i = 0; i < threads.length; i++) {
+            numberOfPackets += portSet.getPort(i).getNumberOfPackets();
+        }
+        assertEquals(packetsPerThread, numberOfPackets);
+        assertEquals((long) numberOfPackets * packetSize, portSet.getPortSetOccupancy());
+        for (int i = 0; i < numberOfPackets; i++) {
+            portSet.getNextPacket();
+        }
+        assertEquals(0, portSet.getPortSetOccupancy());
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TTickExecutorTest {
+
+    public TTickExecutorTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of constructor, of class TTickExecutor.
+     */
+    @Test
+    public void testConstructor() {
+        System.out.println("Test constructor");
+        TTickExecutor instance = new TTickExecutor(3);
+        assertEquals(3, instance.getNumberOfWorkers());
+        instance.shutdown();
+    }
+
+    /**
+     * Test of constructor, of class TTickExecutor.
+     */
+    @Test
+    public void testConstructorWhenNoWorkers() {
+        System.out.println("Test constructor");
+        assertThrows(IllegalArgumentException.class, () -> {
+            TTickExecutor instance = new TTickExecutor(0);
+        });
+    }
+
+    /**
+     * Test of submit method, of class TTickExecutor.
+     */
+    @Test
+    public void testSubmit() throws Exception {
+        System.out.println("Test submit");
+        TTickExecutor instance = new TTickExecutor(2);
+        AtomicInteger doneWork = new AtomicInteger();
+        List<Future<?>> tickWorks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tickWorks.add(instance.submit(() -> {
+                doneWork.incrementAndGet();
+            }));
+        }
+        for (Future<?> tickWork : tickWorks) {
+            tickWork.get();
+        }
+        assertEquals(100, doneWork.get());
+        instance.shutdown();
+    }
+
+    /**
+     * Test of submit method, of class TTickExecutor.
+     */
+    @Test
+    public void testSubmitWhenCallingThreadTickExecutor() {
+        System.out.println("Test submit");
+        TTickExecutor instance = TTickExecutor.newCallingThreadTickExecutor();
+        assertEquals(0, instance.getNumberOfWorkers());
+        Thread callingThread = Thread.currentThread();
+        List<Thread> workingThreads = new ArrayList<>();
+        Future<?> tickWork = instance.submit(() -> {
+            workingThreads.add(Thread.currentThread());
+        });
+        assertTrue(tickWork.isDone());
+        assertEquals(1, workingThreads.size());
+        assertSame(callingThread, workingThreads.get(0));
+        instance.shutdown();
+    }
+}
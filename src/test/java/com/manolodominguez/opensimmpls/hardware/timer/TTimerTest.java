@@ -0,0 +1,489 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.timer;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import com.manolodominguez.opensimmpls.scenario.TInternalLink;
+import com.manolodominguez.opensimmpls.scenario.TLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TTopology;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TOpenSimMPLSEvent;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TTimerTest {
+
+    public TTimerTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        this.topology = new TTopology(new TScenario());
+        this.node1 = new TCountingLSRNode(1, "10.0.0.1", this.topology);
+        this.node2 = new TCountingLSRNode(2, "10.0.0.2", this.topology);
+        this.topology.addNode(this.node1);
+        this.topology.addNode(this.node2);
+        TInternalLink link = new TInternalLink(3, new TLongIDGenerator(), this.topology);
+        link.setHeadEndNode(this.node1);
+        link.setTailEndNode(this.node2);
+        link.setDelay(1000);
+        this.topology.addLink(link);
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private void simulate(boolean eventDriven) {
+        this.simulate(eventDriven, false);
+    }
+
+    private void simulate(boolean eventDriven, boolean activeSetDispatch) {
+        this.simulate(eventDriven, activeSetDispatch, 1);
+    }
+
+    private void simulate(boolean eventDriven, boolean activeSetDispatch, int numberOfPartitions) {
+        TTimer timer = this.topology.getTimer();
+        timer.setFinishTimestamp(new TTimestamp(1, 0));
+        timer.setTick(1000);
+        timer.setEventDriven(eventDriven);
+        timer.setActiveSetDispatch(activeSetDispatch);
+        timer.setNumberOfPartitions(numberOfPartitions);
+        timer.reset();
+        timer.start();
+        timer.waitForCompletion();
+    }
+
+    /**
+     * Test of isEventDriven method, of class TTimer.
+     */
+    @Test
+    public void testIsEventDriven() {
+        System.out.println("Test isEventDriven");
+        TTimer instance = new TTimer();
+        assertFalse(instance.isEventDriven());
+        instance.setEventDriven(true);
+        assertTrue(instance.isEventDriven());
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunTickByTick() {
+        System.out.println("Test run");
+        this.simulate(false);
+        assertEquals(1000, this.node1.getNumberOfTicks());
+        assertEquals(1000000, this.node1.getCurrentTimeInstant());
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunEventDrivenSkipsIdleTicks() {
+        System.out.println("Test run");
+        this.simulate(true);
+        // The first tick and a single tick up to the end of the simulation.
+        assertEquals(2, this.node1.getNumberOfTicks());
+        assertEquals(2, this.node2.getNumberOfTicks());
+        assertEquals(1000000, this.node1.getCurrentTimeInstant());
+    }
+
+    /**
+     * Test of isActiveSetDispatch method, of class TTimer.
+     */
+    @Test
+    public void testIsActiveSetDispatch() {
+        System.out.println("Test isActiveSetDispatch");
+        TTimer instance = new TTimer();
+        assertFalse(instance.isActiveSetDispatch());
+        instance.setActiveSetDispatch(true);
+        assertTrue(instance.isActiveSetDispatch());
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunActiveSetOnlyDispatchesFirstTickToIdleElements() {
+        System.out.println("Test run");
+        this.simulate(false, true);
+        assertEquals(1, this.node1.getNumberOfTicks());
+        assertEquals(1, this.node2.getNumberOfTicks());
+        assertEquals(1000, this.node1.getCurrentTimeInstant());
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunActiveSetWakesUpElementsWithPendingEvents() {
+        System.out.println("Test run");
+        this.node1.setNextEventInstant(500000);
+        this.simulate(false, true);
+        assertEquals(2, this.node1.getNumberOfTicks());
+        assertEquals(1, this.node2.getNumberOfTicks());
+        assertEquals(500000, this.node1.getCurrentTimeInstant());
+        // Idle from the end of the first tick to the start of the last one.
+        assertEquals(498000, this.node1.getLastIdleNanoseconds());
+        assertEquals(1000, this.node1.getLastIdleTickDurationInNs());
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunActiveSetAndEventDriven() {
+        System.out.println("Test run");
+        this.node1.setNextEventInstant(500000);
+        this.simulate(true, true);
+        assertEquals(2, this.node1.getNumberOfTicks());
+        assertEquals(1, this.node2.getNumberOfTicks());
+        assertEquals(500000, this.node1.getCurrentTimeInstant());
+        // The idle ticks have been stretched to a single one.
+        assertEquals(498000, this.node1.getLastIdleNanoseconds());
+        assertEquals(498000, this.node1.getLastIdleTickDurationInNs());
+    }
+
+    /**
+     * Test of getNumberOfPartitions method, of class TTimer.
+     */
+    @Test
+    public void testGetNumberOfPartitions() {
+        System.out.println("Test getNumberOfPartitions");
+        TTimer instance = new TTimer();
+        assertEquals(1, instance.getNumberOfPartitions());
+        instance.setNumberOfPartitions(4);
+        assertEquals(4, instance.getNumberOfPartitions());
+    }
+
+    /**
+     * Test of setNumberOfPartitions method, of class TTimer.
+     */
+    @Test
+    public void testSetNumberOfPartitionsWhenLowerThanOne() {
+        System.out.println("Test setNumberOfPartitions");
+        TTimer instance = new TTimer();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.setNumberOfPartitions(0);
+        });
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunPartitions() {
+        System.out.println("Test run");
+        // Each node in its own partition, joined by a link used as lookahead.
+        this.simulate(false, false, 2);
+        assertEquals(1000, this.node1.getNumberOfTicks());
+        assertEquals(1000, this.node2.getNumberOfTicks());
+        assertEquals(1000000, this.node1.getCurrentTimeInstant());
+        assertEquals(1000000, this.node2.getCurrentTimeInstant());
+        assertFalse(this.topology.getTimer().isRunning());
+    }
+
+    /**
+     * Test of isSequentialDispatch method, of class TTimer.
+     */
+    @Test
+    public void testIsSequentialDispatch() {
+        System.out.println("Test isSequentialDispatch");
+        TTimer instance = new TTimer();
+        assertFalse(instance.isSequentialDispatch());
+        instance.setSequentialDispatch(true);
+        assertTrue(instance.isSequentialDispatch());
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunUsesTickExecutorWorkers() {
+        System.out.println("Test run");
+        this.simulate(false);
+        assertTrue(this.node1.getWorkingThreadName().startsWith(TICK_EXECUTOR_WORKER_PREFIX));
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunSequentialDispatchWorksInTimerThread() {
+        System.out.println("Test run");
+        this.topology.getTimer().setSequentialDispatch(true);
+        this.simulate(false);
+        assertEquals(1000, this.node1.getNumberOfTicks());
+        assertFalse(this.node1.getWorkingThreadName().startsWith(TICK_EXECUTOR_WORKER_PREFIX));
+        assertFalse(this.node2.getWorkingThreadName().startsWith(TICK_EXECUTOR_WORKER_PREFIX));
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunPartitionsSequentialDispatchWorksInTimerThread() {
+        System.out.println("Test run");
+        this.topology.getTimer().setSequentialDispatch(true);
+        this.simulate(false, false, 2);
+        assertEquals(1000, this.node1.getNumberOfTicks());
+        assertEquals(1000, this.node2.getNumberOfTicks());
+        assertFalse(this.node1.getWorkingThreadName().startsWith(TICK_EXECUTOR_WORKER_PREFIX));
+        assertFalse(this.node2.getWorkingThreadName().startsWith(TICK_EXECUTOR_WORKER_PREFIX));
+    }
+
+    /**
+     * Test of isAdaptiveTick method, of class TTimer.
+     */
+    @Test
+    public void testIsAdaptiveTick() {
+        System.out.println("Test isAdaptiveTick");
+        TTimer instance = new TTimer();
+        assertFalse(instance.isAdaptiveTick());
+        instance.setAdaptiveTick(true);
+        assertTrue(instance.isAdaptiveTick());
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunAdaptiveTickWidensIdleTicks() {
+        System.out.println("Test run");
+        TTimer timer = this.topology.getTimer();
+        timer.setAdaptiveTick(true);
+        timer.setMaximumTick(8500);
+        this.simulate(false);
+        // 1000, 2000 and 4000 ns ticks, then 8000 ns ticks up to the end.
+        assertEquals(128, this.node1.getNumberOfTicks());
+        assertEquals(8000, timer.getAdaptiveTick());
+        assertEquals(1000000, this.node1.getCurrentTimeInstant());
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunAdaptiveTickNeverShorterThanTick() {
+        System.out.println("Test run");
+        TTimer timer = this.topology.getTimer();
+        timer.setAdaptiveTick(true);
+        timer.setMaximumTick(500);
+        this.simulate(false);
+        assertEquals(1000, this.node1.getNumberOfTicks());
+        assertEquals(1000000, this.node1.getCurrentTimeInstant());
+    }
+
+    /**
+     * Test of resume method, of class TTimer.
+     */
+    @Test
+    public void testResume() {
+        System.out.println("Test resume");
+        this.simulate(false);
+        TTimer timer = this.topology.getTimer();
+        assertEquals(1000000, timer.getSimulatedTimestamp().getTotalAsNanoseconds());
+        timer.setFinishTimestamp(new TTimestamp(2, 0));
+        timer.resume();
+        timer.waitForCompletion();
+        // The simulation goes on, tick by tick, from where it stopped.
+        assertEquals(2000, this.node1.getNumberOfTicks());
+        assertEquals(2000000, this.node1.getCurrentTimeInstant());
+        assertEquals(2000000, timer.getSimulatedTimestamp().getTotalAsNanoseconds());
+    }
+
+    /**
+     * Test of addTelemetryEventListener method, of class TTimer.
+     */
+    @Test
+    public void testAddTelemetryEventListenerWhenNull() {
+        System.out.println("Test addTelemetryEventListener");
+        TTimer instance = new TTimer();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.addTelemetryEventListener(null);
+        });
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunSendsTelemetryToEveryListener() {
+        System.out.println("Test run");
+        List<TTelemetryEvent> firstListenerEvents = new CopyOnWriteArrayList<>();
+        List<TTelemetryEvent> secondListenerEvents = new CopyOnWriteArrayList<>();
+        TTimer timer = this.topology.getTimer();
+        timer.setTelemetryInterval(1);
+        timer.addTelemetryEventListener(firstListenerEvents::add);
+        timer.addTelemetryEventListener(secondListenerEvents::add);
+        this.simulate(false);
+        assertFalse(firstListenerEvents.isEmpty());
+        assertEquals(firstListenerEvents, secondListenerEvents);
+        // The last telemetry event is sent when the simulation stops.
+        TTelemetryEvent lastTelemetryEvent = firstListenerEvents.get(firstListenerEvents.size() - 1);
+        assertEquals(1000000, lastTelemetryEvent.getInstant());
+        assertEquals(TOpenSimMPLSEvent.TELEMETRY, lastTelemetryEvent.getType());
+        assertTrue(lastTelemetryEvent.getUsedHeapInBytes() > 0);
+        assertFalse(timer.isWallClockBudgetExhausted());
+    }
+
+    /**
+     * Test of setWallClockBudget method, of class TTimer.
+     */
+    @Test
+    public void testSetWallClockBudgetWhenNegative() {
+        System.out.println("Test setWallClockBudget");
+        TTimer instance = new TTimer();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.setWallClockBudget(-1);
+        });
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunStopsWhenWallClockBudgetIsExhausted() {
+        System.out.println("Test run");
+        TTimer timer = this.topology.getTimer();
+        timer.setFinishTimestamp(new TTimestamp(1000000, 0));
+        timer.setTick(1000);
+        timer.setWallClockBudget(50);
+        timer.reset();
+        timer.start();
+        timer.waitForCompletion();
+        assertTrue(timer.isWallClockBudgetExhausted());
+        assertFalse(timer.isRunning());
+        long simulatedTime = timer.getSimulatedTimestamp().getTotalAsNanoseconds();
+        assertTrue(simulatedTime < 1000000000000L);
+        assertEquals(simulatedTime, this.node1.getCurrentTimeInstant());
+    }
+
+    /**
+     * Test of run method, of class TTimer.
+     */
+    @Test
+    public void testRunPartitionsWithoutCrossPartitionLinksStopsWhenWallClockBudgetIsExhausted() {
+        System.out.println("Test run");
+        // Two unconnected nodes, each one in its own partition. No link
+        // bounds the windows of the partitioned simulation.
+        TTopology unconnectedTopology = new TTopology(new TScenario());
+        TCountingLSRNode unconnectedNode1 = new TCountingLSRNode(1, "10.0.0.1", unconnectedTopology);
+        TCountingLSRNode unconnectedNode2 = new TCountingLSRNode(2, "10.0.0.2", unconnectedTopology);
+        unconnectedTopology.addNode(unconnectedNode1);
+        unconnectedTopology.addNode(unconnectedNode2);
+        TTimer timer = unconnectedTopology.getTimer();
+        timer.setFinishTimestamp(new TTimestamp(1000000, 0));
+        timer.setTick(1000);
+        timer.setNumberOfPartitions(2);
+        timer.setWallClockBudget(50);
+        timer.reset();
+        timer.start();
+        timer.waitForCompletion();
+        assertTrue(timer.isWallClockBudgetExhausted());
+        assertFalse(timer.isRunning());
+        long simulatedTime = timer.getSimulatedTimestamp().getTotalAsNanoseconds();
+        assertTrue(simulatedTime < 1000000000000L);
+        assertEquals(simulatedTime, unconnectedNode1.getCurrentTimeInstant());
+        assertEquals(simulatedTime, unconnectedNode2.getCurrentTimeInstant());
+    }
+
+    private static class TCountingLSRNode extends TLSRNode {
+
+        TCountingLSRNode(int nodeID, String ipv4Address, TTopology topology) {
+            super(nodeID, ipv4Address, new TLongIDGenerator(), topology);
+            this.numberOfTicks = 0;
+            this.nextEventInstant = 0;
+            this.lastIdleNanoseconds = 0;
+            this.lastIdleTickDurationInNs = 0;
+            this.workingThreadName = "";
+        }
+
+        @Override
+        public void run() {
+            this.workingThreadName = Thread.currentThread().getName();
+            super.run();
+        }
+
+        @Override
+        public void receiveTimerEvent(TTimerEvent timerEvent) {
+            this.numberOfTicks++;
+            this.lastIdleNanoseconds = timerEvent.getIdleNanoseconds();
+            this.lastIdleTickDurationInNs = timerEvent.getLastIdleTickDurationInNs();
+            super.receiveTimerEvent(timerEvent);
+        }
+
+        @Override
+        public long getNanosecondsToNextEvent() {
+            if (this.nextEventInstant > this.getCurrentTimeInstant()) {
+                return this.nextEventInstant - this.getCurrentTimeInstant();
+            }
+            return super.getNanosecondsToNextEvent();
+        }
+
+        void setNextEventInstant(long nextEventInstant) {
+            this.nextEventInstant = nextEventInstant;
+        }
+
+        long getLastIdleNanoseconds() {
+            return this.lastIdleNanoseconds;
+        }
+
+        int getLastIdleTickDurationInNs() {
+            return this.lastIdleTickDurationInNs;
+        }
+
+        int getNumberOfTicks() {
+            return this.numberOfTicks;
+        }
+
+        String getWorkingThreadName() {
+            return this.workingThreadName;
+        }
+
+        private int numberOfTicks;
+        private long nextEventInstant;
+        private long lastIdleNanoseconds;
+        private int lastIdleTickDurationInNs;
+        private String workingThreadName;
+    }
+
+    private TTopology topology;
+    private TCountingLSRNode node1;
+    private TCountingLSRNode node2;
+
+    private static final String TICK_EXECUTOR_WORKER_PREFIX = "TTickExecutor-worker-";
+}
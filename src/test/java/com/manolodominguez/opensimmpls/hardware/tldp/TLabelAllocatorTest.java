@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.tldp;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TLabelAllocatorTest {
+
+    public TLabelAllocatorTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of constructor, of class TLabelAllocator.
+     */
+    @Test
+    public void testConstructor() {
+        System.out.println("Test constructor");
+        TLabelAllocator instance = new TLabelAllocator(TSwitchingMatrixEntry.FIRST_UNRESERVED_LABEL, TSwitchingMatrixEntry.LABEL_SPACE);
+        assertEquals(TSwitchingMatrixEntry.FIRST_UNRESERVED_LABEL, instance.getLowestFreeLabel());
+        assertTrue(instance.isUsed(TSwitchingMatrixEntry.LAST_RESERVED_LABEL));
+        assertFalse(instance.isUsed(TSwitchingMatrixEntry.LABEL_SPACE));
+        assertEquals(0, instance.getNumberOfUsedLabels());
+    }
+
+    /**
+     * Test of allocate method, of class TLabelAllocator.
+     */
+    @Test
+    public void testAllocate() {
+        System.out.println("Test allocate");
+        TLabelAllocator instance = new TLabelAllocator(16, 1000);
+        for (int label = 16; label < 500; label++) {
+            assertEquals(label, instance.getLowestFreeLabel());
+            instance.allocate(label);
+        }
+        instance.allocate(499);
+        instance.allocate(1001);
+        instance.allocate(3);
+        assertEquals(484, instance.getNumberOfUsedLabels());
+        assertEquals(484, instance.getNumberOfAllocations());
+    }
+
+    /**
+     * Test of release method, of class TLabelAllocator.
+     */
+    @Test
+    public void testRelease() {
+        System.out.println("Test release");
+        TLabelAllocator instance = new TLabelAllocator(16, 1000);
+        for (int label = 16; label < 500; label++) {
+            instance.allocate(label);
+        }
+        instance.release(200);
+        instance.release(64);
+        instance.release(64);
+        instance.release(3);
+        assertEquals(64, instance.getLowestFreeLabel());
+        instance.allocate(64);
+        assertEquals(200, instance.getLowestFreeLabel());
+        assertEquals(2, instance.getNumberOfReleases());
+    }
+
+    /**
+     * Test of getLowestFreeLabel method, of class TLabelAllocator.
+     */
+    @Test
+    public void testGetLowestFreeLabelWhenLabelSpaceIsFull() {
+        System.out.println("Test getLowestFreeLabel");
+        TLabelAllocator instance = new TLabelAllocator(TSwitchingMatrixEntry.FIRST_UNRESERVED_LABEL, TSwitchingMatrixEntry.LABEL_SPACE);
+        for (int label = TSwitchingMatrixEntry.FIRST_UNRESERVED_LABEL; label <= TSwitchingMatrixEntry.LABEL_SPACE; label++) {
+            instance.allocate(label);
+        }
+        assertEquals(TSwitchingMatrixEntry.LABEL_UNAVAILABLE, instance.getLowestFreeLabel());
+        instance.release(TSwitchingMatrixEntry.LABEL_SPACE);
+        assertEquals(TSwitchingMatrixEntry.LABEL_SPACE, instance.getLowestFreeLabel());
+        instance.release(70000);
+        assertEquals(70000, instance.getLowestFreeLabel());
+    }
+
+    /**
+     * Test of reset method, of class TLabelAllocator.
+     */
+    @Test
+    public void testReset() {
+        System.out.println("Test reset");
+        TLabelAllocator instance = new TLabelAllocator(16, 1000);
+        instance.allocate(16);
+        instance.release(16);
+        instance.allocate(16);
+        instance.reset();
+        assertEquals(16, instance.getLowestFreeLabel());
+        assertEquals(0, instance.getNumberOfUsedLabels());
+        assertEquals(0, instance.getNumberOfAllocations());
+        assertEquals(0, instance.getNumberOfReleases());
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.hardware.tldp;
+
+import java.util.Iterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TSwitchingMatrixTest {
+
+    public TSwitchingMatrixTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private TSwitchingMatrixEntry createEntry(int incomingPortID, int labelOrFEC, int entryType, int localTLDPSessionID, int upstreamTLDPSessionID) {
+        TSwitchingMatrixEntry switchingMatrixEntry = new TSwitchingMatrixEntry();
+        switchingMatrixEntry.setIncomingPortID(incomingPortID);
+        switchingMatrixEntry.setLabelOrFEC(labelOrFEC);
+        switchingMatrixEntry.setEntryType(entryType);
+        switchingMatrixEntry.setLocalTLDPSessionID(localTLDPSessionID);
+        switchingMatrixEntry.setUpstreamTLDPSessionID(upstreamTLDPSessionID);
+        return switchingMatrixEntry;
+    }
+
+    /**
+     * Test of getEntry method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testGetEntry() {
+        System.out.println("Test getEntry");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        TSwitchingMatrixEntry entry1 = createEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200);
+        TSwitchingMatrixEntry entry2 = createEntry(1, 20, TSwitchingMatrixEntry.FEC_ENTRY, 101, 201);
+        instance.addEntry(entry1);
+        instance.addEntry(entry2);
+        assertSame(entry1, instance.getEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY));
+        assertSame(entry2, instance.getEntry(1, 20, TSwitchingMatrixEntry.FEC_ENTRY));
+        assertSame(entry2, instance.getEntry(101));
+        assertSame(entry1, instance.getEntry(200, 1));
+        assertNull(instance.getEntry(2, 20, TSwitchingMatrixEntry.LABEL_ENTRY));
+        assertNull(instance.getEntry(102));
+        assertNull(instance.getEntry(200, 2));
+    }
+
+    /**
+     * Test of getEntry method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testGetEntryReturnsTheOldestEntry() {
+        System.out.println("Test getEntry");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        TSwitchingMatrixEntry entry1 = createEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200);
+        TSwitchingMatrixEntry entry2 = createEntry(1, 21, TSwitchingMatrixEntry.LABEL_ENTRY, 101, 201);
+        instance.addEntry(entry1);
+        instance.addEntry(entry2);
+        entry1.setLabelOrFEC(22);
+        entry2.setLabelOrFEC(22);
+        entry1.setLabelOrFEC(22);
+        assertSame(entry1, instance.getEntry(1, 22, TSwitchingMatrixEntry.LABEL_ENTRY));
+    }
+
+    /**
+     * Test of getEntry method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testGetEntryWhenEntryChanges() {
+        System.out.println("Test getEntry");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        TSwitchingMatrixEntry entry = createEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200);
+        instance.addEntry(entry);
+        entry.setLabelOrFEC(30);
+        entry.setIncomingPortID(2);
+        entry.setLocalTLDPSessionID(110);
+        entry.setUpstreamTLDPSessionID(210);
+        assertNull(instance.getEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY));
+        assertNull(instance.getEntry(100));
+        assertNull(instance.getEntry(200, 1));
+        assertSame(entry, instance.getEntry(2, 30, TSwitchingMatrixEntry.LABEL_ENTRY));
+        assertSame(entry, instance.getEntry(110));
+        assertSame(entry, instance.getEntry(210, 2));
+        entry.setEntryType(TSwitchingMatrixEntry.FEC_ENTRY);
+        assertFalse(instance.existsEntry(2, 30, TSwitchingMatrixEntry.LABEL_ENTRY));
+        assertTrue(instance.existsEntry(2, 30, TSwitchingMatrixEntry.FEC_ENTRY));
+    }
+
+    /**
+     * Test of removeEntry method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testRemoveEntry() {
+        System.out.println("Test removeEntry");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        TSwitchingMatrixEntry entry1 = createEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200);
+        TSwitchingMatrixEntry entry2 = createEntry(2, 21, TSwitchingMatrixEntry.LABEL_ENTRY, 101, 201);
+        instance.addEntry(entry1);
+        instance.addEntry(entry2);
+        instance.removeEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY);
+        instance.removeEntry(101, 2);
+        assertEquals(0, instance.getNumberOfEntries());
+        assertNull(instance.getEntry(100));
+        assertNull(instance.getEntry(101));
+        // Removed entries are not indexed any more.
+        entry1.setLabelOrFEC(22);
+        assertNull(instance.getEntry(1, 22, TSwitchingMatrixEntry.LABEL_ENTRY));
+    }
+
+    /**
+     * Test of getEntriesIterator method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testGetEntriesIteratorRemove() {
+        System.out.println("Test getEntriesIterator");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        TSwitchingMatrixEntry entry1 = createEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200);
+        TSwitchingMatrixEntry entry2 = createEntry(2, 21, TSwitchingMatrixEntry.LABEL_ENTRY, 101, 201);
+        instance.addEntry(entry1);
+        instance.addEntry(entry2);
+        Iterator<TSwitchingMatrixEntry> iterator = instance.getEntriesIterator();
+        assertSame(entry1, iterator.next());
+        iterator.remove();
+        assertSame(entry2, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertEquals(1, instance.getNumberOfEntries());
+        assertNull(instance.getEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY));
+        assertSame(entry2, instance.getEntry(2, 21, TSwitchingMatrixEntry.LABEL_ENTRY));
+    }
+
+    /**
+     * Test of labelIsAlreadyUsed method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testLabelIsAlreadyUsed() {
+        System.out.println("Test labelIsAlreadyUsed");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        instance.addEntry(createEntry(1, 16, TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200));
+        instance.addEntry(createEntry(1, 17, TSwitchingMatrixEntry.FEC_ENTRY, 101, 201));
+        assertTrue(instance.labelIsAlreadyUsed(16));
+        assertFalse(instance.labelIsAlreadyUsed(17));
+        assertEquals(17, instance.getNewLabel());
+    }
+
+    /**
+     * Test of getNewLabel method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testGetNewLabelAfterRemovingEntries() {
+        System.out.println("Test getNewLabel");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        TSwitchingMatrixEntry entry1 = createEntry(1, instance.getNewLabel(), TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200);
+        instance.addEntry(entry1);
+        TSwitchingMatrixEntry entry2 = createEntry(2, instance.getNewLabel(), TSwitchingMatrixEntry.LABEL_ENTRY, 101, 201);
+        instance.addEntry(entry2);
+        assertEquals(16, entry1.getLabelOrFEC());
+        assertEquals(17, entry2.getLabelOrFEC());
+        assertEquals(18, instance.getNewLabel());
+        instance.removeEntry(100, 1);
+        assertEquals(16, instance.getNewLabel());
+        entry2.setLabelOrFEC(instance.getNewLabel());
+        assertEquals(17, instance.getNewLabel());
+        assertEquals(1, instance.getNumberOfUsedLabels());
+        assertEquals(3, instance.getNumberOfLabelAllocations());
+        assertEquals(2, instance.getNumberOfLabelReleases());
+    }
+
+    /**
+     * Test of getNewLabel method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testGetNewLabelWhenLabelIsShared() {
+        System.out.println("Test getNewLabel");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        instance.addEntry(createEntry(1, 16, TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200));
+        instance.addEntry(createEntry(2, 16, TSwitchingMatrixEntry.LABEL_ENTRY, 101, 201));
+        instance.removeEntry(100, 1);
+        // Label 16 is still used by the second entry.
+        assertEquals(17, instance.getNewLabel());
+        instance.removeEntry(101, 2);
+        assertEquals(16, instance.getNewLabel());
+    }
+
+    /**
+     * Test of getNanosecondsToNextTimeOut method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testGetNanosecondsToNextTimeOut() {
+        System.out.println("Test getNanosecondsToNextTimeOut");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        TSwitchingMatrixEntry entry1 = createEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200);
+        TSwitchingMatrixEntry entry2 = createEntry(2, 21, TSwitchingMatrixEntry.LABEL_ENTRY, 101, 201);
+        entry1.setOutgoingLabel(30);
+        entry2.setOutgoingLabel(TSwitchingMatrixEntry.LABEL_REQUESTED);
+        instance.addEntry(entry1);
+        assertEquals(TSwitchingMatrixEntry.NO_PENDING_TIMEOUT, instance.getNanosecondsToNextTimeOut());
+        instance.addEntry(entry2);
+        entry2.decreaseTimeOut(20000);
+        assertEquals(30000, instance.getNanosecondsToNextTimeOut());
+        entry2.setOutgoingLabel(TSwitchingMatrixEntry.REMOVING_LABEL);
+        entry2.decreaseAttempts();
+        entry2.decreaseAttempts();
+        entry2.decreaseAttempts();
+        // The entry is going to be discarded in the next tick.
+        assertEquals(0, instance.getNanosecondsToNextTimeOut());
+    }
+
+    /**
+     * Test of reset method, of class TSwitchingMatrix.
+     */
+    @Test
+    public void testReset() {
+        System.out.println("Test reset");
+        TSwitchingMatrix instance = new TSwitchingMatrix();
+        instance.addEntry(createEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY, 100, 200));
+        instance.reset();
+        assertEquals(0, instance.getNumberOfEntries());
+        assertNull(instance.getEntry(1, 20, TSwitchingMatrixEntry.LABEL_ENTRY));
+        assertFalse(instance.labelIsAlreadyUsed(20));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.checkpoint;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import com.manolodominguez.opensimmpls.io.stats.TStatsSaver;
+import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
+import com.manolodominguez.opensimmpls.scenario.TLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TStats;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TCheckpointLoaderTest {
+
+    @TempDir
+    File temporaryDirectory;
+
+    public TCheckpointLoaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private String statsOf(TScenario scenario) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new TStatsSaver(scenario).save(new PrintStream(bytes));
+        return bytes.toString();
+    }
+
+    /**
+     * Test of load method, of class TCheckpointLoader.
+     */
+    @Test
+    public void testLoadWhenFileIsNull() {
+        System.out.println("Test load");
+        TCheckpointLoader instance = new TCheckpointLoader();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.load((File) null);
+        });
+    }
+
+    /**
+     * Test of load method, of class TCheckpointLoader.
+     */
+    @Test
+    public void testLoadWhenFileIsNotACheckpoint() throws IOException {
+        System.out.println("Test load");
+        File notACheckpointFile = new File(this.temporaryDirectory, "scenario.osm");
+        try (FileOutputStream output = new FileOutputStream(notACheckpointFile)) {
+            output.write("@?Escenario".getBytes());
+        }
+        TCheckpointLoader instance = new TCheckpointLoader();
+        assertFalse(instance.load(notACheckpointFile));
+        assertNull(instance.getScenario());
+    }
+
+    /**
+     * Test of load method, of class TCheckpointLoader.
+     */
+    @Test
+    public void testLoad() {
+        System.out.println("Test load");
+        TScenario scenario = new TScenario();
+        scenario.setTitle("Checkpointed scenario");
+        TLSRNode lsr = new TLSRNode(1, "10.0.0.1", new TLongIDGenerator(), scenario.getTopology());
+        lsr.setName("LSR");
+        lsr.setGenerateStats(true);
+        lsr.reset();
+        scenario.getTopology().addNode(lsr);
+        lsr.getStats().addStatEntry(new TMPLSPDU(1, "10.0.0.2", "10.0.0.3", 1024), TStats.INCOMING);
+        lsr.getStats().groupStatsByTimeInstant(100);
+        File checkpointFile = new File(this.temporaryDirectory, "scenario.checkpoint");
+        assertTrue(new TCheckpointSaver(scenario).save(checkpointFile));
+        TCheckpointLoader instance = new TCheckpointLoader();
+        assertTrue(instance.load(checkpointFile));
+        TScenario restoredScenario = instance.getScenario();
+        assertNotSame(scenario, restoredScenario);
+        assertEquals("Checkpointed scenario", restoredScenario.getTitle());
+        assertEquals("LSR", restoredScenario.getTopology().getNode(1).getName());
+        assertSame(restoredScenario.getTopology(), restoredScenario.getTopology().getNode(1).getTopology());
+        assertEquals(statsOf(scenario), statsOf(restoredScenario));
+    }
+
+    /**
+     * Test of load method, of class TCheckpointLoader.
+     */
+    @Test
+    public void testLoadTwice() {
+        System.out.println("Test load");
+        File checkpointFile = new File(this.temporaryDirectory, "scenario.checkpoint");
+        assertTrue(new TCheckpointSaver(new TScenario()).save(checkpointFile));
+        TCheckpointLoader instance = new TCheckpointLoader();
+        assertTrue(instance.load(checkpointFile));
+        TScenario firstScenario = instance.getScenario();
+        assertTrue(instance.load(checkpointFile));
+        assertNotSame(firstScenario, instance.getScenario());
+    }
+
+    /**
+     * Test of load method, of class TCheckpointLoader.
+     */
+    @Test
+    public void testLoadFromStream() {
+        System.out.println("Test load");
+        TScenario scenario = new TScenario();
+        scenario.setTitle("Checkpointed scenario");
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        assertTrue(new TCheckpointSaver(scenario).save(checkpoint));
+        TCheckpointLoader instance = new TCheckpointLoader();
+        assertTrue(instance.load(new ByteArrayInputStream(checkpoint.toByteArray())));
+        TScenario firstScenario = instance.getScenario();
+        assertEquals("Checkpointed scenario", firstScenario.getTitle());
+        assertTrue(instance.load(new ByteArrayInputStream(checkpoint.toByteArray())));
+        assertNotSame(firstScenario, instance.getScenario());
+        assertNotSame(firstScenario.getTopology(), instance.getScenario().getTopology());
+        assertFalse(instance.load(new ByteArrayInputStream(new byte[]{1, 2, 3})));
+        assertNull(instance.getScenario());
+    }
+}
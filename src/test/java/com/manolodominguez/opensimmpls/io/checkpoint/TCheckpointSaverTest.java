@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.checkpoint;
+
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TCheckpointSaverTest {
+
+    @TempDir
+    File temporaryDirectory;
+
+    public TCheckpointSaverTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of constructor, of class TCheckpointSaver.
+     */
+    @Test
+    public void testConstructorWhenScenarioIsNull() {
+        System.out.println("Test constructor");
+        assertThrows(IllegalArgumentException.class, () -> {
+            TCheckpointSaver instance = new TCheckpointSaver(null);
+        });
+    }
+
+    /**
+     * Test of save method, of class TCheckpointSaver.
+     */
+    @Test
+    public void testSaveWhenFileIsNull() {
+        System.out.println("Test save");
+        TCheckpointSaver instance = new TCheckpointSaver(new TScenario());
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.save((File) null);
+        });
+    }
+
+    /**
+     * Test of save method, of class TCheckpointSaver.
+     */
+    @Test
+    public void testSave() throws IOException {
+        System.out.println("Test save");
+        File checkpointFile = new File(this.temporaryDirectory, "scenario.checkpoint");
+        TCheckpointSaver instance = new TCheckpointSaver(new TScenario());
+        assertTrue(instance.save(checkpointFile));
+        try (DataInputStream input = new DataInputStream(new FileInputStream(checkpointFile))) {
+            assertEquals(TCheckpointSaver.MAGIC, input.readUTF());
+            assertEquals(TCheckpointSaver.VERSION, input.readInt());
+        }
+    }
+
+    /**
+     * Test of save method, of class TCheckpointSaver.
+     */
+    @Test
+    public void testSaveWhenFileCannotBeWritten() {
+        System.out.println("Test save");
+        TCheckpointSaver instance = new TCheckpointSaver(new TScenario());
+        assertFalse(instance.save(this.temporaryDirectory));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.osm;
+
+import com.manolodominguez.opensimmpls.scenario.TLink;
+import com.manolodominguez.opensimmpls.scenario.TNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Iterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TOSMLoaderTest {
+
+    public TOSMLoaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of load method, of class TOSMLoader.
+     */
+    @Test
+    public void testLoadWhenReaderIsNull() {
+        System.out.println("Test load");
+        TOSMLoader instance = new TOSMLoader();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.load((Reader) null);
+        });
+    }
+
+    /**
+     * Test of load method, of class TOSMLoader.
+     */
+    @Test
+    public void testLoadFromReaderMatchesLoadFromFile() throws IOException {
+        System.out.println("Test load");
+        File scenarioFile = new File("examples", "RLPRPJustification.osm");
+        TOSMLoader fileLoader = new TOSMLoader();
+        assertTrue(fileLoader.load(scenarioFile));
+        TScenario expectedScenario = fileLoader.getScenario();
+        TOSMLoader instance = new TOSMLoader();
+        // Files are read with the default charset, as TOSMLoader does.
+        String osmDescription = new String(Files.readAllBytes(scenarioFile.toPath()), Charset.defaultCharset());
+        assertTrue(instance.load(new StringReader(osmDescription)));
+        TScenario scenario = instance.getScenario();
+        assertEquals(expectedScenario.getTitle(), scenario.getTitle());
+        assertEquals(expectedScenario.getAuthor(), scenario.getAuthor());
+        assertEquals(expectedScenario.getSimulation().getSimulationLengthInNs(), scenario.getSimulation().getSimulationLengthInNs());
+        assertEquals(expectedScenario.getSimulation().getSimulationTickDurationInNs(), scenario.getSimulation().getSimulationTickDurationInNs());
+        Iterator<TNode> expectedNodesIterator = expectedScenario.getTopology().getNodesIterator();
+        Iterator<TNode> nodesIterator = scenario.getTopology().getNodesIterator();
+        assertTrue(expectedNodesIterator.hasNext());
+        while (expectedNodesIterator.hasNext()) {
+            TNode expectedNode = expectedNodesIterator.next();
+            TNode node = nodesIterator.next();
+            assertEquals(expectedNode.getNodeID(), node.getNodeID());
+            assertEquals(expectedNode.getName(), node.getName());
+            assertEquals(expectedNode.getNodeType(), node.getNodeType());
+        }
+        assertFalse(nodesIterator.hasNext());
+        Iterator<TLink> expectedLinksIterator = expectedScenario.getTopology().getLinksIterator();
+        Iterator<TLink> linksIterator = scenario.getTopology().getLinksIterator();
+        assertTrue(expectedLinksIterator.hasNext());
+        while (expectedLinksIterator.hasNext()) {
+            TLink expectedLink = expectedLinksIterator.next();
+            TLink link = linksIterator.next();
+            assertEquals(expectedLink.getID(), link.getID());
+            assertEquals(expectedLink.getDelay(), link.getDelay());
+            assertEquals(expectedLink.getHeadEndNode().getNodeID(), link.getHeadEndNode().getNodeID());
+            assertEquals(expectedLink.getTailEndNode().getNodeID(), link.getTailEndNode().getNodeID());
+        }
+        assertFalse(linksIterator.hasNext());
+        // There is no file behind a scenario loaded from a reader.
+        assertNull(scenario.getScenarioFile());
+    }
+
+    /**
+     * Test of load method, of class TOSMLoader.
+     */
+    @Test
+    public void testLoadWhenReaderIsEmpty() {
+        System.out.println("Test load");
+        TOSMLoader instance = new TOSMLoader();
+        assertTrue(instance.load(new StringReader("")));
+        assertEquals(0, instance.getScenario().getTopology().getNumberOfNodes());
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.stats;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
+import com.manolodominguez.opensimmpls.scenario.TLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TStats;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TStatsAggregatorTest {
+
+    public TStatsAggregatorTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private TScenario createScenario(int incomingPackets) {
+        return createScenario(incomingPackets, 100);
+    }
+
+    private TScenario createScenario(int incomingPackets, long timeInstant) {
+        TScenario scenario = new TScenario();
+        TLSRNode lsr = new TLSRNode(1, "10.0.0.1", new TLongIDGenerator(), scenario.getTopology());
+        lsr.setName("LSR");
+        lsr.setGenerateStats(true);
+        lsr.reset();
+        scenario.getTopology().addNode(lsr);
+        for (int i = 0; i < incomingPackets; i++) {
+            lsr.getStats().addStatEntry(new TMPLSPDU(i, "10.0.0.2", "10.0.0.3", 1024), TStats.INCOMING);
+        }
+        lsr.getStats().groupStatsByTimeInstant(timeInstant);
+        return scenario;
+    }
+
+    private String[] save(TStatsAggregator instance) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        instance.save(new PrintStream(bytes));
+        return bytes.toString().split("\n");
+    }
+
+    /**
+     * Test of add method, of class TStatsAggregator.
+     */
+    @Test
+    public void testAddWhenScenarioIsNull() {
+        System.out.println("Test add");
+        TStatsAggregator instance = new TStatsAggregator();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.add(null);
+        });
+    }
+
+    /**
+     * Test of save method, of class TStatsAggregator.
+     */
+    @Test
+    public void testSaveWhenNoNodes() {
+        System.out.println("Test save");
+        TStatsAggregator instance = new TStatsAggregator();
+        instance.add(new TScenario());
+        assertEquals(1, instance.getNumberOfScenarios());
+        String[] rows = save(instance);
+        assertEquals(1, rows.length);
+        assertEquals("nodeID,nodeName,dataset,series,x,replications,mean,standardDeviation,confidenceInterval95", rows[0].trim());
+    }
+
+    /**
+     * Test of save method, of class TStatsAggregator.
+     */
+    @Test
+    public void testSave() {
+        System.out.println("Test save");
+        TStatsAggregator instance = new TStatsAggregator();
+        instance.add(createScenario(1));
+        instance.add(createScenario(3));
+        assertEquals(2, instance.getNumberOfScenarios());
+        String[] rows = save(instance);
+        assertTrue(rows.length > 1);
+        boolean incomingPacketsFound = false;
+        for (int i = 1; i < rows.length; i++) {
+            String[] columns = rows[i].trim().split(",");
+            assertEquals("2", columns[5]);
+            if (Double.parseDouble(columns[6]) == 2.0) {
+                // 1 and 3 packets: mean 2, standard deviation sqrt(2) and a
+                // confidence interval of 12.706 * sqrt(2) / sqrt(2).
+                assertEquals(Math.sqrt(2.0), Double.parseDouble(columns[7]), 0.000001);
+                assertEquals(12.706, Double.parseDouble(columns[8]), 0.000001);
+                incomingPacketsFound = true;
+            }
+        }
+        assertTrue(incomingPacketsFound);
+    }
+
+    /**
+     * Test of save method, of class TStatsAggregator.
+     */
+    @Test
+    public void testSaveWhenAValueIsMissingFromAReplication() {
+        System.out.println("Test save");
+        TStatsAggregator instance = new TStatsAggregator();
+        instance.add(createScenario(4, 100));
+        instance.add(createScenario(2, 200));
+        String[] rows = save(instance);
+        boolean firstInstantFound = false;
+        boolean secondInstantFound = false;
+        for (int i = 1; i < rows.length; i++) {
+            String[] columns = rows[i].trim().split(",");
+            // Every row is aggregated over both replications.
+            assertEquals("2", columns[5]);
+            if (Double.parseDouble(columns[6]) == 2.0) {
+                // 4 packets and a missing value: mean 2, standard deviation
+                // sqrt(8) and a confidence interval of 12.706 * sqrt(8) /
+                // sqrt(2).
+                assertEquals(100.0, Double.parseDouble(columns[4]), 0.000001);
+                assertEquals(Math.sqrt(8.0), Double.parseDouble(columns[7]), 0.000001);
+                assertEquals(12.706 * 2.0, Double.parseDouble(columns[8]), 0.000001);
+                firstInstantFound = true;
+            }
+            if (Double.parseDouble(columns[6]) == 1.0) {
+                // A missing value and 2 packets.
+                assertEquals(200.0, Double.parseDouble(columns[4]), 0.000001);
+                assertEquals(Math.sqrt(2.0), Double.parseDouble(columns[7]), 0.000001);
+                secondInstantFound = true;
+            }
+        }
+        assertTrue(firstInstantFound);
+        assertTrue(secondInstantFound);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.stats;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import com.manolodominguez.opensimmpls.protocols.TMPLSPDU;
+import com.manolodominguez.opensimmpls.scenario.TLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TStats;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TStatsSaverTest {
+
+    public TStatsSaverTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of constructor, of class TStatsSaver.
+     */
+    @Test
+    public void testConstructorWhenScenarioIsNull() {
+        System.out.println("Test constructor");
+        assertThrows(IllegalArgumentException.class, () -> {
+            TStatsSaver instance = new TStatsSaver(null);
+        });
+    }
+
+    /**
+     * Test of save method, of class TStatsSaver.
+     */
+    @Test
+    public void testSaveWhenNoNodes() {
+        System.out.println("Test save");
+        TScenario scenario = new TScenario();
+        TStatsSaver instance = new TStatsSaver(scenario);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        instance.save(new PrintStream(bytes));
+        assertEquals("nodeID,nodeName,dataset,series,x,y", bytes.toString().trim());
+    }
+
+    /**
+     * Test of save method, of class TStatsSaver.
+     */
+    @Test
+    public void testSave() {
+        System.out.println("Test save");
+        TScenario scenario = new TScenario();
+        TLSRNode lsr = new TLSRNode(1, "10.0.0.1", new TLongIDGenerator(), scenario.getTopology());
+        lsr.setName("LSR, \"one\"");
+        lsr.setGenerateStats(true);
+        lsr.reset();
+        scenario.getTopology().addNode(lsr);
+        lsr.getStats().addStatEntry(new TMPLSPDU(1, "10.0.0.2", "10.0.0.3", 1024), TStats.INCOMING);
+        lsr.getStats().groupStatsByTimeInstant(100);
+        TStatsSaver instance = new TStatsSaver(scenario);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        instance.save(new PrintStream(bytes));
+        String[] rows = bytes.toString().split("\n");
+        assertTrue(rows.length > 1);
+        assertTrue(rows[1].startsWith("1,\"LSR, \"\"one\"\"\","));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.trace;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
+import com.manolodominguez.opensimmpls.scenario.TInternalLink;
+import com.manolodominguez.opensimmpls.scenario.TLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TScenario;
+import com.manolodominguez.opensimmpls.scenario.TTopology;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEvent;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventLinkBroken;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventNodeCongested;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketGenerated;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketOnFly;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TTraceReaderTest {
+
+    @TempDir
+    File temporaryDirectory;
+
+    private TTopology topology;
+    private TLSRNode firstLSR;
+    private TLSRNode secondLSR;
+    private TInternalLink link;
+    private File traceFile;
+
+    public TTraceReaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        this.topology = new TScenario().getTopology();
+        this.firstLSR = new TLSRNode(1, "10.0.0.1", new TLongIDGenerator(), this.topology);
+        this.secondLSR = new TLSRNode(2, "10.0.0.2", new TLongIDGenerator(), this.topology);
+        this.topology.addNode(this.firstLSR);
+        this.topology.addNode(this.secondLSR);
+        this.link = new TInternalLink(3, new TLongIDGenerator(), this.topology);
+        this.link.setHeadEndNode(this.firstLSR);
+        this.link.setTailEndNode(this.secondLSR);
+        this.topology.addLink(this.link);
+        this.traceFile = new File(this.temporaryDirectory, "events.trace");
+        TTraceRecorder recorder = new TTraceRecorder();
+        recorder.open(this.traceFile);
+        recorder.captureSimulationEvents(new TSimulationEventPacketGenerated(this.firstLSR, 0, 10, TAbstractPDU.IPV4, 1024));
+        recorder.captureSimulationEvents(new TSimulationEventPacketOnFly(this.link, 1, 20, TAbstractPDU.MPLS, 50));
+        recorder.captureSimulationEvents(new TSimulationEventNodeCongested(this.secondLSR, 2, 20, 80));
+        recorder.captureSimulationEvents(new TSimulationEventLinkBroken(this.link, 3, 30));
+        recorder.close();
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of open method, of class TTraceReader.
+     */
+    @Test
+    public void testOpenWhenFileIsNull() {
+        System.out.println("Test open");
+        TTraceReader instance = new TTraceReader();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.open(null);
+        });
+    }
+
+    /**
+     * Test of open method, of class TTraceReader.
+     */
+    @Test
+    public void testOpenWhenFileIsNotATrace() throws IOException {
+        System.out.println("Test open");
+        File notATraceFile = new File(this.temporaryDirectory, "scenario.osm");
+        try (FileOutputStream output = new FileOutputStream(notATraceFile)) {
+            output.write("@?Escenario de prueba que no es una traza".getBytes());
+        }
+        TTraceReader instance = new TTraceReader();
+        assertFalse(instance.open(notATraceFile));
+        assertEquals(0, instance.getNumberOfEvents());
+    }
+
+    /**
+     * Test of getEvent method, of class TTraceReader.
+     */
+    @Test
+    public void testGetEvent() {
+        System.out.println("Test getEvent");
+        TTraceReader instance = new TTraceReader();
+        assertTrue(instance.open(this.traceFile));
+        assertEquals(4, instance.getNumberOfEvents());
+        TSimulationEventPacketGenerated packetGenerated = (TSimulationEventPacketGenerated) instance.getEvent(0, this.topology);
+        assertSame(this.firstLSR, packetGenerated.getSource());
+        assertEquals(0, packetGenerated.getEventID());
+        assertEquals(10, packetGenerated.getInstant());
+        assertEquals(TAbstractPDU.IPV4, packetGenerated.getPacketType());
+        assertEquals(1024, packetGenerated.getPacketSize());
+        TSimulationEventPacketOnFly packetOnFly = (TSimulationEventPacketOnFly) instance.getEvent(1, this.topology);
+        assertSame(this.link, packetOnFly.getSource());
+        assertEquals(TAbstractPDU.MPLS, packetOnFly.getPacketType());
+        assertEquals(50, packetOnFly.getTransitPercentage());
+        TSimulationEventNodeCongested nodeCongested = (TSimulationEventNodeCongested) instance.getEvent(2, this.topology);
+        assertSame(this.secondLSR, nodeCongested.getSource());
+        assertEquals(80, nodeCongested.getCongestionLevel());
+        TSimulationEvent linkBroken = instance.getEvent(3, this.topology);
+        assertEquals(TSimulationEvent.LINK_BROKEN, linkBroken.getSubtype());
+        assertEquals(30, instance.getLastInstant());
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.getEvent(4, this.topology);
+        });
+    }
+
+    /**
+     * Test of getEvent method, of class TTraceReader.
+     */
+    @Test
+    public void testGetEventWhenSourceIsNotInTheTopology() {
+        System.out.println("Test getEvent");
+        TTraceReader instance = new TTraceReader();
+        assertTrue(instance.open(this.traceFile));
+        assertNull(instance.getEvent(0, new TScenario().getTopology()));
+    }
+
+    /**
+     * Test of findFirstEventAt method, of class TTraceReader.
+     */
+    @Test
+    public void testFindFirstEventAt() {
+        System.out.println("Test findFirstEventAt");
+        TTraceReader instance = new TTraceReader();
+        assertTrue(instance.open(this.traceFile));
+        assertEquals(0, instance.findFirstEventAt(0));
+        assertEquals(1, instance.findFirstEventAt(15));
+        assertEquals(1, instance.findFirstEventAt(20));
+        assertEquals(3, instance.findFirstEventAt(21));
+        assertEquals(4, instance.findFirstEventAt(31));
+    }
+}
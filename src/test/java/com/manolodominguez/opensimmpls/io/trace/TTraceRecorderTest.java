@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.io.trace;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import com.manolodominguez.opensimmpls.protocols.TAbstractPDU;
+import com.manolodominguez.opensimmpls.scenario.TLSRNode;
+import com.manolodominguez.opensimmpls.scenario.TTopology;
+import com.manolodominguez.opensimmpls.scenario.simulationevents.TSimulationEventPacketSent;
+import java.io.File;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TTraceRecorderTest {
+
+    @TempDir
+    File temporaryDirectory;
+
+    public TTraceRecorderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of open method, of class TTraceRecorder.
+     */
+    @Test
+    public void testOpenWhenFileIsNull() {
+        System.out.println("Test open");
+        TTraceRecorder instance = new TTraceRecorder();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.open(null);
+        });
+    }
+
+    /**
+     * Test of close method, of class TTraceRecorder.
+     */
+    @Test
+    public void testCloseWhenNotOpen() {
+        System.out.println("Test close");
+        TTraceRecorder instance = new TTraceRecorder();
+        assertFalse(instance.close());
+    }
+
+    /**
+     * Test of captureSimulationEvents method, of class TTraceRecorder.
+     */
+    @Test
+    public void testCaptureSimulationEvents() {
+        System.out.println("Test captureSimulationEvents");
+        TTopology topology = new TTopology(null);
+        TLSRNode lsr = new TLSRNode(1, "10.0.0.1", new TLongIDGenerator(), topology);
+        File traceFile = new File(this.temporaryDirectory, "events.trace");
+        TTraceRecorder instance = new TTraceRecorder();
+        assertTrue(instance.open(traceFile));
+        // More events than fit in a single mapped region.
+        int numberOfEvents = 300000;
+        for (int i = 0; i < numberOfEvents; i++) {
+            instance.captureSimulationEvents(new TSimulationEventPacketSent(lsr, i, i / 10, TAbstractPDU.MPLS));
+        }
+        instance.captureEndOfBatch();
+        assertEquals(numberOfEvents, instance.getNumberOfEvents());
+        assertTrue(instance.close());
+        assertEquals(TTraceRecorder.HEADER_SIZE + ((long) numberOfEvents * TTraceRecorder.RECORD_SIZE), traceFile.length());
+        // Events received once the trace is closed are ignored.
+        instance.captureSimulationEvents(new TSimulationEventPacketSent(lsr, numberOfEvents, numberOfEvents, TAbstractPDU.MPLS));
+        assertEquals(numberOfEvents, instance.getNumberOfEvents());
+    }
+}
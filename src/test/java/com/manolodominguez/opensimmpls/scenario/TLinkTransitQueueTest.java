@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TLinkTransitQueueTest {
+
+    public TLinkTransitQueueTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of pollDeliveredEntries method, of class TLinkTransitQueue.
+     */
+    @Test
+    public void testPollDeliveredEntries() {
+        System.out.println("Test pollDeliveredEntries");
+        TLinkTransitQueue instance = new TLinkTransitQueue();
+        TLinkBufferEntry entry1 = new TLinkBufferEntry(null, 300, TLink.TAIL_END_NODE);
+        TLinkBufferEntry entry2 = new TLinkBufferEntry(null, 100, TLink.TAIL_END_NODE);
+        instance.add(entry1);
+        instance.add(entry2);
+        List<TLinkBufferEntry> delivered = new ArrayList<>();
+        instance.advance(99);
+        instance.pollDeliveredEntries(delivered);
+        assertTrue(delivered.isEmpty());
+        instance.advance(1);
+        instance.pollDeliveredEntries(delivered);
+        assertEquals(1, delivered.size());
+        assertSame(entry2, delivered.get(0));
+        assertEquals(0, entry2.getRemainingTransitDelay());
+        assertEquals(1, instance.size());
+        assertEquals(200, instance.getNanosecondsToNextDelivery());
+    }
+
+    /**
+     * Test of add method, of class TLinkTransitQueue.
+     */
+    @Test
+    public void testAddAfterAdvancing() {
+        System.out.println("Test add");
+        TLinkTransitQueue instance = new TLinkTransitQueue();
+        TLinkBufferEntry entry1 = new TLinkBufferEntry(null, 100, TLink.TAIL_END_NODE);
+        TLinkBufferEntry entry2 = new TLinkBufferEntry(null, 100, TLink.HEAD_END_NODE);
+        instance.add(entry1);
+        instance.advance(50);
+        instance.add(entry2);
+        List<TLinkBufferEntry> delivered = new ArrayList<>();
+        instance.advance(100);
+        instance.pollDeliveredEntries(delivered);
+        // Entries with the same delivery instant keep the order they were
+        // added in.
+        assertEquals(2, delivered.size());
+        assertSame(entry1, delivered.get(0));
+        assertSame(entry2, delivered.get(1));
+        assertTrue(instance.isEmpty());
+        assertEquals(TTopologyElement.NO_PENDING_EVENTS, instance.getNanosecondsToNextDelivery());
+    }
+
+    /**
+     * Test of iterator method, of class TLinkTransitQueue.
+     */
+    @Test
+    public void testIteratorUpdatesRemainingTransitDelay() {
+        System.out.println("Test iterator");
+        TLinkTransitQueue instance = new TLinkTransitQueue();
+        TLinkBufferEntry entry = new TLinkBufferEntry(null, 100, TLink.TAIL_END_NODE);
+        instance.add(entry);
+        instance.advance(30);
+        Iterator<TLinkBufferEntry> iterator = instance.iterator();
+        assertSame(entry, iterator.next());
+        assertEquals(70, entry.getRemainingTransitDelay());
+        assertEquals(100, entry.getTotalTransitDelay());
+        iterator.remove();
+        assertTrue(instance.isEmpty());
+    }
+
+    /**
+     * Test of clear method, of class TLinkTransitQueue.
+     */
+    @Test
+    public void testClear() {
+        System.out.println("Test clear");
+        TLinkTransitQueue instance = new TLinkTransitQueue();
+        instance.add(new TLinkBufferEntry(null, 100, TLink.TAIL_END_NODE));
+        instance.advance(30);
+        instance.clear();
+        assertEquals(0, instance.size());
+        TLinkBufferEntry entry = new TLinkBufferEntry(null, 100, TLink.TAIL_END_NODE);
+        instance.add(entry);
+        assertEquals(100, instance.getNanosecondsToNextDelivery());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TTopologySpatialIndexTest {
+
+    public TTopologySpatialIndexTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private static TNode createNode(int nodeID, int x, int y) {
+        TNode node = new TLSRNode(nodeID, "10.0.0." + nodeID, new TLongIDGenerator(), null);
+        node.setScreenPosition(new Point(x, y));
+        return node;
+    }
+
+    private static TLink createLink(int linkID, TNode headEndNode, TNode tailEndNode) {
+        TLink link = new TInternalLink(linkID, new TLongIDGenerator(), null);
+        link.setHeadEndNode(headEndNode);
+        link.setTailEndNode(tailEndNode);
+        return link;
+    }
+
+    /**
+     * Test of addNode method, of class TTopologySpatialIndex.
+     */
+    @Test
+    public void testAddNodeWhenNodeIsNull() {
+        System.out.println("Test addNode");
+        TTopologySpatialIndex instance = new TTopologySpatialIndex();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.addNode(null);
+        });
+    }
+
+    /**
+     * Test of getNodeInScreenPosition and getLinkInScreenPosition methods, of
+     * class TTopologySpatialIndex.
+     */
+    @Test
+    public void testGetElementsInScreenPositionMatchesEveryElement() {
+        System.out.println("Test getNodeInScreenPosition and getLinkInScreenPosition");
+        Random random = new Random(7);
+        TTopologySpatialIndex instance = new TTopologySpatialIndex();
+        List<TNode> nodes = new ArrayList<>();
+        List<TLink> links = new ArrayList<>();
+        for (int nodeID = 1; nodeID <= 200; nodeID++) {
+            TNode node = createNode(nodeID, random.nextInt(3000), random.nextInt(2000));
+            nodes.add(node);
+            instance.addNode(node);
+        }
+        for (int linkID = 1; linkID <= 300; linkID++) {
+            TLink link = createLink(linkID, nodes.get(random.nextInt(nodes.size())), nodes.get(random.nextInt(nodes.size())));
+            links.add(link);
+            instance.addLink(link);
+        }
+        for (int i = 0; i < 20000; i++) {
+            Point screenPosition = new Point(random.nextInt(3100), random.nextInt(2100));
+            TNode expectedNode = null;
+            for (TNode node : nodes) {
+                if (node.isInScreenPosition(screenPosition)) {
+                    expectedNode = node;
+                    break;
+                }
+            }
+            TLink expectedLink = null;
+            for (TLink link : links) {
+                if (link.crossesScreenPosition(screenPosition)) {
+                    expectedLink = link;
+                    break;
+                }
+            }
+            assertSame(expectedNode, instance.getNodeInScreenPosition(screenPosition));
+            assertSame(expectedLink, instance.getLinkInScreenPosition(screenPosition));
+        }
+    }
+
+    /**
+     * Test of update method, of class TTopologySpatialIndex.
+     */
+    @Test
+    public void testUpdateWhenNodeMovesOutsideTheInitialBounds() {
+        System.out.println("Test update");
+        TTopologySpatialIndex instance = new TTopologySpatialIndex();
+        TNode headEndNode = createNode(1, 100, 100);
+        TNode tailEndNode = createNode(2, 300, 100);
+        TLink link = createLink(3, headEndNode, tailEndNode);
+        instance.addNode(headEndNode);
+        instance.addNode(tailEndNode);
+        instance.addLink(link);
+        assertSame(link, instance.getLinkInScreenPosition(new Point(200, 100)));
+        tailEndNode.setScreenPosition(new Point(10000, -5000));
+        instance.update(tailEndNode);
+        assertSame(tailEndNode, instance.getNodeInScreenPosition(new Point(10000, -5000)));
+        assertNull(instance.getNodeInScreenPosition(new Point(300, 100)));
+        assertNull(instance.getLinkInScreenPosition(new Point(200, 100)));
+        assertSame(link, instance.getLinkInScreenPosition(new Point(5050, -2450)));
+        assertSame(headEndNode, instance.getNodeInScreenPosition(new Point(100, 100)));
+    }
+
+    /**
+     * Test of remove method, of class TTopologySpatialIndex.
+     */
+    @Test
+    public void testRemove() {
+        System.out.println("Test remove");
+        TTopologySpatialIndex instance = new TTopologySpatialIndex();
+        TNode headEndNode = createNode(1, 100, 100);
+        TNode tailEndNode = createNode(2, 300, 100);
+        TLink link = createLink(3, headEndNode, tailEndNode);
+        instance.addNode(headEndNode);
+        instance.addNode(tailEndNode);
+        instance.addLink(link);
+        assertEquals(3, instance.size());
+        instance.remove(link);
+        assertNull(instance.getLinkInScreenPosition(new Point(200, 100)));
+        instance.remove(tailEndNode);
+        assertNull(instance.getNodeInScreenPosition(new Point(300, 100)));
+        assertEquals(1, instance.size());
+        // Removed elements are not indexed again when they change.
+        tailEndNode.setScreenPosition(new Point(100, 300));
+        instance.update(tailEndNode);
+        assertNull(instance.getNodeInScreenPosition(new Point(100, 300)));
+        instance.clear();
+        assertEquals(0, instance.size());
+        assertNull(instance.getNodeInScreenPosition(new Point(100, 100)));
+    }
+}
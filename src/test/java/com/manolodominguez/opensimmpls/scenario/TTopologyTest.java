@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario;
+
+import com.manolodominguez.opensimmpls.commons.TLongIDGenerator;
+import java.awt.Point;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TTopologyTest {
+
+    public TTopologyTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        this.topology = new TTopology(new TScenario());
+        this.node1 = new TLSRNode(1, "10.0.0.1", new TLongIDGenerator(), this.topology);
+        this.node2 = new TLSRNode(2, "10.0.0.2", new TLongIDGenerator(), this.topology);
+        this.node3 = new TLSRNode(3, "10.0.0.3", new TLongIDGenerator(), this.topology);
+        this.topology.addNode(this.node1);
+        this.topology.addNode(this.node2);
+        this.topology.addNode(this.node3);
+        this.link12 = this.joinNodes(4, this.node1, this.node2, 10);
+        this.link23 = this.joinNodes(5, this.node2, this.node3, 10);
+        this.link13 = this.joinNodes(6, this.node1, this.node3, 50);
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private TLink joinNodes(int linkID, TNode headEndNode, TNode tailEndNode, int delay) {
+        TInternalLink link = new TInternalLink(linkID, new TLongIDGenerator(), this.topology);
+        link.setHeadEndNode(headEndNode);
+        link.setTailEndNode(tailEndNode);
+        link.setDelay(delay);
+        this.topology.addLink(link);
+        return link;
+    }
+
+    /**
+     * Test of getFloydWarshallNextHopID method, of class TTopology.
+     */
+    @Test
+    public void testGetFloydWarshallNextHopID() {
+        System.out.println("Test getFloydWarshallNextHopID");
+        assertEquals(2, this.topology.getFloydWarshallNextHopID(1, 3));
+        assertEquals(2, this.topology.getFloydWarshallNextHopID(3, 1));
+        assertEquals(2, this.topology.getFloydWarshallNextHopID(1, 2));
+        assertEquals(TTopology.TARGET_UNREACHABLE, this.topology.getFloydWarshallNextHopID(1, 7));
+    }
+
+    /**
+     * Test of getFloydWarshallNextHopID method, of class TTopology.
+     */
+    @Test
+    public void testGetFloydWarshallNextHopIDWhenDelayChanges() {
+        System.out.println("Test getFloydWarshallNextHopID");
+        assertEquals(2, this.topology.getFloydWarshallNextHopID(1, 3));
+        this.link13.setDelay(5);
+        assertEquals(3, this.topology.getFloydWarshallNextHopID(1, 3));
+    }
+
+    /**
+     * Test of getFloydWarshallNextHopID method, of class TTopology.
+     */
+    @Test
+    public void testGetFloydWarshallNextHopIDWhenLinkIsBroken() {
+        System.out.println("Test getFloydWarshallNextHopID");
+        assertEquals(2, this.topology.getFloydWarshallNextHopID(1, 3));
+        this.link23.setAsBrokenLink(true);
+        assertEquals(3, this.topology.getFloydWarshallNextHopID(1, 3));
+        this.link13.setAsBrokenLink(true);
+        // There is no route, but both nodes are still joined by a link.
+        assertEquals(3, this.topology.getFloydWarshallNextHopID(1, 3));
+        this.link13.setAsBrokenLink(false);
+        this.link23.setAsBrokenLink(false);
+        assertEquals(2, this.topology.getFloydWarshallNextHopID(1, 3));
+    }
+
+    /**
+     * Test of getFloydWarshallNextHopID method, of class TTopology.
+     */
+    @Test
+    public void testGetFloydWarshallNextHopIDWhenLinkIsRemoved() {
+        System.out.println("Test getFloydWarshallNextHopID");
+        assertEquals(2, this.topology.getFloydWarshallNextHopID(1, 3));
+        this.topology.removeLink(this.link13);
+        this.topology.removeLink(this.link23);
+        assertEquals(TTopology.TARGET_UNREACHABLE, this.topology.getFloydWarshallNextHopID(1, 3));
+    }
+
+    /**
+     * Test of getFloydWarsallNextHopIPv4Address method, of class TTopology.
+     */
+    @Test
+    public void testGetFloydWarsallNextHopIPv4Address() {
+        System.out.println("Test getFloydWarsallNextHopIPv4Address");
+        assertEquals("10.0.0.2", this.topology.getFloydWarsallNextHopIPv4Address("10.0.0.1", "10.0.0.3"));
+        this.link12.setAsBrokenLink(true);
+        assertEquals("10.0.0.3", this.topology.getFloydWarsallNextHopIPv4Address("10.0.0.1", "10.0.0.3"));
+        assertEquals("10.0.0.3", this.topology.getFloydWarsallNextHopIPv4Address("10.0.0.1", "10.0.0.2"));
+    }
+
+    /**
+     * Test of getRABANNextHopID method, of class TTopology.
+     */
+    @Test
+    public void testGetRABANNextHopID() {
+        System.out.println("Test getRABANNextHopID");
+        this.link13.setAsBrokenLink(true);
+        assertEquals(2, this.topology.getRABANNextHopID(1, 3));
+    }
+
+    /**
+     * Test of getElementInScreenPosition method, of class TTopology.
+     */
+    @Test
+    public void testGetElementInScreenPosition() {
+        System.out.println("Test getElementInScreenPosition");
+        this.node1.setScreenPosition(new Point(100, 100));
+        this.node2.setScreenPosition(new Point(300, 100));
+        this.node3.setScreenPosition(new Point(300, 300));
+        assertSame(this.node1, this.topology.getElementInScreenPosition(new Point(110, 90)));
+        assertSame(this.link12, this.topology.getElementInScreenPosition(new Point(200, 102)));
+        assertNull(this.topology.getElementInScreenPosition(new Point(200, 110)));
+        // Links follow the nodes they are connected to.
+        this.node2.setScreenPosition(new Point(100, 300));
+        assertSame(this.node2, this.topology.getNodeInScreenPosition(new Point(100, 300)));
+        assertNull(this.topology.getElementInScreenPosition(new Point(200, 102)));
+        assertSame(this.link12, this.topology.getLinkInScreenPosition(new Point(101, 200)));
+        assertSame(this.link23, this.topology.getLinkInScreenPosition(new Point(200, 300)));
+        this.topology.removeLink(this.link23);
+        assertNull(this.topology.getLinkInScreenPosition(new Point(200, 300)));
+        this.topology.disconnectNodeAndRemove(this.node1);
+        assertNull(this.topology.getElementInScreenPosition(new Point(100, 100)));
+        assertNull(this.topology.getLinkInScreenPosition(new Point(101, 200)));
+        assertSame(this.node3, this.topology.getElementInScreenPosition(new Point(300, 300)));
+    }
+
+    /**
+     * Test of getScreenAppearanceVersion method, of class TTopology.
+     */
+    @Test
+    public void testGetScreenAppearanceVersionWhenElementsChange() {
+        System.out.println("Test getScreenAppearanceVersion");
+        long version = this.topology.getScreenAppearanceVersion();
+        TNode node4 = new TLSRNode(7, "10.0.0.4", new TLongIDGenerator(), this.topology);
+        this.topology.addNode(node4);
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        TLink link34 = this.joinNodes(8, this.node3, node4, 10);
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        node4.setScreenPosition(new Point(400, 400));
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        this.topology.removeLink(link34);
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        this.topology.disconnectNodeAndRemove(node4);
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+    }
+
+    /**
+     * Test of getScreenAppearanceVersion method, of class TTopology.
+     */
+    @Test
+    public void testGetScreenAppearanceVersionWhenElementsArePaintedDifferently() {
+        System.out.println("Test getScreenAppearanceVersion");
+        long version = this.topology.getScreenAppearanceVersion();
+        this.node1.setSelected(TNode.SELECTED);
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        this.node1.setName("Node 1");
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        this.link12.setShowName(true);
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        this.link12.setAsBrokenLink(true);
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        this.link12.setAsBrokenLink(false);
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        ((TInternalLink) this.link23).setAsUsedByALSP();
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        ((TInternalLink) this.link23).unlinkFromALSP();
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+        version = this.topology.getScreenAppearanceVersion();
+        ((TInternalLink) this.link23).setAsUsedByABackupLSP();
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+    }
+
+    /**
+     * Test of getScreenAppearanceVersion method, of class TTopology.
+     */
+    @Test
+    public void testGetScreenAppearanceVersionWhenNothingChanges() {
+        System.out.println("Test getScreenAppearanceVersion");
+        long version = this.topology.getScreenAppearanceVersion();
+        assertEquals(2, this.topology.getFloydWarshallNextHopID(1, 3));
+        assertNull(this.topology.getElementInScreenPosition(new Point(1000, 1000)));
+        assertEquals(version, this.topology.getScreenAppearanceVersion());
+        this.topology.invalidateScreenAppearance();
+        assertNotEquals(version, this.topology.getScreenAppearanceVersion());
+    }
+
+    private TTopology topology;
+    private TNode node1;
+    private TNode node2;
+    private TNode node3;
+    private TLink link12;
+    private TLink link23;
+    private TLink link13;
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.manolodominguez.opensimmpls.scenario.simulationevents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Manuel Domínguez Dorado - ingeniero@ManoloDominguez.com
+ */
+public class TSimulationEventBusTest {
+
+    public TSimulationEventBusTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private static TSimulationEvent createEvent(long eventID) {
+        return new TSimulationEventPacketReceived(TSimulationEventBusTest.class, eventID, eventID, 0, 1024);
+    }
+
+    /**
+     * Test of constructor of class TSimulationEventBus.
+     */
+    @Test
+    public void testConstructorWhenCapacityIsNotAPowerOfTwo() {
+        System.out.println("Test constructor");
+        assertThrows(IllegalArgumentException.class, () -> {
+            TSimulationEventBus instance = new TSimulationEventBus(100);
+        });
+    }
+
+    /**
+     * Test of subscribe method, of class TSimulationEventBus.
+     */
+    @Test
+    public void testSubscribeWhenListenerIsNull() {
+        System.out.println("Test subscribe");
+        TSimulationEventBus instance = new TSimulationEventBus();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.subscribe(null, TBackpressurePolicy.BLOCK);
+        });
+    }
+
+    /**
+     * Test of hasSubscribers method, of class TSimulationEventBus.
+     */
+    @Test
+    public void testHasSubscribers() {
+        System.out.println("Test hasSubscribers");
+        TSimulationEventBus instance = new TSimulationEventBus();
+        assertFalse(instance.hasSubscribers());
+        TSimulationEventSubscription subscription = instance.subscribe(simulationEvent -> {
+        }, TBackpressurePolicy.DROP);
+        assertTrue(instance.hasSubscribers());
+        instance.unsubscribe(subscription);
+        assertFalse(instance.hasSubscribers());
+    }
+
+    /**
+     * Test of isSubscribed method, of class TSimulationEventBus.
+     */
+    @Test
+    public void testIsSubscribed() {
+        System.out.println("Test isSubscribed");
+        TSimulationEventBus instance = new TSimulationEventBus();
+        assertFalse(instance.isSubscribed(TSimulationEvent.PACKET_ON_FLY));
+        TSimulationEventSubscription subscription = instance.subscribe(simulationEvent -> {
+        }, TBackpressurePolicy.BLOCK, TSimulationEventBus.getSubtypeMask(TSimulationEvent.PACKET_RECEIVED, TSimulationEvent.PACKET_ROUTED));
+        assertTrue(instance.isSubscribed(TSimulationEvent.PACKET_RECEIVED));
+        assertTrue(instance.isSubscribed(TSimulationEvent.PACKET_ROUTED));
+        assertFalse(instance.isSubscribed(TSimulationEvent.PACKET_ON_FLY));
+        TSimulationEventSubscription anotherSubscription = instance.subscribe(simulationEvent -> {
+        }, TBackpressurePolicy.DROP);
+        assertTrue(instance.isSubscribed(TSimulationEvent.PACKET_ON_FLY));
+        instance.unsubscribe(anotherSubscription);
+        assertFalse(instance.isSubscribed(TSimulationEvent.PACKET_ON_FLY));
+        assertTrue(instance.isSubscribed(TSimulationEvent.PACKET_RECEIVED));
+        instance.unsubscribe(subscription);
+        assertFalse(instance.isSubscribed(TSimulationEvent.PACKET_RECEIVED));
+    }
+
+    /**
+     * Test of subscribe method, of class TSimulationEventBus.
+     */
+    @Test
+    public void testSubscribeWhenSubtypeMaskIsEmpty() {
+        System.out.println("Test subscribe");
+        TSimulationEventBus instance = new TSimulationEventBus();
+        assertThrows(IllegalArgumentException.class, () -> {
+            instance.subscribe(simulationEvent -> {
+            }, TBackpressurePolicy.BLOCK, TSimulationEventBus.getSubtypeMask());
+        });
+    }
+
+    /**
+     * Test of publish method, of class TSimulationEventBus.
+     */
+    @Test
+    public void testPublishOnlyDeliversSubscribedSubtypes() {
+        System.out.println("Test publish");
+        TSimulationEventBus instance = new TSimulationEventBus(16);
+        List<Integer> receivedSubtypes = new ArrayList<>();
+        List<Integer> allSubtypes = new ArrayList<>();
+        instance.subscribe(simulationEvent -> receivedSubtypes.add(simulationEvent.getSubtype()), TBackpressurePolicy.BLOCK, TSimulationEventBus.getSubtypeMask(TSimulationEvent.PACKET_RECEIVED));
+        instance.subscribe(simulationEvent -> allSubtypes.add(simulationEvent.getSubtype()), TBackpressurePolicy.BLOCK);
+        for (long eventID = 0; eventID < 100; eventID++) {
+            instance.publish(createEvent(eventID));
+            instance.publish(new TSimulationEventPacketOnFly(TSimulationEventBusTest.class, eventID, eventID, 0, 50));
+        }
+        instance.flush();
+        assertEquals(100, receivedSubtypes.size());
+        assertTrue(receivedSubtypes.stream().allMatch(subtype -> subtype == TSimulationEvent.PACKET_RECEIVED));
+        assertEquals(200, allSubtypes.size());
+    }
+
+    /**
+     * Test of publish method, of class TSimulationEventBus.
+     */
+    @Test
+    public void testPublishToSeveralSubscribersInOrder() {
+        System.out.println("Test publish");
+        TSimulationEventBus instance = new TSimulationEventBus(16);
+        List<Long> firstListenerEvents = new ArrayList<>();
+        List<Long> secondListenerEvents = new ArrayList<>();
+        AtomicInteger numberOfBatches = new AtomicInteger();
+        instance.subscribe(simulationEvent -> firstListenerEvents.add(simulationEvent.getEventID()), TBackpressurePolicy.BLOCK);
+        instance.subscribe(new ISimulationEventBatchListener() {
+            @Override
+            public void captureSimulationEvents(TSimulationEvent simulationEvent) {
+                secondListenerEvents.add(simulationEvent.getEventID());
+            }
+
+            @Override
+            public void captureEndOfBatch() {
+                numberOfBatches.incrementAndGet();
+            }
+        }, TBackpressurePolicy.BLOCK);
+        // Many more events than the capacity of the bus.
+        for (long eventID = 0; eventID < 1000; eventID++) {
+            instance.publish(createEvent(eventID));
+        }
+        instance.flush();
+        assertEquals(1000, firstListenerEvents.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, firstListenerEvents.get(i));
+        }
+        assertEquals(firstListenerEvents, secondListenerEvents);
+        assertTrue(numberOfBatches.get() > 0);
+    }
+
+    /**
+     * Test of publish method, of class TSimulationEventBus.
+     */
+    @Test
+    public void testPublishConcurrentlyWithBlockPolicy() throws InterruptedException {
+        System.out.println("Test publish");
+        TSimulationEventBus instance = new TSimulationEventBus(64);
+        AtomicInteger receivedEvents = new AtomicInteger();
+        TSimulationEventSubscription subscription = instance.subscribe(simulationEvent -> receivedEvents.incrementAndGet(), TBackpressurePolicy.BLOCK);
+        Thread[] publishers = new Thread[4];
+        for (int i = 0; i < publishers.length; i++) {
+            publishers[i] = new Thread(() -> {
+                for (long eventID = 0; eventID < 10000; eventID++) {
+                    instance.publish(createEvent(eventID));
+                }
+            });
+            publishers[i].start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        instance.flush();
+        assertEquals(40000, receivedEvents.get());
+        assertEquals(40000, subscription.getNumberOfDeliveredEvents());
+        assertEquals(0, subscription.getNumberOfDroppedEvents());
+    }
+
+    /**
+     * Test of publish method, of class TSimulationEventBus.
+     */
+    @Test
+    public void testPublishDoesNotWaitForDropPolicy() throws InterruptedException {
+        System.out.println("Test publish");
+        TSimulationEventBus instance = new TSimulationEventBus(16);
+        CountDownLatch release = new CountDownLatch(1);
+        TSimulationEventSubscription subscription = instance.subscribe(simulationEvent -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, TBackpressurePolicy.DROP);
+        for (long eventID = 0; eventID < 1000; eventID++) {
+            instance.publish(createEvent(eventID));
+        }
+        release.countDown();
+        instance.flush();
+        assertTrue(subscription.getNumberOfDroppedEvents() > 0);
+        assertEquals(1000, subscription.getNumberOfDeliveredEvents() + subscription.getNumberOfDroppedEvents());
+    }
+
+    /**
+     * Test of discardPendingEvents method, of class TSimulationEventBus.
+     */
+    @Test
+    public void testDiscardPendingEvents() {
+        System.out.println("Test discardPendingEvents");
+        TSimulationEventBus instance = new TSimulationEventBus(16);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> receivedEvents = new ArrayList<>();
+        instance.subscribe(simulationEvent -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            receivedEvents.add(simulationEvent.getEventID());
+        }, TBackpressurePolicy.BLOCK);
+        for (long eventID = 0; eventID < 10; eventID++) {
+            instance.publish(createEvent(eventID));
+        }
+        instance.discardPendingEvents();
+        release.countDown();
+        instance.publish(createEvent(10));
+        instance.flush();
+        // Only the event being delivered when discarding and the new one.
+        assertTrue(receivedEvents.size() <= 2);
+        assertEquals(10, receivedEvents.get(receivedEvents.size() - 1));
+    }
+}